@@ -0,0 +1,233 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks for the Graph implementations.
+ *
+ * <p>Every benchmark runs against a graph of vertexCount vertices named
+ * "v0".."v{n-1}", each with EDGES_PER_VERTEX random outgoing edges.
+ * ConcreteEdgesGraph and ConcreteVerticesGraph take O(E) per operation, so
+ * building them above about 1e4 vertices takes a very long time, and the
+ * default sizes stop there. Larger sizes should be restricted to the other
+ * implementations, for example with
+ * {@code -p implementation=adjacency -p vertexCount=100000,1000000}.
+ *
+ * <p>Benchmarks that change the graph pick their operand, and undo their
+ * change, in invocation-level fixtures of their own state, so that every
+ * invocation sees the graph as built and only the operation itself is timed.
+ * Like every invocation-level fixture, these add some noise to operations
+ * that take only tens of nanoseconds.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphBenchmark {
+
+    private static final int EDGES_PER_VERTEX = 4;
+
+    @Param({"adjacency", "vertices", "edges"})
+    public String implementation;
+
+    @Param({"100", "1000", "10000"})
+    public int vertexCount;
+
+    private Graph<String> graph;
+    private String[] labels;
+    private String[] edgeSources;
+    private String[] edgeTargets;
+    private Random random;
+
+    /**
+     * Builds the graph under test.
+     */
+    @Setup(Level.Trial)
+    public void buildGraph() {
+        System.setProperty("graph.implementation", implementation);
+        graph = Graph.empty();
+        labels = new String[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            labels[i] = "v" + i;
+            graph.add(labels[i]);
+        }
+        edgeSources = new String[vertexCount * EDGES_PER_VERTEX];
+        edgeTargets = new String[edgeSources.length];
+        final Random edges = new Random(6031);
+        for (int i = 0; i < vertexCount; i++) {
+            for (int j = 0; j < EDGES_PER_VERTEX; j++) {
+                final int edge = i * EDGES_PER_VERTEX + j;
+                edgeSources[edge] = labels[i];
+                edgeTargets[edge] = labels[edges.nextInt(vertexCount)];
+                graph.set(edgeSources[edge], edgeTargets[edge], 1 + edges.nextInt(10));
+            }
+        }
+        random = new Random(6005);
+    }
+
+    /**
+     * @return a random existing vertex label
+     */
+    private String randomLabel() {
+        return labels[random.nextInt(vertexCount)];
+    }
+
+    /**
+     * A vertex that is not in the graph, removed again after each invocation.
+     */
+    @State(Scope.Thread)
+    public static class NewVertex {
+
+        private int next = 0;
+        String vertex;
+
+        @Setup(Level.Invocation)
+        public void pick() {
+            vertex = "new" + next++;
+        }
+
+        @TearDown(Level.Invocation)
+        public void undo(GraphBenchmark benchmark) {
+            benchmark.graph.remove(vertex);
+        }
+    }
+
+    /**
+     * A random pair of vertices, whose edge weight is restored after each invocation.
+     */
+    @State(Scope.Thread)
+    public static class EdgeSlot {
+
+        String source;
+        String target;
+        int weight;
+
+        @Setup(Level.Invocation)
+        public void pick(GraphBenchmark benchmark) {
+            source = benchmark.randomLabel();
+            target = benchmark.randomLabel();
+            weight = benchmark.graph.targets(source).getOrDefault(target, 0);
+        }
+
+        @TearDown(Level.Invocation)
+        public void undo(GraphBenchmark benchmark) {
+            benchmark.graph.set(source, target, weight);
+        }
+    }
+
+    /**
+     * A random edge of the graph, put back after each invocation.
+     */
+    @State(Scope.Thread)
+    public static class ExistingEdge {
+
+        String source;
+        String target;
+        int weight;
+
+        @Setup(Level.Invocation)
+        public void pick(GraphBenchmark benchmark) {
+            final int edge = benchmark.random.nextInt(benchmark.edgeSources.length);
+            source = benchmark.edgeSources[edge];
+            target = benchmark.edgeTargets[edge];
+            weight = benchmark.graph.targets(source).get(target);
+        }
+
+        @TearDown(Level.Invocation)
+        public void undo(GraphBenchmark benchmark) {
+            benchmark.graph.set(source, target, weight);
+        }
+    }
+
+    /**
+     * A random vertex, put back with all of its edges after each invocation.
+     */
+    @State(Scope.Thread)
+    public static class ExistingVertex {
+
+        String vertex;
+        Map<String, Integer> targets;
+        Map<String, Integer> sources;
+
+        @Setup(Level.Invocation)
+        public void pick(GraphBenchmark benchmark) {
+            vertex = benchmark.randomLabel();
+            targets = Map.copyOf(benchmark.graph.targets(vertex));
+            sources = Map.copyOf(benchmark.graph.sources(vertex));
+        }
+
+        @TearDown(Level.Invocation)
+        public void undo(GraphBenchmark benchmark) {
+            final Graph<String> graph = benchmark.graph;
+            graph.add(vertex);
+            targets.forEach((target, weight) -> graph.set(vertex, target, weight));
+            sources.forEach((source, weight) -> graph.set(source, vertex, weight));
+        }
+    }
+
+    @Benchmark
+    public boolean addNewVertex(NewVertex change) {
+        return graph.add(change.vertex);
+    }
+
+    @Benchmark
+    public boolean addExistingVertex() {
+        return graph.add(randomLabel());
+    }
+
+    @Benchmark
+    public int setEdge(EdgeSlot change) {
+        return graph.set(change.source, change.target, change.weight + 1);
+    }
+
+    @Benchmark
+    public int removeEdge(ExistingEdge change) {
+        return graph.set(change.source, change.target, 0);
+    }
+
+    @Benchmark
+    public boolean removeVertex(ExistingVertex change) {
+        return graph.remove(change.vertex);
+    }
+
+    @Benchmark
+    public void targets(Blackhole blackhole) {
+        for (Map.Entry<String, Integer> edge : graph.targets(randomLabel()).entrySet()) {
+            blackhole.consume(edge);
+        }
+    }
+
+    @Benchmark
+    public void sources(Blackhole blackhole) {
+        for (Map.Entry<String, Integer> edge : graph.sources(randomLabel()).entrySet()) {
+            blackhole.consume(edge);
+        }
+    }
+
+    @Benchmark
+    public int vertices() {
+        return graph.vertices().size();
+    }
+}
@@ -0,0 +1,133 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import graph.Graph;
+
+/**
+ * JMH benchmarks for corpus ingestion and poem generation.
+ *
+ * <p>The corpus is src/poet/mugar-omni-theater.txt repeated scale times, so
+ * the benchmarks must be run from the ps2 directory. Ingestion is measured
+ * per corpus, poem generation per poem, and batch poem generation per
+ * batch of LINES inputs.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphPoetBenchmark {
+
+    private static final File BASE_CORPUS = new File("src/poet/mugar-omni-theater.txt");
+    private static final String INPUT = "This is a test of the theater sound system. "
+            + "Test the system. The Mugar Omni Theater has a sound system and a test of it.";
+
+    @Param({"1", "64", "4096"})
+    public int scale;
+
+    /** Lines written per invocation of the poems benchmark. */
+    private static final int LINES = 10000;
+
+    private String corpus;
+    private File corpusFile;
+    private GraphPoet poet;
+    private GraphPoet indexedPoet;
+    private List<String> lines;
+    private StringBuilder written;
+
+    /**
+     * Builds the scaled corpus, in memory and on disk, and the poets under test.
+     * @throws IOException if the base corpus cannot be read or the copy written
+     */
+    @Setup(Level.Trial)
+    public void buildCorpus() throws IOException {
+        final String base = new String(Files.readAllBytes(BASE_CORPUS.toPath()), StandardCharsets.UTF_8);
+        final StringBuilder scaled = new StringBuilder(base.length() * scale + scale);
+        for (int i = 0; i < scale; i++) {
+            scaled.append(base).append('\n');
+        }
+        corpus = scaled.toString();
+        corpusFile = File.createTempFile("corpus", ".txt");
+        Files.write(corpusFile.toPath(), corpus.getBytes(StandardCharsets.UTF_8));
+        poet = new GraphPoet(corpus);
+        indexedPoet = poet.indexed(64, true);
+        lines = Collections.nCopies(LINES, INPUT);
+        written = new StringBuilder();
+    }
+
+    /**
+     * Deletes the on-disk copy of the corpus.
+     */
+    @TearDown(Level.Trial)
+    public void deleteCorpus() {
+        corpusFile.delete();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public GraphPoet ingestString() {
+        return new GraphPoet(corpus);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public GraphPoet ingestMappedFile() throws IOException {
+        return new GraphPoet(corpusFile);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Graph<String> ingestParallel() {
+        return ParallelCorpusBuilder.build(corpus, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public String poem() {
+        return poet.poem(INPUT);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public String indexedPoem() {
+        return indexedPoet.poem(INPUT);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int poems() throws IOException {
+        written.setLength(0);
+        poet.poems(lines, written);
+        return written.length();
+    }
+}
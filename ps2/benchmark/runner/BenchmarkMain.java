@@ -0,0 +1,50 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package runner;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the ps2 JMH benchmarks and writes their results as JSON, so that runs
+ * against different Graph implementations or commits can be diffed.
+ *
+ * <p>The benchmarks live in their own source root, ps2/benchmark, and need JMH
+ * 1.37, which is not part of this tree: the jars jmh-core,
+ * jmh-generator-annprocess, jopt-simple 5.0.4 and commons-math3 3.6.1, all
+ * available from Maven Central. With JMH set to a classpath of those jars,
+ * compile and run them from the ps2 directory:
+ * <pre>
+ *    javac -cp "$JMH" -processorpath "$JMH" -d bin-benchmark $(find src benchmark -name '*.java')
+ *    java -cp "bin-benchmark:$JMH" runner.BenchmarkMain [jmh options]
+ * </pre>
+ * The annotation processor generates the benchmark harness and the
+ * META-INF/BenchmarkList that JMH reads, so it must run as part of that javac.
+ * Any standard JMH command-line option is accepted, for example
+ * {@code GraphBenchmark -p implementation=adjacency}. Results go to
+ * jmh-result.json unless {@code -rff} names another file.
+ */
+public class BenchmarkMain {
+
+    /**
+     * Run the benchmarks.
+     * @param args JMH command-line options
+     * @throws CommandLineOptionException if args are not valid JMH options
+     * @throws RunnerException if a benchmark fails
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        final CommandLineOptions commandLine = new CommandLineOptions(args);
+        final Options options = new OptionsBuilder()
+                .parent(commandLine)
+                .resultFormat(commandLine.getResultFormat().orElse(ResultFormatType.JSON))
+                .result(commandLine.getResult().orElse("jmh-result.json"))
+                .build();
+        new Runner(options).run();
+    }
+}
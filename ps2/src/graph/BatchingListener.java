@@ -0,0 +1,152 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A thread-safe GraphListener that buffers events and hands them on in
+ * batches, so that a derived structure can update once per batch instead of
+ * once per change.
+ *
+ * <p>Within a batch, successive EdgeSet events on one edge are coalesced into a
+ * single event from the first old weight to the last new weight, or dropped
+ * if the edge ends up with the weight it started with; a VertexRemoved event
+ * ends coalescing for every edge, so that applying the batch in order still
+ * gives the same graph. A batch is delivered when maxBatch events are
+ * pending, or when flush() is called. Batches are delivered in order, on the
+ * thread that filled or flushed them.
+ *
+ * @param <L> type of vertex labels in the graph, must be immutable
+ */
+public class BatchingListener<L> implements GraphListener<L> {
+
+    private final int maxBatch;
+    private final Consumer<? super List<GraphEvent<L>>> sink;
+    private final List<GraphEvent<L>> pending = new ArrayList<>();
+    private final Map<L, Map<L, Integer>> edgePositions = new HashMap<>();
+    private int cancelled = 0;
+
+    // Abstraction function:
+    //      AF(maxBatch, sink, pending) = a listener that will deliver the non-null
+    //                                    events of pending to sink, in order, as
+    //                                    the next batch
+    // Representation invariant:
+    //      maxBatch > 0, 0 <= pending.size() < maxBatch between calls
+    //      cancelled is the number of null elements of pending.
+    //      edgePositions.get(s).get(t) = i only if pending.get(i) is null or an
+    //      EdgeSet of the edge s -> t, and no VertexRemoved follows position i.
+    // Safety from rep exposure:
+    //      All fields are private and final, except cancelled, which is an int.
+    //      Delivered batches are new unmodifiable lists of immutable events.
+    // Thread safety argument:
+    //      Every method that touches pending, edgePositions or cancelled is
+    //      synchronized on this. sink is called while holding the lock, which
+    //      keeps the batches in order.
+
+    /**
+     * Make a listener with no pending events.
+     * @param maxBatch positive number of pending events at which a batch is delivered
+     * @param sink receives each batch: an unmodifiable, non-empty list of events
+     *             that has the same effect as the events it replaces, in order
+     * @throws IllegalArgumentException if maxBatch is not positive
+     */
+    public BatchingListener(int maxBatch, Consumer<? super List<GraphEvent<L>>> sink) {
+        if (maxBatch <= 0){
+            throw new IllegalArgumentException("maxBatch must be positive");
+        }
+        this.maxBatch = maxBatch;
+        this.sink = Objects.requireNonNull(sink, "sink");
+    }
+
+    /**
+     * Checks that the rep invariant holds.
+     */
+    private void checkRep(){
+        assert maxBatch > 0;
+        assert 0 <= cancelled && cancelled <= pending.size() && pending.size() < maxBatch;
+    }
+
+    @Override
+    public synchronized void graphChanged(GraphEvent<L> event){
+        if (event instanceof GraphEvent.EdgeSet){
+            final GraphEvent.EdgeSet<L> edgeSet = (GraphEvent.EdgeSet<L>) event;
+            final Map<L, Integer> positions = edgePositions.computeIfAbsent(edgeSet.source(), source -> new HashMap<>());
+            final Integer position = positions.get(edgeSet.target());
+            if (position != null){
+                coalesce(position, edgeSet);
+                checkRep();
+                return;
+            }
+            positions.put(edgeSet.target(), pending.size());
+        } else if (event instanceof GraphEvent.VertexRemoved){
+            edgePositions.clear();
+        }
+        pending.add(event);
+        if (pending.size() >= maxBatch){
+            flush();
+        }
+        checkRep();
+    }
+
+    /**
+     * Merge an EdgeSet into the pending event of the same edge.
+     * @param position position in pending of the earlier event of the edge
+     * @param edgeSet the later event
+     */
+    private void coalesce(int position, GraphEvent.EdgeSet<L> edgeSet){
+        final GraphEvent<L> earlier = pending.get(position);
+        // a cancelled slot means the edge is back at the weight edgeSet starts from
+        final int oldWeight = earlier == null ? edgeSet.oldWeight() : ((GraphEvent.EdgeSet<L>) earlier).oldWeight();
+        final GraphEvent<L> merged = oldWeight == edgeSet.newWeight()
+                ? null
+                : new GraphEvent.EdgeSet<>(edgeSet.source(), edgeSet.target(), oldWeight, edgeSet.newWeight());
+        if (earlier != null && merged == null){
+            cancelled++;
+        } else if (earlier == null && merged != null){
+            cancelled--;
+        }
+        pending.set(position, merged);
+    }
+
+    /**
+     * @return number of events that the next batch would hold if it were delivered now
+     */
+    public synchronized int pending(){
+        return pending.size() - cancelled;
+    }
+
+    /**
+     * Deliver the pending events now, unless they all cancelled out.
+     */
+    public synchronized void flush(){
+        final List<GraphEvent<L>> batch = new ArrayList<>(pending.size() - cancelled);
+        for (GraphEvent<L> event : pending){
+            if (event != null){
+                batch.add(event);
+            }
+        }
+        pending.clear();
+        edgePositions.clear();
+        cancelled = 0;
+        if (!batch.isEmpty()){
+            sink.accept(Collections.unmodifiableList(batch));
+        }
+    }
+
+    /**
+     * Returns a string with the number of pending events.
+     * @return string describing this listener
+     */
+    @Override
+    public synchronized String toString(){
+        return "BatchingListener with " + pending() + " pending events";
+    }
+}
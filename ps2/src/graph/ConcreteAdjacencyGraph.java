@@ -0,0 +1,209 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An implementation of Graph that indexes every edge from both of its ends.
+ *
+ * <p>set() is amortized O(1), sources() and targets() are O(degree) of their
+ * vertex, and remove() is O(degree) of the removed vertex. Like the other
+ * implementations, vertices(), sources() and targets() return new mutable
+ * collections, which clients may change, and which are unaffected by later
+ * changes to this graph. vertices() lists the vertices in the order they were
+ * first added.
+ *
+ */
+public class ConcreteAdjacencyGraph<L> implements Graph<L>, DirectAdjacency<L> {
+
+    private final Map<L, Map<L, Integer>> outgoing = new LinkedHashMap<>();
+    private final Map<L, Map<L, Integer>> incoming = new LinkedHashMap<>();
+
+    // Abstraction function:
+    //      AF(outgoing, incoming) = a directed weighted graph whose vertices are
+    //                               the keys of outgoing, with an edge from s to t
+    //                               of weight w for every outgoing.get(s).get(t) = w
+    // Representation invariant:
+    //      outgoing and incoming have the same key set.
+    //      outgoing.get(s).get(t) = w if and only if incoming.get(t).get(s) = w.
+    //      Every weight is positive.
+    // Safety from rep exposure:
+    //      All fields are private and final.
+    //      outgoing, incoming and their inner maps are mutable, so vertices(),
+    //      sources() and targets() return copies of them, never the maps.
+
+    // Each mutator checks only the part of the rep it changed, so that add() and
+    // set() stay O(1) and remove() stays O(degree), instead of O(V+E).
+
+    /**
+     * Checks that the rep invariant holds around one vertex, by walking every
+     * edge touching it.
+     * @param vertex label of the vertex whose edges are checked
+     */
+    private void checkRep(L vertex){
+        assert outgoing.size() == incoming.size();
+        Map<L, Integer> targets = outgoing.get(vertex);
+        Map<L, Integer> sources = incoming.get(vertex);
+        assert (targets == null) == (sources == null);
+        if (targets == null){
+            return;
+        }
+        for (Map.Entry<L, Integer> edge : targets.entrySet()){
+            assert edge.getValue() > 0;
+            assert edge.getValue().equals(incoming.get(edge.getKey()).get(vertex));
+        }
+        for (Map.Entry<L, Integer> edge : sources.entrySet()){
+            assert edge.getValue() > 0;
+            assert edge.getValue().equals(outgoing.get(edge.getKey()).get(vertex));
+        }
+    }
+
+    /**
+     * Checks that the rep invariant holds after vertex was removed: it is gone
+     * from both maps, and none of its former neighbours still has an edge to or
+     * from it.
+     * @param vertex label of the removed vertex
+     * @param formerTargets vertices that vertex had an edge to
+     * @param formerSources vertices that had an edge to vertex
+     */
+    private void checkRemoved(L vertex, Set<L> formerTargets, Set<L> formerSources){
+        assert outgoing.size() == incoming.size();
+        assert !outgoing.containsKey(vertex) && !incoming.containsKey(vertex);
+        for (L target : formerTargets){
+            Map<L, Integer> targetSources = incoming.get(target);
+            assert targetSources == null || !targetSources.containsKey(vertex);
+        }
+        for (L source : formerSources){
+            Map<L, Integer> sourceTargets = outgoing.get(source);
+            assert sourceTargets == null || !sourceTargets.containsKey(vertex);
+        }
+    }
+
+    /**
+     * Checks that the rep invariant holds for the one edge slot from source to
+     * target. set() changes nothing else (the vertices it may add are checked
+     * by add()), so this check is enough for it.
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     */
+    private void checkEdge(L source, L target){
+        assert outgoing.size() == incoming.size();
+        Map<L, Integer> targets = outgoing.get(source);
+        Map<L, Integer> sources = incoming.get(target);
+        Integer weight = targets == null ? null : targets.get(target);
+        assert weight == null || weight > 0;
+        assert weight == null ? sources == null || !sources.containsKey(source)
+                              : weight.equals(sources.get(source));
+    }
+
+    @Override
+    public boolean add(L vertex) {
+        if (outgoing.containsKey(vertex)){
+            return false;
+        }
+        outgoing.put(vertex, new HashMap<>());
+        incoming.put(vertex, new HashMap<>());
+        checkRep(vertex);
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws IllegalArgumentException if weight is negative
+     */
+    @Override
+    public int set(L source, L target, int weight) {
+        if (weight < 0){
+            throw new IllegalArgumentException("weight must be nonnegative: " + weight);
+        }
+        final Integer oldWeight;
+        if (weight == 0){
+            Map<L, Integer> targets = outgoing.get(source);
+            if (targets == null || !targets.containsKey(target)){
+                return 0;
+            }
+            oldWeight = targets.remove(target);
+            incoming.get(target).remove(source);
+        } else {
+            add(source);
+            add(target);
+            oldWeight = outgoing.get(source).put(target, weight);
+            incoming.get(target).put(source, weight);
+        }
+        checkEdge(source, target);
+        return oldWeight == null ? 0 : oldWeight;
+    }
+
+    @Override
+    public boolean remove(L vertex) {
+        Map<L, Integer> targets = outgoing.remove(vertex);
+        if (targets == null){
+            return false;
+        }
+        Map<L, Integer> sources = incoming.remove(vertex);
+        //only the neighbours of vertex need to forget about it
+        for (L target : targets.keySet()){
+            Map<L, Integer> targetSources = incoming.get(target);
+            if (targetSources != null){
+                targetSources.remove(vertex);
+            }
+        }
+        for (L source : sources.keySet()){
+            Map<L, Integer> sourceTargets = outgoing.get(source);
+            if (sourceTargets != null){
+                sourceTargets.remove(vertex);
+            }
+        }
+        checkRemoved(vertex, targets.keySet(), sources.keySet());
+        return true;
+    }
+
+    @Override
+    public Set<L> vertices() {
+        return new LinkedHashSet<>(outgoing.keySet());
+    }
+
+    @Override
+    public Map<L, Integer> sources(L target) {
+        Map<L, Integer> sources = incoming.get(target);
+        if (sources == null){
+            return new HashMap<>();
+        }
+        return new HashMap<>(sources);
+    }
+
+    @Override
+    public Map<L, Integer> targets(L source) {
+        Map<L, Integer> targets = outgoing.get(source);
+        if (targets == null){
+            return new HashMap<>();
+        }
+        return new HashMap<>(targets);
+    }
+
+    @Override
+    public void forEachEdge(EdgeVisitor<? super L> visitor) {
+        for (Map.Entry<L, Map<L, Integer>> targets : outgoing.entrySet()){
+            final L source = targets.getKey();
+            for (Map.Entry<L, Integer> target : targets.getValue().entrySet()){
+                visitor.visit(source, target.getKey(), target.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns a string with information about what vertices this graph contains.
+     * @return string that prints all of the vertices in this graph.
+     */
+    @Override
+    public String toString(){
+        return "Graph with vertices:" + outgoing.keySet().toString();
+    }
+
+}
@@ -16,7 +16,7 @@ import java.util.Set;
  * An implementation of Graph. 
  * 
  */
-public class ConcreteEdgesGraph<L> implements Graph<L> {
+public class ConcreteEdgesGraph<L> implements Graph<L>, DirectAdjacency<L> {
     
     private final Set<L> vertices = new HashSet<>();
     private final List<Edge<L>> edges = new ArrayList<>();
@@ -37,9 +37,12 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
     // 
     
     /**
-     * Checks that rep invariant holds.
+     * Checks that rep invariant holds, as often as RepCheck allows.
      */
     private void checkRep(){
+        if (!RepCheck.due()){
+            return;
+        }
         for (Edge<L> edge : edges){
             L begin = edge.getBeginVertex();
             L end = edge.getEndVertex();
@@ -152,6 +155,13 @@ public class ConcreteEdgesGraph<L> implements Graph<L> {
         return Collections.unmodifiableMap(targets);
     }
     
+    @Override
+    public void forEachEdge(EdgeVisitor<? super L> visitor) {
+        for (Edge<L> edge : edges){
+            visitor.visit(edge.getBeginVertex(), edge.getEndVertex(), edge.getWeight());
+        }
+    }
+    
     /**
      * Returns a string with information about what vertices this graph contains.
      * @return string that prints all of the vertices in vertices.
@@ -15,7 +15,7 @@ import java.util.Set;
  * An implementation of Graph.
  * 
  */
-public class ConcreteVerticesGraph<L> implements Graph<L> {
+public class ConcreteVerticesGraph<L> implements Graph<L>, DirectAdjacency<L> {
     
     private final List<Vertex<L>> vertices = new ArrayList<>();
     
@@ -29,9 +29,12 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
     //    to avoid sharing with clients.
  
     /**
-     * Checks that the rep invariant holds.
+     * Checks that the rep invariant holds, as often as RepCheck allows.
      */
     private void checkRep(){
+        if (!RepCheck.due()){
+            return;
+        }
         //make sure that all vertices are different in vertices
         Set<Vertex<L>> verticesSet = new HashSet<>();
         for (Vertex<L> vertex : vertices){
@@ -135,6 +138,16 @@ public class ConcreteVerticesGraph<L> implements Graph<L> {
         }
         return new HashMap<L, Integer>();
     }
+    
+    @Override
+    public void forEachEdge(EdgeVisitor<? super L> visitor) {
+        for (Vertex<L> vertex : vertices){
+            L vertexName = vertex.getName();
+            for (Map.Entry<L, Integer> target : vertex.getTargets().entrySet()){
+                visitor.visit(vertexName, target.getKey(), target.getValue());
+            }
+        }
+    }
    
     /**
      * Returns a string with vertex labels of the graph.
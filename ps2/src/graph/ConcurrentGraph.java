@@ -0,0 +1,307 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A thread-safe implementation of Graph, which many threads can mutate at once.
+ *
+ * <p>Edges are changed by an atomic compute on the edge's slot, so concurrent
+ * set() and increment() calls only contend when they touch the same edge.
+ * Removing a vertex excludes, through one of a fixed number of lock stripes,
+ * only the calls that touch a vertex hashed to the same stripe.
+ *
+ * <p>sources(), targets() and vertices() return unmodifiable live views that,
+ * like the views of ConcurrentHashMap, are weakly consistent: they can be
+ * iterated while the graph changes, and reflect some of those changes.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class ConcurrentGraph<L> implements Graph<L>, DirectAdjacency<L> {
+
+    /** Number of lock stripes; a power of two. */
+    private static final int STRIPES = 64;
+
+    private final ConcurrentHashMap<L, ConcurrentHashMap<L, Integer>> outgoing = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<L, ConcurrentHashMap<L, Integer>> incoming = new ConcurrentHashMap<>();
+    private final ReadWriteLock[] stripes = new ReadWriteLock[STRIPES];
+
+    // Abstraction function:
+    //      AF(outgoing, incoming) = a directed weighted graph whose vertices are
+    //                               the keys of outgoing, with an edge from s to t
+    //                               of weight w for every outgoing.get(s).get(t) = w
+    // Representation invariant, whenever no mutator is running:
+    //      outgoing and incoming have the same key set.
+    //      outgoing.get(s).get(t) = w if and only if incoming.get(t).get(s) = w.
+    //      Every weight is positive.
+    // Safety from rep exposure:
+    //      All fields are private and final.
+    //      vertices(), sources() and targets() return unmodifiable views, so
+    //      clients cannot use them to change the rep.
+    // Thread safety argument:
+    //      outgoing, incoming and their rows are ConcurrentHashMaps.
+    //      An edge s -> t only changes inside outgoing.get(s).compute(t, ...), which
+    //      also updates incoming.get(t) before releasing the slot; every thread
+    //      takes those two slots in that order, so edge updates cannot deadlock.
+    //      Every mutator holds the stripe lock of each vertex it touches: add(),
+    //      set() and increment() in read mode, so they run concurrently, and
+    //      remove() in write mode, so no edge to or from a vertex being removed
+    //      can be created at the same time. Stripes are always locked in
+    //      increasing index order, so stripe locks cannot deadlock either.
+
+    /**
+     * Make an empty graph.
+     */
+    public ConcurrentGraph() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    /**
+     * Checks the parts of the rep invariant about the edge slot from source to
+     * target that other threads cannot be changing at the same time.
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     */
+    private void checkRep(L source, L target) {
+        Map<L, Integer> targets = outgoing.get(source);
+        Integer weight = targets == null ? null : targets.get(target);
+        assert weight == null || weight > 0;
+    }
+
+    /**
+     * @param vertex a vertex label
+     * @return index of the lock stripe of vertex
+     */
+    private static int stripe(Object vertex) {
+        final int hash = vertex.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * Lock the stripes of two vertices for reading, in increasing index order.
+     * @return the locks taken, to be released with unlock()
+     */
+    private Lock[] lockForEdge(L source, L target) {
+        final int first = Math.min(stripe(source), stripe(target));
+        final int second = Math.max(stripe(source), stripe(target));
+        final Lock firstLock = stripes[first].readLock();
+        firstLock.lock();
+        if (first == second) {
+            return new Lock[] { firstLock };
+        }
+        final Lock secondLock = stripes[second].readLock();
+        secondLock.lock();
+        return new Lock[] { secondLock, firstLock };
+    }
+
+    /**
+     * Release locks taken by lockForEdge(), in the given order.
+     */
+    private static void unlock(Lock[] locks) {
+        for (Lock lock : locks) {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Add vertex if it is missing. The caller must hold its stripe lock.
+     * @return true if vertex was added
+     */
+    private boolean addLocked(L vertex) {
+        if (outgoing.containsKey(vertex)) {
+            return false;
+        }
+        // make the incoming row first, so that a visible vertex always has both rows
+        incoming.putIfAbsent(vertex, new ConcurrentHashMap<>());
+        return outgoing.putIfAbsent(vertex, new ConcurrentHashMap<>()) == null;
+    }
+
+    @Override
+    public boolean add(L vertex) {
+        final Lock lock = stripes[stripe(vertex)].readLock();
+        lock.lock();
+        try {
+            final boolean added = addLocked(vertex);
+            checkRep(vertex, vertex);
+            return added;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int set(L source, L target, int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("weight must be nonnegative");
+        }
+        final Lock[] locks = lockForEdge(source, target);
+        try {
+            if (weight > 0) {
+                addLocked(source);
+                addLocked(target);
+            }
+            final int oldWeight = update(source, target, old -> weight);
+            checkRep(source, target);
+            return oldWeight;
+        } finally {
+            unlock(locks);
+        }
+    }
+
+    /**
+     * Atomically add delta to the weight of the edge from source to target.
+     * A missing edge has weight 0; if the new weight is positive, source and
+     * target are added as vertices if needed, and if it is 0 the edge is removed.
+     * 
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @param delta amount to add to the weight of the edge
+     * @return the new weight of the edge
+     * @throws IllegalArgumentException if the new weight would be negative
+     * @throws ArithmeticException if the new weight would overflow an int
+     */
+    public int increment(L source, L target, int delta) {
+        final Lock[] locks = lockForEdge(source, target);
+        try {
+            if (delta > 0) {
+                addLocked(source);
+                addLocked(target);
+            }
+            final int[] newWeight = { 0 };
+            update(source, target, old -> {
+                final int sum = Math.addExact(old, delta);
+                if (sum < 0) {
+                    throw new IllegalArgumentException("weight would become negative");
+                }
+                newWeight[0] = sum;
+                return sum;
+            });
+            checkRep(source, target);
+            return newWeight[0];
+        } finally {
+            unlock(locks);
+        }
+    }
+
+    /**
+     * Function from the old weight of an edge (0 if missing) to its new weight.
+     */
+    @FunctionalInterface
+    private interface WeightUpdate {
+        int apply(int oldWeight);
+    }
+
+    /**
+     * Atomically change the edge from source to target. If source is not a
+     * vertex, the edge is missing and stays missing, but update is still
+     * applied to its weight of 0, so that it can reject the change. The caller
+     * must hold the stripe locks of source and target.
+     * @param update computes the new nonnegative weight from the old one, and
+     *               must return 0 for a missing edge whose source is not a vertex
+     * @return the old weight of the edge, or 0 if it was missing
+     */
+    private int update(L source, L target, WeightUpdate update) {
+        final ConcurrentHashMap<L, Integer> targets = outgoing.get(source);
+        if (targets == null) {
+            final int weight = update.apply(0);
+            assert weight == 0 : "callers add source before giving it an edge";
+            return 0;
+        }
+        final int[] oldWeight = { 0 };
+        targets.compute(target, (key, old) -> {
+            oldWeight[0] = old == null ? 0 : old;
+            final int weight = update.apply(oldWeight[0]);
+            if (weight == 0) {
+                if (old != null) {
+                    incoming.get(target).remove(source);
+                }
+                return null;
+            }
+            incoming.get(target).put(source, weight);
+            return weight;
+        });
+        return oldWeight[0];
+    }
+
+    @Override
+    public boolean remove(L vertex) {
+        final Lock lock = stripes[stripe(vertex)].writeLock();
+        lock.lock();
+        try {
+            final Map<L, Integer> targets = outgoing.remove(vertex);
+            if (targets == null) {
+                return false;
+            }
+            final Map<L, Integer> sources = incoming.remove(vertex);
+            // only the neighbours of vertex need to forget about it
+            for (L target : targets.keySet()) {
+                final Map<L, Integer> targetSources = incoming.get(target);
+                if (targetSources != null) {
+                    targetSources.remove(vertex);
+                }
+            }
+            for (L source : sources.keySet()) {
+                final Map<L, Integer> sourceTargets = outgoing.get(source);
+                if (sourceTargets != null) {
+                    sourceTargets.remove(vertex);
+                }
+            }
+            checkRep(vertex, vertex);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Set<L> vertices() {
+        return Collections.unmodifiableSet(outgoing.keySet());
+    }
+
+    @Override
+    public Map<L, Integer> sources(L target) {
+        final Map<L, Integer> sources = incoming.get(target);
+        if (sources == null) {
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap(sources);
+    }
+
+    @Override
+    public Map<L, Integer> targets(L source) {
+        final Map<L, Integer> targets = outgoing.get(source);
+        if (targets == null) {
+            return Collections.emptyMap();
+        }
+        return Collections.unmodifiableMap(targets);
+    }
+
+    @Override
+    public void forEachEdge(EdgeVisitor<? super L> visitor) {
+        for (Map.Entry<L, ConcurrentHashMap<L, Integer>> targets : outgoing.entrySet()) {
+            final L source = targets.getKey();
+            for (Map.Entry<L, Integer> target : targets.getValue().entrySet()) {
+                visitor.visit(source, target.getKey(), target.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns a string with information about what vertices this graph contains.
+     * @return string that prints all of the vertices in this graph.
+     */
+    @Override
+    public String toString() {
+        return "Graph with vertices:" + outgoing.keySet();
+    }
+}
@@ -0,0 +1,392 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * An immutable weighted directed graph over the int vertex ids 0..vertexCount()-1,
+ * stored in compressed sparse row (CSR) form.
+ *
+ * <p>The outgoing edges of vertex v are the edge indices
+ * {@code outStart(v) <= i < outEnd(v)}, sorted by increasing target(i).
+ * The incoming edges of vertex v are the edge indices
+ * {@code inStart(v) <= i < inEnd(v)}, sorted by increasing source(i).
+ * Every edge has a positive weight.
+ *
+ * <p>Edges live in flat int arrays, either on the Java heap or in a direct
+ * (off-heap) buffer, so a graph costs about 16 bytes per edge and 8 bytes per
+ * vertex regardless of the vertex label type.
+ * Vertex labels are kept separately, for example in a {@link VertexDictionary}.
+ */
+public final class CsrGraph {
+
+    private final int vertexCount;
+    private final IntBuffer outOffsets;
+    private final IntBuffer targets;
+    private final IntBuffer outWeights;
+    private final IntBuffer inOffsets;
+    private final IntBuffer sources;
+    private final IntBuffer inWeights;
+
+    // Abstraction function:
+    //      AF(vertexCount, outOffsets, targets, outWeights, ...) =
+    //          the graph on vertices 0..vertexCount-1 with an edge
+    //          v -> targets[i] of weight outWeights[i] for every
+    //          outOffsets[v] <= i < outOffsets[v+1]
+    // Representation invariant:
+    //      outOffsets and inOffsets have vertexCount+1 entries, start at 0,
+    //      are nondecreasing, and end at the number of edges.
+    //      targets, outWeights, sources and inWeights have one entry per edge.
+    //      Each row of targets (and of sources) is strictly increasing.
+    //      The reverse arrays describe exactly the same edges as the forward ones.
+    //      Every weight is positive.
+    // Safety from rep exposure:
+    //      All fields are private and final, and only primitives are returned.
+    //      The buffers are never handed out, so nobody else can write to them.
+
+    /**
+     * Make a CsrGraph from prebuilt arrays, which must satisfy the rep invariant
+     * and must not be modified afterwards.
+     * @param vertexCount number of vertices
+     * @param outOffsets forward row offsets
+     * @param targets forward edge targets
+     * @param outWeights forward edge weights
+     * @param inOffsets reverse row offsets
+     * @param sources reverse edge sources
+     * @param inWeights reverse edge weights
+     */
+    CsrGraph(int vertexCount, IntBuffer outOffsets, IntBuffer targets, IntBuffer outWeights,
+            IntBuffer inOffsets, IntBuffer sources, IntBuffer inWeights){
+        this.vertexCount = vertexCount;
+        this.outOffsets = outOffsets;
+        this.targets = targets;
+        this.outWeights = outWeights;
+        this.inOffsets = inOffsets;
+        this.sources = sources;
+        this.inWeights = inWeights;
+        checkRep();
+    }
+
+    /**
+     * Checks the cheap parts of the rep invariant.
+     */
+    private void checkRep(){
+        assert outOffsets.limit() == vertexCount + 1;
+        assert inOffsets.limit() == vertexCount + 1;
+        assert outOffsets.get(0) == 0 && inOffsets.get(0) == 0;
+        assert outOffsets.get(vertexCount) == targets.limit();
+        assert inOffsets.get(vertexCount) == sources.limit();
+        assert targets.limit() == sources.limit();
+    }
+
+    /**
+     * @return number of vertices in this graph
+     */
+    public int vertexCount(){
+        return vertexCount;
+    }
+
+    /**
+     * @return number of edges in this graph
+     */
+    public int edgeCount(){
+        return targets.limit();
+    }
+
+    /**
+     * @param vertex a vertex id
+     * @return index of the first outgoing edge of vertex
+     */
+    public int outStart(int vertex){
+        return outOffsets.get(vertex);
+    }
+
+    /**
+     * @param vertex a vertex id
+     * @return one past the index of the last outgoing edge of vertex
+     */
+    public int outEnd(int vertex){
+        return outOffsets.get(vertex + 1);
+    }
+
+    /**
+     * @param edge index of an outgoing edge
+     * @return target vertex of that edge
+     */
+    public int target(int edge){
+        return targets.get(edge);
+    }
+
+    /**
+     * @param edge index of an outgoing edge
+     * @return weight of that edge
+     */
+    public int outWeight(int edge){
+        return outWeights.get(edge);
+    }
+
+    /**
+     * @param vertex a vertex id
+     * @return index of the first incoming edge of vertex
+     */
+    public int inStart(int vertex){
+        return inOffsets.get(vertex);
+    }
+
+    /**
+     * @param vertex a vertex id
+     * @return one past the index of the last incoming edge of vertex
+     */
+    public int inEnd(int vertex){
+        return inOffsets.get(vertex + 1);
+    }
+
+    /**
+     * @param edge index of an incoming edge
+     * @return source vertex of that edge
+     */
+    public int source(int edge){
+        return sources.get(edge);
+    }
+
+    /**
+     * @param edge index of an incoming edge
+     * @return weight of that edge
+     */
+    public int inWeight(int edge){
+        return inWeights.get(edge);
+    }
+
+    /**
+     * Finds the weight of an edge by binary search in the source's row.
+     * @param source a vertex id
+     * @param target a vertex id
+     * @return weight of the edge from source to target, or 0 if there is none
+     */
+    public int weight(int source, int target){
+        int low = outStart(source);
+        int high = outEnd(source) - 1;
+        while (low <= high){
+            final int middle = (low + high) >>> 1;
+            final int middleTarget = targets.get(middle);
+            if (middleTarget < target){
+                low = middle + 1;
+            } else if (middleTarget > target){
+                high = middle - 1;
+            } else {
+                return outWeights.get(middle);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Finds the heaviest two-edge path source -> b -> target by merging the
+     * sorted outgoing row of source with the sorted incoming row of target.
+     * The weight of a path is the sum of the weights of its two edges.
+     * Ties are broken in favour of the smallest b.
+     * @param source a vertex id
+     * @param target a vertex id
+     * @return the middle vertex b of a maximum-weight two-edge path from
+     *         source to target, or -1 if there is no such path
+     */
+    public int bridge(int source, int target){
+        int out = outStart(source);
+        final int outEnd = outEnd(source);
+        int in = inStart(target);
+        final int inEnd = inEnd(target);
+        int bridge = -1;
+        long bestWeight = 0;
+        while (out < outEnd && in < inEnd){
+            final int middleOut = targets.get(out);
+            final int middleIn = sources.get(in);
+            if (middleOut < middleIn){
+                out++;
+            } else if (middleOut > middleIn){
+                in++;
+            } else {
+                final long weight = (long) outWeights.get(out) + inWeights.get(in);
+                if (weight > bestWeight){
+                    bestWeight = weight;
+                    bridge = middleOut;
+                }
+                out++;
+                in++;
+            }
+        }
+        return bridge;
+    }
+
+    /**
+     * Returns a string describing the size of this graph.
+     * @return string with the number of vertices and edges
+     */
+    @Override
+    public String toString(){
+        return "CsrGraph with " + vertexCount + " vertices and " + edgeCount() + " edges";
+    }
+
+    /**
+     * A mutable accumulator of edge weights that produces a CsrGraph.
+     * Vertices are the ids 0..n-1, where n is one more than the largest id
+     * passed to addVertex() or increment().
+     */
+    public static final class Builder {
+
+        private final EdgeCounter edges = new EdgeCounter();
+        private int vertexCount = 0;
+
+        // Abstraction function:
+        //      AF(edges, vertexCount) = the graph on vertices 0..vertexCount-1
+        //                               whose edges and weights are those in edges
+        // Representation invariant:
+        //      every vertex id in edges is < vertexCount
+        // Safety from rep exposure:
+        //      All fields are private; only primitives are returned.
+
+        /**
+         * Make an empty builder.
+         */
+        public Builder(){
+        }
+
+        /**
+         * Make sure vertex is part of the graph being built.
+         * @param vertex nonnegative vertex id
+         */
+        public void addVertex(int vertex){
+            if (vertex < 0){
+                throw new IllegalArgumentException("vertex ids must be nonnegative");
+            }
+            vertexCount = Math.max(vertexCount, vertex + 1);
+        }
+
+        /**
+         * Add delta to the weight of the edge from source to target, creating
+         * the edge (and its vertices) if needed.
+         * @param source nonnegative vertex id
+         * @param target nonnegative vertex id
+         * @param delta positive weight to add
+         * @return new weight of the edge
+         */
+        public int increment(int source, int target, int delta){
+            if (delta <= 0){
+                throw new IllegalArgumentException("delta must be positive");
+            }
+            addVertex(source);
+            addVertex(target);
+            return edges.add(source, target, delta);
+        }
+
+        /**
+         * @param source a vertex id
+         * @param target a vertex id
+         * @return current weight of the edge from source to target, or 0
+         */
+        public int weight(int source, int target){
+            return edges.get(source, target);
+        }
+
+        /**
+         * @return number of vertices so far
+         */
+        public int vertexCount(){
+            return vertexCount;
+        }
+
+        /**
+         * @return number of distinct edges so far
+         */
+        public int edgeCount(){
+            return edges.size();
+        }
+
+        /**
+         * Produce an immutable snapshot of the graph built so far.
+         * The builder may keep being used afterwards.
+         * @param direct true to store the snapshot in direct (off-heap) buffers,
+         *               false to store it in int arrays on the Java heap
+         * @return the graph built so far
+         */
+        public CsrGraph build(boolean direct){
+            final int edgeCount = edges.size();
+            final int[] outOffsets = new int[vertexCount + 1];
+            final int[] inOffsets = new int[vertexCount + 1];
+            final int[] targets = new int[edgeCount];
+            final int[] outWeights = new int[edgeCount];
+            final int[] sources = new int[edgeCount];
+            final int[] inWeights = new int[edgeCount];
+
+            // pass 1: bucket the unordered edges by target into the reverse arrays
+            for (int slot = 0; slot < edges.capacity(); slot++){
+                if (edges.occupied(slot)){
+                    inOffsets[EdgeCounter.targetOf(edges.keyAt(slot)) + 1]++;
+                    outOffsets[EdgeCounter.sourceOf(edges.keyAt(slot)) + 1]++;
+                }
+            }
+            prefixSum(inOffsets);
+            prefixSum(outOffsets);
+            final int[] next = new int[vertexCount];
+            System.arraycopy(inOffsets, 0, next, 0, vertexCount);
+            for (int slot = 0; slot < edges.capacity(); slot++){
+                if (edges.occupied(slot)){
+                    final long key = edges.keyAt(slot);
+                    final int position = next[EdgeCounter.targetOf(key)]++;
+                    sources[position] = EdgeCounter.sourceOf(key);
+                    inWeights[position] = edges.weightAt(slot);
+                }
+            }
+            // pass 2: walking targets in increasing order fills every forward row sorted
+            System.arraycopy(outOffsets, 0, next, 0, vertexCount);
+            for (int target = 0; target < vertexCount; target++){
+                for (int i = inOffsets[target]; i < inOffsets[target + 1]; i++){
+                    final int position = next[sources[i]]++;
+                    targets[position] = target;
+                    outWeights[position] = inWeights[i];
+                }
+            }
+            // pass 3: walking sources in increasing order fills every reverse row sorted
+            System.arraycopy(inOffsets, 0, next, 0, vertexCount);
+            for (int source = 0; source < vertexCount; source++){
+                for (int i = outOffsets[source]; i < outOffsets[source + 1]; i++){
+                    final int position = next[targets[i]]++;
+                    sources[position] = source;
+                    inWeights[position] = outWeights[i];
+                }
+            }
+            return new CsrGraph(vertexCount, wrap(outOffsets, direct), wrap(targets, direct),
+                    wrap(outWeights, direct), wrap(inOffsets, direct), wrap(sources, direct),
+                    wrap(inWeights, direct));
+        }
+
+        /**
+         * Turn per-vertex counts stored at index v+1 into row offsets, in place.
+         * @param counts array to transform
+         */
+        private static void prefixSum(int[] counts){
+            for (int i = 1; i < counts.length; i++){
+                counts[i] += counts[i - 1];
+            }
+        }
+
+        /**
+         * @param values array to wrap or copy
+         * @param direct true to copy values into a direct buffer
+         * @return read-only buffer holding values
+         */
+        private static IntBuffer wrap(int[] values, boolean direct){
+            if (!direct){
+                return IntBuffer.wrap(values).asReadOnlyBuffer();
+            }
+            final IntBuffer buffer = ByteBuffer.allocateDirect(values.length * Integer.BYTES)
+                    .order(ByteOrder.nativeOrder()).asIntBuffer();
+            buffer.put(values);
+            buffer.flip();
+            return buffer.asReadOnlyBuffer();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+/**
+ * Optional capability of a Graph implementation that can enumerate all of its
+ * edges in one pass over its own rep, without building the per-vertex maps
+ * returned by {@link Graph#sources(Object)} and {@link Graph#targets(Object)}.
+ *
+ * <p>Whole-graph algorithms, such as those in graph.algorithms, check for this
+ * interface and use it when it is present.
+ *
+ * @param <L> type of vertex labels in the graph, must be immutable
+ */
+public interface DirectAdjacency<L> {
+
+    /**
+     * Receives the edges of a graph.
+     * @param <L> type of vertex labels
+     */
+    @FunctionalInterface
+    public interface EdgeVisitor<L> {
+
+        /**
+         * Visit one edge.
+         * @param source label of the source vertex
+         * @param target label of the target vertex
+         * @param weight positive weight of the edge
+         */
+        public void visit(L source, L target, int weight);
+    }
+
+    /**
+     * Call visitor once for every edge of this graph, in an unspecified order.
+     * The graph must not be modified while this method runs.
+     * 
+     * @param visitor receives each edge
+     */
+    public void forEachEdge(EdgeVisitor<? super L> visitor);
+}
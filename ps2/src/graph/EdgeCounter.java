@@ -0,0 +1,181 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * Mutable map from directed edges between int vertex ids to int weights,
+ * stored in open-addressed primitive arrays so that counting an edge never
+ * allocates.
+ * This class is internal to the rep of CsrGraph.Builder.
+ */
+class EdgeCounter {
+
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+    private int[] weights;
+    private int size;
+
+    // Abstraction function:
+    //      AF(keys, weights, size) = the map {(source, target) -> weights[i]}
+    //                                for every slot i with keys[i] != EMPTY,
+    //                                where keys[i] = edgeKey(source, target)
+    // Representation invariant:
+    //      keys.length == weights.length and is a power of two.
+    //      size is the number of non-EMPTY keys, and size <= keys.length / 2.
+    //      Every weight of a non-EMPTY key is positive.
+    //      Every key is reachable by linear probing from its home slot.
+    // Safety from rep exposure:
+    //      All fields are private; only primitives are returned.
+
+    /**
+     * Creates an empty counter.
+     */
+    EdgeCounter(){
+        keys = new long[16];
+        weights = new int[16];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Packs an edge into a single long key.
+     * @param source nonnegative id of the source vertex
+     * @param target nonnegative id of the target vertex
+     * @return key identifying the edge
+     */
+    static long edgeKey(int source, int target){
+        return ((long) source << 32) | (target & 0xffffffffL);
+    }
+
+    /**
+     * @param key edge key
+     * @return source id of the edge
+     */
+    static int sourceOf(long key){
+        return (int) (key >>> 32);
+    }
+
+    /**
+     * @param key edge key
+     * @return target id of the edge
+     */
+    static int targetOf(long key){
+        return (int) key;
+    }
+
+    /**
+     * Adds delta to the weight of an edge, inserting it with weight delta if it
+     * was not present.
+     * @param source nonnegative id of the source vertex
+     * @param target nonnegative id of the target vertex
+     * @param delta positive amount to add
+     * @return the new weight of the edge
+     */
+    int add(int source, int target, int delta){
+        assert delta > 0;
+        final long key = edgeKey(source, target);
+        int slot = slot(key);
+        while (keys[slot] != EMPTY){
+            if (keys[slot] == key){
+                weights[slot] += delta;
+                return weights[slot];
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        keys[slot] = key;
+        weights[slot] = delta;
+        size++;
+        if (size > keys.length / 2){
+            grow();
+        }
+        return delta;
+    }
+
+    /**
+     * @param source id of the source vertex
+     * @param target id of the target vertex
+     * @return weight of the edge, or 0 if there is no such edge
+     */
+    int get(int source, int target){
+        final long key = edgeKey(source, target);
+        int slot = slot(key);
+        while (keys[slot] != EMPTY){
+            if (keys[slot] == key){
+                return weights[slot];
+            }
+            slot = (slot + 1) & (keys.length - 1);
+        }
+        return 0;
+    }
+
+    /**
+     * @return number of distinct edges counted
+     */
+    int size(){
+        return size;
+    }
+
+    /**
+     * @return number of slots; slots are indexed 0..capacity()-1
+     */
+    int capacity(){
+        return keys.length;
+    }
+
+    /**
+     * @param slot index of a slot
+     * @return true if the slot holds an edge
+     */
+    boolean occupied(int slot){
+        return keys[slot] != EMPTY;
+    }
+
+    /**
+     * @param slot index of an occupied slot
+     * @return edge key stored in that slot
+     */
+    long keyAt(int slot){
+        return keys[slot];
+    }
+
+    /**
+     * @param slot index of an occupied slot
+     * @return weight stored in that slot
+     */
+    int weightAt(int slot){
+        return weights[slot];
+    }
+
+    /**
+     * @param key edge key
+     * @return home slot of key
+     */
+    private int slot(long key){
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed >>> 32) & (keys.length - 1);
+    }
+
+    /**
+     * Doubles the table and reinserts every edge.
+     */
+    private void grow(){
+        final long[] oldKeys = keys;
+        final int[] oldWeights = weights;
+        keys = new long[oldKeys.length * 2];
+        weights = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for (int i = 0; i < oldKeys.length; i++){
+            if (oldKeys[i] != EMPTY){
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != EMPTY){
+                    slot = (slot + 1) & (keys.length - 1);
+                }
+                keys[slot] = oldKeys[i];
+                weights[slot] = oldWeights[i];
+            }
+        }
+    }
+}
@@ -22,11 +22,32 @@ public interface Graph<L> {
     /**
      * Create an empty graph.
      * 
+     * <p>The implementation is chosen by the {@code graph.implementation}
+     * system property: {@code "adjacency"} (the default) for
+     * {@link ConcreteAdjacencyGraph}, {@code "vertices"} for
+     * {@link ConcreteVerticesGraph}, {@code "edges"} for
+     * {@link ConcreteEdgesGraph}, or {@code "concurrent"} for the thread-safe
+     * {@link ConcurrentGraph}.
+     * 
      * @param <L> type of vertex labels in the graph, must be immutable
      * @return a new empty weighted directed graph
+     * @throws IllegalArgumentException if graph.implementation names an
+     *         unknown implementation
      */
     public static <L> Graph<L> empty() {
-        return new ConcreteVerticesGraph<L>();
+        final String implementation = System.getProperty("graph.implementation", "adjacency");
+        switch (implementation) {
+        case "adjacency":
+            return new ConcreteAdjacencyGraph<L>();
+        case "vertices":
+            return new ConcreteVerticesGraph<L>();
+        case "edges":
+            return new ConcreteEdgesGraph<L>();
+        case "concurrent":
+            return new ConcurrentGraph<L>();
+        default:
+            throw new IllegalArgumentException("unknown graph implementation: " + implementation);
+        }
     }
     
     /**
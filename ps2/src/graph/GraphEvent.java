@@ -0,0 +1,256 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * An immutable record of one change to a graph, as reported by
+ * {@link ObservableGraph} to its {@link GraphListener}s.
+ *
+ * <p>There are exactly three kinds of event, each a final nested class:
+ * {@link VertexAdded}, {@link EdgeSet} and {@link VertexRemoved}. Each event
+ * carries enough of the graph's old state that a structure derived from the
+ * graph can update itself from the event alone, without reading the graph.
+ *
+ * @param <L> type of vertex labels in the graph, must be immutable
+ */
+public abstract class GraphEvent<L> {
+
+    private GraphEvent() {
+        // only the nested classes are events
+    }
+
+    /**
+     * Make the same change to another graph.
+     * @param graph graph to change, which must be in the state this event's
+     *              graph was in just before the event
+     */
+    public abstract void applyTo(Graph<L> graph);
+
+    /**
+     * A vertex was added, by add() or by set() of an edge to or from it.
+     * @param <L> type of vertex labels in the graph
+     */
+    public static final class VertexAdded<L> extends GraphEvent<L> {
+
+        private final L vertex;
+
+        // Abstraction function:
+        //      AF(vertex) = the addition of vertex to a graph
+        // Representation invariant:
+        //      vertex != null
+        // Safety from rep exposure:
+        //      The only field is private, final and immutable.
+
+        /**
+         * @param vertex label of the added vertex
+         */
+        public VertexAdded(L vertex) {
+            this.vertex = Objects.requireNonNull(vertex, "vertex");
+        }
+
+        /**
+         * @return label of the added vertex
+         */
+        public L vertex(){
+            return vertex;
+        }
+
+        @Override
+        public void applyTo(Graph<L> graph){
+            graph.add(vertex);
+        }
+
+        @Override
+        public boolean equals(Object that){
+            return that instanceof VertexAdded && ((VertexAdded<?>) that).vertex.equals(vertex);
+        }
+
+        @Override
+        public int hashCode(){
+            return vertex.hashCode();
+        }
+
+        @Override
+        public String toString(){
+            return "added " + vertex;
+        }
+    }
+
+    /**
+     * The weight of an edge changed, by set(): it was added if oldWeight is 0,
+     * and removed if newWeight is 0.
+     * @param <L> type of vertex labels in the graph
+     */
+    public static final class EdgeSet<L> extends GraphEvent<L> {
+
+        private final L source;
+        private final L target;
+        private final int oldWeight;
+        private final int newWeight;
+
+        // Abstraction function:
+        //      AF(source, target, oldWeight, newWeight) = the change of the weight of
+        //          the edge source -> target from oldWeight to newWeight, where a
+        //          weight of 0 means there is no edge
+        // Representation invariant:
+        //      source, target != null
+        //      oldWeight >= 0, newWeight >= 0, oldWeight != newWeight
+        // Safety from rep exposure:
+        //      All fields are private, final and immutable.
+
+        /**
+         * @param source label of the source vertex
+         * @param target label of the target vertex
+         * @param oldWeight nonnegative weight of the edge before, 0 if it did not exist
+         * @param newWeight nonnegative weight of the edge after, 0 if it was removed
+         * @throws IllegalArgumentException if a weight is negative or they are equal
+         */
+        public EdgeSet(L source, L target, int oldWeight, int newWeight) {
+            if (oldWeight < 0 || newWeight < 0 || oldWeight == newWeight){
+                throw new IllegalArgumentException("not a change of weight: " + oldWeight + " -> " + newWeight);
+            }
+            this.source = Objects.requireNonNull(source, "source");
+            this.target = Objects.requireNonNull(target, "target");
+            this.oldWeight = oldWeight;
+            this.newWeight = newWeight;
+        }
+
+        /**
+         * @return label of the source vertex
+         */
+        public L source(){
+            return source;
+        }
+
+        /**
+         * @return label of the target vertex
+         */
+        public L target(){
+            return target;
+        }
+
+        /**
+         * @return weight of the edge before the event, 0 if it did not exist
+         */
+        public int oldWeight(){
+            return oldWeight;
+        }
+
+        /**
+         * @return weight of the edge after the event, 0 if it was removed
+         */
+        public int newWeight(){
+            return newWeight;
+        }
+
+        @Override
+        public void applyTo(Graph<L> graph){
+            graph.set(source, target, newWeight);
+        }
+
+        @Override
+        public boolean equals(Object thatObject){
+            if (!(thatObject instanceof EdgeSet)){
+                return false;
+            }
+            final EdgeSet<?> that = (EdgeSet<?>) thatObject;
+            return that.source.equals(source) && that.target.equals(target)
+                    && that.oldWeight == oldWeight && that.newWeight == newWeight;
+        }
+
+        @Override
+        public int hashCode(){
+            return Objects.hash(source, target, oldWeight, newWeight);
+        }
+
+        @Override
+        public String toString(){
+            return "set " + source + " -> " + target + " from " + oldWeight + " to " + newWeight;
+        }
+    }
+
+    /**
+     * A vertex was removed, with all of its edges.
+     * @param <L> type of vertex labels in the graph
+     */
+    public static final class VertexRemoved<L> extends GraphEvent<L> {
+
+        private final L vertex;
+        private final Map<L, Integer> targets;
+        private final Map<L, Integer> sources;
+
+        // Abstraction function:
+        //      AF(vertex, targets, sources) = the removal of vertex from a graph in
+        //          which it had an edge to every key of targets and from every key of
+        //          sources, of the weight mapped to that key
+        // Representation invariant:
+        //      vertex != null; every weight is positive
+        // Safety from rep exposure:
+        //      All fields are private and final. targets and sources are copied in
+        //      the constructor and only returned as unmodifiable views.
+
+        /**
+         * @param vertex label of the removed vertex
+         * @param targets the targets of vertex just before it was removed, copied
+         * @param sources the sources of vertex just before it was removed, copied
+         */
+        public VertexRemoved(L vertex, Map<L, Integer> targets, Map<L, Integer> sources) {
+            this.vertex = Objects.requireNonNull(vertex, "vertex");
+            this.targets = Collections.unmodifiableMap(new HashMap<>(targets));
+            this.sources = Collections.unmodifiableMap(new HashMap<>(sources));
+        }
+
+        /**
+         * @return label of the removed vertex
+         */
+        public L vertex(){
+            return vertex;
+        }
+
+        /**
+         * @return unmodifiable map from each target of the removed vertex to the
+         *         weight of its edge, as they were just before the removal
+         */
+        public Map<L, Integer> targets(){
+            return targets;
+        }
+
+        /**
+         * @return unmodifiable map from each source of the removed vertex to the
+         *         weight of its edge, as they were just before the removal
+         */
+        public Map<L, Integer> sources(){
+            return sources;
+        }
+
+        @Override
+        public void applyTo(Graph<L> graph){
+            graph.remove(vertex);
+        }
+
+        @Override
+        public boolean equals(Object thatObject){
+            if (!(thatObject instanceof VertexRemoved)){
+                return false;
+            }
+            final VertexRemoved<?> that = (VertexRemoved<?>) thatObject;
+            return that.vertex.equals(vertex) && that.targets.equals(targets) && that.sources.equals(sources);
+        }
+
+        @Override
+        public int hashCode(){
+            return Objects.hash(vertex, targets, sources);
+        }
+
+        @Override
+        public String toString(){
+            return "removed " + vertex + " with " + (targets.size() + sources.size()) + " edge ends";
+        }
+    }
+}
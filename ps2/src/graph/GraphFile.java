@@ -0,0 +1,384 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads and writes Graph&lt;String&gt; in a compact, versioned binary format.
+ *
+ * <p>A file is a 40-byte header followed by a label section and an edge
+ * section, all little-endian:
+ * <pre>
+ *   header:  int magic "GPGR", int version (2), int vertexCount V,
+ *            int edgeCount E, int stringBytes S, int reserved (0),
+ *            long CRC32C checksum of the label section,
+ *            long CRC32C checksum of the edge section
+ *   labels:  int[V+1] byte offsets of each label in the string data
+ *            byte[S]  UTF-8 labels, in vertex id order, padded to a multiple of 4
+ *   edges:   int[V+1] outgoing row offsets, int[E] targets, int[E] weights
+ *            int[V+1] incoming row offsets, int[E] sources, int[E] weights
+ * </pre>
+ * The edge arrays are exactly those of {@link CsrGraph}, so loading a file
+ * maps it into memory and serves edges straight from the mapped pages: only
+ * the label section is read, checked and decoded. Checking the edge section
+ * would read the whole file, so load() leaves that to {@link #verify(File)}.
+ * write() replaces a file atomically, so a file it wrote is never seen half
+ * written, and a graph still mapped from the old file keeps working.
+ * Files are limited to 2 GB.
+ */
+public final class GraphFile {
+
+    /** First four bytes of every graph file, "GPGR" read as a little-endian int. */
+    private static final int MAGIC = 0x52475047;
+
+    /** Version of the format written by this class. */
+    public static final int VERSION = 2;
+
+    private static final int HEADER_BYTES = 40;
+
+    /** Size of the buffer in which the payload is written. */
+    private static final int WRITE_BUFFER_BYTES = 1 << 16;
+
+    private GraphFile() {
+        // not meant to be instantiated
+    }
+
+    /**
+     * Write a graph to a file, atomically replacing it.
+     * @param graph graph to write, which must not be modified while this runs
+     * @param file file to write
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Graph<String> graph, File file) throws IOException {
+        final VertexDictionary labels = new VertexDictionary();
+        final CsrGraph.Builder builder = new CsrGraph.Builder();
+        for (String vertex : graph.vertices()) {
+            builder.addVertex(labels.intern(vertex));
+        }
+        if (graph instanceof DirectAdjacency) {
+            @SuppressWarnings("unchecked")
+            final DirectAdjacency<String> direct = (DirectAdjacency<String>) graph;
+            direct.forEachEdge((source, target, weight) ->
+                    builder.increment(labels.find(source), labels.find(target), weight));
+        } else {
+            for (int source = 0; source < labels.size(); source++) {
+                for (Map.Entry<String, Integer> target : graph.targets(labels.label(source)).entrySet()) {
+                    builder.increment(source, labels.find(target.getKey()), target.getValue());
+                }
+            }
+        }
+        write(labels, builder.build(false), file);
+    }
+
+    /**
+     * Write a CSR graph, with labels for its vertices, to a file, atomically
+     * replacing it: the graph is written to a temporary file in the same
+     * directory, forced to disk, and then moved over file.
+     * @param labels dictionary whose label i names vertex i of graph, with exactly
+     *               graph.vertexCount() labels
+     * @param graph graph to write
+     * @param file file to write
+     * @throws IOException if the file cannot be written, or cannot be replaced
+     *         atomically; file is then unchanged
+     */
+    public static void write(VertexDictionary labels, CsrGraph graph, File file) throws IOException {
+        if (labels.size() != graph.vertexCount()) {
+            throw new IllegalArgumentException("expected one label per vertex");
+        }
+        final int vertexCount = graph.vertexCount();
+        final int edgeCount = graph.edgeCount();
+        final byte[][] encoded = new byte[vertexCount][];
+        long stringBytes = 0;
+        for (int id = 0; id < vertexCount; id++) {
+            encoded[id] = labels.label(id).getBytes(StandardCharsets.UTF_8);
+            stringBytes += encoded[id].length;
+        }
+        final long paddedStringBytes = (stringBytes + 3) & ~3L;
+        final long fileBytes = HEADER_BYTES + paddedStringBytes
+                + 4L * (3L * (vertexCount + 1) + 4L * edgeCount);
+        if (fileBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("graph too large for a graph file");
+        }
+
+        final Path target = file.toPath().toAbsolutePath();
+        final Path temporary = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+        boolean moved = false;
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                final PayloadWriter out = new PayloadWriter(channel);
+                int offset = 0;
+                for (int id = 0; id < vertexCount; id++) {
+                    out.putInt(offset);
+                    offset += encoded[id].length;
+                }
+                out.putInt(offset);
+                for (byte[] label : encoded) {
+                    out.putBytes(label);
+                }
+                for (long pad = stringBytes; pad < paddedStringBytes; pad++) {
+                    out.putBytes(new byte[] { 0 });
+                }
+                final long labelChecksum = out.endSection();
+                for (int vertex = 0; vertex <= vertexCount; vertex++) {
+                    out.putInt(vertex < vertexCount ? graph.outStart(vertex) : edgeCount);
+                }
+                for (int edge = 0; edge < edgeCount; edge++) {
+                    out.putInt(graph.target(edge));
+                }
+                for (int edge = 0; edge < edgeCount; edge++) {
+                    out.putInt(graph.outWeight(edge));
+                }
+                for (int vertex = 0; vertex <= vertexCount; vertex++) {
+                    out.putInt(vertex < vertexCount ? graph.inStart(vertex) : edgeCount);
+                }
+                for (int edge = 0; edge < edgeCount; edge++) {
+                    out.putInt(graph.source(edge));
+                }
+                for (int edge = 0; edge < edgeCount; edge++) {
+                    out.putInt(graph.inWeight(edge));
+                }
+                final long edgeChecksum = out.endSection();
+
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(VERSION).putInt(vertexCount).putInt(edgeCount)
+                        .putInt((int) paddedStringBytes).putInt(0).putLong(labelChecksum).putLong(edgeChecksum);
+                header.flip();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            moved = true;
+        } finally {
+            if (!moved) {
+                Files.deleteIfExists(temporary);
+            }
+        }
+    }
+
+    /**
+     * Load a graph file by memory-mapping it. The header and the label section
+     * are checked, and the labels decoded; the edges are neither copied nor
+     * checksummed, so loading takes time proportional to the labels, not to
+     * the whole file. Use verify() to check the edges of a file that may have
+     * been damaged since it was written.
+     * @param file graph file written by write()
+     * @return read-only graph with the contents of file
+     * @throws IOException if the file cannot be read, is not a graph file, has an
+     *         unsupported version, or its header or labels are corrupt
+     */
+    public static MappedGraph load(File file) throws IOException {
+        final ByteBuffer buffer = map(file);
+        final int vertexCount = buffer.getInt(8);
+        final int edgeCount = buffer.getInt(12);
+        final int stringBytes = buffer.getInt(16);
+        checkSection(buffer, HEADER_BYTES, labelSectionBytes(buffer), buffer.getLong(24), "labels", file);
+
+        int position = HEADER_BYTES;
+        final IntBuffer labelOffsets = ints(buffer, position, vertexCount + 1);
+        position += 4 * (vertexCount + 1);
+        final int stringStart = position;
+        position += stringBytes;
+        final IntBuffer outOffsets = ints(buffer, position, vertexCount + 1);
+        position += 4 * (vertexCount + 1);
+        final IntBuffer targets = ints(buffer, position, edgeCount);
+        position += 4 * edgeCount;
+        final IntBuffer outWeights = ints(buffer, position, edgeCount);
+        position += 4 * edgeCount;
+        final IntBuffer inOffsets = ints(buffer, position, vertexCount + 1);
+        position += 4 * (vertexCount + 1);
+        final IntBuffer sources = ints(buffer, position, edgeCount);
+        position += 4 * edgeCount;
+        final IntBuffer inWeights = ints(buffer, position, edgeCount);
+
+        if (outOffsets.get(0) != 0 || outOffsets.get(vertexCount) != edgeCount
+                || inOffsets.get(0) != 0 || inOffsets.get(vertexCount) != edgeCount) {
+            throw new IOException("corrupt graph file, bad row offsets: " + file);
+        }
+
+        final VertexDictionary labels = new VertexDictionary();
+        byte[] bytes = new byte[64];
+        for (int id = 0; id < vertexCount; id++) {
+            final int start = labelOffsets.get(id);
+            final int length = labelOffsets.get(id + 1) - start;
+            if (start < 0 || length < 0 || start + length > stringBytes) {
+                throw new IOException("corrupt graph file, bad string table: " + file);
+            }
+            if (bytes.length < length) {
+                bytes = new byte[Math.max(length, 2 * bytes.length)];
+            }
+            buffer.get(stringStart + start, bytes, 0, length);
+            if (labels.intern(new String(bytes, 0, length, StandardCharsets.UTF_8)) != id) {
+                throw new IOException("corrupt graph file, duplicate label: " + file);
+            }
+        }
+        labels.freeze();
+        final CsrGraph graph = new CsrGraph(vertexCount, outOffsets, targets, outWeights,
+                inOffsets, sources, inWeights);
+        return new MappedGraph(labels, graph);
+    }
+
+    /**
+     * Check every checksum of a graph file, reading all of it.
+     * @param file graph file written by write()
+     * @throws IOException if the file cannot be read, is not a graph file, has an
+     *         unsupported version, or is corrupt
+     */
+    public static void verify(File file) throws IOException {
+        final ByteBuffer buffer = map(file);
+        final int labelBytes = labelSectionBytes(buffer);
+        checkSection(buffer, HEADER_BYTES, labelBytes, buffer.getLong(24), "labels", file);
+        checkSection(buffer, HEADER_BYTES + labelBytes, buffer.capacity() - HEADER_BYTES - labelBytes,
+                buffer.getLong(32), "edges", file);
+    }
+
+    /**
+     * Map a graph file into memory, and check its header.
+     * @param file graph file to map
+     * @return little-endian read-only buffer of the whole file, whose header
+     *         gives sizes that match the size of the file
+     * @throws IOException if the file cannot be read, is not a graph file, has an
+     *         unsupported version, or sizes that do not match
+     */
+    private static ByteBuffer map(File file) throws IOException {
+        final MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("not a graph file: " + file);
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        final ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IOException("not a graph file: " + file);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("unsupported graph file version " + buffer.getInt(4) + ": " + file);
+        }
+        final int vertexCount = buffer.getInt(8);
+        final int edgeCount = buffer.getInt(12);
+        final int stringBytes = buffer.getInt(16);
+        if (vertexCount < 0 || edgeCount < 0 || stringBytes < 0 || stringBytes % 4 != 0
+                || buffer.capacity() != HEADER_BYTES + (long) stringBytes
+                        + 4L * (3L * (vertexCount + 1) + 4L * edgeCount)) {
+            throw new IOException("corrupt graph file, sizes do not match: " + file);
+        }
+        return buffer;
+    }
+
+    /**
+     * @param buffer graph file whose header has been checked by map()
+     * @return number of bytes in the label section of buffer
+     */
+    private static int labelSectionBytes(ByteBuffer buffer) {
+        return 4 * (buffer.getInt(8) + 1) + buffer.getInt(16);
+    }
+
+    /**
+     * Check the checksum of one section of a graph file.
+     * @param buffer graph file
+     * @param start index of the first byte of the section
+     * @param length number of bytes in the section
+     * @param checksum expected CRC32C checksum of the section
+     * @param section name of the section, for the error message
+     * @param file file that buffer maps, for the error message
+     * @throws IOException if the section does not match checksum
+     */
+    private static void checkSection(ByteBuffer buffer, int start, int length, long checksum,
+            String section, File file) throws IOException {
+        final CRC32C crc = new CRC32C();
+        crc.update(slice(buffer, start, length));
+        if (crc.getValue() != checksum) {
+            throw new IOException("corrupt graph file, checksum mismatch in " + section + ": " + file);
+        }
+    }
+
+    /**
+     * @return little-endian view of buffer[start..start+length)
+     */
+    private static ByteBuffer slice(ByteBuffer buffer, int start, int length) {
+        return buffer.duplicate().position(start).limit(start + length).slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * @return read-only view of count little-endian ints of buffer, starting at byte start
+     */
+    private static IntBuffer ints(ByteBuffer buffer, int start, int count) {
+        return slice(buffer, start, 4 * count).asIntBuffer().asReadOnlyBuffer();
+    }
+
+    /**
+     * Writes the sections of a graph file through a small buffer, checksumming
+     * each of them. The sections start right after the header, which is left
+     * for the caller.
+     */
+    private static final class PayloadWriter {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private final CRC32C crc = new CRC32C();
+        private long position = HEADER_BYTES;
+
+        PayloadWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void putInt(int value) throws IOException {
+            if (buffer.remaining() < Integer.BYTES) {
+                flush();
+            }
+            buffer.putInt(value);
+        }
+
+        void putBytes(byte[] bytes) throws IOException {
+            int written = 0;
+            while (written < bytes.length) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                final int length = Math.min(buffer.remaining(), bytes.length - written);
+                buffer.put(bytes, written, length);
+                written += length;
+            }
+        }
+
+        /**
+         * Write out whatever is buffered.
+         */
+        private void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * End the current section, and start a new one.
+         * @return checksum of the section, after writing out the rest of it
+         */
+        long endSection() throws IOException {
+            flush();
+            final long checksum = crc.getValue();
+            crc.reset();
+            return checksum;
+        }
+    }
+}
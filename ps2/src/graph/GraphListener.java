@@ -0,0 +1,24 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+/**
+ * Receives the changes made to an {@link ObservableGraph}.
+ *
+ * <p>A listener is called on the thread that changed the graph, after the
+ * change, once for every change that really happened: add() of an existing
+ * vertex, set() to the weight an edge already has, and remove() of a missing
+ * vertex are not reported.
+ *
+ * @param <L> type of vertex labels in the graph, must be immutable
+ */
+@FunctionalInterface
+public interface GraphListener<L> {
+
+    /**
+     * Called after each change to the graph.
+     * @param event the change
+     */
+    public void graphChanged(GraphEvent<L> event);
+}
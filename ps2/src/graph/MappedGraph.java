@@ -0,0 +1,231 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable Graph&lt;String&gt; loaded by {@link GraphFile#load(java.io.File)},
+ * whose edges stay in the memory-mapped file.
+ *
+ * <p>vertices(), sources() and targets() return small views that read the
+ * mapped CSR arrays directly; nothing is copied per call. The mutators add(),
+ * set() and remove() throw UnsupportedOperationException.
+ */
+public final class MappedGraph implements Graph<String>, DirectAdjacency<String> {
+
+    private final VertexDictionary labels;
+    private final CsrGraph graph;
+
+    // Abstraction function:
+    //      AF(labels, graph) = the graph with an edge labels.label(s) -> labels.label(t)
+    //                          for every edge s -> t of graph, of the same weight
+    // Representation invariant:
+    //      labels.size() == graph.vertexCount()
+    //      labels is frozen
+    // Safety from rep exposure:
+    //      All fields are private and final. labels is frozen, so words() can
+    //      return it without a copy. graph is immutable.
+    //      Views are unmodifiable and only return Strings and Integers.
+    // Thread safety argument:
+    //      Nothing is modified after construction, so a MappedGraph can be
+    //      shared between threads.
+
+    /**
+     * @param labels label of every vertex of graph, frozen
+     * @param graph edges between the vertex ids
+     */
+    MappedGraph(VertexDictionary labels, CsrGraph graph) {
+        this.labels = labels;
+        this.graph = graph;
+        checkRep();
+    }
+
+    /**
+     * Checks that the rep invariant holds.
+     */
+    private void checkRep() {
+        assert labels.size() == graph.vertexCount();
+        assert labels.isFrozen();
+    }
+
+    /**
+     * @return the edges of this graph, between the ids of words()
+     */
+    public CsrGraph csr() {
+        return graph;
+    }
+
+    /**
+     * @return a frozen dictionary whose label i names vertex i of csr(),
+     *         shared with this graph rather than copied
+     */
+    public VertexDictionary words() {
+        return labels;
+    }
+
+    /**
+     * Not supported: this graph is immutable.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean add(String vertex) {
+        throw new UnsupportedOperationException("MappedGraph is immutable");
+    }
+
+    /**
+     * Not supported: this graph is immutable.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public int set(String source, String target, int weight) {
+        throw new UnsupportedOperationException("MappedGraph is immutable");
+    }
+
+    /**
+     * Not supported: this graph is immutable.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean remove(String vertex) {
+        throw new UnsupportedOperationException("MappedGraph is immutable");
+    }
+
+    @Override
+    public Set<String> vertices() {
+        return new AbstractSet<String>() {
+            @Override public int size() {
+                return labels.size();
+            }
+            @Override public boolean contains(Object o) {
+                return o instanceof String && labels.find((String) o) >= 0;
+            }
+            @Override public Iterator<String> iterator() {
+                return new Iterator<String>() {
+                    private int next = 0;
+                    @Override public boolean hasNext() {
+                        return next < labels.size();
+                    }
+                    @Override public String next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        return labels.label(next++);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Map<String, Integer> sources(String target) {
+        final int id = labels.find(target);
+        if (id < 0) {
+            return Collections.emptyMap();
+        }
+        return new Row(graph.inStart(id), graph.inEnd(id), false, id);
+    }
+
+    @Override
+    public Map<String, Integer> targets(String source) {
+        final int id = labels.find(source);
+        if (id < 0) {
+            return Collections.emptyMap();
+        }
+        return new Row(graph.outStart(id), graph.outEnd(id), true, id);
+    }
+
+    @Override
+    public void forEachEdge(EdgeVisitor<? super String> visitor) {
+        for (int source = 0; source < graph.vertexCount(); source++) {
+            final String sourceLabel = labels.label(source);
+            for (int edge = graph.outStart(source); edge < graph.outEnd(source); edge++) {
+                visitor.visit(sourceLabel, labels.label(graph.target(edge)), graph.outWeight(edge));
+            }
+        }
+    }
+
+    /**
+     * Unmodifiable map view of one row of the CSR arrays: the targets of a
+     * vertex if outgoing, or else its sources.
+     */
+    private final class Row extends AbstractMap<String, Integer> {
+
+        private final int start;
+        private final int end;
+        private final boolean outgoing;
+        private final int vertex;
+
+        Row(int start, int end, boolean outgoing, int vertex) {
+            this.start = start;
+            this.end = end;
+            this.outgoing = outgoing;
+            this.vertex = vertex;
+        }
+
+        @Override
+        public int size() {
+            return end - start;
+        }
+
+        @Override
+        public Integer get(Object key) {
+            if (!(key instanceof String)) {
+                return null;
+            }
+            final int other = labels.find((String) key);
+            if (other < 0) {
+                return null;
+            }
+            final int weight = outgoing ? graph.weight(vertex, other) : graph.weight(other, vertex);
+            return weight == 0 ? null : weight;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Map.Entry<String, Integer>> entrySet() {
+            return new AbstractSet<Map.Entry<String, Integer>>() {
+                @Override public int size() {
+                    return end - start;
+                }
+                @Override public Iterator<Map.Entry<String, Integer>> iterator() {
+                    return new Iterator<Map.Entry<String, Integer>>() {
+                        private int edge = start;
+                        @Override public boolean hasNext() {
+                            return edge < end;
+                        }
+                        @Override public Map.Entry<String, Integer> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            final int other = outgoing ? graph.target(edge) : graph.source(edge);
+                            final int weight = outgoing ? graph.outWeight(edge) : graph.inWeight(edge);
+                            edge++;
+                            return new AbstractMap.SimpleImmutableEntry<>(labels.label(other), weight);
+                        }
+                    };
+                }
+            };
+        }
+    }
+
+    /**
+     * Returns a string with information about what vertices this graph contains.
+     * @return string that prints all of the vertices in this graph.
+     */
+    @Override
+    public String toString() {
+        return "Graph with vertices:" + vertices();
+    }
+}
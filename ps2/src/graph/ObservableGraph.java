@@ -0,0 +1,179 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A Graph that reports every change made through it to its listeners, as
+ * typed {@link GraphEvent}s, so that structures derived from the graph can be
+ * updated in proportion to each change instead of rebuilt from the whole graph.
+ *
+ * <p>An ObservableGraph wraps another Graph implementation, which does the
+ * actual work; the wrapped graph must not be changed except through the
+ * ObservableGraph. Each listener sees, in order, one event per change that
+ * really happened: a {@link GraphEvent.VertexAdded} for every new vertex
+ * (including the ends of an edge that set() adds), a {@link GraphEvent.EdgeSet}
+ * for every edge whose weight changed, and a {@link GraphEvent.VertexRemoved}
+ * with the edges that disappeared with a vertex. Wrap a listener in a
+ * {@link BatchingListener} to receive the events in coalesced batches.
+ *
+ * <p>Listeners are called on the mutating thread, after the change. If one
+ * throws, the exception propagates to the caller of the mutator, the change
+ * stays made, and later listeners do not see that event.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public class ObservableGraph<L> implements Graph<L>, DirectAdjacency<L> {
+
+    private final Graph<L> graph;
+    private final List<GraphListener<L>> listeners = new CopyOnWriteArrayList<>();
+
+    // Abstraction function:
+    //      AF(graph, listeners) = the graph AF(graph), each of whose changes is
+    //                             reported to every listener in listeners, in order
+    // Representation invariant:
+    //      graph != null, and listeners has no null elements
+    // Safety from rep exposure:
+    //      All fields are private and final. vertices(), sources() and targets()
+    //      return unmodifiable views of graph, so clients cannot change it
+    //      without events.
+    // Thread safety argument:
+    //      This type is not threadsafe, whatever graph is: a change and its
+    //      events are not atomic. listeners is a CopyOnWriteArrayList only so that
+    //      a listener may add or remove listeners while being called.
+
+    /**
+     * Make an observable graph with no listeners.
+     * @param graph graph to wrap, which from now on must only be changed through
+     *              the new ObservableGraph
+     */
+    public ObservableGraph(Graph<L> graph) {
+        this.graph = Objects.requireNonNull(graph, "graph");
+    }
+
+    /**
+     * Checks that the rep invariant holds.
+     */
+    private void checkRep(){
+        assert graph != null;
+        assert !listeners.contains(null);
+    }
+
+    /**
+     * Start reporting changes to a listener, after those of the listeners added before.
+     * @param listener listener to add
+     */
+    public void addListener(GraphListener<L> listener){
+        listeners.add(Objects.requireNonNull(listener, "listener"));
+        checkRep();
+    }
+
+    /**
+     * Stop reporting changes to a listener.
+     * @param listener listener to remove
+     * @return true if listener had been added (and is now removed); false otherwise
+     */
+    public boolean removeListener(GraphListener<L> listener){
+        return listeners.remove(listener);
+    }
+
+    /**
+     * Report an event to every listener.
+     */
+    private void fire(GraphEvent<L> event){
+        for (GraphListener<L> listener : listeners){
+            listener.graphChanged(event);
+        }
+    }
+
+    @Override
+    public boolean add(L vertex){
+        if (!graph.add(vertex)){
+            return false;
+        }
+        fire(new GraphEvent.VertexAdded<>(vertex));
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws IllegalArgumentException if weight is negative
+     */
+    @Override
+    public int set(L source, L target, int weight){
+        if (weight < 0){
+            throw new IllegalArgumentException("weight must be nonnegative: " + weight);
+        }
+        final Set<L> vertices = graph.vertices();
+        final boolean newSource = weight > 0 && !vertices.contains(source);
+        final boolean newTarget = weight > 0 && !source.equals(target) && !vertices.contains(target);
+        final int oldWeight = graph.set(source, target, weight);
+        if (newSource){
+            fire(new GraphEvent.VertexAdded<>(source));
+        }
+        if (newTarget){
+            fire(new GraphEvent.VertexAdded<>(target));
+        }
+        if (oldWeight != weight){
+            fire(new GraphEvent.EdgeSet<>(source, target, oldWeight, weight));
+        }
+        return oldWeight;
+    }
+
+    @Override
+    public boolean remove(L vertex){
+        if (!graph.vertices().contains(vertex)){
+            return false;
+        }
+        //copies only the edges of vertex, so the cost stays O(degree)
+        final GraphEvent<L> event = new GraphEvent.VertexRemoved<>(vertex, graph.targets(vertex), graph.sources(vertex));
+        graph.remove(vertex);
+        fire(event);
+        return true;
+    }
+
+    @Override
+    public Set<L> vertices(){
+        return Collections.unmodifiableSet(graph.vertices());
+    }
+
+    @Override
+    public Map<L, Integer> sources(L target){
+        return Collections.unmodifiableMap(graph.sources(target));
+    }
+
+    @Override
+    public Map<L, Integer> targets(L source){
+        return Collections.unmodifiableMap(graph.targets(source));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEachEdge(EdgeVisitor<? super L> visitor){
+        if (graph instanceof DirectAdjacency){
+            ((DirectAdjacency<L>) graph).forEachEdge(visitor);
+            return;
+        }
+        for (L source : graph.vertices()){
+            for (Map.Entry<L, Integer> target : graph.targets(source).entrySet()){
+                visitor.visit(source, target.getKey(), target.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns a string describing the wrapped graph.
+     * @return string with the vertices of this graph
+     */
+    @Override
+    public String toString(){
+        return graph.toString();
+    }
+}
@@ -0,0 +1,279 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable Graph whose versions share structure, for cheap snapshots and undo.
+ *
+ * <p>Instead of changing the graph, withVertex(), withEdge() and
+ * withoutVertex() return a new version of it. Both versions share every part
+ * of their rep that the change did not touch, through hash array mapped tries,
+ * so each new version costs O(log32 V) extra space per changed edge end (and
+ * withoutVertex() one such change per edge of the removed vertex). Many
+ * versions of one large graph can therefore be kept at the cost of their
+ * differences, and read from any number of threads without locks.
+ *
+ * <p>vertices(), sources() and targets() return the immutable maps of the rep
+ * themselves, without copying. The Graph mutators add(), set() and remove()
+ * throw UnsupportedOperationException.
+ *
+ * @param <L> type of vertex labels in this graph, must be immutable
+ */
+public final class PersistentGraph<L> implements Graph<L>, DirectAdjacency<L> {
+
+    private static final PersistentGraph<Object> EMPTY =
+            new PersistentGraph<>(PersistentMap.empty(), PersistentMap.empty(), 0);
+
+    private final PersistentMap<L, PersistentMap<L, Integer>> outgoing;
+    private final PersistentMap<L, PersistentMap<L, Integer>> incoming;
+    private final int edgeCount;
+
+    // Abstraction function:
+    //      AF(outgoing, incoming, edgeCount) = a directed weighted graph whose vertices
+    //                               are the keys of outgoing, with an edge from s to t
+    //                               of weight w for every outgoing.get(s).get(t) = w
+    // Representation invariant:
+    //      outgoing and incoming have the same key set.
+    //      outgoing.get(s).get(t) = w if and only if incoming.get(t).get(s) = w.
+    //      Every weight is positive.
+    //      edgeCount is the total size of the maps in outgoing.
+    // Safety from rep exposure:
+    //      All fields are private and final, and PersistentMaps are immutable, so
+    //      vertices(), sources() and targets() can return them directly.
+    // Thread safety argument:
+    //      Nothing is modified after construction, so a PersistentGraph can be
+    //      shared between threads. (PersistentMap lazily caches its keySet() view,
+    //      as every AbstractMap does; racing threads at worst make equal views.)
+
+    private PersistentGraph(PersistentMap<L, PersistentMap<L, Integer>> outgoing,
+            PersistentMap<L, PersistentMap<L, Integer>> incoming, int edgeCount) {
+        this.outgoing = outgoing;
+        this.incoming = incoming;
+        this.edgeCount = edgeCount;
+    }
+
+    /**
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @return the empty graph
+     */
+    @SuppressWarnings("unchecked")
+    public static <L> PersistentGraph<L> empty(){
+        return (PersistentGraph<L>) EMPTY;
+    }
+
+    /**
+     * @param <L> type of vertex labels in the graph, must be immutable
+     * @param graph graph to copy
+     * @return a persistent graph with the same vertices and edges as graph;
+     *         graph itself if it is already a PersistentGraph
+     */
+    @SuppressWarnings("unchecked")
+    public static <L> PersistentGraph<L> copyOf(Graph<L> graph){
+        if (graph instanceof PersistentGraph){
+            return (PersistentGraph<L>) graph;
+        }
+        // each edge is one small path copy; the versions in between are garbage
+        PersistentGraph<L> copy = empty();
+        for (L vertex : graph.vertices()){
+            copy = copy.withVertex(vertex);
+        }
+        for (L source : graph.vertices()){
+            for (Map.Entry<L, Integer> target : graph.targets(source).entrySet()){
+                copy = copy.withEdge(source, target.getKey(), target.getValue());
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Checks that the rep invariant holds for the one edge slot from source to
+     * target, which is the only part of the rep that withEdge() changes, so
+     * that changes stay O(log32 V) instead of O(V+E).
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     */
+    private void checkRep(L source, L target){
+        assert outgoing.size() == incoming.size();
+        assert edgeCount >= 0;
+        final Map<L, Integer> targets = outgoing.get(source);
+        final Map<L, Integer> sources = incoming.get(target);
+        final Integer weight = targets == null ? null : targets.get(target);
+        assert weight == null || weight > 0;
+        assert weight == null ? sources == null || !sources.containsKey(source)
+                              : weight.equals(sources.get(source));
+    }
+
+    /**
+     * @return number of edges in this graph
+     */
+    public int edgeCount(){
+        return edgeCount;
+    }
+
+    /**
+     * @param vertex label for the new vertex
+     * @return a version of this graph that includes a vertex with the given
+     *         label; this graph itself if it already does
+     */
+    public PersistentGraph<L> withVertex(L vertex){
+        if (outgoing.containsKey(vertex)){
+            return this;
+        }
+        final PersistentGraph<L> result = new PersistentGraph<>(
+                outgoing.plus(vertex, PersistentMap.empty()),
+                incoming.plus(vertex, PersistentMap.empty()), edgeCount);
+        result.checkRep(vertex, vertex);
+        return result;
+    }
+
+    /**
+     * Add, change, or remove a weighted directed edge, as
+     * {@link Graph#set(Object, Object, int)} does, in a new version of this graph.
+     *
+     * @param source label of the source vertex
+     * @param target label of the target vertex
+     * @param weight nonnegative weight of the edge
+     * @return a version of this graph with the edge from source to target
+     *         set to weight; this graph itself if nothing would change
+     * @throws IllegalArgumentException if weight is negative
+     */
+    public PersistentGraph<L> withEdge(L source, L target, int weight){
+        if (weight < 0){
+            throw new IllegalArgumentException("weight must be nonnegative: " + weight);
+        }
+        final PersistentMap<L, Integer> targets = outgoing.get(source);
+        final boolean existed = targets != null && targets.containsKey(target);
+        final PersistentGraph<L> result;
+        if (weight == 0){
+            if (!existed){
+                return this;
+            }
+            result = new PersistentGraph<>(
+                    outgoing.plus(source, targets.minus(target)),
+                    incoming.plus(target, incoming.get(target).minus(source)), edgeCount - 1);
+        } else {
+            if (existed && targets.get(target) == weight){
+                return this;
+            }
+            final PersistentMap<L, Integer> sourceTargets = targets == null ? PersistentMap.empty() : targets;
+            PersistentMap<L, PersistentMap<L, Integer>> newOutgoing =
+                    outgoing.plus(source, sourceTargets.plus(target, weight));
+            PersistentMap<L, PersistentMap<L, Integer>> newIncoming = incoming;
+            // a new end needs a row in both maps; for a new self-loop, source is also target
+            if (!newOutgoing.containsKey(target)){
+                newOutgoing = newOutgoing.plus(target, PersistentMap.empty());
+            }
+            if (!newIncoming.containsKey(source)){
+                newIncoming = newIncoming.plus(source, PersistentMap.empty());
+            }
+            final PersistentMap<L, Integer> targetSources = newIncoming.get(target);
+            newIncoming = newIncoming.plus(target,
+                    (targetSources == null ? PersistentMap.<L, Integer>empty() : targetSources).plus(source, weight));
+            result = new PersistentGraph<>(newOutgoing, newIncoming,
+                    existed ? edgeCount : edgeCount + 1);
+        }
+        result.checkRep(source, target);
+        return result;
+    }
+
+    /**
+     * @param vertex label of the vertex to remove
+     * @return a version of this graph without the vertex with the given label
+     *         or any of its edges; this graph itself if there is no such vertex
+     */
+    public PersistentGraph<L> withoutVertex(L vertex){
+        final PersistentMap<L, Integer> targets = outgoing.get(vertex);
+        if (targets == null){
+            return this;
+        }
+        final PersistentMap<L, Integer> sources = incoming.get(vertex);
+        PersistentMap<L, PersistentMap<L, Integer>> newOutgoing = outgoing.minus(vertex);
+        PersistentMap<L, PersistentMap<L, Integer>> newIncoming = incoming.minus(vertex);
+        //only the neighbours of vertex need to forget about it
+        for (L target : targets.keySet()){
+            final PersistentMap<L, Integer> targetSources = newIncoming.get(target);
+            if (targetSources != null){
+                newIncoming = newIncoming.plus(target, targetSources.minus(vertex));
+            }
+        }
+        for (L source : sources.keySet()){
+            final PersistentMap<L, Integer> sourceTargets = newOutgoing.get(source);
+            if (sourceTargets != null){
+                newOutgoing = newOutgoing.plus(source, sourceTargets.minus(vertex));
+            }
+        }
+        final boolean selfLoop = targets.containsKey(vertex);
+        final int removed = targets.size() + sources.size() - (selfLoop ? 1 : 0);
+        final PersistentGraph<L> result = new PersistentGraph<>(newOutgoing, newIncoming, edgeCount - removed);
+        result.checkRep(vertex, vertex);
+        return result;
+    }
+
+    /**
+     * Not supported: this graph is immutable; use withVertex() instead.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean add(L vertex){
+        throw new UnsupportedOperationException("PersistentGraph is immutable");
+    }
+
+    /**
+     * Not supported: this graph is immutable; use withEdge() instead.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public int set(L source, L target, int weight){
+        throw new UnsupportedOperationException("PersistentGraph is immutable");
+    }
+
+    /**
+     * Not supported: this graph is immutable; use withoutVertex() instead.
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public boolean remove(L vertex){
+        throw new UnsupportedOperationException("PersistentGraph is immutable");
+    }
+
+    @Override
+    public Set<L> vertices(){
+        return outgoing.keySet();
+    }
+
+    @Override
+    public Map<L, Integer> sources(L target){
+        final Map<L, Integer> sources = incoming.get(target);
+        return sources == null ? Collections.emptyMap() : sources;
+    }
+
+    @Override
+    public Map<L, Integer> targets(L source){
+        final Map<L, Integer> targets = outgoing.get(source);
+        return targets == null ? Collections.emptyMap() : targets;
+    }
+
+    @Override
+    public void forEachEdge(EdgeVisitor<? super L> visitor){
+        for (Map.Entry<L, PersistentMap<L, Integer>> targets : outgoing.entrySet()){
+            final L source = targets.getKey();
+            for (Map.Entry<L, Integer> target : targets.getValue().entrySet()){
+                visitor.visit(source, target.getKey(), target.getValue());
+            }
+        }
+    }
+
+    /**
+     * Returns a string with information about what vertices this graph contains.
+     * @return string that prints all of the vertices in this graph.
+     */
+    @Override
+    public String toString(){
+        return "Graph with vertices:" + outgoing.keySet().toString();
+    }
+}
@@ -0,0 +1,477 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable map stored as a hash array mapped trie.
+ *
+ * <p>plus() and minus() return new maps that share every trie node off the
+ * path to the changed key with this one, so each costs O(log32 n) time and
+ * space. Maps that are never changed are never copied. The Map methods that
+ * would modify the map throw UnsupportedOperationException.
+ *
+ * @param <K> type of keys, must be immutable
+ * @param <V> type of values, must be immutable
+ */
+final class PersistentMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentMap<Object, Object> EMPTY = new PersistentMap<>(null, 0);
+
+    private final BitmapNode root;
+    private final int size;
+
+    // Abstraction function:
+    //      AF(root, size) = the map with one key-value pair per Leaf reachable from
+    //                       root (none if root is null)
+    // Representation invariant:
+    //      root is null iff size == 0, and size is the number of reachable Leafs.
+    //      A node at depth d only holds keys whose hash has the same 5-bit
+    //      fragments as the path to it, and puts each of them in the slot of
+    //      fragment d of its hash; bitmap has one bit per slot that is used.
+    //      Keys are distinct. A Collision holds two or more keys of one hash.
+    //      Below the root, no node holds a single Leaf or Collision and
+    //      nothing else: it is inlined into its parent instead.
+    // Safety from rep exposure:
+    //      All fields are private and final, and nodes are never modified after
+    //      construction. Keys and values are immutable.
+    // Thread safety argument:
+    //      Nothing is modified after construction, so a PersistentMap can be
+    //      shared between threads.
+
+    private PersistentMap(BitmapNode root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @param <K> type of keys
+     * @param <V> type of values
+     * @return the empty map
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentMap<K, V> empty(){
+        return (PersistentMap<K, V>) EMPTY;
+    }
+
+    /**
+     * Checks the part of the rep invariant that does not need a walk of the
+     * trie, so that plus() and minus() stay O(log32 n).
+     */
+    private void checkRep(){
+        assert (root == null) == (size == 0);
+        assert size >= 0;
+    }
+
+    /**
+     * @return hashCode() of key, with its high bits spread into the low bits
+     */
+    private static int hash(Object key){
+        final int hash = key.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * @return the bit of the slot for hash in a node at the given shift
+     */
+    private static int bit(int hash, int shift){
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * @return index in the slots of a node with that bitmap of the slot with that bit
+     */
+    private static int index(int bitmap, int bit){
+        return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    @Override
+    public int size(){
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key){
+        return leaf(key) != null;
+    }
+
+    @Override
+    public V get(Object key){
+        final Leaf<K, V> leaf = leaf(key);
+        return leaf == null ? null : leaf.getValue();
+    }
+
+    /**
+     * @param key a key
+     * @return the leaf of key, or null if key is not in this map
+     */
+    @SuppressWarnings("unchecked")
+    private Leaf<K, V> leaf(Object key){
+        if (root == null || key == null){
+            return null;
+        }
+        final int hash = hash(key);
+        Object node = root;
+        for (int shift = 0; ; shift += BITS){
+            if (node instanceof Leaf){
+                final Leaf<K, V> leaf = (Leaf<K, V>) node;
+                return leaf.hash == hash && leaf.getKey().equals(key) ? leaf : null;
+            }
+            if (node instanceof Collision){
+                final Collision collision = (Collision) node;
+                final int position = collision.find(hash, key);
+                return position < 0 ? null : (Leaf<K, V>) collision.leaves[position];
+            }
+            final BitmapNode bitmapNode = (BitmapNode) node;
+            final int bit = bit(hash, shift);
+            if ((bitmapNode.bitmap & bit) == 0){
+                return null;
+            }
+            node = bitmapNode.slots[index(bitmapNode.bitmap, bit)];
+        }
+    }
+
+    /**
+     * @param key key to map, not null
+     * @param value value to map key to, not null
+     * @return a map equal to this one except that key maps to value; this map
+     *         itself if key already maps to an equal value
+     */
+    PersistentMap<K, V> plus(K key, V value){
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(value, "value");
+        final Leaf<K, V> leaf = new Leaf<>(hash(key), key, value);
+        if (root == null){
+            return new PersistentMap<>(new BitmapNode(bit(leaf.hash, 0), new Object[] {leaf}), 1);
+        }
+        final Change change = new Change();
+        final BitmapNode newRoot = (BitmapNode) put(root, 0, leaf, change);
+        if (newRoot == root){
+            return this;
+        }
+        final PersistentMap<K, V> result = new PersistentMap<>(newRoot, change.added ? size + 1 : size);
+        result.checkRep();
+        return result;
+    }
+
+    /**
+     * @param key key to unmap
+     * @return a map equal to this one except that key is not mapped; this map
+     *         itself if key is not mapped
+     */
+    PersistentMap<K, V> minus(Object key){
+        if (root == null || key == null){
+            return this;
+        }
+        final Object newRoot = remove(root, 0, hash(key), key);
+        if (newRoot == root){
+            return this;
+        }
+        if (newRoot == null){
+            return empty();
+        }
+        final PersistentMap<K, V> result = new PersistentMap<>((BitmapNode) newRoot, size - 1);
+        result.checkRep();
+        return result;
+    }
+
+    /**
+     * Put a leaf into a node.
+     * @param node a BitmapNode or Collision at the given shift
+     * @param shift number of hash bits used by the ancestors of node
+     * @param leaf leaf to put
+     * @param change records whether a new key was added
+     * @return node itself if leaf's key already maps to an equal value,
+     *         otherwise a new node with leaf in place of any old leaf of its key
+     */
+    private static Object put(Object node, int shift, Leaf<?, ?> leaf, Change change){
+        if (node instanceof Collision){
+            final Collision collision = (Collision) node;
+            if (collision.hash != leaf.hash){
+                change.added = true;
+                return merge(collision, collision.hash, leaf, shift);
+            }
+            final int position = collision.find(leaf.hash, leaf.getKey());
+            if (position < 0){
+                change.added = true;
+                final Object[] leaves = Arrays.copyOf(collision.leaves, collision.leaves.length + 1);
+                leaves[leaves.length - 1] = leaf;
+                return new Collision(leaf.hash, leaves);
+            }
+            if (((Leaf<?, ?>) collision.leaves[position]).getValue().equals(leaf.getValue())){
+                return node;
+            }
+            final Object[] leaves = collision.leaves.clone();
+            leaves[position] = leaf;
+            return new Collision(leaf.hash, leaves);
+        }
+        final BitmapNode bitmapNode = (BitmapNode) node;
+        final int bit = bit(leaf.hash, shift);
+        final int index = index(bitmapNode.bitmap, bit);
+        if ((bitmapNode.bitmap & bit) == 0){
+            change.added = true;
+            final Object[] slots = new Object[bitmapNode.slots.length + 1];
+            System.arraycopy(bitmapNode.slots, 0, slots, 0, index);
+            slots[index] = leaf;
+            System.arraycopy(bitmapNode.slots, index, slots, index + 1, bitmapNode.slots.length - index);
+            return new BitmapNode(bitmapNode.bitmap | bit, slots);
+        }
+        final Object slot = bitmapNode.slots[index];
+        final Object newSlot;
+        if (slot instanceof Leaf){
+            final Leaf<?, ?> old = (Leaf<?, ?>) slot;
+            if (old.hash == leaf.hash && old.getKey().equals(leaf.getKey())){
+                if (old.getValue().equals(leaf.getValue())){
+                    return node;
+                }
+                newSlot = leaf;
+            } else {
+                change.added = true;
+                newSlot = old.hash == leaf.hash
+                        ? new Collision(leaf.hash, new Object[] {old, leaf})
+                        : merge(old, old.hash, leaf, shift + BITS);
+            }
+        } else {
+            newSlot = put(slot, shift + BITS, leaf, change);
+            if (newSlot == slot){
+                return node;
+            }
+        }
+        final Object[] slots = bitmapNode.slots.clone();
+        slots[index] = newSlot;
+        return new BitmapNode(bitmapNode.bitmap, slots);
+    }
+
+    /**
+     * @param first a Leaf or Collision
+     * @param firstHash hash of first's keys, different from leaf.hash
+     * @param leaf a leaf
+     * @param shift number of hash bits used by the ancestors of the new node
+     * @return a new node at that shift holding first and leaf
+     */
+    private static BitmapNode merge(Object first, int firstHash, Leaf<?, ?> leaf, int shift){
+        final int firstBit = bit(firstHash, shift);
+        final int leafBit = bit(leaf.hash, shift);
+        if (firstBit == leafBit){
+            return new BitmapNode(firstBit, new Object[] {merge(first, firstHash, leaf, shift + BITS)});
+        }
+        // unsigned, since the bit of slot 31 is the sign bit
+        final Object[] slots = Integer.compareUnsigned(firstBit, leafBit) < 0
+                ? new Object[] {first, leaf} : new Object[] {leaf, first};
+        return new BitmapNode(firstBit | leafBit, slots);
+    }
+
+    /**
+     * Remove a key from a node.
+     * @param node a BitmapNode or Collision at the given shift
+     * @param shift number of hash bits used by the ancestors of node
+     * @param hash hash of key
+     * @param key key to remove
+     * @return node itself if it does not hold key; otherwise the node without
+     *         key, which is null if it would be empty, and, below the root, a
+     *         Leaf or Collision if that would be all it holds
+     */
+    private static Object remove(Object node, int shift, int hash, Object key){
+        if (node instanceof Collision){
+            final Collision collision = (Collision) node;
+            final int position = collision.find(hash, key);
+            if (position < 0){
+                return node;
+            }
+            if (collision.leaves.length == 2){
+                return collision.leaves[1 - position];
+            }
+            final Object[] leaves = new Object[collision.leaves.length - 1];
+            System.arraycopy(collision.leaves, 0, leaves, 0, position);
+            System.arraycopy(collision.leaves, position + 1, leaves, position, leaves.length - position);
+            return new Collision(hash, leaves);
+        }
+        final BitmapNode bitmapNode = (BitmapNode) node;
+        final int bit = bit(hash, shift);
+        if ((bitmapNode.bitmap & bit) == 0){
+            return node;
+        }
+        final int index = index(bitmapNode.bitmap, bit);
+        final Object slot = bitmapNode.slots[index];
+        final Object newSlot;
+        if (slot instanceof Leaf){
+            final Leaf<?, ?> leaf = (Leaf<?, ?>) slot;
+            if (leaf.hash != hash || !leaf.getKey().equals(key)){
+                return node;
+            }
+            newSlot = null;
+        } else {
+            newSlot = remove(slot, shift + BITS, hash, key);
+            if (newSlot == slot){
+                return node;
+            }
+        }
+        if (newSlot != null){
+            final Object[] slots = bitmapNode.slots.clone();
+            slots[index] = newSlot;
+            return inlined(new BitmapNode(bitmapNode.bitmap, slots), shift);
+        }
+        if (bitmapNode.slots.length == 1){
+            return null;
+        }
+        final Object[] slots = new Object[bitmapNode.slots.length - 1];
+        System.arraycopy(bitmapNode.slots, 0, slots, 0, index);
+        System.arraycopy(bitmapNode.slots, index + 1, slots, index, slots.length - index);
+        return inlined(new BitmapNode(bitmapNode.bitmap & ~bit, slots), shift);
+    }
+
+    /**
+     * @return the only slot of node if it is below the root and that slot is a
+     *         Leaf or Collision, so that its parent can hold it directly;
+     *         otherwise node
+     */
+    private static Object inlined(BitmapNode node, int shift){
+        if (shift > 0 && node.slots.length == 1 && !(node.slots[0] instanceof BitmapNode)){
+            return node.slots[0];
+        }
+        return node;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet(){
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override public int size(){
+                return size;
+            }
+            @Override public Iterator<Map.Entry<K, V>> iterator(){
+                return new LeafIterator<>(root);
+            }
+        };
+    }
+
+    /**
+     * An immutable key-value pair of the map, with the spread hash of its key.
+     */
+    private static final class Leaf<K, V> extends AbstractMap.SimpleImmutableEntry<K, V> {
+        private static final long serialVersionUID = 1;
+
+        private final int hash;
+
+        Leaf(int hash, K key, V value) {
+            super(key, value);
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * An immutable trie node with up to 32 slots, each a Leaf, a Collision or a
+     * child BitmapNode, stored in increasing order of slot number.
+     */
+    private static final class BitmapNode {
+        private final int bitmap;
+        private final Object[] slots;
+
+        BitmapNode(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+    }
+
+    /**
+     * Immutable leaves of two or more distinct keys with the same hash.
+     */
+    private static final class Collision {
+        private final int hash;
+        private final Object[] leaves;
+
+        Collision(int hash, Object[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+
+        /**
+         * @return position in leaves of key, or -1 if it is not here
+         */
+        int find(int keyHash, Object key){
+            if (keyHash != hash){
+                return -1;
+            }
+            for (int i = 0; i < leaves.length; i++){
+                if (((Leaf<?, ?>) leaves[i]).getKey().equals(key)){
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Records whether put() added a new key.
+     */
+    private static final class Change {
+        private boolean added = false;
+    }
+
+    /**
+     * Iterates over the leaves below a node, depth first, without recursion.
+     */
+    private static final class LeafIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+        // a trie over 32-bit hashes is at most 7 BitmapNodes deep, plus a Collision
+        private final Object[][] slots = new Object[8][];
+        private final int[] positions = new int[8];
+        private int depth = -1;
+        private Leaf<K, V> next;
+
+        LeafIterator(BitmapNode root) {
+            if (root != null){
+                depth = 0;
+                slots[0] = root.slots;
+            }
+            advance();
+        }
+
+        /**
+         * Move next to the following leaf, or to null after the last one.
+         */
+        @SuppressWarnings("unchecked")
+        private void advance(){
+            next = null;
+            while (depth >= 0){
+                if (positions[depth] == slots[depth].length){
+                    positions[depth] = 0;
+                    depth--;
+                    continue;
+                }
+                final Object slot = slots[depth][positions[depth]++];
+                if (slot instanceof Leaf){
+                    next = (Leaf<K, V>) slot;
+                    return;
+                }
+                depth++;
+                slots[depth] = slot instanceof Collision ? ((Collision) slot).leaves : ((BitmapNode) slot).slots;
+            }
+        }
+
+        @Override
+        public boolean hasNext(){
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next(){
+            if (next == null){
+                throw new NoSuchElementException();
+            }
+            final Leaf<K, V> leaf = next;
+            advance();
+            return leaf;
+        }
+    }
+}
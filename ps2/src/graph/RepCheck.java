@@ -0,0 +1,105 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides how often the expensive rep-invariant checks of graph and poet
+ * classes actually run.
+ *
+ * <p>The mode is read once from the {@code graph.repcheck} system property:
+ * {@code "full"} checks on every call, {@code "sampled"} on about one call in
+ * {@link #SAMPLE_PERIOD}, and {@code "off"} never. With assertions enabled, as
+ * when running the tests, the mode is the one the property names, and full
+ * without the property.
+ *
+ * <p>In production, where assertions are disabled, the mode is off, not
+ * sampled, whatever the property says. Every checkRep() states its invariant
+ * with assert, so without assertions a sampled check would still walk the rep
+ * on one call in SAMPLE_PERIOD, O(V+E) each time, and verify nothing. Checks
+ * that only look at O(1) state do not need to consult this class.
+ */
+public final class RepCheck {
+
+    /** How often a rep invariant is checked. */
+    public enum Mode { FULL, SAMPLED, OFF }
+
+    /** In sampled mode, a check runs on average once per this many calls. */
+    public static final int SAMPLE_PERIOD = 256;
+
+    private static final Mode MODE = parse(System.getProperty("graph.repcheck"), assertionsEnabled());
+
+    private RepCheck() {
+        // not meant to be instantiated
+    }
+
+    /**
+     * @return true if assertions are enabled for this class
+     */
+    private static boolean assertionsEnabled() {
+        boolean assertionsEnabled = false;
+        assert assertionsEnabled = true; // side effect intended
+        return assertionsEnabled;
+    }
+
+    /**
+     * @param property value of graph.repcheck, or null if it is not set
+     * @param assertionsEnabled true if checkRep() assertions are enabled
+     * @return OFF if assertionsEnabled is false, since checks without assertions
+     *         verify nothing; otherwise the mode named by property, or FULL if
+     *         property is null
+     * @throws IllegalArgumentException if property names an unknown mode
+     */
+    static Mode parse(String property, boolean assertionsEnabled) {
+        if (property == null) {
+            return assertionsEnabled ? Mode.FULL : Mode.OFF;
+        }
+        final Mode named;
+        switch (property) {
+        case "full":
+            named = Mode.FULL;
+            break;
+        case "sampled":
+            named = Mode.SAMPLED;
+            break;
+        case "off":
+            named = Mode.OFF;
+            break;
+        default:
+            throw new IllegalArgumentException("unknown graph.repcheck mode: " + property);
+        }
+        return assertionsEnabled ? named : Mode.OFF;
+    }
+
+    /**
+     * @return the rep-check mode of this JVM
+     */
+    public static Mode mode() {
+        return MODE;
+    }
+
+    /**
+     * Call at the top of an expensive checkRep(), and skip the check if false.
+     * @return true if the caller should check its rep invariant now
+     */
+    public static boolean due() {
+        return due(MODE);
+    }
+
+    /**
+     * @param mode rep-check mode
+     * @return true if a caller in mode should check its rep invariant now
+     */
+    static boolean due(Mode mode) {
+        switch (mode) {
+        case FULL:
+            return true;
+        case SAMPLED:
+            return ThreadLocalRandom.current().nextInt(SAMPLE_PERIOD) == 0;
+        default:
+            return false;
+        }
+    }
+}
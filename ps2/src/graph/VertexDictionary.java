@@ -0,0 +1,224 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import java.util.Arrays;
+
+/**
+ * A mutable dictionary that interns string vertex labels into dense int ids
+ * 0..size()-1, in order of first appearance.
+ *
+ * <p>Labels can be looked up from any CharSequence (or a slice of one), so a
+ * caller can find the id of a word sitting in a larger buffer without first
+ * copying it into a new String. A String is only created the first time a
+ * label is interned.
+ *
+ * <p>A dictionary can be frozen, after which it never changes, so that it can
+ * be shared instead of copied.
+ */
+public final class VertexDictionary {
+
+    private String[] labels = new String[16];
+    private int[] hashes = new int[16];
+    private int[] slots = new int[32];
+    private int size = 0;
+    private boolean frozen = false;
+
+    // Abstraction function:
+    //      AF(labels, size) = the bijection i <-> labels[i] for 0 <= i < size
+    // Representation invariant:
+    //      labels[0..size-1] are distinct and non-null.
+    //      hashes[i] is hash(labels[i]).
+    //      slots.length is a power of two and at least twice size.
+    //      slots holds id+1 for every id, reachable by linear probing from the
+    //      slot chosen by its hash, and 0 everywhere else.
+    //      Once frozen is true, no field changes again.
+    // Safety from rep exposure:
+    //      All fields are private; only ints and immutable Strings are returned.
+
+    /**
+     * Make an empty dictionary.
+     */
+    public VertexDictionary(){
+    }
+
+    /**
+     * Make a dictionary with the same labels and ids as other, which is not
+     * shared with the new dictionary. The new dictionary is not frozen.
+     * @param other dictionary to copy
+     */
+    public VertexDictionary(VertexDictionary other){
+        labels = Arrays.copyOf(other.labels, other.labels.length);
+        hashes = Arrays.copyOf(other.hashes, other.hashes.length);
+        slots = Arrays.copyOf(other.slots, other.slots.length);
+        size = other.size;
+        checkRep();
+    }
+
+    /**
+     * Checks that the rep invariant holds.
+     */
+    private void checkRep(){
+        assert size <= labels.length;
+        assert slots.length >= 2 * size;
+    }
+
+    /**
+     * Freeze this dictionary, so that no new label can be interned in it.
+     */
+    public void freeze(){
+        frozen = true;
+    }
+
+    /**
+     * @return true if this dictionary has been frozen
+     */
+    public boolean isFrozen(){
+        return frozen;
+    }
+
+    /**
+     * @return number of interned labels
+     */
+    public int size(){
+        return size;
+    }
+
+    /**
+     * @param id an id in 0..size()-1
+     * @return the label with that id
+     */
+    public String label(int id){
+        if (id < 0 || id >= size){
+            throw new IndexOutOfBoundsException("no label with id " + id);
+        }
+        return labels[id];
+    }
+
+    /**
+     * Look up a label.
+     * @param label label to look up
+     * @return id of label, or -1 if it has not been interned
+     */
+    public int find(CharSequence label){
+        return find(label, 0, label.length());
+    }
+
+    /**
+     * Look up the label text.subSequence(start, end) without copying it.
+     * @param text text containing the label
+     * @param start index of the first character of the label
+     * @param end index one past the last character of the label
+     * @return id of the label, or -1 if it has not been interned
+     */
+    public int find(CharSequence text, int start, int end){
+        final int hash = hash(text, start, end);
+        int slot = hash & (slots.length - 1);
+        while (slots[slot] != 0){
+            final int id = slots[slot] - 1;
+            if (hashes[id] == hash && matches(labels[id], text, start, end)){
+                return id;
+            }
+            slot = (slot + 1) & (slots.length - 1);
+        }
+        return -1;
+    }
+
+    /**
+     * Intern a label.
+     * @param label label to intern
+     * @return id of label, which is newly assigned if it had not been interned
+     * @throws UnsupportedOperationException if label is new and this dictionary is frozen
+     */
+    public int intern(CharSequence label){
+        return intern(label, 0, label.length());
+    }
+
+    /**
+     * Intern the label text.subSequence(start, end), copying it only if it is new.
+     * @param text text containing the label
+     * @param start index of the first character of the label
+     * @param end index one past the last character of the label
+     * @return id of the label, which is newly assigned if it had not been interned
+     * @throws UnsupportedOperationException if the label is new and this dictionary is frozen
+     */
+    public int intern(CharSequence text, int start, int end){
+        final int hash = hash(text, start, end);
+        int slot = hash & (slots.length - 1);
+        while (slots[slot] != 0){
+            final int id = slots[slot] - 1;
+            if (hashes[id] == hash && matches(labels[id], text, start, end)){
+                return id;
+            }
+            slot = (slot + 1) & (slots.length - 1);
+        }
+        if (frozen){
+            throw new UnsupportedOperationException("dictionary is frozen");
+        }
+        if (size == labels.length){
+            labels = Arrays.copyOf(labels, size * 2);
+            hashes = Arrays.copyOf(hashes, size * 2);
+        }
+        final int id = size++;
+        labels[id] = text.subSequence(start, end).toString();
+        hashes[id] = hash;
+        slots[slot] = id + 1;
+        if (2 * size > slots.length){
+            rehash();
+        }
+        checkRep();
+        return id;
+    }
+
+    /**
+     * Computes String.hashCode() of the label, with its high bits spread into
+     * the low bits.
+     */
+    private static int hash(CharSequence text, int start, int end){
+        int hash = 0;
+        for (int i = start; i < end; i++){
+            hash = 31 * hash + text.charAt(i);
+        }
+        // spread the high bits, since slots are chosen from the low bits
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * @return true if label has exactly the characters text[start..end)
+     */
+    private static boolean matches(String label, CharSequence text, int start, int end){
+        if (label.length() != end - start){
+            return false;
+        }
+        for (int i = 0; i < label.length(); i++){
+            if (label.charAt(i) != text.charAt(start + i)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Doubles the slot table and reinserts every id.
+     */
+    private void rehash(){
+        slots = new int[slots.length * 2];
+        for (int id = 0; id < size; id++){
+            int slot = hashes[id] & (slots.length - 1);
+            while (slots[slot] != 0){
+                slot = (slot + 1) & (slots.length - 1);
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    /**
+     * Returns a string with every label, in id order.
+     * @return string listing the labels of this dictionary
+     */
+    @Override
+    public String toString(){
+        return "VertexDictionary with labels:" + Arrays.asList(labels).subList(0, size);
+    }
+}
@@ -0,0 +1,252 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import graph.CsrGraph;
+
+/**
+ * Degree and core centralities of CSR graphs, computed over vertex ranges in
+ * parallel, and a helper to pick the top-scoring vertices.
+ *
+ * <p>Every method that takes a ForkJoinPool also accepts null, to run on the
+ * calling thread instead.
+ */
+public final class Centrality {
+
+    private Centrality(){
+        // not meant to be instantiated
+    }
+
+    /**
+     * @param graph a graph
+     * @param pool pool on which to run, or null for the calling thread
+     * @return array whose entry v is the total weight of the edges into v
+     */
+    public static long[] weightedInDegree(CsrGraph graph, ForkJoinPool pool){
+        final long[] degrees = new long[graph.vertexCount()];
+        ParallelRanges.sum(graph, pool, (start, end) -> {
+            for (int vertex = start; vertex < end; vertex++){
+                long total = 0;
+                for (int edge = graph.inStart(vertex); edge < graph.inEnd(vertex); edge++){
+                    total += graph.inWeight(edge);
+                }
+                degrees[vertex] = total;
+            }
+            return 0;
+        });
+        return degrees;
+    }
+
+    /**
+     * @param graph a graph
+     * @param pool pool on which to run, or null for the calling thread
+     * @return array whose entry v is the total weight of the edges out of v
+     */
+    public static long[] weightedOutDegree(CsrGraph graph, ForkJoinPool pool){
+        final long[] degrees = new long[graph.vertexCount()];
+        ParallelRanges.sum(graph, pool, (start, end) -> {
+            for (int vertex = start; vertex < end; vertex++){
+                long total = 0;
+                for (int edge = graph.outStart(vertex); edge < graph.outEnd(vertex); edge++){
+                    total += graph.outWeight(edge);
+                }
+                degrees[vertex] = total;
+            }
+            return 0;
+        });
+        return degrees;
+    }
+
+    /**
+     * Find the core number of every vertex: the largest k such that the vertex
+     * belongs to the k-core, the largest subgraph in which every vertex has at
+     * least k neighbours. Edge directions, weights and self-loops are ignored,
+     * so u and v are neighbours if there is an edge either way between them.
+     *
+     * <p>Computed by iterating, from the degrees, the h-index of each vertex's
+     * neighbours' current values until nothing changes, which converges to the
+     * core numbers and lets every vertex be updated independently. Two int[]
+     * buffers are swapped between iterations.
+     *
+     * @param graph a graph
+     * @param pool pool on which to run each iteration, or null for the calling thread
+     * @return array whose entry v is the core number of v
+     */
+    public static int[] coreNumbers(CsrGraph graph, ForkJoinPool pool){
+        final int vertexCount = graph.vertexCount();
+        final int[][] buffers = { new int[vertexCount], new int[vertexCount] };
+        final int[] initial = buffers[0];
+        ParallelRanges.sum(graph, pool, (start, end) -> {
+            for (int vertex = start; vertex < end; vertex++){
+                initial[vertex] = neighbourCount(graph, vertex);
+            }
+            return 0;
+        });
+        int current = 0;
+        while (true){
+            final int[] cores = buffers[current];
+            final int[] next = buffers[1 - current];
+            final double changed = ParallelRanges.sum(graph, pool, (start, end) -> {
+                int rangeChanged = 0;
+                int[] counts = new int[0];
+                for (int vertex = start; vertex < end; vertex++){
+                    final int bound = cores[vertex];
+                    if (counts.length < bound + 1){
+                        counts = new int[bound + 1];
+                    }
+                    next[vertex] = hIndex(graph, vertex, cores, bound, counts);
+                    if (next[vertex] != bound){
+                        rangeChanged++;
+                    }
+                }
+                return rangeChanged;
+            });
+            current = 1 - current;
+            if (changed == 0){
+                return buffers[current];
+            }
+        }
+    }
+
+    /**
+     * Receives the neighbours of a vertex.
+     */
+    @FunctionalInterface
+    private interface NeighbourAction {
+        void accept(int neighbour);
+    }
+
+    /**
+     * @param graph a graph
+     * @param vertex a vertex of graph
+     * @param action called once per distinct neighbour of vertex, other than
+     *               vertex itself, found by merging its sorted out-row and in-row
+     */
+    private static void forEachNeighbour(CsrGraph graph, int vertex, NeighbourAction action){
+        int out = graph.outStart(vertex);
+        int in = graph.inStart(vertex);
+        final int outEnd = graph.outEnd(vertex);
+        final int inEnd = graph.inEnd(vertex);
+        while (out < outEnd || in < inEnd){
+            final int neighbour;
+            if (in == inEnd || (out < outEnd && graph.target(out) < graph.source(in))){
+                neighbour = graph.target(out++);
+            } else if (out == outEnd || graph.source(in) < graph.target(out)){
+                neighbour = graph.source(in++);
+            } else {
+                neighbour = graph.target(out++);
+                in++;
+            }
+            if (neighbour != vertex){
+                action.accept(neighbour);
+            }
+        }
+    }
+
+    /**
+     * @return number of distinct neighbours of vertex other than itself
+     */
+    private static int neighbourCount(CsrGraph graph, int vertex){
+        final int[] count = { 0 };
+        forEachNeighbour(graph, vertex, neighbour -> count[0]++);
+        return count[0];
+    }
+
+    /**
+     * @param cores current value of every vertex
+     * @param bound current value of vertex, which the result never exceeds
+     * @param counts scratch array of at least bound+1 entries
+     * @return the largest h <= bound such that at least h neighbours of vertex
+     *         have a value of at least h
+     */
+    private static int hIndex(CsrGraph graph, int vertex, int[] cores, int bound, int[] counts){
+        Arrays.fill(counts, 0, bound + 1, 0);
+        forEachNeighbour(graph, vertex, neighbour -> counts[Math.min(cores[neighbour], bound)]++);
+        int atLeast = 0;
+        for (int h = bound; h > 0; h--){
+            atLeast += counts[h];
+            if (atLeast >= h){
+                return h;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Pick the highest-scoring vertices.
+     * @param scores score of every vertex
+     * @param count nonnegative number of vertices to pick
+     * @return the min(count, scores.length) vertices with the highest scores,
+     *         highest first, with ties going to the smaller vertex id
+     */
+    public static int[] top(double[] scores, int count){
+        if (count < 0){
+            throw new IllegalArgumentException("count must be nonnegative");
+        }
+        final int size = Math.min(count, scores.length);
+        // min-heap of the best size vertices so far, worst at the root
+        final int[] heap = new int[size];
+        int heapSize = 0;
+        for (int vertex = 0; vertex < scores.length && size > 0; vertex++){
+            if (heapSize < size){
+                heap[heapSize] = vertex;
+                siftUp(heap, heapSize++, scores);
+            } else if (better(vertex, heap[0], scores)){
+                heap[0] = vertex;
+                siftDown(heap, heapSize, scores);
+            }
+        }
+        final int[] ranked = new int[size];
+        for (int i = size - 1; i >= 0; i--){
+            ranked[i] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize, scores);
+        }
+        return ranked;
+    }
+
+    /**
+     * @return true if vertex a ranks ahead of vertex b
+     */
+    private static boolean better(int a, int b, double[] scores){
+        return scores[a] > scores[b] || (scores[a] == scores[b] && a < b);
+    }
+
+    private static void siftUp(int[] heap, int position, double[] scores){
+        while (position > 0){
+            final int parent = (position - 1) >>> 1;
+            if (!better(heap[parent], heap[position], scores)){
+                break;
+            }
+            swap(heap, parent, position);
+            position = parent;
+        }
+    }
+
+    private static void siftDown(int[] heap, int heapSize, double[] scores){
+        int position = 0;
+        while (true){
+            int worst = position;
+            for (int child = 2 * position + 1; child <= 2 * position + 2 && child < heapSize; child++){
+                if (better(heap[worst], heap[child], scores)){
+                    worst = child;
+                }
+            }
+            if (worst == position){
+                return;
+            }
+            swap(heap, worst, position);
+            position = worst;
+        }
+    }
+
+    private static void swap(int[] heap, int i, int j){
+        final int swap = heap[i];
+        heap[i] = heap[j];
+        heap[j] = swap;
+    }
+}
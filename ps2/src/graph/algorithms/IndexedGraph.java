@@ -0,0 +1,134 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import graph.CsrGraph;
+import graph.DirectAdjacency;
+import graph.Graph;
+
+/**
+ * An immutable snapshot of a Graph&lt;L&gt; whose vertices are numbered
+ * 0..vertexCount()-1 and whose edges are stored in a {@link CsrGraph}.
+ *
+ * <p>The algorithms of this package run on the int ids of a snapshot, so a
+ * traversal costs array reads instead of a sources() or targets() map per
+ * vertex. Taking the snapshot is O(V+E) when the graph implements
+ * {@link DirectAdjacency}, and otherwise costs one targets() call per vertex.
+ * A snapshot can be reused for several algorithms.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public final class IndexedGraph<L> {
+
+    private final List<L> labels;
+    private final Map<L, Integer> ids;
+    private final CsrGraph graph;
+
+    // Abstraction function:
+    //      AF(labels, ids, graph) = the graph with an edge labels[s] -> labels[t]
+    //                               for every edge s -> t of graph, of the same weight
+    // Representation invariant:
+    //      labels has no duplicates, and ids.get(labels.get(i)) == i for every i.
+    //      graph.vertexCount() == labels.size()
+    // Safety from rep exposure:
+    //      All fields are private and final, labels and ids are never modified
+    //      after construction and never returned; graph is immutable.
+
+    /**
+     * @param labels distinct labels, in id order
+     * @param ids inverse of labels
+     * @param graph edges between the ids
+     */
+    private IndexedGraph(List<L> labels, Map<L, Integer> ids, CsrGraph graph){
+        this.labels = labels;
+        this.ids = ids;
+        this.graph = graph;
+        checkRep();
+    }
+
+    /**
+     * Checks the cheap parts of the rep invariant.
+     */
+    private void checkRep(){
+        assert labels.size() == ids.size();
+        assert graph.vertexCount() == labels.size();
+    }
+
+    /**
+     * Take a snapshot of a graph.
+     * @param <L> type of vertex labels
+     * @param graph graph to copy, which must not be modified while this runs
+     * @return snapshot of graph, with ids in the iteration order of graph.vertices()
+     */
+    public static <L> IndexedGraph<L> of(Graph<L> graph){
+        final List<L> labels = new ArrayList<>(graph.vertices());
+        final Map<L, Integer> ids = new HashMap<>();
+        final CsrGraph.Builder builder = new CsrGraph.Builder();
+        for (L label : labels){
+            final int id = ids.size();
+            ids.put(label, id);
+            builder.addVertex(id);
+        }
+        if (graph instanceof DirectAdjacency){
+            @SuppressWarnings("unchecked")
+            final DirectAdjacency<L> direct = (DirectAdjacency<L>) graph;
+            direct.forEachEdge((source, target, weight) ->
+                    builder.increment(ids.get(source), ids.get(target), weight));
+        } else {
+            for (L source : labels){
+                final int sourceId = ids.get(source);
+                for (Map.Entry<L, Integer> target : graph.targets(source).entrySet()){
+                    builder.increment(sourceId, ids.get(target.getKey()), target.getValue());
+                }
+            }
+        }
+        return new IndexedGraph<>(Collections.unmodifiableList(labels), ids, builder.build(false));
+    }
+
+    /**
+     * @return number of vertices
+     */
+    public int vertexCount(){
+        return labels.size();
+    }
+
+    /**
+     * @param label a vertex label
+     * @return id of label, or -1 if it is not a vertex
+     */
+    public int id(L label){
+        final Integer id = ids.get(label);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * @param id a vertex id in 0..vertexCount()-1
+     * @return label of that vertex
+     */
+    public L label(int id){
+        return labels.get(id);
+    }
+
+    /**
+     * @return the edges of this snapshot, between vertex ids
+     */
+    public CsrGraph csr(){
+        return graph;
+    }
+
+    /**
+     * Returns a string describing the size of this snapshot.
+     * @return string with the number of vertices and edges
+     */
+    @Override
+    public String toString(){
+        return "IndexedGraph with " + graph.vertexCount() + " vertices and " + graph.edgeCount() + " edges";
+    }
+}
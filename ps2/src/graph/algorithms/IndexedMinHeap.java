@@ -0,0 +1,160 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import java.util.Arrays;
+
+/**
+ * A mutable binary min-heap of the int items 0..capacity-1, each with a long
+ * key, that supports decreasing the key of an item already in the heap.
+ *
+ * <p>Everything lives in three primitive arrays allocated up front, so no
+ * operation allocates or boxes.
+ */
+final class IndexedMinHeap {
+
+    private final int[] heap;
+    private final int[] position;
+    private final long[] keys;
+    private int size = 0;
+
+    // Abstraction function:
+    //      AF(heap, size, keys) = the set of items heap[0..size-1], where item i
+    //                             has priority keys[i]
+    // Representation invariant:
+    //      0 <= size <= heap.length
+    //      position[heap[p]] == p for 0 <= p < size, and position[i] == -1 for
+    //      every item i not in the heap.
+    //      keys[heap[(p-1)/2]] <= keys[heap[p]] for 0 < p < size
+    // Safety from rep exposure:
+    //      All fields are private; only primitives are returned.
+
+    /**
+     * Make an empty heap.
+     * @param capacity number of items, which are 0..capacity-1
+     */
+    IndexedMinHeap(int capacity){
+        heap = new int[capacity];
+        position = new int[capacity];
+        keys = new long[capacity];
+        Arrays.fill(position, -1);
+    }
+
+    /**
+     * Checks the cheap parts of the rep invariant.
+     */
+    private void checkRep(){
+        assert 0 <= size && size <= heap.length;
+        assert size == 0 || position[heap[0]] == 0;
+    }
+
+    /**
+     * @return true if the heap has no items
+     */
+    boolean isEmpty(){
+        return size == 0;
+    }
+
+    /**
+     * @param item an item
+     * @return true if item is in the heap
+     */
+    boolean contains(int item){
+        return position[item] >= 0;
+    }
+
+    /**
+     * Add item with key, or lower its key to key if it is already in the heap
+     * with a larger key.
+     * @param item an item
+     * @param key its new key
+     * @return true if the heap changed
+     */
+    boolean insertOrDecrease(int item, long key){
+        if (position[item] < 0){
+            heap[size] = item;
+            position[item] = size;
+            size++;
+        } else if (key >= keys[item]){
+            return false;
+        }
+        keys[item] = key;
+        siftUp(position[item]);
+        checkRep();
+        return true;
+    }
+
+    /**
+     * Remove the item with the smallest key; ties go to any of them.
+     * @return the removed item
+     * @throws IllegalStateException if the heap is empty
+     */
+    int popMin(){
+        if (size == 0){
+            throw new IllegalStateException("heap is empty");
+        }
+        final int min = heap[0];
+        size--;
+        position[min] = -1;
+        if (size > 0){
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        checkRep();
+        return min;
+    }
+
+    /**
+     * @param item an item that is or was in the heap
+     * @return the last key given to item
+     */
+    long key(int item){
+        return keys[item];
+    }
+
+    /**
+     * Move the item at heap position p up until its parent is no larger.
+     */
+    private void siftUp(int p){
+        final int item = heap[p];
+        final long key = keys[item];
+        while (p > 0){
+            final int parent = (p - 1) >>> 1;
+            if (keys[heap[parent]] <= key){
+                break;
+            }
+            heap[p] = heap[parent];
+            position[heap[p]] = p;
+            p = parent;
+        }
+        heap[p] = item;
+        position[item] = p;
+    }
+
+    /**
+     * Move the item at heap position p down until its children are no smaller.
+     */
+    private void siftDown(int p){
+        final int item = heap[p];
+        final long key = keys[item];
+        while (true){
+            int child = 2 * p + 1;
+            if (child >= size){
+                break;
+            }
+            if (child + 1 < size && keys[heap[child + 1]] < keys[heap[child]]){
+                child++;
+            }
+            if (key <= keys[heap[child]]){
+                break;
+            }
+            heap[p] = heap[child];
+            position[heap[p]] = p;
+            p = child;
+        }
+        heap[p] = item;
+        position[item] = p;
+    }
+}
@@ -0,0 +1,151 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import graph.CsrGraph;
+import graph.Graph;
+
+/**
+ * Weighted PageRank of directed graphs.
+ *
+ * <p>A random surfer at vertex u follows the edge u -&gt; v with probability
+ * proportional to its weight; with probability 1 - damping, or always if u
+ * has no outgoing edges, it jumps to a uniformly random vertex instead. The
+ * rank of a vertex is the long-run fraction of time the surfer spends there,
+ * so the ranks of a graph sum to 1.
+ *
+ * <p>Ranks are found by power iteration over the incoming edges of the CSR
+ * form, with one pair of double[] buffers swapped between iterations. Each
+ * iteration can be split into vertex ranges that run on a ForkJoinPool: every
+ * range only reads the previous buffer and writes its own slots of the next.
+ */
+public final class PageRank {
+
+    /** Usual probability of following an edge rather than jumping. */
+    public static final double DEFAULT_DAMPING = 0.85;
+
+    /** Default bound on the number of iterations. */
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    /** Default tolerance: iteration stops once ranks move less than this in total. */
+    public static final double DEFAULT_TOLERANCE = 1e-9;
+
+    private PageRank(){
+        // not meant to be instantiated
+    }
+
+    /**
+     * Rank a graph with the default damping, iterations and tolerance.
+     * @param <L> type of vertex labels
+     * @param graph graph to rank
+     * @return map from every vertex of graph to its rank
+     */
+    public static <L> Map<L, Double> rank(Graph<L> graph){
+        return rank(graph, DEFAULT_DAMPING, DEFAULT_MAX_ITERATIONS, DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * Rank a graph.
+     * @param <L> type of vertex labels
+     * @param graph graph to rank
+     * @param damping probability in [0, 1] of following an edge
+     * @param maxIterations nonnegative bound on the number of iterations
+     * @param tolerance nonnegative L1 distance between two successive iterations
+     *                  below which ranks are considered converged
+     * @return map from every vertex of graph to its rank
+     */
+    public static <L> Map<L, Double> rank(Graph<L> graph, double damping, int maxIterations, double tolerance){
+        final IndexedGraph<L> indexed = IndexedGraph.of(graph);
+        final double[] ranks = rank(indexed.csr(), damping, maxIterations, tolerance);
+        final Map<L, Double> byLabel = new HashMap<>();
+        for (int vertex = 0; vertex < ranks.length; vertex++){
+            byLabel.put(indexed.label(vertex), ranks[vertex]);
+        }
+        return byLabel;
+    }
+
+    /**
+     * Rank a CSR graph on the calling thread.
+     * @param graph graph to rank
+     * @param damping probability in [0, 1] of following an edge
+     * @param maxIterations nonnegative bound on the number of iterations
+     * @param tolerance nonnegative L1 distance between two successive iterations
+     *                  below which ranks are considered converged
+     * @return array whose entry v is the rank of vertex v
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public static double[] rank(CsrGraph graph, double damping, int maxIterations, double tolerance){
+        return rank(graph, damping, maxIterations, tolerance, null);
+    }
+
+    /**
+     * Rank a CSR graph, splitting each iteration into vertex ranges that run in
+     * parallel on pool. Gives the same ranks as the sequential version, up to
+     * floating-point rounding.
+     * @param graph graph to rank
+     * @param damping probability in [0, 1] of following an edge
+     * @param maxIterations nonnegative bound on the number of iterations
+     * @param tolerance nonnegative L1 distance between two successive iterations
+     *                  below which ranks are considered converged
+     * @param pool pool on which to run each iteration, or null for the calling thread
+     * @return array whose entry v is the rank of vertex v
+     * @throws IllegalArgumentException if a parameter is out of range
+     */
+    public static double[] rank(CsrGraph graph, double damping, int maxIterations, double tolerance,
+            ForkJoinPool pool){
+        if (!(damping >= 0 && damping <= 1) || maxIterations < 0 || !(tolerance >= 0)){
+            throw new IllegalArgumentException("damping must be in [0, 1], maxIterations and tolerance nonnegative");
+        }
+        final int vertexCount = graph.vertexCount();
+        if (vertexCount == 0){
+            return new double[0];
+        }
+        final long[] outTotal = Centrality.weightedOutDegree(graph, pool);
+        // the two buffers swap roles every iteration
+        final double[][] buffers = { new double[vertexCount], new double[vertexCount] };
+        // share of each vertex's rank sent along one unit of outgoing weight
+        final double[] share = new double[vertexCount];
+        Arrays.fill(buffers[0], 1.0 / vertexCount);
+        int current = 0;
+        for (int iteration = 0; iteration < maxIterations; iteration++){
+            final double[] ranks = buffers[current];
+            final double[] next = buffers[1 - current];
+            final double dangling = ParallelRanges.sum(graph, pool, (start, end) -> {
+                double danglingRank = 0;
+                for (int vertex = start; vertex < end; vertex++){
+                    if (outTotal[vertex] == 0){
+                        danglingRank += ranks[vertex];
+                        share[vertex] = 0;
+                    } else {
+                        share[vertex] = ranks[vertex] / outTotal[vertex];
+                    }
+                }
+                return danglingRank;
+            });
+            final double base = (1 - damping) / vertexCount + damping * dangling / vertexCount;
+            final double change = ParallelRanges.sum(graph, pool, (start, end) -> {
+                double rangeChange = 0;
+                for (int vertex = start; vertex < end; vertex++){
+                    double incoming = 0;
+                    for (int edge = graph.inStart(vertex); edge < graph.inEnd(vertex); edge++){
+                        incoming += share[graph.source(edge)] * graph.inWeight(edge);
+                    }
+                    next[vertex] = base + damping * incoming;
+                    rangeChange += Math.abs(next[vertex] - ranks[vertex]);
+                }
+                return rangeChange;
+            });
+            current = 1 - current;
+            if (change < tolerance){
+                break;
+            }
+        }
+        return buffers[current];
+    }
+}
@@ -0,0 +1,100 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import graph.CsrGraph;
+
+/**
+ * Runs a computation over the vertex range of a CSR graph on a ForkJoinPool.
+ *
+ * <p>The range is split in halves until each piece has at most GRAIN units of
+ * work, where a vertex costs one unit plus one per incident edge, so that a
+ * few very high-degree vertices do not end up in one oversized piece.
+ */
+final class ParallelRanges {
+
+    /** Pieces with at most this much work are computed sequentially. */
+    private static final int GRAIN = 1 << 14;
+
+    /**
+     * Computation over a range of vertices, which must only write to
+     * per-vertex slots of its own range.
+     */
+    @FunctionalInterface
+    interface RangeSum {
+
+        /**
+         * @param start first vertex of the range
+         * @param end one past the last vertex of the range
+         * @return this range's share of a sum over all vertices
+         */
+        double apply(int start, int end);
+    }
+
+    private ParallelRanges(){
+        // not meant to be instantiated
+    }
+
+    /**
+     * Apply body to pieces covering every vertex of graph exactly once.
+     * @param graph graph whose vertex range is split
+     * @param pool pool on which to run the pieces, or null to run body on the
+     *             whole range on the calling thread
+     * @param body computation to run on each piece
+     * @return sum of the results of body over all pieces
+     */
+    static double sum(CsrGraph graph, ForkJoinPool pool, RangeSum body){
+        if (pool == null){
+            return body.apply(0, graph.vertexCount());
+        }
+        return pool.invoke(new RangeTask(graph, body, 0, graph.vertexCount()));
+    }
+
+    /**
+     * Applies body to [start, end), splitting it while it has too much work.
+     */
+    private static final class RangeTask extends RecursiveTask<Double> {
+
+        private static final long serialVersionUID = 1;
+
+        private final CsrGraph graph;
+        private final RangeSum body;
+        private final int start;
+        private final int end;
+
+        RangeTask(CsrGraph graph, RangeSum body, int start, int end){
+            this.graph = graph;
+            this.body = body;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected Double compute(){
+            if (end - start > 1 && work() > GRAIN){
+                final int middle = (start + end) >>> 1;
+                final RangeTask left = new RangeTask(graph, body, start, middle);
+                left.fork();
+                final double right = new RangeTask(graph, body, middle, end).compute();
+                return left.join() + right;
+            }
+            return body.apply(start, end);
+        }
+
+        /**
+         * @return units of work in [start, end)
+         */
+        private long work(){
+            if (start == end){
+                return 0;
+            }
+            return (long) (end - start)
+                    + graph.outEnd(end - 1) - graph.outStart(start)
+                    + graph.inEnd(end - 1) - graph.inStart(start);
+        }
+    }
+}
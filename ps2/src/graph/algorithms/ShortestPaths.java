@@ -0,0 +1,185 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import graph.CsrGraph;
+import graph.Graph;
+
+/**
+ * Immutable single-source shortest paths of a weighted directed graph, where
+ * the length of a path is the sum of its edge weights.
+ *
+ * <p>Computed with Dijkstra's algorithm over an {@link IndexedGraph}, using a
+ * binary heap indexed by vertex id, in O((V+E) log V) time.
+ *
+ * @param <L> type of vertex labels, must be immutable
+ */
+public final class ShortestPaths<L> {
+
+    private final IndexedGraph<L> graph;
+    private final int source;
+    private final long[] distances;
+    private final int[] previous;
+
+    // Abstraction function:
+    //      AF(graph, source, distances, previous) = the shortest paths from
+    //          graph.label(source), where vertex v is at distance distances[v]
+    //          (unreachable if -1) and its shortest path ends with the edge
+    //          previous[v] -> v
+    // Representation invariant:
+    //      distances and previous have one entry per vertex of graph.
+    //      distances[source] == 0 and previous[source] == -1
+    //      previous[v] == -1 iff v == source or distances[v] == -1
+    // Safety from rep exposure:
+    //      All fields are private and final, the arrays are never returned,
+    //      and pathTo() returns a new list.
+
+    /**
+     * @param graph graph searched
+     * @param source id of the source vertex
+     * @param distances distance of every vertex, -1 if unreachable
+     * @param previous predecessor of every vertex on its shortest path
+     */
+    private ShortestPaths(IndexedGraph<L> graph, int source, long[] distances, int[] previous){
+        this.graph = graph;
+        this.source = source;
+        this.distances = distances;
+        this.previous = previous;
+        checkRep();
+    }
+
+    /**
+     * Checks the cheap parts of the rep invariant.
+     */
+    private void checkRep(){
+        assert distances.length == graph.vertexCount();
+        assert previous.length == graph.vertexCount();
+        assert distances[source] == 0 && previous[source] == -1;
+    }
+
+    /**
+     * Find the shortest paths from a vertex.
+     * @param <L> type of vertex labels
+     * @param graph graph to search
+     * @param source a vertex of graph
+     * @return shortest paths from source to every vertex of graph
+     * @throws IllegalArgumentException if source is not a vertex of graph
+     */
+    public static <L> ShortestPaths<L> from(Graph<L> graph, L source){
+        return from(IndexedGraph.of(graph), source);
+    }
+
+    /**
+     * Find the shortest paths from a vertex of a snapshot.
+     * @param <L> type of vertex labels
+     * @param graph snapshot to search
+     * @param source a vertex of graph
+     * @return shortest paths from source to every vertex of graph
+     * @throws IllegalArgumentException if source is not a vertex of graph
+     */
+    public static <L> ShortestPaths<L> from(IndexedGraph<L> graph, L source){
+        final int sourceId = graph.id(source);
+        if (sourceId < 0){
+            throw new IllegalArgumentException("not a vertex: " + source);
+        }
+        final int[] previous = new int[graph.vertexCount()];
+        final long[] distances = distances(graph.csr(), sourceId, previous);
+        return new ShortestPaths<>(graph, sourceId, distances, previous);
+    }
+
+    /**
+     * Find the distance from source to every vertex of a CSR graph.
+     * @param graph graph to search
+     * @param source vertex id in 0..graph.vertexCount()-1
+     * @param previous if not null, an array of graph.vertexCount() entries that
+     *                 receives the vertex before each vertex on its shortest path,
+     *                 or -1 for source and for unreachable vertices
+     * @return array whose entry v is the length of a shortest path from source to
+     *         v, or -1 if there is none
+     */
+    public static long[] distances(CsrGraph graph, int source, int[] previous){
+        final int vertexCount = graph.vertexCount();
+        if (source < 0 || source >= vertexCount){
+            throw new IllegalArgumentException("not a vertex: " + source);
+        }
+        final long[] distances = new long[vertexCount];
+        Arrays.fill(distances, -1);
+        if (previous != null){
+            Arrays.fill(previous, -1);
+        }
+        final boolean[] settled = new boolean[vertexCount];
+        final IndexedMinHeap frontier = new IndexedMinHeap(vertexCount);
+        frontier.insertOrDecrease(source, 0);
+        while (!frontier.isEmpty()){
+            final int vertex = frontier.popMin();
+            final long distance = frontier.key(vertex);
+            settled[vertex] = true;
+            distances[vertex] = distance;
+            for (int edge = graph.outStart(vertex); edge < graph.outEnd(vertex); edge++){
+                final int target = graph.target(edge);
+                if (!settled[target]
+                        && frontier.insertOrDecrease(target, distance + graph.outWeight(edge))
+                        && previous != null){
+                    previous[target] = vertex;
+                }
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * @return the source vertex of these paths
+     */
+    public L source(){
+        return graph.label(source);
+    }
+
+    /**
+     * @param target a vertex label
+     * @return length of a shortest path from source() to target, 0 if target is
+     *         source(), or -1 if target is unreachable or not a vertex
+     */
+    public long distance(L target){
+        final int id = graph.id(target);
+        return id < 0 ? -1 : distances[id];
+    }
+
+    /**
+     * @param target a vertex label
+     * @return the vertices of a shortest path from source() to target, both
+     *         included, or an empty list if target is unreachable or not a vertex
+     */
+    public List<L> pathTo(L target){
+        final int id = graph.id(target);
+        if (id < 0 || distances[id] < 0){
+            return Collections.emptyList();
+        }
+        final List<L> path = new ArrayList<>();
+        for (int vertex = id; vertex >= 0; vertex = previous[vertex]){
+            path.add(graph.label(vertex));
+        }
+        Collections.reverse(path);
+        return path;
+    }
+
+    /**
+     * Returns a string describing these paths.
+     * @return string naming the source and the number of reachable vertices
+     */
+    @Override
+    public String toString(){
+        int reachable = 0;
+        for (long distance : distances){
+            if (distance >= 0){
+                reachable++;
+            }
+        }
+        return "ShortestPaths from " + source() + " reaching " + reachable + " vertices";
+    }
+}
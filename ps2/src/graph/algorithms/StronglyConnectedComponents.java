@@ -0,0 +1,115 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import graph.CsrGraph;
+import graph.Graph;
+
+/**
+ * Strongly connected components of directed graphs, found with an iterative
+ * version of Tarjan's algorithm in O(V+E) time.
+ *
+ * <p>Components are numbered in the order Tarjan's algorithm completes them,
+ * which is a reverse topological order of the condensation: every edge
+ * between two different components goes from a higher number to a lower one.
+ */
+public final class StronglyConnectedComponents {
+
+    private StronglyConnectedComponents(){
+        // not meant to be instantiated
+    }
+
+    /**
+     * @param <L> type of vertex labels
+     * @param graph graph to split into components
+     * @return the strongly connected components of graph, in reverse topological
+     *         order; every vertex is in exactly one of them
+     */
+    public static <L> List<Set<L>> of(Graph<L> graph){
+        final IndexedGraph<L> indexed = IndexedGraph.of(graph);
+        final int[] componentOf = componentOf(indexed.csr());
+        final List<Set<L>> components = new ArrayList<>();
+        for (int vertex = 0; vertex < componentOf.length; vertex++){
+            while (components.size() <= componentOf[vertex]){
+                components.add(new HashSet<>());
+            }
+            components.get(componentOf[vertex]).add(indexed.label(vertex));
+        }
+        return components;
+    }
+
+    /**
+     * @param graph graph to split into components
+     * @return array whose entry v is the number of the component of vertex v,
+     *         with components numbered 0..k-1 in reverse topological order
+     */
+    public static int[] componentOf(CsrGraph graph){
+        final int vertexCount = graph.vertexCount();
+        final int[] index = new int[vertexCount];
+        final int[] lowLink = new int[vertexCount];
+        final int[] component = new int[vertexCount];
+        final boolean[] onStack = new boolean[vertexCount];
+        Arrays.fill(index, -1);
+        // vertices visited but not yet assigned to a component
+        final int[] open = new int[vertexCount];
+        int openCount = 0;
+        // simulated call stack: a vertex and the next of its edges to follow
+        final int[] callVertex = new int[vertexCount];
+        final int[] callEdge = new int[vertexCount];
+        int depth = 0;
+        int nextIndex = 0;
+        int componentCount = 0;
+
+        for (int root = 0; root < vertexCount; root++){
+            if (index[root] >= 0){
+                continue;
+            }
+            index[root] = lowLink[root] = nextIndex++;
+            open[openCount++] = root;
+            onStack[root] = true;
+            callVertex[depth] = root;
+            callEdge[depth++] = graph.outStart(root);
+            while (depth > 0){
+                final int vertex = callVertex[depth - 1];
+                final int edge = callEdge[depth - 1];
+                if (edge < graph.outEnd(vertex)){
+                    callEdge[depth - 1]++;
+                    final int target = graph.target(edge);
+                    if (index[target] < 0){
+                        index[target] = lowLink[target] = nextIndex++;
+                        open[openCount++] = target;
+                        onStack[target] = true;
+                        callVertex[depth] = target;
+                        callEdge[depth++] = graph.outStart(target);
+                    } else if (onStack[target]){
+                        lowLink[vertex] = Math.min(lowLink[vertex], index[target]);
+                    }
+                    continue;
+                }
+                // every edge of vertex is done: return from it
+                depth--;
+                if (depth > 0){
+                    final int caller = callVertex[depth - 1];
+                    lowLink[caller] = Math.min(lowLink[caller], lowLink[vertex]);
+                }
+                if (lowLink[vertex] == index[vertex]){
+                    int member;
+                    do {
+                        member = open[--openCount];
+                        onStack[member] = false;
+                        component[member] = componentCount;
+                    } while (member != vertex);
+                    componentCount++;
+                }
+            }
+        }
+        return component;
+    }
+}
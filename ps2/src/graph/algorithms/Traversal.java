@@ -0,0 +1,145 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import graph.CsrGraph;
+import graph.Graph;
+
+/**
+ * Breadth-first and depth-first traversals of directed graphs.
+ *
+ * <p>Both traversals are iterative, so they do not overflow the call stack
+ * on long paths, and visit the targets of each vertex in increasing id order.
+ * The Graph&lt;L&gt; versions take an {@link IndexedGraph} snapshot first, so
+ * the neighbour order follows its ids.
+ */
+public final class Traversal {
+
+    private Traversal(){
+        // not meant to be instantiated
+    }
+
+    /**
+     * @param <L> type of vertex labels
+     * @param graph graph to traverse
+     * @param start a vertex of graph
+     * @return the vertices reachable from start, in breadth-first order
+     * @throws IllegalArgumentException if start is not a vertex of graph
+     */
+    public static <L> List<L> breadthFirst(Graph<L> graph, L start){
+        final IndexedGraph<L> indexed = IndexedGraph.of(graph);
+        return labels(indexed, breadthFirst(indexed.csr(), startId(indexed, start)));
+    }
+
+    /**
+     * @param <L> type of vertex labels
+     * @param graph graph to traverse
+     * @param start a vertex of graph
+     * @return the vertices reachable from start, in depth-first preorder
+     * @throws IllegalArgumentException if start is not a vertex of graph
+     */
+    public static <L> List<L> depthFirst(Graph<L> graph, L start){
+        final IndexedGraph<L> indexed = IndexedGraph.of(graph);
+        return labels(indexed, depthFirst(indexed.csr(), startId(indexed, start)));
+    }
+
+    /**
+     * @param graph graph to traverse
+     * @param start vertex id in 0..graph.vertexCount()-1
+     * @return the ids reachable from start, in breadth-first order
+     */
+    public static int[] breadthFirst(CsrGraph graph, int start){
+        checkVertex(graph, start);
+        final boolean[] visited = new boolean[graph.vertexCount()];
+        // the order itself is the queue: order[head..tail) are yet to be expanded
+        final int[] order = new int[graph.vertexCount()];
+        int head = 0;
+        int tail = 0;
+        visited[start] = true;
+        order[tail++] = start;
+        while (head < tail){
+            final int vertex = order[head++];
+            for (int edge = graph.outStart(vertex); edge < graph.outEnd(vertex); edge++){
+                final int target = graph.target(edge);
+                if (!visited[target]){
+                    visited[target] = true;
+                    order[tail++] = target;
+                }
+            }
+        }
+        return Arrays.copyOf(order, tail);
+    }
+
+    /**
+     * @param graph graph to traverse
+     * @param start vertex id in 0..graph.vertexCount()-1
+     * @return the ids reachable from start, in depth-first preorder
+     */
+    public static int[] depthFirst(CsrGraph graph, int start){
+        checkVertex(graph, start);
+        final boolean[] visited = new boolean[graph.vertexCount()];
+        final int[] order = new int[graph.vertexCount()];
+        int visitedCount = 0;
+        // each frame is a vertex and the next of its edges to follow
+        final int[] stackVertex = new int[graph.vertexCount()];
+        final int[] stackEdge = new int[graph.vertexCount()];
+        int depth = 0;
+        visited[start] = true;
+        order[visitedCount++] = start;
+        stackVertex[depth] = start;
+        stackEdge[depth++] = graph.outStart(start);
+        while (depth > 0){
+            final int vertex = stackVertex[depth - 1];
+            final int edge = stackEdge[depth - 1];
+            if (edge == graph.outEnd(vertex)){
+                depth--;
+                continue;
+            }
+            stackEdge[depth - 1]++;
+            final int target = graph.target(edge);
+            if (!visited[target]){
+                visited[target] = true;
+                order[visitedCount++] = target;
+                stackVertex[depth] = target;
+                stackEdge[depth++] = graph.outStart(target);
+            }
+        }
+        return Arrays.copyOf(order, visitedCount);
+    }
+
+    /**
+     * @throws IllegalArgumentException if vertex is not a vertex id of graph
+     */
+    private static void checkVertex(CsrGraph graph, int vertex){
+        if (vertex < 0 || vertex >= graph.vertexCount()){
+            throw new IllegalArgumentException("not a vertex: " + vertex);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if start is not a vertex of graph
+     */
+    private static <L> int startId(IndexedGraph<L> graph, L start){
+        final int id = graph.id(start);
+        if (id < 0){
+            throw new IllegalArgumentException("not a vertex: " + start);
+        }
+        return id;
+    }
+
+    /**
+     * @return the labels of ids, in the same order
+     */
+    private static <L> List<L> labels(IndexedGraph<L> graph, int[] ids){
+        final List<L> labels = new ArrayList<>(ids.length);
+        for (int id : ids){
+            labels.add(graph.label(id));
+        }
+        return labels;
+    }
+}
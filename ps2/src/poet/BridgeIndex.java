@@ -0,0 +1,175 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+import graph.CsrGraph;
+
+/**
+ * Thread-safe index of the best bridge words of a CSR word graph.
+ *
+ * <p>For every source word the index keeps a row with, for each of up to topK
+ * targets reachable by the heaviest two-edge paths, the middle word and weight
+ * of the heaviest such path. Rows are built the first time their source is
+ * queried, or all at once by {@link #buildAll()}. A query is then a binary
+ * search in one small sorted row. A pair that did not make its source's top
+ * K falls back to {@link CsrGraph#bridge(int, int)}, so the index always
+ * answers exactly like the graph does, ties included.
+ */
+final class BridgeIndex {
+
+    private final CsrGraph graph;
+    private final int topK;
+    private final AtomicReferenceArray<Row> rows;
+    private final ThreadLocal<Scratch> scratch;
+
+    // Abstraction function:
+    //   AF(graph, topK, rows) = a cache of graph.bridge(s, t) for every source s
+    //                           with rows.get(s) != null and every target t in that row
+    // Representation invariant:
+    //   topK > 0
+    //   rows.length() == graph.vertexCount()
+    //   every non-null row has at most topK targets, sorted increasing, and
+    //   row.bridges[i] == graph.bridge(s, row.targets[i]).
+    //   row.complete iff the row holds every target reachable in two edges from s.
+    // Safety from rep exposure:
+    //   All fields are private and final, and only ints are returned.
+    // Thread safety argument:
+    //   graph is immutable. Rows are immutable once built and are published
+    //   through the AtomicReferenceArray, so readers always see whole rows.
+    //   Two threads may race to build the same row; they build equal rows and
+    //   either one may win. Scratch space is confined to each thread.
+
+    /**
+     * Make an empty index over graph.
+     * @param graph word graph to index
+     * @param topK positive number of targets to keep per source
+     */
+    BridgeIndex(CsrGraph graph, int topK) {
+        if (topK <= 0){
+            throw new IllegalArgumentException("topK must be positive");
+        }
+        this.graph = graph;
+        this.topK = topK;
+        this.rows = new AtomicReferenceArray<>(graph.vertexCount());
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(graph.vertexCount()));
+    }
+
+    /**
+     * Build the row of every source now, in parallel, instead of on first use.
+     */
+    void buildAll(){
+        IntStream.range(0, graph.vertexCount()).parallel().forEach(this::row);
+    }
+
+    /**
+     * @param source a vertex id of the graph
+     * @param target a vertex id of the graph
+     * @return the same bridge as graph.bridge(source, target)
+     */
+    int bridge(int source, int target){
+        final Row row = row(source);
+        final int position = Arrays.binarySearch(row.targets, target);
+        if (position >= 0){
+            return row.bridges[position];
+        }
+        return row.complete ? -1 : graph.bridge(source, target);
+    }
+
+    /**
+     * @param source a vertex id of the graph
+     * @return the row of source, building and publishing it if needed
+     */
+    private Row row(int source){
+        final Row row = rows.get(source);
+        if (row != null){
+            return row;
+        }
+        final Row built = scratch.get().buildRow(source);
+        rows.compareAndSet(source, null, built);
+        return rows.get(source);
+    }
+
+    /**
+     * Immutable top-K bridges of one source.
+     */
+    private static final class Row {
+        private final int[] targets;
+        private final int[] bridges;
+        private final boolean complete;
+
+        Row(int[] targets, int[] bridges, boolean complete) {
+            this.targets = targets;
+            this.bridges = bridges;
+            this.complete = complete;
+        }
+    }
+
+    /**
+     * Per-thread work space for building rows, sized to the vertex count so
+     * that building a row never hashes.
+     */
+    private final class Scratch {
+        private final long[] bestWeight;
+        private final int[] bestBridge;
+        private final int[] reached;
+
+        Scratch(int vertexCount) {
+            bestWeight = new long[vertexCount];
+            bestBridge = new int[vertexCount];
+            reached = new int[vertexCount];
+        }
+
+        /**
+         * @param source a vertex id
+         * @return the top-K row of source
+         */
+        Row buildRow(int source){
+            int reachedCount = 0;
+            // bridges are visited in increasing order, so keeping only strictly
+            // heavier paths breaks ties toward the smallest bridge, like CsrGraph
+            for (int first = graph.outStart(source); first < graph.outEnd(source); first++){
+                final int bridge = graph.target(first);
+                final int firstWeight = graph.outWeight(first);
+                for (int second = graph.outStart(bridge); second < graph.outEnd(bridge); second++){
+                    final int target = graph.target(second);
+                    final long weight = (long) firstWeight + graph.outWeight(second);
+                    if (bestWeight[target] == 0){
+                        reached[reachedCount++] = target;
+                    }
+                    if (weight > bestWeight[target]){
+                        bestWeight[target] = weight;
+                        bestBridge[target] = bridge;
+                    }
+                }
+            }
+            final boolean complete = reachedCount <= topK;
+            int[] kept = Arrays.copyOf(reached, reachedCount);
+            if (!complete){
+                // order by decreasing weight, then keep the first topK
+                final long[] byWeight = new long[reachedCount];
+                for (int i = 0; i < reachedCount; i++){
+                    byWeight[i] = (Math.min(bestWeight[kept[i]], Integer.MAX_VALUE) << 32) | (0xffffffffL - kept[i]);
+                }
+                Arrays.sort(byWeight);
+                kept = new int[topK];
+                for (int i = 0; i < topK; i++){
+                    kept[i] = (int) (0xffffffffL - (byWeight[reachedCount - 1 - i] & 0xffffffffL));
+                }
+            }
+            Arrays.sort(kept);
+            final int[] bridges = new int[kept.length];
+            for (int i = 0; i < kept.length; i++){
+                bridges[i] = bestBridge[kept[i]];
+            }
+            for (int i = 0; i < reachedCount; i++){
+                bestWeight[reached[i]] = 0;
+            }
+            return new Row(kept, bridges, complete);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+
+import graph.CsrGraph;
+import graph.VertexDictionary;
+
+/**
+ * Mutable tokenizer that streams corpus text into a word dictionary and a
+ * word affinity graph builder, as described in {@link GraphPoet}.
+ *
+ * <p>Text can be fed in several pieces; the last word of one piece and the
+ * first word of the next are counted as adjacent, exactly as if the pieces
+ * had been joined with a space. Memory use is bounded by the vocabulary and
+ * the number of distinct adjacencies, not by the length of the corpus.
+ */
+final class CorpusCounter {
+
+    /** Size of each window of a file that is memory-mapped at once. */
+    private static final long WINDOW_BYTES = 64L << 20;
+
+    private final VertexDictionary words;
+    private final CsrGraph.Builder builder;
+    private final NgramModel.Builder ngrams;
+    private int previousWord = -1;
+
+    // reused across words so that a known word costs no allocation
+    private byte[] wordBytes = new byte[64];
+    private int wordLength = 0;
+    private boolean wordIsAscii = true;
+    private final StringBuilder token = new StringBuilder();
+
+    // Abstraction function:
+    //   AF(words, builder, previousWord, wordBytes, wordLength) =
+    //       a counter that has recorded every adjacency of the text fed so far into
+    //       builder, whose last complete word is words.label(previousWord) (none if -1),
+    //       and which is in the middle of the UTF-8 word wordBytes[0..wordLength-1]
+    // Representation invariant:
+    //   previousWord is -1 or a valid id of words.
+    //   0 <= wordLength <= wordBytes.length
+    //   wordIsAscii iff every byte of wordBytes[0..wordLength-1] is < 0x80
+    //   ngrams, if not null, has been fed every word counted so far.
+    // Safety from rep exposure:
+    //   All fields are private; words, builder and ngrams are shared with the
+    //   creator on purpose, since they are the output of this counter.
+
+    /**
+     * Make a counter that adds to words and builder.
+     * @param words dictionary in which to intern the words of the corpus
+     * @param builder builder in which to count adjacencies between word ids
+     */
+    CorpusCounter(VertexDictionary words, CsrGraph.Builder builder) {
+        this(words, builder, null);
+    }
+
+    /**
+     * Make a counter that adds to words and builder, and also feeds every word
+     * to an n-gram builder.
+     * @param words dictionary in which to intern the words of the corpus
+     * @param builder builder in which to count adjacencies between word ids
+     * @param ngrams builder in which to count longer n-grams, or null
+     */
+    CorpusCounter(VertexDictionary words, CsrGraph.Builder builder, NgramModel.Builder ngrams) {
+        this.words = words;
+        this.builder = builder;
+        this.ngrams = ngrams;
+    }
+
+    /**
+     * Checks that the rep invariant holds.
+     */
+    private void checkRep(){
+        assert previousWord >= -1 && previousWord < words.size();
+        assert wordLength >= 0 && wordLength <= wordBytes.length;
+    }
+
+    /**
+     * @param c a character
+     * @return true if c is one of the whitespace characters matched by the regex \\s
+     */
+    static boolean isWhitespace(char c){
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    /**
+     * Count the words of a piece of text.
+     * @param text text to count, which is case-insensitive
+     */
+    void countText(String text){
+        final String lowerText = text.toLowerCase(Locale.ROOT);
+        int start = 0;
+        while (start < lowerText.length()){
+            if (isWhitespace(lowerText.charAt(start))){
+                start++;
+                continue;
+            }
+            int end = start;
+            while (end < lowerText.length() && !isWhitespace(lowerText.charAt(end))){
+                end++;
+            }
+            countWord(words.intern(lowerText, start, end));
+            start = end;
+        }
+        checkRep();
+    }
+
+    /**
+     * Count the words of a UTF-8 text file. The file is memory-mapped one window
+     * at a time and tokenized byte by byte, so it is never held in memory as a
+     * whole, and a word that is already in the dictionary creates no String.
+     * The end of the file ends its last word.
+     * @param corpus file to count
+     * @throws IOException if the file cannot be found or read
+     */
+    void countFile(File corpus) throws IOException {
+        try (FileChannel channel = FileChannel.open(corpus.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            for (long position = 0; position < size; position += WINDOW_BYTES){
+                final long length = Math.min(WINDOW_BYTES, size - position);
+                final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                for (int i = 0; i < length; i++){
+                    countByte(window.get(i));
+                }
+            }
+        }
+        endWord();
+        checkRep();
+    }
+
+    /**
+     * Feed one byte of UTF-8 text.
+     * @param b next byte of the text
+     */
+    private void countByte(byte b){
+        if (b >= 0 && isWhitespace((char) b)){
+            endWord();
+            return;
+        }
+        if (wordLength == wordBytes.length){
+            wordBytes = Arrays.copyOf(wordBytes, wordLength * 2);
+        }
+        wordBytes[wordLength++] = b;
+        wordIsAscii &= b >= 0;
+    }
+
+    /**
+     * Finish the word being read, if any, and count it.
+     */
+    private void endWord(){
+        if (wordLength == 0){
+            return;
+        }
+        final int word;
+        if (wordIsAscii){
+            token.setLength(0);
+            for (int i = 0; i < wordLength; i++){
+                token.append(Character.toLowerCase((char) wordBytes[i]));
+            }
+            word = words.intern(token, 0, token.length());
+        } else {
+            word = words.intern(new String(wordBytes, 0, wordLength, StandardCharsets.UTF_8).toLowerCase(Locale.ROOT));
+        }
+        wordLength = 0;
+        wordIsAscii = true;
+        countWord(word);
+    }
+
+    /**
+     * Record that word follows the previous word of the corpus.
+     * @param word id of the next word of the corpus
+     */
+    private void countWord(int word){
+        if (previousWord >= 0){
+            builder.increment(previousWord, word, 1);
+        } else {
+            builder.addVertex(word);
+        }
+        if (ngrams != null){
+            ngrams.addWord(word);
+        }
+        previousWord = word;
+    }
+}
@@ -3,15 +3,26 @@
  */
 package poet;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Stream;
 
+import graph.CsrGraph;
 import graph.Graph;
+import graph.GraphFile;
+import graph.MappedGraph;
+import graph.RepCheck;
+import graph.VertexDictionary;
+import graph.algorithms.Centrality;
 
 /**
  * A graph-based poetry generator.
@@ -50,39 +61,65 @@ import graph.Graph;
  * <p>the output poem would be:
  * <pre>    Test of the system.    </pre>
  * 
+ * <p>A poet can also be made in n-gram mode, where it counts every run of up
+ * to n words of its corpus. A bridge word b between w1 and w2 must still be on
+ * a two-edge path w1 -> b -> w2, but is chosen using the longest context c of
+ * up to n-1 poem words ending with w1 (bridge words included) that the corpus
+ * has seen: b maximizes the number of occurrences of "c b" plus those of
+ * "c' b w2", where c' is c without its first word, with ties going to the
+ * word that appeared first in the corpus. If no candidate occurs after any
+ * context of two or more words, the bridge word is chosen as above. With
+ * n = 2 the poems are exactly those described above.
+ * 
  */
 public class GraphPoet {
     
-    private final Graph<String> graph = Graph.empty();
+    /** Number of inputs that poems() reads before writing their poems. */
+    private static final int POEM_BATCH = 1 << 12;
+    
+    private final VertexDictionary words;
+    private final CsrGraph graph;
+    private final BridgeIndex index;
+    private final NgramModel ngrams;
     
     // Abstraction function:
-    //   AF(graph) = a poet-based Graph generator that, given a corpus of text
-    //               will generate a word affinity graph where each vertex in the graph
-    //               is a word.
+    //   AF(words, graph, index, ngrams) = a poet-based Graph generator that, given a corpus of text
+    //                      will generate a word affinity graph where each vertex in the graph
+    //                      is a word; vertex i of graph is the word words.label(i).
+    //                      index, if not null, caches the bridge words of graph.
+    //                      ngrams, if not null, counts the longer n-grams of the corpus
+    //                      and chooses bridge words instead of graph and index.
     // Representation invariant:
-    //   Vertices in graph cannot be the empty string. ("")
+    //   Words in words cannot be the empty string. ("")
+    //   graph has exactly one vertex per word in words.
+    //   index is null or an index over graph.
+    //   ngrams is null or a model of the same corpus as graph, over the ids of words.
     // Safety from rep exposure:
     //   poem() and toString() return immutable Strings.
-    //   graph is a private variable that is not returned from any method.
+    //   words, graph and index are private variables that are not returned from any method.
+    //   words is shared between a poet and the poets made by indexed(), and with
+    //   the MappedGraph a poet was loaded from (which froze it), but it is never
+    //   modified after construction.
+    // Thread safety argument:
+    //   words and graph are never modified after construction, and all fields are
+    //   final, so a GraphPoet can be shared between threads once constructed.
+    //   index is a thread-safe BridgeIndex, and ngrams is immutable.
     
     /**
      * Create a new poet with the graph from corpus (as described above).
+     * The corpus is streamed from a memory-mapped file, so memory use is
+     * bounded by its vocabulary rather than its size.
      * 
-     * @param corpus text file from which to derive the poet's affinity graph
+     * @param corpus UTF-8 text file from which to derive the poet's affinity graph
      * @throws IOException if the corpus file cannot be found or read
      */
     public GraphPoet(File corpus) throws IOException {   
-        String corpusString = "";
-        String line;
-        FileReader fileReader = new FileReader(corpus);
-        BufferedReader bufferReader = new BufferedReader(fileReader);
-        while ((line = bufferReader.readLine()) != null){
-            corpusString += line + " ";
-        }
-        fileReader.close();
-        bufferReader.close();
-
-        populateGraph(corpusString);
+        words = new VertexDictionary();
+        index = null;
+        ngrams = null;
+        final CsrGraph.Builder builder = new CsrGraph.Builder();
+        new CorpusCounter(words, builder).countFile(corpus);
+        graph = builder.build(false);
         checkRep();
     }
 
@@ -91,112 +128,320 @@ public class GraphPoet {
      * @param corpus string to create word affinity graph from
      */
     public GraphPoet(String corpus) {
-        populateGraph(corpus);
+        words = new VertexDictionary();
+        index = null;
+        ngrams = null;
+        final CsrGraph.Builder builder = new CsrGraph.Builder();
+        new CorpusCounter(words, builder).countText(corpus);
+        graph = builder.build(false);
         checkRep();
     }
     
     /**
-    * Given a corpus, creates and modifies graph, the word affinity graph (where each vertex in the graph
-                   is a word) associated with this corpus
-     * @param corpus string to create word affinity graph from
+     * Creates a new poet that chooses bridge words with n-grams of the corpus
+     * (as described above), streamed from a memory-mapped file.
+     * 
+     * @param corpus UTF-8 text file from which to derive the poet's affinity graph
+     * @param order longest n-gram to count, from 2 (plain bigrams) to 5
+     * @param minCount positive number of occurrences below which n-grams longer
+     *                 than bigrams are forgotten
+     * @throws IOException if the corpus file cannot be found or read
+     * @throws IllegalArgumentException if order or minCount is out of range
+     */
+    public GraphPoet(File corpus, int order, int minCount) throws IOException {
+        words = new VertexDictionary();
+        index = null;
+        final CsrGraph.Builder builder = new CsrGraph.Builder();
+        final NgramModel.Builder ngramBuilder = new NgramModel.Builder(order);
+        new CorpusCounter(words, builder, ngramBuilder).countFile(corpus);
+        graph = builder.build(false);
+        ngrams = ngramBuilder.build(minCount);
+        checkRep();
+    }
+
+    /**
+     * Creates a new poet that chooses bridge words with n-grams of the corpus
+     * (as described above).
+     * 
+     * @param corpus text from which to derive the poet's affinity graph
+     * @param order longest n-gram to count, from 2 (plain bigrams) to 5
+     * @param minCount positive number of occurrences below which n-grams longer
+     *                 than bigrams are forgotten
+     * @throws IllegalArgumentException if order or minCount is out of range
+     */
+    public GraphPoet(String corpus, int order, int minCount) {
+        words = new VertexDictionary();
+        index = null;
+        final CsrGraph.Builder builder = new CsrGraph.Builder();
+        final NgramModel.Builder ngramBuilder = new NgramModel.Builder(order);
+        new CorpusCounter(words, builder, ngramBuilder).countText(corpus);
+        graph = builder.build(false);
+        ngrams = ngramBuilder.build(minCount);
+        checkRep();
+    }
+    
+    /**
+     * Creates a new poet from an existing word affinity graph, for example one
+     * built by {@link ParallelCorpusBuilder} or loaded by {@link GraphFile#load(File)}.
+     * A loaded graph file is used in place, without copying its words or edges, so a poet
+     * saved with {@link #save(File)} can be reloaded without re-reading its corpus.
+     * Where this description says a tie goes to the word that appears first in
+     * the corpus, it goes to the word that comes first in affinities.vertices();
+     * a graph from ParallelCorpusBuilder lists its words in corpus order, so its
+     * poet writes the same poems as one made from the corpus itself.
+     * @param affinities graph whose vertices are non-empty lower-case words without
+     *                   whitespace, and whose edge weights count adjacencies as
+     *                   described above; it is copied, not retained, unless it
+     *                   is an immutable MappedGraph
+     * @throws IllegalArgumentException if a vertex of affinities is not such a word
      */
-    private void populateGraph(String corpus){
-        //updates graph based on corpus 
-        List<String> corpusList = stringSplitterCaseInsensitive(corpus);
-        for (int i = 0; i < corpusList.size()-1; i++){
-            String currentWord = corpusList.get(i);
-            String nextWord = corpusList.get(i+1);
-            //check if already an edge between the two words; if so, update; otherwise set new edge to 1
-            Map<String, Integer> wordTargets = graph.targets(currentWord);
-            if (wordTargets.containsKey(nextWord)){
-                int oldWeight = wordTargets.get(nextWord);
-                graph.set(currentWord, nextWord, oldWeight + 1);
-            } else {
-                graph.set(currentWord, nextWord, 1);
+    public GraphPoet(Graph<String> affinities) {
+        index = null;
+        ngrams = null;
+        if (affinities instanceof MappedGraph){
+            final MappedGraph mapped = (MappedGraph) affinities;
+            words = mapped.words();
+            for (int word = 0; word < words.size(); word++){
+                if (!isLowerCaseWord(words.label(word))){
+                    throw new IllegalArgumentException("not a lower-case word: \"" + words.label(word) + "\"");
+                }
             }
+            graph = mapped.csr();
+            checkRep();
+            return;
         }
-        if (!corpusList.isEmpty()){
-            //add last sadly otherwise neglected vertex to graph :D
-            graph.add(corpusList.get(corpusList.size()-1));
+        words = new VertexDictionary();
+        final CsrGraph.Builder builder = new CsrGraph.Builder();
+        for (String word : affinities.vertices()){
+            if (!isLowerCaseWord(word)){
+                throw new IllegalArgumentException("not a lower-case word: \"" + word + "\"");
+            }
+            builder.addVertex(words.intern(word));
         }
+        for (String source : affinities.vertices()){
+            final int sourceWord = words.find(source);
+            for (Map.Entry<String, Integer> edge : affinities.targets(source).entrySet()){
+                builder.increment(sourceWord, words.find(edge.getKey()), edge.getValue());
+            }
+        }
+        graph = builder.build(false);
         checkRep();
     }
     
     /**
-     * Checks that the rep invariant holds.
+     * Makes a poet from an already built word graph.
+     * @param words dictionary of the words of graph, which must never be modified afterwards
+     * @param graph word affinity graph whose vertex i is the word words.label(i)
      */
-    private void checkRep(){
-        for (String vertex : graph.vertices()){
-            assert (!vertex.equals(""));
+    GraphPoet(VertexDictionary words, CsrGraph graph) {
+        this.words = words;
+        this.graph = graph;
+        this.index = null;
+        this.ngrams = null;
+        checkRep();
+    }
+    
+    /**
+     * Makes a poet with the words and graph of poet, and the given bridge index.
+     */
+    private GraphPoet(GraphPoet poet, BridgeIndex index) {
+        this.words = poet.words;
+        this.graph = poet.graph;
+        this.index = index;
+        this.ngrams = poet.ngrams;
+        checkRep();
+    }
+    
+    /**
+     * Returns a poet that writes exactly the same poems as this one, but looks
+     * its bridge words up (outside n-gram mode) in a precomputed index of the topK best bridge targets
+     * of every word, so that each adjacent pair of input words costs one small
+     * binary search instead of a scan of both words' edges.
+     * 
+     * @param topK positive number of bridge targets to keep per word; pairs
+     *             outside a word's top topK fall back to scanning the graph
+     * @param eager true to build the whole index now, in parallel; false to
+     *              index each word the first time a poem starts a pair with it
+     * @return an indexed poet with the same affinity graph as this one
+     * @throws IllegalArgumentException if topK is not positive
+     */
+    public GraphPoet indexed(int topK, boolean eager) {
+        final BridgeIndex newIndex = new BridgeIndex(graph, topK);
+        if (eager){
+            newIndex.buildAll();
         }
+        return new GraphPoet(this, newIndex);
     }
-
+    
     /**
-     * Given a input string, returns the list of case-insensitive 'words' split along spaces.
-     * Extra spaces are ignored; ex: "hello \n    hi" --> [hello, hi]
-     * @param input string to split on
-     * @return a list in which each element is a word from the original string
-     */
-    private List<String> stringSplitterCaseInsensitive(String input){
-        input = input.toLowerCase();
-        String[] inputSplit = input.split("\\s");
-        List<String> inputList = new ArrayList<String>();
-        for (int i = 0; i < inputSplit.length; i++){
-            String inputWord = inputSplit[i];
-            if (!inputWord.equals("")){
-                inputList.add(inputWord);
-            }
+     * Saves this poet's word affinity graph in the binary format of
+     * {@link GraphFile}, so that new GraphPoet(GraphFile.load(file)) makes a
+     * poet that writes the same poems as this one.
+     * 
+     * @param file file to write, which is replaced atomically, so it may be the
+     *             file this poet was loaded from
+     * @throws IOException if the file cannot be written; it is then unchanged
+     */
+    public void save(File file) throws IOException {
+        GraphFile.write(words, graph, file);
+    }
+    
+    /**
+     * Ranks the words of this poet's affinity graph, for example to pick the
+     * words of an input that seeds a poem. Scores are computed in parallel on
+     * the common ForkJoinPool.
+     * 
+     * @param ranking how to score each word
+     * @param count nonnegative number of words to return
+     * @return the count highest-ranked words of the corpus (or all of them, if
+     *         there are fewer), best first; ties go to the word that appears
+     *         first in the corpus
+     * @throws IllegalArgumentException if count is negative
+     */
+    public List<String> rankedVocabulary(WordRanking ranking, int count) {
+        final int[] ranked = Centrality.top(ranking.scores(graph, ForkJoinPool.commonPool()), count);
+        final List<String> vocabulary = new ArrayList<>(ranked.length);
+        for (int word : ranked){
+            vocabulary.add(words.label(word));
         }
-        checkRep();
-        return inputList;
+        return vocabulary;
     }
     
     /**
-     * Given a input string, returns the list of case-insensitive 'words' split along spaces.
-     * Extra spaces are ignored; ex: "hello \n    hi" --> [hello, hi]
-     * @param input string to split on
-     * @return a list in which each element is a word from the original string
+     * @param word a string
+     * @return true if word is a non-empty lower-case string without whitespace
      */
-    private List<String> stringSplitterCaseSensitive(String input){
-        String[] inputSplit = input.split("\\s+");
-        List<String> inputList = new ArrayList<String>();
-        for (int i = 0; i < inputSplit.length; i++){
-            String inputWord = inputSplit[i];
-            if (!inputWord.equals("")){
-                inputList.add(inputWord);
+    private static boolean isLowerCaseWord(String word){
+        if (word.isEmpty() || !word.equals(word.toLowerCase(Locale.ROOT))){
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++){
+            if (CorpusCounter.isWhitespace(word.charAt(i))){
+                return false;
             }
         }
-        checkRep();
-        return inputList;
+        return true;
     }
     
     /**
-     * Return bridge word between source and target. A bridge word between source and target
+     * Checks that the rep invariant holds; the per-word part only as often as
+     * RepCheck allows.
+     */
+    private void checkRep(){
+        assert graph.vertexCount() == words.size();
+        if (!RepCheck.due()){
+            return;
+        }
+        for (int word = 0; word < words.size(); word++){
+            assert (!words.label(word).equals(""));
+        }
+    }
+
+    /**
+     * Return the bridge word between source and target. A bridge word between source and target
      * will be some "b" such that source --> b --> target is a two-edge long path with maximum weight
      * along the two-edge long paths from source to target in this poet's affinity graph. 
-     * In case of ties, arbitrarily returns the first word it finds of that maximal bridge length.
-     * @param source vertex from
-     * @param target vertex to
-     * @return empty string if no bridge word between source or target, otherwise, return
-     * maximal bridge word
-     * otherwise, returns the empty string (which is used to signal a lack of a bridge word)
-     */
-    private String getBridgeWord(String source, String target){
-        Map<String, Integer> sourceTargets = graph.targets(source);
-        int maxPathWeight = 0;
-        String bridge = "";
-        for (String sourceTarget : sourceTargets.keySet()){ //source --> another word
-            Map<String, Integer> targetTargets = graph.targets(sourceTarget);
-            if (targetTargets.containsKey(target)){//if two-edge path exists; another word --> target
-                int weight = sourceTargets.get(sourceTarget) + targetTargets.get(target);
-                if (maxPathWeight < weight){
-                    maxPathWeight = weight;
-                    bridge = sourceTarget;
+     * In case of ties, returns the one of those words that appeared first in the corpus.
+     * @param source id of the word from, or -1 if it is not in the graph
+     * @param target id of the word to, or -1 if it is not in the graph
+     * @return id of the maximal bridge word, or -1 if there is no bridge word
+     *         between source and target
+     */
+    private int getBridgeWord(int source, int target){
+        if (source < 0 || target < 0){
+            return -1;
+        }
+        return index != null ? index.bridge(source, target) : graph.bridge(source, target);
+    }
+    
+    /**
+     * Append a word to the end of a poem's context, dropping the oldest word if
+     * the context is full.
+     * @param context latest word ids, oldest first
+     * @param contextLength number of valid ids in context
+     * @param word id of the next word, or -1 if it is not in the corpus, which
+     *             empties the context
+     * @return new number of valid ids in context
+     */
+    private static int push(int[] context, int contextLength, int word){
+        if (word < 0){
+            return 0;
+        }
+        if (contextLength == context.length){
+            System.arraycopy(context, 1, context, 0, contextLength - 1);
+            contextLength--;
+        }
+        context[contextLength] = word;
+        return contextLength + 1;
+    }
+    
+    /**
+     * Look up a word of a poem's input without creating a String, unless the
+     * word has non-ASCII characters.
+     * @param input text containing the word
+     * @param start index of the first character of the word
+     * @param end index one past the last character of the word
+     * @param buffer buffer in which to lower-case the word
+     * @return id of the lower-case word, or -1 if it is not in the corpus
+     */
+    private int find(CharSequence input, int start, int end, PoemBuffer buffer){
+        final StringBuilder token = buffer.token;
+        token.setLength(0);
+        for (int i = start; i < end; i++){
+            final char c = input.charAt(i);
+            if (c >= 0x80){
+                return words.find(input.subSequence(start, end).toString().toLowerCase(Locale.ROOT));
+            }
+            token.append(Character.toLowerCase(c));
+        }
+        return words.find(token, 0, token.length());
+    }
+    
+    /**
+     * Append the poem of input (as described above) to out.
+     * @param input string from which to create the poem
+     * @param out builder to which the poem is appended
+     * @param buffer scratch space, which must not be in use by another thread
+     */
+    private void writePoem(CharSequence input, StringBuilder out, PoemBuffer buffer){
+        final int[] context = buffer.context;
+        int contextLength = 0;
+        int previousId = -1;
+        boolean first = true;
+        int start = 0;
+        while (start < input.length()){
+            if (CorpusCounter.isWhitespace(input.charAt(start))){
+                start++;
+                continue;
+            }
+            int end = start;
+            while (end < input.length() && !CorpusCounter.isWhitespace(input.charAt(end))){
+                end++;
+            }
+            //each word is looked up once, and bridged to from the word before it
+            final int id = find(input, start, end, buffer);
+            if (!first){
+                out.append(' ');
+                final int bridge;
+                if (ngrams != null){
+                    contextLength = push(context, contextLength, previousId);
+                    bridge = previousId < 0 || id < 0
+                            ? -1 : ngrams.bridge(graph, context, contextLength, id);
+                    if (bridge >= 0){
+                        contextLength = push(context, contextLength, bridge);
+                    }
+                } else {
+                    bridge = getBridgeWord(previousId, id);
+                }
+                if (bridge >= 0){
+                    out.append(words.label(bridge)).append(' ');
                 }
             }
+            out.append(input, start, end);
+            first = false;
+            previousId = id;
+            start = end;
         }
-        checkRep();
-        return bridge.toLowerCase();
     }
     
     /**
@@ -206,29 +451,112 @@ public class GraphPoet {
      * @return poem (as described above)
      */
     public String poem(String input) {
-        String output = "";
-        String space = " ";
-        if (input.equals("")){
-            return input;
-        }
-        List<String> inputList = stringSplitterCaseSensitive(input);
-        int allWordsButLast = inputList.size()-1; 
-        for (int i = 0; i < allWordsButLast; i++){
-            if (!inputList.get(i).equals("")){
-            String currentWord = inputList.get(i);
-            String nextWord = inputList.get(i+1);
-            output += currentWord + space;
-            String insensitiveCurrentWord = currentWord.toLowerCase();
-            String insensitiveNextWord = nextWord.toLowerCase();
-            String bridge = getBridgeWord(insensitiveCurrentWord, insensitiveNextWord);
-            if (!bridge.equals("")){
-                output += bridge + space;
+        final StringBuilder output = new StringBuilder(2 * input.length());
+        writePoem(input, output, new PoemBuffer());
+        checkRep();
+        return output.toString();
+    }
+    
+    /**
+     * Generate the poem of every input, in parallel on the common ForkJoinPool,
+     * and write them to out in input order, each followed by a newline.
+     * 
+     * @param inputs strings from which to create poems; read once, in order,
+     *               one batch at a time
+     * @param out destination of the poems
+     * @throws IOException if out throws IOException
+     */
+    public void poems(Iterable<String> inputs, Appendable out) throws IOException {
+        poems(inputs.iterator(), out, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Generate the poem of every input, in parallel on the common ForkJoinPool,
+     * and write them to out in input order, each followed by a newline.
+     * 
+     * @param inputs strings from which to create poems; consumed sequentially,
+     *               one batch at a time, and closed when done
+     * @param out destination of the poems
+     * @throws IOException if out throws IOException
+     */
+    public void poems(Stream<String> inputs, Appendable out) throws IOException {
+        try (Stream<String> closing = inputs) {
+            poems(closing.sequential().iterator(), out, ForkJoinPool.commonPool());
+        }
+    }
+    
+    /**
+     * Generate the poem of every input, and write them to out in input order,
+     * each followed by a newline.
+     * 
+     * <p>Inputs are read in batches of up to POEM_BATCH. Each batch is cut into
+     * one slice per worker of pool; every slice writes its poems into its own
+     * reusable StringBuilder, and the slices are copied to out in order as soon
+     * as each one is done, so memory use is bounded by the batch size, not by
+     * the number of inputs.
+     * 
+     * @param inputs strings from which to create poems
+     * @param out destination of the poems
+     * @param pool pool on which to write the slices of each batch
+     * @throws IOException if out throws IOException
+     */
+    void poems(Iterator<String> inputs, Appendable out, ForkJoinPool pool) throws IOException {
+        final int slices = Math.max(1, pool.getParallelism());
+        final String[] batch = new String[POEM_BATCH];
+        final StringBuilder[] written = new StringBuilder[slices];
+        final PoemBuffer[] buffers = new PoemBuffer[slices];
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>(slices);
+        for (int slice = 0; slice < slices; slice++){
+            written[slice] = new StringBuilder();
+            buffers[slice] = new PoemBuffer();
+        }
+        char[] chars = new char[0];
+        while (inputs.hasNext()){
+            int size = 0;
+            while (size < batch.length && inputs.hasNext()){
+                batch[size++] = inputs.next();
+            }
+            final int batchSize = size;
+            tasks.clear();
+            for (int slice = 0; slice < slices; slice++){
+                final int from = (int) ((long) batchSize * slice / slices);
+                final int to = (int) ((long) batchSize * (slice + 1) / slices);
+                final StringBuilder sliceOut = written[slice];
+                final PoemBuffer buffer = buffers[slice];
+                tasks.add(pool.submit(() -> {
+                    sliceOut.setLength(0);
+                    for (int i = from; i < to; i++){
+                        writePoem(batch[i], sliceOut, buffer);
+                        sliceOut.append('\n');
+                    }
+                }));
             }
-          }
+            for (int slice = 0; slice < slices; slice++){
+                tasks.get(slice).join();
+                final StringBuilder sliceOut = written[slice];
+                if (out instanceof Writer){
+                    // Writer.append(CharSequence) would copy the slice into a new String
+                    if (chars.length < sliceOut.length()){
+                        chars = new char[sliceOut.length()];
+                    }
+                    sliceOut.getChars(0, sliceOut.length(), chars, 0);
+                    ((Writer) out).write(chars, 0, sliceOut.length());
+                } else {
+                    out.append(sliceOut);
+                }
+            }
+            Arrays.fill(batch, 0, batchSize, null);
         }
-        output += inputList.get(inputList.size()-1);
         checkRep();
-        return output;
+    }
+    
+    /**
+     * Scratch space for writing poems, reused across the poems of one thread.
+     */
+    private static final class PoemBuffer {
+        private final StringBuilder token = new StringBuilder();
+        // the latest words are enough for any order, since bridge() only reads the last ones
+        private final int[] context = new int[NgramModel.MAX_ORDER - 1];
     }
     
     /**
@@ -237,8 +565,8 @@ public class GraphPoet {
      */
     public String toString(){
         String vertices = "";
-        for (String vertex : graph.vertices()){
-            vertices += " " + vertex;
+        for (int word = 0; word < words.size(); word++){
+            vertices += " " + words.label(word);
         }
         return "GraphPoet with vertices:"+vertices;
     }
@@ -0,0 +1,236 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+import graph.CsrGraph;
+import graph.VertexDictionary;
+
+/**
+ * A thread-safe poetry service whose corpus can keep growing while it serves poems.
+ *
+ * <p>Poems are always written by an immutable {@link GraphPoet} snapshot, so
+ * {@link #poem(String)} never blocks. Text passed to {@link #append(String)} is
+ * queued and folded into the running word counts by a background thread,
+ * which then publishes a fresh snapshot in one atomic step. Appended text
+ * continues the corpus: the last word before it and its first word count as
+ * adjacent, exactly as if it had been joined to the corpus with a space.
+ * Folding only tokenizes the new text; the corpus seen so far is never
+ * tokenized again, but every published snapshot is a full copy of the word
+ * dictionary and the affinity graph, so each batch costs O(V+E) on top of its
+ * text. Appends that arrive while a batch is being folded are folded together,
+ * so under a steady stream of appends that cost is shared by many of them.
+ */
+public class GraphPoetService implements AutoCloseable {
+
+    private final VertexDictionary words = new VertexDictionary();
+    private final CsrGraph.Builder builder = new CsrGraph.Builder();
+    private final CorpusCounter counter = new CorpusCounter(words, builder);
+
+    private final BlockingQueue<String> pending = new LinkedBlockingQueue<>();
+    private final AtomicReference<GraphPoet> snapshot;
+    private final Thread folder;
+
+    /** Guards appended, folded and failure. */
+    private final Object lock = new Object();
+    private long appended = 0;
+    private long folded = 0;
+    private Throwable failure = null;
+
+    // Abstraction function:
+    //   AF(snapshot, pending) = a poetry service whose poems currently come from
+    //                           snapshot.get(), and whose corpus will grow by each
+    //                           text in pending, in order
+    // Representation invariant:
+    //   0 <= folded <= appended
+    //   appended - folded >= pending.size()
+    //   snapshot.get() is the poet of the first folded appended texts
+    //   failure is null, or what stopped the folder thread other than close()
+    // Safety from rep exposure:
+    //   All fields are private. snapshot() returns a GraphPoet, which is immutable.
+    // Thread safety argument:
+    //   words, builder and counter are confined to the folder thread once the
+    //   constructor returns; readers only ever see copies of them inside snapshots.
+    //   snapshot is an AtomicReference to an immutable GraphPoet, so poem() needs
+    //   no lock and always sees a complete snapshot.
+    //   pending is a thread-safe queue.
+    //   appended, folded and failure are guarded by lock.
+
+    /**
+     * Create a service whose corpus starts as the contents of a file.
+     * @param corpus text file from which to derive the initial affinity graph
+     * @throws IOException if the corpus file cannot be found or read
+     */
+    public GraphPoetService(File corpus) throws IOException {
+        counter.countFile(corpus);
+        snapshot = new AtomicReference<>(takeSnapshot());
+        folder = startFolder();
+    }
+
+    /**
+     * Create a service whose corpus starts as a string.
+     * @param corpus text from which to derive the initial affinity graph
+     */
+    public GraphPoetService(String corpus) {
+        counter.countText(corpus);
+        snapshot = new AtomicReference<>(takeSnapshot());
+        folder = startFolder();
+    }
+
+    /**
+     * Checks that the rep invariant holds.
+     */
+    private void checkRep(){
+        synchronized (lock){
+            assert 0 <= folded && folded <= appended;
+        }
+    }
+
+    /**
+     * @return a daemon thread, already started, that folds pending text
+     */
+    private Thread startFolder(){
+        final Thread thread = new Thread(this::foldForever, "GraphPoetService folder");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Copies the counts so far into a new immutable poet, in O(V+E) time for a
+     * corpus of V distinct words and E distinct adjacencies.
+     * Only called by the constructor and the folder thread.
+     * @return poet of the corpus counted so far
+     */
+    private GraphPoet takeSnapshot(){
+        return new GraphPoet(new VertexDictionary(words), builder.build(false));
+    }
+
+    /**
+     * Body of the folder thread: waits for appended text, folds everything that is
+     * pending at once, and publishes one snapshot per batch.
+     */
+    private void foldForever(){
+        final List<String> batch = new ArrayList<>();
+        try {
+            while (true){
+                batch.add(pending.take());
+                pending.drainTo(batch);
+                for (String text : batch){
+                    counter.countText(text);
+                }
+                snapshot.set(takeSnapshot());
+                synchronized (lock){
+                    folded += batch.size();
+                    lock.notifyAll();
+                }
+                batch.clear();
+                checkRep();
+            }
+        } catch (InterruptedException ie){
+            // close() was called; stop folding
+        } catch (RuntimeException | Error e){
+            synchronized (lock){
+                failure = e;
+                lock.notifyAll();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Throws if the folder thread has failed.
+     * Must be called with lock held.
+     * @throws IllegalStateException if folding appended text failed
+     */
+    private void checkNotFailed(){
+        if (failure != null){
+            throw new IllegalStateException("folding appended text failed", failure);
+        }
+    }
+
+    /**
+     * Generate a poem from the current snapshot of the corpus, without blocking.
+     * @param input string from which to create the poem
+     * @return poem, as described in {@link GraphPoet#poem(String)}
+     */
+    public String poem(String input){
+        return snapshot.get().poem(input);
+    }
+
+    /**
+     * @return the poet that poem() currently uses
+     */
+    public GraphPoet snapshot(){
+        return snapshot.get();
+    }
+
+    /**
+     * Queue text to be added to the end of the corpus. Returns immediately;
+     * poems start using the text once the background thread has folded it in.
+     * @param text text to append to the corpus
+     * @throws IllegalStateException if this service has been closed, or if
+     *         folding earlier text failed, in which case the failure is its cause
+     */
+    public void append(String text){
+        synchronized (lock){
+            checkNotFailed();
+            if (!folder.isAlive()){
+                throw new IllegalStateException("service is closed");
+            }
+            pending.add(text);
+            appended++;
+        }
+        checkRep();
+    }
+
+    /**
+     * Wait until every text appended before this call is used by poem(), or
+     * until this service is closed.
+     * @throws InterruptedException if interrupted while waiting
+     * @throws IllegalStateException if folding appended text failed, in which
+     *         case the failure is its cause and that text will never be used
+     */
+    public void flush() throws InterruptedException {
+        synchronized (lock){
+            final long target = appended;
+            while (folded < target && failure == null && folder.isAlive()){
+                lock.wait(100);
+            }
+            checkNotFailed();
+        }
+    }
+
+    /**
+     * Stop the background thread. Text still pending is dropped, and the last
+     * published snapshot keeps serving poems. If the calling thread is
+     * interrupted while waiting for the background thread to stop, this returns
+     * early with the interrupt status set; the background thread still stops.
+     */
+    @Override
+    public void close() {
+        folder.interrupt();
+        try {
+            folder.join();
+        } catch (InterruptedException ie){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns a string describing the current snapshot.
+     * @return string describing the graph poems are currently written from
+     */
+    @Override
+    public String toString(){
+        return "GraphPoetService serving " + snapshot.get();
+    }
+}
@@ -5,6 +5,9 @@ package poet;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+
+import graph.GraphFile;
 
 /**
  * Example program using GraphPoet.
@@ -20,11 +23,43 @@ public class Main {
      * @throws IOException if a poet corpus file cannot be found or read
      */
     public static void main(String[] args) throws IOException {
-        final GraphPoet nimoy = new GraphPoet(new File("src/poet/letitsnow"));
+        final GraphPoet nimoy = prebuilt(new File("src/poet/letitsnow"));
         final String input = "There's a patch of old snow in a corner That I should have guessed "
                 + "Was a blow-away paper the rain Had brought to rest. It is speckled with grime as if "
                 + "Small print overspread it, The news of a day I've forgotten If I ever read it. ";
         System.out.println(input + "\n>>>\n" + nimoy.poem(input));
     }
     
+    /**
+     * Make a poet from a corpus, using the graph file cached for it by an
+     * earlier run if that file is newer than the corpus, and caching one
+     * otherwise. Graph files are cached in the graphpoet directory of the
+     * system temporary directory, never next to the corpus; if the cache
+     * cannot be written, the poet is still returned.
+     * 
+     * @param corpus text file from which to derive the poet's affinity graph
+     * @return poet of corpus
+     * @throws IOException if the corpus cannot be read
+     */
+    static GraphPoet prebuilt(File corpus) throws IOException {
+        final File cache = new File(System.getProperty("java.io.tmpdir"), "graphpoet");
+        final File graphFile = new File(cache, corpus.getName() + "-"
+                + Integer.toHexString(corpus.getAbsolutePath().hashCode()) + ".graph");
+        if (graphFile.lastModified() > corpus.lastModified()){
+            try {
+                return new GraphPoet(GraphFile.load(graphFile));
+            } catch (IOException ioe){
+                // unreadable or from another version; rebuild it below
+            }
+        }
+        final GraphPoet poet = new GraphPoet(corpus);
+        try {
+            Files.createDirectories(cache.toPath());
+            poet.save(graphFile);
+        } catch (IOException ioe){
+            System.err.println("could not cache the graph of " + corpus + ": " + ioe.getMessage());
+        }
+        return poet;
+    }
+    
 }
@@ -0,0 +1,446 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.util.Arrays;
+
+import graph.CsrGraph;
+
+/**
+ * Immutable counts of the word n-grams of a corpus, up to some order n, used
+ * to pick bridge words that fit a longer context than the previous word.
+ *
+ * <p>The counts live in a hashed trie: every node is an int id, the child of
+ * node p for word w is found by hashing the long key (p, w) into one open
+ * addressing table, and node ids index flat count arrays. A k-gram is counted
+ * by the node reached from the root along its k words, so no n-gram is ever
+ * stored as an object or a String.
+ *
+ * <p>Memory is bounded two ways. While counting, whenever the trie reaches its
+ * node budget, every trigram-or-longer node below a rising count threshold is
+ * pruned; once built, nodes below a minimum count are dropped too. Unigram
+ * and bigram nodes are never pruned, so the bigram counts stay exact.
+ */
+final class NgramModel {
+
+    /** Smallest supported order: plain bigrams. */
+    static final int MIN_ORDER = 2;
+
+    /** Largest supported order. */
+    static final int MAX_ORDER = 5;
+
+    /** Default node budget of a builder, about 60 MB of trie. */
+    static final int DEFAULT_MAX_NODES = 1 << 21;
+
+    private static final long EMPTY = -1;
+    private static final int ROOT = 0;
+
+    private final int order;
+    private final long[] keys;
+    private final int[] slotNodes;
+    private final int[] counts;
+
+    // Abstraction function:
+    //   AF(order, keys, slotNodes, counts) = the n-gram counts, for n <= order, such
+    //       that the k-gram w1..wk occurs counts[v] times, where v is the node reached
+    //       from ROOT by following, for each word w, the node slotNodes[s] at the slot s
+    //       whose keys[s] == key(parent, w); k-grams without such a path occur 0 times
+    //       (or were pruned)
+    // Representation invariant:
+    //   MIN_ORDER <= order <= MAX_ORDER
+    //   keys.length == slotNodes.length is a power of two, and at least one slot is EMPTY.
+    //   The count of every node is positive and at most the count of its parent.
+    // Safety from rep exposure:
+    //   All fields are private and final, never modified after construction, and
+    //   only ints are returned.
+    // Thread safety argument:
+    //   Nothing is modified after construction, so a model can be shared between threads.
+
+    /**
+     * @param order largest n-gram length counted
+     * @param keys hash table of (parent, word) keys
+     * @param slotNodes node id at each occupied slot of keys
+     * @param counts count of each node id
+     */
+    private NgramModel(int order, long[] keys, int[] slotNodes, int[] counts) {
+        this.order = order;
+        this.keys = keys;
+        this.slotNodes = slotNodes;
+        this.counts = counts;
+        checkRep();
+    }
+
+    /**
+     * Checks the cheap parts of the rep invariant.
+     */
+    private void checkRep(){
+        assert MIN_ORDER <= order && order <= MAX_ORDER;
+        assert keys.length == slotNodes.length && Integer.bitCount(keys.length) == 1;
+    }
+
+    /**
+     * @return the largest n-gram length counted
+     */
+    int order(){
+        return order;
+    }
+
+    /**
+     * @return key of the child of parent for word
+     */
+    private static long key(int parent, int word){
+        return ((long) parent << 32) | (word & 0xffffffffL);
+    }
+
+    /**
+     * @return first slot probed for key in a table of mask+1 slots
+     */
+    private static int slot(long key, int mask){
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * @param node a node, or -1
+     * @param word a word id
+     * @return the child of node for word, or -1 if there is none
+     */
+    private int child(int node, int word){
+        if (node < 0){
+            return -1;
+        }
+        final long key = key(node, word);
+        final int mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != EMPTY; slot = (slot + 1) & mask){
+            if (keys[slot] == key){
+                return slotNodes[slot];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param words word ids
+     * @param start index of the first word of the n-gram
+     * @param end index one past its last word
+     * @return node of words[start..end), or -1 if it was never counted
+     */
+    private int node(int[] words, int start, int end){
+        int node = ROOT;
+        for (int i = start; i < end && node >= 0; i++){
+            node = child(node, words[i]);
+        }
+        return node;
+    }
+
+    /**
+     * @param words word ids
+     * @param start index of the first word of the n-gram
+     * @param end index one past its last word, with end - start <= order()
+     * @return number of times words[start..end) occurs in the corpus, or 0 if it
+     *         never does or its count was pruned
+     */
+    int count(int[] words, int start, int end){
+        final int node = node(words, start, end);
+        return node < 0 ? 0 : counts[node];
+    }
+
+    /**
+     * Find the bridge word that best continues a context toward a target.
+     * 
+     * <p>Only words b on a two-edge path context[last] -&gt; b -&gt; target of graph
+     * are candidates. For the longest usable context c ending with context[last],
+     * a candidate scores count(c b) + count(c' b target), where c' is c without
+     * its first word; the context is shortened, down to the previous word alone,
+     * until some candidate scores above 0. With the previous word alone the score
+     * is the weight of the two-edge path, as in {@link CsrGraph#bridge(int, int)}.
+     * Ties go to the smallest word id.
+     * 
+     * @param graph bigram graph of the same corpus
+     * @param context latest word ids of the poem, oldest first
+     * @param contextLength number of valid ids in context, at least 1
+     * @param target id of the next input word
+     * @return id of the best bridge word, or -1 if there is none
+     */
+    int bridge(CsrGraph graph, int[] context, int contextLength, int target){
+        final int source = context[contextLength - 1];
+        for (int length = Math.min(contextLength, order - 1); length >= 2; length--){
+            final int contextNode = node(context, contextLength - length, contextLength);
+            if (contextNode < 0){
+                continue;
+            }
+            // node of c', the context without its first word
+            final int shorterNode = node(context, contextLength - length + 1, contextLength);
+            int best = -1;
+            long bestScore = 0;
+            for (int edge = graph.outStart(source); edge < graph.outEnd(source); edge++){
+                final int bridge = graph.target(edge);
+                if (graph.weight(bridge, target) == 0){
+                    continue;
+                }
+                final int withBridge = child(contextNode, bridge);
+                final int throughBridge = child(child(shorterNode, bridge), target);
+                final long score = (withBridge < 0 ? 0 : counts[withBridge])
+                        + (throughBridge < 0 ? 0 : counts[throughBridge]);
+                if (score > bestScore){
+                    bestScore = score;
+                    best = bridge;
+                }
+            }
+            if (best >= 0){
+                return best;
+            }
+        }
+        return graph.bridge(source, target);
+    }
+
+    /**
+     * Returns a string describing the size of this model.
+     * @return string with the order and number of trie nodes
+     */
+    @Override
+    public String toString(){
+        return "NgramModel of order " + order + " with " + (counts.length - 1) + " n-grams";
+    }
+
+    /**
+     * A mutable counter of the n-grams of a stream of word ids, which produces
+     * an NgramModel.
+     */
+    static final class Builder {
+
+        private final int order;
+        private int maxNodes;
+        private long[] keys = new long[1 << 10];
+        private int[] slotNodes = new int[1 << 10];
+        private int[] counts = new int[1 << 9];
+        private int[] parents = new int[1 << 9];
+        private int[] words = new int[1 << 9];
+        private byte[] depths = new byte[1 << 9];
+        private int nodeCount = 1;
+        private int pruneThreshold = 1;
+
+        // the latest words, not yet counted as the start of an n-gram
+        private final int[] window;
+        private int windowLength = 0;
+
+        // Abstraction function:
+        //   AF(...) = the n-gram counts of the words fed so far, where each of the
+        //             words in window[0..windowLength) still has to be counted as
+        //             the start of an n-gram; node v is the n-gram of depths[v] words
+        //             ending with words[v], following parents[v], and counts[v] times
+        // Representation invariant:
+        //   1 <= nodeCount <= counts.length == parents.length == words.length == depths.length
+        //   keys.length == slotNodes.length is a power of two, at least twice nodeCount.
+        //   parents[v] < v for every node v > 0; node 0 is the root, of depth 0.
+        //   0 <= windowLength < order
+        //   maxNodes only grows, when unigram and bigram nodes alone fill half of it
+        // Safety from rep exposure:
+        //   All fields are private; only ints and immutable models are returned.
+
+        /**
+         * Make an empty builder with the default node budget.
+         * @param order largest n-gram length to count, in MIN_ORDER..MAX_ORDER
+         */
+        Builder(int order) {
+            this(order, DEFAULT_MAX_NODES);
+        }
+
+        /**
+         * Make an empty builder.
+         * @param order largest n-gram length to count, in MIN_ORDER..MAX_ORDER
+         * @param maxNodes positive number of trie nodes above which rare long n-grams
+         *                 are pruned
+         */
+        Builder(int order, int maxNodes) {
+            if (order < MIN_ORDER || order > MAX_ORDER){
+                throw new IllegalArgumentException("order must be in " + MIN_ORDER + ".." + MAX_ORDER);
+            }
+            if (maxNodes <= 0){
+                throw new IllegalArgumentException("maxNodes must be positive");
+            }
+            this.order = order;
+            this.maxNodes = maxNodes;
+            this.window = new int[order];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        /**
+         * Checks the cheap parts of the rep invariant.
+         */
+        private void checkRep(){
+            assert 1 <= nodeCount && nodeCount <= counts.length;
+            assert keys.length >= 2 * nodeCount;
+            assert 0 <= windowLength && windowLength < order;
+        }
+
+        /**
+         * @return number of trie nodes, the root included
+         */
+        int nodeCount(){
+            return nodeCount;
+        }
+
+        /**
+         * Feed the next word of the corpus.
+         * @param word id of the word
+         */
+        void addWord(int word){
+            window[windowLength++] = word;
+            if (windowLength == order){
+                countPath(0);
+                System.arraycopy(window, 1, window, 0, order - 1);
+                windowLength--;
+            }
+            checkRep();
+        }
+
+        /**
+         * Count the n-gram of the words window[start..windowLength), and each of
+         * its prefixes, once more.
+         */
+        private void countPath(int start){
+            int node = ROOT;
+            for (int i = start; i < windowLength; i++){
+                node = childOrCreate(node, window[i]);
+                counts[node]++;
+            }
+            if (nodeCount >= maxNodes){
+                pruneToBudget();
+            }
+        }
+
+        /**
+         * @return the child of parent for word, created with count 0 if missing
+         */
+        private int childOrCreate(int parent, int word){
+            final long key = key(parent, word);
+            final int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (keys[slot] != EMPTY){
+                if (keys[slot] == key){
+                    return slotNodes[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            if (nodeCount == counts.length){
+                final int capacity = 2 * counts.length;
+                counts = Arrays.copyOf(counts, capacity);
+                parents = Arrays.copyOf(parents, capacity);
+                words = Arrays.copyOf(words, capacity);
+                depths = Arrays.copyOf(depths, capacity);
+            }
+            final int node = nodeCount++;
+            counts[node] = 0;
+            parents[node] = parent;
+            words[node] = word;
+            depths[node] = (byte) (depths[parent] + 1);
+            keys[slot] = key;
+            slotNodes[slot] = node;
+            if (2 * nodeCount > keys.length){
+                rehash(2 * keys.length);
+            }
+            return node;
+        }
+
+        /**
+         * Rebuild the hash table with the given number of slots from the node arrays.
+         */
+        private void rehash(int capacity){
+            keys = new long[capacity];
+            slotNodes = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            final int mask = capacity - 1;
+            for (int node = 1; node < nodeCount; node++){
+                final long key = key(parents[node], words[node]);
+                int slot = slot(key, mask);
+                while (keys[slot] != EMPTY){
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                slotNodes[slot] = node;
+            }
+        }
+
+        /**
+         * Prune rare trigram-or-longer nodes, raising the threshold until at most
+         * half the node budget is used. If unigrams and bigrams alone use more,
+         * the budget grows instead, so that pruning stays amortized O(1) per word.
+         */
+        private void pruneToBudget(){
+            while (nodeCount > maxNodes / 2){
+                if (!hasPrunableNodes()){
+                    maxNodes = 2 * nodeCount;
+                    return;
+                }
+                pruneThreshold++;
+                prune(pruneThreshold);
+            }
+        }
+
+        /**
+         * @return true if some node is deep enough to be pruned
+         */
+        private boolean hasPrunableNodes(){
+            for (int node = 1; node < nodeCount; node++){
+                if (depths[node] > 2){
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Drop every trigram-or-longer node counted fewer than threshold times,
+         * with its descendants, and renumber the rest.
+         */
+        private void prune(int threshold){
+            final int[] newIds = new int[nodeCount];
+            int kept = 1;
+            // parents come before their children, so one pass sees each parent first
+            for (int node = 1; node < nodeCount; node++){
+                final boolean keep = newIds[parents[node]] >= 0
+                        && (depths[node] <= 2 || counts[node] >= threshold);
+                if (!keep){
+                    newIds[node] = -1;
+                    continue;
+                }
+                final int id = kept++;
+                newIds[node] = id;
+                counts[id] = counts[node];
+                parents[id] = newIds[parents[node]];
+                words[id] = words[node];
+                depths[id] = depths[node];
+            }
+            nodeCount = kept;
+            rehash(keys.length);
+        }
+
+        /**
+         * Produce a model of the words fed so far, as if the corpus ended here.
+         * The builder must not be used afterwards.
+         * @param minCount positive count below which trigram-or-longer n-grams are dropped
+         * @return model of the corpus
+         */
+        NgramModel build(int minCount){
+            if (minCount < 1){
+                throw new IllegalArgumentException("minCount must be positive");
+            }
+            // the last words start n-grams shorter than the order
+            for (int start = 0; start < windowLength; start++){
+                countPath(start);
+            }
+            windowLength = 0;
+            if (minCount > 1){
+                prune(minCount);
+            }
+            int capacity = 2;
+            while (capacity < 2 * nodeCount){
+                capacity *= 2;
+            }
+            rehash(capacity);
+            return new NgramModel(order, keys, slotNodes, Arrays.copyOf(counts, nodeCount));
+        }
+    }
+}
@@ -0,0 +1,230 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import graph.ConcreteAdjacencyGraph;
+import graph.Graph;
+
+/**
+ * Builds word affinity graphs (as described in {@link GraphPoet}) from large
+ * corpora in parallel.
+ *
+ * <p>The corpus is split at whitespace into shards, the adjacencies inside
+ * every shard are counted on a ForkJoinPool, and neighbouring shards are
+ * stitched together by also counting the pair made of the last word of one
+ * shard and the first word of the next. The resulting graph is exactly the
+ * one a sequential pass over the corpus would produce.
+ *
+ * <p>Every shard also records where each of its words first appears, so that
+ * the vertices of the graph are added, and listed by its vertices(), in the
+ * order the corpus first uses them. A GraphPoet made from the graph therefore
+ * breaks ties between bridge words exactly as one made from the corpus does.
+ */
+public final class ParallelCorpusBuilder {
+
+    /** Shards at most this many characters long are counted sequentially. */
+    private static final int SHARD_CHARS = 1 << 16;
+
+    private ParallelCorpusBuilder() {
+        // not meant to be instantiated
+    }
+
+    /**
+     * Build the word affinity graph of a corpus.
+     * @param corpus text from which to derive the graph
+     * @param pool pool on which to count the shards of corpus
+     * @return a new graph whose vertices are the lower-case words of corpus, with an
+     *         edge from w1 to w2 whose weight is the number of times w1 is followed
+     *         by w2 in corpus; its vertices() lists the words in the order they
+     *         first appear in corpus
+     */
+    public static Graph<String> build(String corpus, ForkJoinPool pool) {
+        return build(corpus, pool, SHARD_CHARS);
+    }
+
+    /**
+     * Build the word affinity graph of a corpus, using shards of about shardChars
+     * characters.
+     * @param corpus text from which to derive the graph
+     * @param pool pool on which to count the shards of corpus
+     * @param shardChars positive number of characters below which a range of the
+     *                   corpus is not split further
+     * @return the word affinity graph of corpus, as in build(corpus, pool)
+     */
+    static Graph<String> build(String corpus, ForkJoinPool pool, int shardChars) {
+        final String lowerCorpus = corpus.toLowerCase(Locale.ROOT);
+        final Shard counted = pool.invoke(new CountTask(lowerCorpus, 0, lowerCorpus.length(), shardChars));
+        final List<Map.Entry<String, Integer>> firstSeen = new ArrayList<>(counted.firstSeen.entrySet());
+        firstSeen.sort(Map.Entry.comparingByValue());
+        final Graph<String> graph = new ConcreteAdjacencyGraph<>();
+        for (Map.Entry<String, Integer> word : firstSeen) {
+            graph.add(word.getKey());
+        }
+        for (Map.Entry<String, Map<String, Integer>> sourceCounts : counted.counts.entrySet()) {
+            final String source = sourceCounts.getKey();
+            for (Map.Entry<String, Integer> targetCount : sourceCounts.getValue().entrySet()) {
+                graph.set(source, targetCount.getKey(), targetCount.getValue());
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Adjacency counts of one contiguous range of a corpus.
+     * Mutable, and only ever touched by one task at a time.
+     */
+    private static final class Shard {
+
+        private final Map<String, Map<String, Integer>> counts = new HashMap<>();
+        private final Map<String, Integer> firstSeen = new HashMap<>();
+        private String firstWord = null;
+        private String lastWord = null;
+
+        // Abstraction function:
+        //   AF(counts, firstSeen, firstWord, lastWord) = the adjacencies of a range of
+        //       words, where counts.get(w1).get(w2) is the number of times w1 is
+        //       followed by w2, firstSeen.get(w) is the corpus index at which w first
+        //       appears in the range, and firstWord and lastWord are the ends of the
+        //       range (null if the range has no words)
+        // Representation invariant:
+        //   firstWord == null iff lastWord == null iff firstSeen is empty and the
+        //   range has no words; counts is then empty too.
+        //   Every count is positive, and every word of counts is a key of firstSeen.
+        //   Indexes in firstSeen are distinct.
+        // Safety from rep exposure:
+        //   Private to ParallelCorpusBuilder and never returned to clients.
+
+        /**
+         * Append the next word of the range.
+         * @param word next word
+         * @param index index of word in the corpus
+         */
+        void addWord(String word, int index) {
+            firstSeen.putIfAbsent(word, index);
+            if (lastWord == null) {
+                firstWord = word;
+            } else {
+                count(lastWord, word, 1);
+            }
+            lastWord = word;
+        }
+
+        /**
+         * Add times to the number of times source is followed by target.
+         */
+        private void count(String source, String target, int times) {
+            counts.computeIfAbsent(source, word -> new HashMap<>()).merge(target, times, Integer::sum);
+        }
+
+        /**
+         * Append the range counted by next, which must directly follow this
+         * range in the corpus, to this shard.
+         * @param next shard counting the range right after this one
+         * @return this shard, now counting both ranges
+         */
+        Shard append(Shard next) {
+            if (next.firstWord == null) {
+                return this;
+            }
+            if (lastWord == null) {
+                return next;
+            }
+            // pour the smaller map into the larger one
+            final boolean thisIsLarger = counts.size() >= next.counts.size();
+            final Map<String, Map<String, Integer>> into = thisIsLarger ? counts : next.counts;
+            final Map<String, Map<String, Integer>> from = thisIsLarger ? next.counts : counts;
+            for (Map.Entry<String, Map<String, Integer>> sourceCounts : from.entrySet()) {
+                final Map<String, Integer> intoTargets = into.get(sourceCounts.getKey());
+                if (intoTargets == null) {
+                    into.put(sourceCounts.getKey(), sourceCounts.getValue());
+                } else {
+                    for (Map.Entry<String, Integer> targetCount : sourceCounts.getValue().entrySet()) {
+                        intoTargets.merge(targetCount.getKey(), targetCount.getValue(), Integer::sum);
+                    }
+                }
+            }
+            final Map<String, Integer> intoSeen = thisIsLarger ? firstSeen : next.firstSeen;
+            final Map<String, Integer> fromSeen = thisIsLarger ? next.firstSeen : firstSeen;
+            for (Map.Entry<String, Integer> seen : fromSeen.entrySet()) {
+                intoSeen.merge(seen.getKey(), seen.getValue(), Math::min);
+            }
+            final Shard joined = thisIsLarger ? this : next;
+            // stitch the pair that crosses the boundary between the two ranges
+            joined.count(lastWord, next.firstWord, 1);
+            joined.firstWord = firstWord;
+            joined.lastWord = next.lastWord;
+            return joined;
+        }
+    }
+
+    /**
+     * Counts the adjacencies of corpus[start..end), splitting it in two at a
+     * whitespace character while it is longer than shardChars.
+     * start and end must each be 0, corpus.length(), or the index of a
+     * whitespace character, so that no word is cut in half.
+     */
+    private static final class CountTask extends RecursiveTask<Shard> {
+
+        private static final long serialVersionUID = 1;
+
+        private final String corpus;
+        private final int start;
+        private final int end;
+        private final int shardChars;
+
+        CountTask(String corpus, int start, int end, int shardChars) {
+            this.corpus = corpus;
+            this.start = start;
+            this.end = end;
+            this.shardChars = shardChars;
+        }
+
+        @Override
+        protected Shard compute() {
+            if (end - start > shardChars) {
+                int middle = start + (end - start) / 2;
+                while (middle < end && !CorpusCounter.isWhitespace(corpus.charAt(middle))) {
+                    middle++;
+                }
+                if (middle < end) {
+                    final CountTask left = new CountTask(corpus, start, middle, shardChars);
+                    final CountTask right = new CountTask(corpus, middle, end, shardChars);
+                    left.fork();
+                    final Shard rightShard = right.compute();
+                    return left.join().append(rightShard);
+                }
+            }
+            return countSequentially();
+        }
+
+        /**
+         * @return the adjacencies of corpus[start..end), counted on this thread
+         */
+        private Shard countSequentially() {
+            final Shard shard = new Shard();
+            int wordStart = start;
+            while (wordStart < end) {
+                if (CorpusCounter.isWhitespace(corpus.charAt(wordStart))) {
+                    wordStart++;
+                    continue;
+                }
+                int wordEnd = wordStart;
+                while (wordEnd < end && !CorpusCounter.isWhitespace(corpus.charAt(wordEnd))) {
+                    wordEnd++;
+                }
+                shard.addWord(corpus.substring(wordStart, wordEnd), wordStart);
+                wordStart = wordEnd;
+            }
+            return shard;
+        }
+    }
+}
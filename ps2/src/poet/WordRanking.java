@@ -0,0 +1,74 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import java.util.concurrent.ForkJoinPool;
+
+import graph.CsrGraph;
+import graph.algorithms.Centrality;
+import graph.algorithms.PageRank;
+
+/**
+ * Ways to rank the words of a word affinity graph, for
+ * {@link GraphPoet#rankedVocabulary(WordRanking, int)}.
+ */
+public enum WordRanking {
+
+    /** Weighted PageRank: words that heavily weighted paths lead to. */
+    PAGE_RANK {
+        @Override
+        double[] scores(CsrGraph graph, ForkJoinPool pool) {
+            return PageRank.rank(graph, PageRank.DEFAULT_DAMPING, PageRank.DEFAULT_MAX_ITERATIONS,
+                    PageRank.DEFAULT_TOLERANCE, pool);
+        }
+    },
+
+    /** Weighted in-degree: how often a word follows another word. */
+    IN_DEGREE {
+        @Override
+        double[] scores(CsrGraph graph, ForkJoinPool pool) {
+            return toDoubles(Centrality.weightedInDegree(graph, pool));
+        }
+    },
+
+    /** Weighted out-degree: how often a word is followed by another word. */
+    OUT_DEGREE {
+        @Override
+        double[] scores(CsrGraph graph, ForkJoinPool pool) {
+            return toDoubles(Centrality.weightedOutDegree(graph, pool));
+        }
+    },
+
+    /** Core number: words in the most densely connected part of the vocabulary. */
+    CORE {
+        @Override
+        double[] scores(CsrGraph graph, ForkJoinPool pool) {
+            final int[] cores = Centrality.coreNumbers(graph, pool);
+            final double[] scores = new double[cores.length];
+            for (int i = 0; i < cores.length; i++){
+                scores[i] = cores[i];
+            }
+            return scores;
+        }
+    };
+
+    /**
+     * @param graph word affinity graph
+     * @param pool pool on which to compute the scores
+     * @return score of every word id of graph; higher ranks first
+     */
+    abstract double[] scores(CsrGraph graph, ForkJoinPool pool);
+
+    /**
+     * @param values array to convert
+     * @return values as doubles
+     */
+    private static double[] toDoubles(long[] values){
+        final double[] doubles = new double[values.length];
+        for (int i = 0; i < values.length; i++){
+            doubles[i] = values[i];
+        }
+        return doubles;
+    }
+}
@@ -0,0 +1,161 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for BatchingListener.
+ */
+public class BatchingListenerTest {
+
+    /*
+     * Testing strategy for BatchingListener:
+     *
+     * graphChanged(), flush():
+     *      - batch delivered when maxBatch events are pending, on flush()
+     *      - flush() with nothing pending, with everything cancelled
+     *      - edge set repeatedly (coalesced), set back to its first weight
+     *        (cancelled), set again after cancelling
+     *      - vertex removed between two sets of one edge (not coalesced)
+     *      - applying the batches in order gives the same graph
+     *      - a derived index updated from batches agrees with recomputing it
+     * BatchingListener():
+     *      - maxBatch <= 0
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    //covers case batch delivered at maxBatch, on flush(), flush() with nothing pending
+    @Test
+    public void testBatchSizes() {
+        List<List<GraphEvent<String>>> batches = new ArrayList<>();
+        BatchingListener<String> batching = new BatchingListener<>(2, batches::add);
+        ObservableGraph<String> graph = new ObservableGraph<>(new ConcreteAdjacencyGraph<String>());
+        graph.addListener(batching);
+        graph.add("a");
+        assertEquals("expected one pending event", 1, batching.pending());
+        graph.add("b");
+        assertEquals("expected a full batch", 1, batches.size());
+        graph.add("c");
+        batching.flush();
+        batching.flush();
+        assertEquals("expected two batches", Arrays.asList(
+                Arrays.asList(new GraphEvent.VertexAdded<>("a"), new GraphEvent.VertexAdded<>("b")),
+                Arrays.asList(new GraphEvent.VertexAdded<>("c"))), batches);
+    }
+
+    //covers case edge set repeatedly, set back to its first weight, set again after cancelling
+    @Test
+    public void testCoalescing() {
+        List<List<GraphEvent<String>>> batches = new ArrayList<>();
+        BatchingListener<String> batching = new BatchingListener<>(100, batches::add);
+        batching.graphChanged(new GraphEvent.EdgeSet<>("a", "b", 1, 2));
+        batching.graphChanged(new GraphEvent.EdgeSet<>("a", "b", 2, 3));
+        batching.graphChanged(new GraphEvent.EdgeSet<>("b", "a", 0, 1));
+        batching.graphChanged(new GraphEvent.EdgeSet<>("a", "b", 3, 1));
+        assertEquals("a -> b should cancel out", 1, batching.pending());
+        batching.graphChanged(new GraphEvent.EdgeSet<>("a", "b", 1, 4));
+        batching.flush();
+        assertEquals("expected coalesced events", Arrays.asList(Arrays.asList(
+                new GraphEvent.EdgeSet<>("a", "b", 1, 4),
+                new GraphEvent.EdgeSet<>("b", "a", 0, 1))), batches);
+    }
+
+    //covers case everything cancelled
+    @Test
+    public void testAllCancelled() {
+        List<List<GraphEvent<String>>> batches = new ArrayList<>();
+        BatchingListener<String> batching = new BatchingListener<>(100, batches::add);
+        batching.graphChanged(new GraphEvent.EdgeSet<>("a", "b", 0, 2));
+        batching.graphChanged(new GraphEvent.EdgeSet<>("a", "b", 2, 0));
+        batching.flush();
+        assertTrue("expected no batch", batches.isEmpty());
+    }
+
+    //covers case vertex removed between two sets of one edge
+    @Test
+    public void testRemovalEndsCoalescing() {
+        List<List<GraphEvent<String>>> batches = new ArrayList<>();
+        BatchingListener<String> batching = new BatchingListener<>(100, batches::add);
+        ObservableGraph<String> graph = new ObservableGraph<>(new ConcreteAdjacencyGraph<String>());
+        graph.addListener(batching);
+        graph.set("a", "b", 1);
+        graph.remove("b");
+        graph.set("a", "b", 1);
+        batching.flush();
+        Graph<String> replayed = new ConcreteAdjacencyGraph<>();
+        for (GraphEvent<String> event : batches.get(0)) {
+            event.applyTo(replayed);
+        }
+        assertEquals("expected the edge to be back", Integer.valueOf(1), replayed.targets("a").get("b"));
+        assertEquals("expected every event", 6, batches.get(0).size());
+    }
+
+    //covers case applying batches gives the same graph; derived index agrees
+    @Test
+    public void testIncrementalIndex() {
+        Random random = new Random(16);
+        ObservableGraph<Integer> graph = new ObservableGraph<>(new ConcreteAdjacencyGraph<Integer>());
+        Graph<Integer> replica = new ConcreteAdjacencyGraph<>();
+        // weighted in-degree of every vertex, updated only from batches
+        Map<Integer, Integer> inDegrees = new HashMap<>();
+        BatchingListener<Integer> batching = new BatchingListener<>(64, batch -> {
+            for (GraphEvent<Integer> event : batch) {
+                event.applyTo(replica);
+                if (event instanceof GraphEvent.VertexAdded) {
+                    inDegrees.put(((GraphEvent.VertexAdded<Integer>) event).vertex(), 0);
+                } else if (event instanceof GraphEvent.EdgeSet) {
+                    GraphEvent.EdgeSet<Integer> edgeSet = (GraphEvent.EdgeSet<Integer>) event;
+                    inDegrees.merge(edgeSet.target(), edgeSet.newWeight() - edgeSet.oldWeight(), Integer::sum);
+                } else {
+                    GraphEvent.VertexRemoved<Integer> removed = (GraphEvent.VertexRemoved<Integer>) event;
+                    inDegrees.remove(removed.vertex());
+                    for (Map.Entry<Integer, Integer> target : removed.targets().entrySet()) {
+                        inDegrees.computeIfPresent(target.getKey(), (vertex, degree) -> degree - target.getValue());
+                    }
+                }
+            }
+        });
+        graph.addListener(batching);
+        for (int step = 0; step < 5000; step++) {
+            int source = random.nextInt(40);
+            int target = random.nextInt(40);
+            if (random.nextInt(25) == 0) {
+                graph.remove(source);
+            } else {
+                graph.set(source, target, random.nextInt(4));
+            }
+        }
+        batching.flush();
+        assertEquals("replica should have the same vertices", graph.vertices(), replica.vertices());
+        for (Integer vertex : graph.vertices()) {
+            assertEquals("replica should have the same edges", graph.targets(vertex), replica.targets(vertex));
+            int inDegree = 0;
+            for (int weight : graph.sources(vertex).values()) {
+                inDegree += weight;
+            }
+            assertEquals("index should agree", Integer.valueOf(inDegree), inDegrees.get(vertex));
+        }
+        assertEquals("index should have no removed vertices", graph.vertices(), inDegrees.keySet());
+    }
+
+    //covers case maxBatch <= 0
+    @Test(expected=IllegalArgumentException.class)
+    public void testMaxBatchZero() {
+        new BatchingListener<String>(0, batch -> { });
+    }
+}
@@ -0,0 +1,155 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for ConcreteAdjacencyGraph.
+ *
+ * This class runs the GraphInstanceTest tests against ConcreteAdjacencyGraph, as
+ * well as tests for that particular implementation.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class ConcreteAdjacencyGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide a ConcreteAdjacencyGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new ConcreteAdjacencyGraph<String>();
+    }
+
+    //--------------------------------TESTING CONCRETEADJACENCYGRAPH CLASS BEGINS----------------------------------//
+
+    /*
+     * Testing strategy for ConcreteAdjacencyGraph:
+     *
+     * toString():
+     *    - vertices.size() = 0
+     *    - vertices.size() = 1
+     *    - vertices.size() > 1
+     *
+     * collections returned by vertices(), sources(), targets():
+     *    - clients modify them, the graph is unchanged
+     *    - the graph changes while clients iterate over them
+     *
+     * set(L source, L target, int weight):
+     *    - weight is negative
+     *
+     * remove(L vertex):
+     *    - vertex has a self loop
+     *    - vertex is both a source and a target of the same neighbour
+     */
+
+    //covers case where graph is empty (no vertices, vertices.size() = 0)
+    @Test
+    public void testToStringEmptyVertices(){
+        Graph<String> testGraph = emptyInstance();
+        String expected = "Graph with vertices:[]";
+        String actual = testGraph.toString();
+        assertEquals("toString was not as expected", expected, actual);
+    }
+
+    //covers case where vertices.size() = 1
+    @Test
+    public void testToStringOneVertex(){
+        Graph<String> testGraph = emptyInstance();
+        String vertexName = "namey name";
+        testGraph.add(vertexName);
+        String expected = "Graph with vertices:["+vertexName+"]";
+        String actual = testGraph.toString();
+        assertEquals("toString was not as expected", expected, actual);
+    }
+
+    //covers case where vertices.size() > 1
+    @Test
+    public void testToStringMoreThanOneVertex(){
+        Graph<String> testGraph = emptyInstance();
+        String vertexName = "namey name";
+        String vertexNameTwo = "second name";
+        String vertexNameThree = "im going crazy here?!?@?!@?!?@!?;;;;;;;";
+        String vertexNameFour = "four four four four";
+        List<String> vertices = Arrays.asList(vertexName, vertexNameTwo, vertexNameThree, vertexNameFour);
+        for (String vertex : vertices){
+            testGraph.add(vertex);
+        }
+        String actual = testGraph.toString();
+        for (String vertex : vertices){
+            assertTrue("toString did not behave as expected", actual.contains(vertex));
+        }
+    }
+
+    //covers case where clients modify the collections, the graph is unchanged
+    @Test
+    public void testModifyingResultsLeavesGraphUnchanged(){
+        Graph<String> testGraph = emptyInstance();
+        testGraph.set("a", "b", 1);
+        testGraph.targets("a").put("c", 2);
+        testGraph.sources("b").clear();
+        testGraph.vertices().remove("a");
+        assertEquals("expected the graph to keep both vertices", 2, testGraph.vertices().size());
+        assertEquals("expected the graph to keep its edge", 1, testGraph.targets("a").get("b").intValue());
+        assertEquals("expected no edge to c", null, testGraph.targets("a").get("c"));
+        assertEquals("expected b to keep its source", 1, testGraph.sources("b").size());
+    }
+
+    //covers case where the graph changes while clients iterate over the collections
+    @Test
+    public void testChangingGraphWhileIterating(){
+        Graph<String> testGraph = emptyInstance();
+        testGraph.set("a", "b", 1);
+        testGraph.set("a", "c", 2);
+        testGraph.set("b", "c", 3);
+        Map<String, Integer> targets = testGraph.targets("a");
+        for (String vertex : testGraph.vertices()){
+            testGraph.remove(vertex);
+        }
+        for (String target : targets.keySet()){
+            testGraph.set("a", target, 7);
+        }
+        assertEquals("expected the old weights in the copy", 2, targets.get("c").intValue());
+        assertEquals("expected the new weights in the graph", 7, testGraph.targets("a").get("c").intValue());
+    }
+
+    //covers case where weight is negative
+    @Test(expected=IllegalArgumentException.class)
+    public void testSetNegativeWeight(){
+        Graph<String> testGraph = emptyInstance();
+        testGraph.set("a", "b", -1);
+    }
+
+    //covers case where vertex has a self loop
+    @Test
+    public void testRemoveVertexWithSelfLoop(){
+        Graph<String> testGraph = emptyInstance();
+        testGraph.set("a", "a", 3);
+        testGraph.set("a", "b", 4);
+        assertTrue("expected vertex to be removed", testGraph.remove("a"));
+        assertEquals("expected only b to be left", 1, testGraph.vertices().size());
+        assertTrue("expected b to have no sources", testGraph.sources("b").isEmpty());
+    }
+
+    //covers case where vertex is both a source and a target of the same neighbour
+    @Test
+    public void testRemoveVertexWithEdgesBothWays(){
+        Graph<String> testGraph = emptyInstance();
+        testGraph.set("a", "b", 3);
+        testGraph.set("b", "a", 4);
+        testGraph.set("b", "c", 5);
+        assertTrue("expected vertex to be removed", testGraph.remove("a"));
+        assertTrue("expected b to have no sources", testGraph.sources("b").isEmpty());
+        assertEquals("expected b to keep its other target", 1, testGraph.targets("b").size());
+        assertEquals("expected c to keep its source", 5, testGraph.sources("c").get("b").intValue());
+    }
+
+    //--------------------------------TESTING CONCRETEADJACENCYGRAPH CLASS ENDS----------------------------------//
+}
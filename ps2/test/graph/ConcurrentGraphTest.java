@@ -0,0 +1,177 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+/**
+ * Tests for ConcurrentGraph.
+ *
+ * This class runs the GraphInstanceTest tests against ConcurrentGraph, as
+ * well as tests for that particular implementation.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class ConcurrentGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide a ConcurrentGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new ConcurrentGraph<String>();
+    }
+
+    //--------------------------------TESTING CONCURRENTGRAPH CLASS BEGINS----------------------------------//
+
+    /*
+     * Testing strategy for ConcurrentGraph:
+     *
+     * increment():
+     *      - edge missing, present; source missing, present
+     *      - delta positive, zero, negative; new weight 0, negative
+     *      - many threads incrementing the same edges
+     * remove() and set() from many threads at once:
+     *      - afterwards, every edge's ends are vertices and both views agree
+     * toString():
+     *      - vertices.size() = 0, > 0
+     */
+
+    private static final int THREADS = 4;
+
+    //covers case where edge is missing, present; delta positive, negative; new weight 0
+    @Test
+    public void testIncrement(){
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        assertEquals("expected new weight", 3, graph.increment("a", "b", 3));
+        assertEquals("expected vertices to be added", 2, graph.vertices().size());
+        assertEquals("expected incremented weight", 5, graph.increment("a", "b", 2));
+        assertEquals("expected lower weight", 1, graph.increment("a", "b", -4));
+        assertEquals("expected edge removed", 0, graph.increment("a", "b", -1));
+        assertEquals("expected no targets", Map.of(), graph.targets("a"));
+        assertEquals("expected no sources", Map.of(), graph.sources("b"));
+        assertEquals("expected vertices to remain", 2, graph.vertices().size());
+    }
+
+    //covers case where delta is zero on a missing edge
+    @Test
+    public void testIncrementZero(){
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        assertEquals("expected no edge", 0, graph.increment("a", "b", 0));
+        assertTrue("expected no vertices", graph.vertices().isEmpty());
+    }
+
+    //covers case where new weight would be negative
+    @Test(expected=IllegalArgumentException.class)
+    public void testIncrementNegative(){
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        graph.increment("a", "b", 1);
+        graph.increment("a", "b", -2);
+    }
+
+    //covers case where source is missing, new weight would be negative
+    @Test
+    public void testIncrementNegativeMissingSource(){
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        graph.add("b");
+        try {
+            graph.increment("a", "b", -1);
+            fail("expected IllegalArgumentException");
+        } catch (IllegalArgumentException iae){
+            // expected
+        }
+        assertEquals("expected no new vertex", Arrays.asList("b"), new ArrayList<>(graph.vertices()));
+    }
+
+    //covers case where many threads increment the same edges
+    @Test
+    public void testConcurrentIncrements() throws Exception {
+        ConcurrentGraph<String> graph = new ConcurrentGraph<>();
+        List<String> words = Arrays.asList("a", "b", "c", "d", "e");
+        int perThread = 20000;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++){
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++){
+                        graph.increment(words.get(i % 5), words.get((i + 1) % 5), 1);
+                    }
+                }));
+            }
+            for (Future<?> future : futures){
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        for (int i = 0; i < 5; i++){
+            assertEquals("lost an increment", THREADS * perThread / 5,
+                    (int) graph.targets(words.get(i)).get(words.get((i + 1) % 5)));
+        }
+    }
+
+    //covers case where threads remove and set at once
+    @Test
+    public void testConcurrentRemoveAndSet() throws Exception {
+        ConcurrentGraph<Integer> graph = new ConcurrentGraph<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++){
+                final Random random = new Random(t);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20000; i++){
+                        int a = random.nextInt(50);
+                        int b = random.nextInt(50);
+                        if (random.nextInt(10) == 0){
+                            graph.remove(a);
+                        } else {
+                            graph.set(a, b, 1 + random.nextInt(5));
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures){
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        for (Integer source : graph.vertices()){
+            for (Map.Entry<Integer, Integer> edge : graph.targets(source).entrySet()){
+                assertTrue("target should be a vertex", graph.vertices().contains(edge.getKey()));
+                assertEquals("views should agree", edge.getValue(), graph.sources(edge.getKey()).get(source));
+            }
+            for (Integer other : graph.sources(source).keySet()){
+                assertTrue("source should be a vertex", graph.vertices().contains(other));
+                assertTrue("views should agree", graph.targets(other).containsKey(source));
+            }
+        }
+    }
+
+    //covers case where vertices.size() = 0
+    @Test
+    public void testToStringEmpty(){
+        assertEquals("toString incorrect", "Graph with vertices:[]", emptyInstance().toString());
+    }
+
+    //covers case where vertices.size() > 0
+    @Test
+    public void testToStringVertices(){
+        Graph<String> graph = emptyInstance();
+        graph.add("hello");
+        assertEquals("toString incorrect", "Graph with vertices:[hello]", graph.toString());
+    }
+}
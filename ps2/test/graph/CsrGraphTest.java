@@ -0,0 +1,124 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for CsrGraph and CsrGraph.Builder.
+ */
+public class CsrGraphTest {
+
+    /*
+     * Testing strategy for CsrGraph:
+     *
+     * Builder.increment(source, target, delta):
+     *      - edge is new
+     *      - edge already exists
+     *      - source == target
+     *      - delta <= 0
+     * Builder.build(direct):
+     *      - no vertices
+     *      - vertices without edges
+     *      - edges added in decreasing target order
+     *      - direct = true, false
+     * weight(source, target):
+     *      - edge exists, does not exist
+     * bridge(source, target):
+     *      - no two-edge path
+     *      - one two-edge path
+     *      - several two-edge paths, one heaviest
+     *      - several two-edge paths, tied
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    //covers case where there are no vertices
+    @Test
+    public void testBuildEmpty(){
+        CsrGraph graph = new CsrGraph.Builder().build(false);
+        assertEquals("expected no vertices", 0, graph.vertexCount());
+        assertEquals("expected no edges", 0, graph.edgeCount());
+    }
+
+    //covers case where there are vertices without edges
+    @Test
+    public void testBuildVerticesWithoutEdges(){
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        builder.addVertex(3);
+        CsrGraph graph = builder.build(false);
+        assertEquals("expected ids 0..3 to be vertices", 4, graph.vertexCount());
+        assertEquals("expected no edges", 0, graph.edgeCount());
+        assertEquals("expected empty row", graph.outStart(2), graph.outEnd(2));
+    }
+
+    //covers case where edge is new, edge already exists, source == target
+    @Test
+    public void testIncrement(){
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        assertEquals("expected new edge to have weight delta", 2, builder.increment(0, 1, 2));
+        assertEquals("expected weights to accumulate", 5, builder.increment(0, 1, 3));
+        assertEquals("expected self loop to be counted", 1, builder.increment(1, 1, 1));
+        CsrGraph graph = builder.build(false);
+        assertEquals("expected two edges", 2, graph.edgeCount());
+        assertEquals("edge weight incorrect", 5, graph.weight(0, 1));
+        assertEquals("self loop weight incorrect", 1, graph.weight(1, 1));
+        assertEquals("expected no edge", 0, graph.weight(1, 0));
+    }
+
+    //covers case where delta <= 0
+    @Test(expected=IllegalArgumentException.class)
+    public void testIncrementNonpositive(){
+        new CsrGraph.Builder().increment(0, 1, 0);
+    }
+
+    //covers case where edges are added in decreasing target order, direct = true
+    @Test
+    public void testRowsSortedDirect(){
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        for (int target = 50; target > 0; target--){
+            builder.increment(0, target, target);
+            builder.increment(target, 0, 1);
+        }
+        CsrGraph graph = builder.build(true);
+        for (int i = graph.outStart(0) + 1; i < graph.outEnd(0); i++){
+            assertTrue("expected targets to be sorted", graph.target(i - 1) < graph.target(i));
+            assertEquals("weight moved away from its target", graph.target(i), graph.outWeight(i));
+        }
+        for (int i = graph.inStart(0) + 1; i < graph.inEnd(0); i++){
+            assertTrue("expected sources to be sorted", graph.source(i - 1) < graph.source(i));
+        }
+        assertEquals("expected 50 incoming edges", 50, graph.inEnd(0) - graph.inStart(0));
+    }
+
+    //covers case where there is no two-edge path, one heaviest path
+    @Test
+    public void testBridge(){
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        builder.increment(0, 1, 1);
+        builder.increment(1, 3, 1);
+        builder.increment(0, 2, 2);
+        builder.increment(2, 3, 2);
+        CsrGraph graph = builder.build(false);
+        assertEquals("expected heaviest bridge", 2, graph.bridge(0, 3));
+        assertEquals("expected no bridge", -1, graph.bridge(3, 0));
+    }
+
+    //covers case where two-edge paths are tied
+    @Test
+    public void testBridgeTied(){
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        builder.increment(0, 2, 1);
+        builder.increment(2, 3, 1);
+        builder.increment(0, 1, 1);
+        builder.increment(1, 3, 1);
+        CsrGraph graph = builder.build(false);
+        assertEquals("expected smallest bridge among ties", 1, graph.bridge(0, 3));
+    }
+}
@@ -0,0 +1,218 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for GraphFile and MappedGraph.
+ */
+public class GraphFileTest {
+
+    /*
+     * Testing strategy for GraphFile:
+     *
+     * write(), load():
+     *      - graph is empty, has isolated vertices, self-loops, non-ASCII labels
+     *      - graph implements DirectAdjacency, does not
+     *      - file is corrupt in its labels, in its edges; not a graph file; has another version
+     *      - write() replaces a file that is still loaded
+     * verify():
+     *      - file is intact, corrupt in its edges
+     * MappedGraph:
+     *      - vertices(), sources(), targets() agree with the written graph
+     *      - label is a vertex, is not a vertex
+     *      - add(), set(), remove() are unsupported
+     *      - words() is frozen
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    /**
+     * @return a new temporary file, deleted when the JVM exits
+     */
+    private static File temporaryFile() throws IOException {
+        File file = File.createTempFile("graph", ".graph");
+        file.deleteOnExit();
+        return file;
+    }
+
+    /**
+     * @return a graph with isolated vertices, self-loops and non-ASCII labels
+     */
+    private static Graph<String> sample(Graph<String> graph){
+        graph.set("cr\u00e8me", "br\u00fbl\u00e9e", 3);
+        graph.set("br\u00fbl\u00e9e", "cr\u00e8me", 1);
+        graph.set("a", "a", 7);
+        graph.set("a", "cr\u00e8me", 2);
+        graph.add("alone");
+        return graph;
+    }
+
+    /**
+     * Assert that two graphs have the same vertices and edges.
+     */
+    private static void assertSameGraph(Graph<String> expected, Graph<String> actual){
+        assertEquals("vertices differ", expected.vertices(), actual.vertices());
+        for (String vertex : expected.vertices()){
+            assertEquals("targets of " + vertex + " differ", expected.targets(vertex), actual.targets(vertex));
+            assertEquals("sources of " + vertex + " differ", expected.sources(vertex), actual.sources(vertex));
+        }
+    }
+
+    //covers case of an empty graph
+    @Test
+    public void testEmpty() throws IOException {
+        File file = temporaryFile();
+        GraphFile.write(new ConcreteAdjacencyGraph<String>(), file);
+        MappedGraph loaded = GraphFile.load(file);
+        assertTrue("expected no vertices", loaded.vertices().isEmpty());
+        assertEquals("expected no targets", Map.of(), loaded.targets("a"));
+    }
+
+    //covers case of isolated vertices, self-loops and non-ASCII labels, with and
+    //without DirectAdjacency
+    @Test
+    public void testRoundTrip() throws IOException {
+        Graph<String> direct = sample(new ConcreteAdjacencyGraph<String>());
+        Graph<String> plain = sample(new ConcreteAdjacencyGraph<String>());
+        for (Graph<String> graph : List.of(direct, new GraphView(plain))){
+            File file = temporaryFile();
+            GraphFile.write(graph, file);
+            MappedGraph loaded = GraphFile.load(file);
+            assertSameGraph(direct, loaded);
+            assertEquals("expected missing label", Map.of(), loaded.sources("missing"));
+            assertNull("expected missing edge", loaded.targets("a").get("alone"));
+            assertEquals("expected weight", Integer.valueOf(2), loaded.targets("a").get("cr\u00e8me"));
+        }
+    }
+
+    /**
+     * Flip the lowest bit of one byte of a file.
+     */
+    private static void flipBit(File file, long position) throws IOException {
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")){
+            raw.seek(position);
+            int value = raw.read();
+            raw.seek(position);
+            raw.write(value ^ 1);
+        }
+    }
+
+    //covers case where file is corrupt in its labels
+    @Test(expected=IOException.class)
+    public void testCorruptLabels() throws IOException {
+        File file = temporaryFile();
+        Graph<String> graph = sample(new ConcreteAdjacencyGraph<String>());
+        GraphFile.write(graph, file);
+        // first byte of the string data, after the header and the label offsets
+        flipBit(file, 40 + 4 * (graph.vertices().size() + 1));
+        GraphFile.load(file);
+    }
+
+    //covers case where file is intact, corrupt in its edges
+    @Test
+    public void testVerify() throws IOException {
+        File file = temporaryFile();
+        GraphFile.write(sample(new ConcreteAdjacencyGraph<String>()), file);
+        GraphFile.verify(file);
+        flipBit(file, file.length() - 1);
+        GraphFile.load(file);
+        try {
+            GraphFile.verify(file);
+            fail("expected IOException");
+        } catch (IOException ioe){
+            assertTrue("expected the edges to be blamed", ioe.getMessage().contains("edges"));
+        }
+    }
+
+    //covers case where write() replaces a file that is still loaded
+    @Test
+    public void testReplaceLoadedFile() throws IOException {
+        File directory = Files.createTempDirectory("graphs").toFile();
+        File file = new File(directory, "loaded.graph");
+        try {
+            Graph<String> graph = sample(new ConcreteAdjacencyGraph<String>());
+            GraphFile.write(graph, file);
+            MappedGraph loaded = GraphFile.load(file);
+            Graph<String> larger = sample(new ConcreteAdjacencyGraph<String>());
+            larger.set("a", "b", 5);
+            GraphFile.write(larger, file);
+            assertSameGraph(graph, loaded);
+            assertSameGraph(larger, GraphFile.load(file));
+            assertEquals("expected no temporary files left", Arrays.asList(file.getName()),
+                    Arrays.asList(directory.list()));
+        } finally {
+            file.delete();
+            directory.delete();
+        }
+    }
+
+    //covers case where file is not a graph file
+    @Test(expected=IOException.class)
+    public void testNotAGraphFile() throws IOException {
+        File file = temporaryFile();
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")){
+            raw.write(new byte[64]);
+        }
+        GraphFile.load(file);
+    }
+
+    //covers case where file has another version
+    @Test(expected=IOException.class)
+    public void testOtherVersion() throws IOException {
+        File file = temporaryFile();
+        GraphFile.write(sample(new ConcreteAdjacencyGraph<String>()), file);
+        try (RandomAccessFile raw = new RandomAccessFile(file, "rw")){
+            raw.seek(4);
+            raw.write(GraphFile.VERSION + 1);
+        }
+        GraphFile.load(file);
+    }
+
+    //covers case where a mutator is called
+    @Test(expected=UnsupportedOperationException.class)
+    public void testImmutable() throws IOException {
+        File file = temporaryFile();
+        GraphFile.write(sample(new ConcreteAdjacencyGraph<String>()), file);
+        GraphFile.load(file).set("a", "b", 1);
+    }
+
+    //covers case where words() is frozen
+    @Test
+    public void testWordsFrozen() throws IOException {
+        File file = temporaryFile();
+        GraphFile.write(sample(new ConcreteAdjacencyGraph<String>()), file);
+        MappedGraph loaded = GraphFile.load(file);
+        assertTrue("expected a frozen dictionary", loaded.words().isFrozen());
+        assertSame("expected the dictionary to be shared", loaded.words(), loaded.words());
+    }
+
+    /**
+     * A Graph that only has the operations of the Graph interface.
+     */
+    private static final class GraphView implements Graph<String> {
+        private final Graph<String> graph;
+        GraphView(Graph<String> graph) { this.graph = graph; }
+        @Override public boolean add(String vertex) { return graph.add(vertex); }
+        @Override public int set(String source, String target, int weight) { return graph.set(source, target, weight); }
+        @Override public boolean remove(String vertex) { return graph.remove(vertex); }
+        @Override public java.util.Set<String> vertices() { return graph.vertices(); }
+        @Override public Map<String, Integer> sources(String target) { return graph.sources(target); }
+        @Override public Map<String, Integer> targets(String source) { return graph.targets(source); }
+    }
+}
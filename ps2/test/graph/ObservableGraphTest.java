@@ -0,0 +1,165 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for ObservableGraph and GraphEvent.
+ *
+ * This class runs the GraphInstanceTest tests against ObservableGraph, as
+ * well as tests for that particular implementation.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class ObservableGraphTest extends GraphInstanceTest {
+
+    /*
+     * Provide an ObservableGraph for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new ObservableGraph<String>(new ConcreteAdjacencyGraph<String>());
+    }
+
+    //--------------------------------TESTING OBSERVABLEGRAPH CLASS BEGINS----------------------------------//
+
+    /*
+     * Testing strategy for ObservableGraph:
+     *
+     * add(), set(), remove() events:
+     *      - change happens, nothing changes (no event)
+     *      - set() adds both ends, one end, a self-loop; changes a weight; removes an edge
+     *      - remove() of a vertex with targets, sources, a self-loop
+     *      - no listeners, several listeners (called in order), listener removed
+     * set():
+     *      - weight < 0
+     * GraphEvent.applyTo():
+     *      - replaying every event on an empty graph gives an equal graph
+     * views:
+     *      - unmodifiable
+     */
+
+    /**
+     * @return an observable graph whose events are appended to events
+     */
+    private static ObservableGraph<String> recorded(List<GraphEvent<String>> events) {
+        ObservableGraph<String> graph = new ObservableGraph<>(new ConcreteAdjacencyGraph<String>());
+        graph.addListener(events::add);
+        return graph;
+    }
+
+    //covers case add() changes, does not change
+    @Test
+    public void testAddEvents() {
+        List<GraphEvent<String>> events = new ArrayList<>();
+        ObservableGraph<String> graph = recorded(events);
+        graph.add("a");
+        graph.add("a");
+        assertEquals("expected one event", Arrays.asList(new GraphEvent.VertexAdded<>("a")), events);
+    }
+
+    //covers case set() adds both ends, a self-loop, changes a weight, removes an edge, no change
+    @Test
+    public void testSetEvents() {
+        List<GraphEvent<String>> events = new ArrayList<>();
+        ObservableGraph<String> graph = recorded(events);
+        graph.set("a", "b", 2);
+        graph.set("a", "b", 2);
+        graph.set("a", "b", 5);
+        graph.set("c", "c", 1);
+        graph.set("a", "b", 0);
+        graph.set("x", "y", 0);
+        assertEquals("expected events in order", Arrays.asList(
+                new GraphEvent.VertexAdded<>("a"),
+                new GraphEvent.VertexAdded<>("b"),
+                new GraphEvent.EdgeSet<>("a", "b", 0, 2),
+                new GraphEvent.EdgeSet<>("a", "b", 2, 5),
+                new GraphEvent.VertexAdded<>("c"),
+                new GraphEvent.EdgeSet<>("c", "c", 0, 1),
+                new GraphEvent.EdgeSet<>("a", "b", 5, 0)), events);
+    }
+
+    //covers case remove() of a vertex with targets, sources, a self-loop; missing vertex
+    @Test
+    public void testRemoveEvents() {
+        List<GraphEvent<String>> events = new ArrayList<>();
+        ObservableGraph<String> graph = recorded(events);
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 2);
+        graph.set("b", "b", 3);
+        events.clear();
+        graph.remove("b");
+        graph.remove("b");
+        assertEquals("expected one event", 1, events.size());
+        GraphEvent.VertexRemoved<String> removed = (GraphEvent.VertexRemoved<String>) events.get(0);
+        assertEquals("expected the vertex", "b", removed.vertex());
+        Map<String, Integer> targets = new HashMap<>();
+        targets.put("c", 2);
+        targets.put("b", 3);
+        Map<String, Integer> sources = new HashMap<>();
+        sources.put("a", 1);
+        sources.put("b", 3);
+        assertEquals("expected the old targets", targets, removed.targets());
+        assertEquals("expected the old sources", sources, removed.sources());
+    }
+
+    //covers case several listeners in order, listener removed, no listeners
+    @Test
+    public void testListeners() {
+        List<String> calls = new ArrayList<>();
+        ObservableGraph<String> graph = new ObservableGraph<>(new ConcreteAdjacencyGraph<String>());
+        graph.add("silent");
+        GraphListener<String> first = event -> calls.add("first " + event);
+        graph.addListener(first);
+        graph.addListener(event -> calls.add("second " + event));
+        graph.add("a");
+        assertTrue("expected first to be removed", graph.removeListener(first));
+        assertFalse("expected first to be gone", graph.removeListener(first));
+        graph.add("b");
+        assertEquals("expected listeners in order", Arrays.asList("first added a", "second added a", "second added b"), calls);
+    }
+
+    //covers case weight < 0
+    @Test(expected=IllegalArgumentException.class)
+    public void testSetNegativeWeight() {
+        new ObservableGraph<String>(new ConcreteAdjacencyGraph<String>()).set("a", "b", -1);
+    }
+
+    //covers case replaying every event gives an equal graph
+    @Test
+    public void testApplyTo() {
+        List<GraphEvent<String>> events = new ArrayList<>();
+        ObservableGraph<String> graph = recorded(events);
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 2);
+        graph.add("d");
+        graph.set("c", "a", 4);
+        graph.remove("b");
+        graph.set("a", "c", 3);
+        Graph<String> replayed = new ConcreteAdjacencyGraph<>();
+        for (GraphEvent<String> event : events) {
+            event.applyTo(replayed);
+        }
+        assertEquals("expected the same vertices", graph.vertices(), replayed.vertices());
+        for (String vertex : graph.vertices()) {
+            assertEquals("expected the same targets", graph.targets(vertex), replayed.targets(vertex));
+        }
+    }
+
+    //covers case views are unmodifiable
+    @Test(expected=UnsupportedOperationException.class)
+    public void testViewsUnmodifiable() {
+        ObservableGraph<String> graph = new ObservableGraph<>(new ConcreteAdjacencyGraph<String>());
+        graph.set("a", "b", 1);
+        graph.targets("a").put("c", 1);
+    }
+}
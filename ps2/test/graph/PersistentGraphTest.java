@@ -0,0 +1,228 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for PersistentGraph.
+ *
+ * This class runs the GraphInstanceTest tests against PersistentGraph, through
+ * a mutable handle that replaces its version after every change, as well as
+ * tests for that particular implementation.
+ *
+ * Tests against the Graph spec should be in GraphInstanceTest.
+ */
+public class PersistentGraphTest extends GraphInstanceTest {
+
+    /**
+     * A mutable Graph that holds the latest version of a PersistentGraph.
+     */
+    private static final class Versioned<L> implements Graph<L> {
+        private PersistentGraph<L> current = PersistentGraph.empty();
+
+        @Override public boolean add(L vertex) {
+            final PersistentGraph<L> previous = current;
+            current = current.withVertex(vertex);
+            return current != previous;
+        }
+
+        @Override public int set(L source, L target, int weight) {
+            final int previous = current.targets(source).getOrDefault(target, 0);
+            current = current.withEdge(source, target, weight);
+            return previous;
+        }
+
+        @Override public boolean remove(L vertex) {
+            final PersistentGraph<L> previous = current;
+            current = current.withoutVertex(vertex);
+            return current != previous;
+        }
+
+        @Override public Set<L> vertices() {
+            return current.vertices();
+        }
+
+        @Override public Map<L, Integer> sources(L target) {
+            return current.sources(target);
+        }
+
+        @Override public Map<L, Integer> targets(L source) {
+            return current.targets(source);
+        }
+    }
+
+    /*
+     * Provide a PersistentGraph, through a mutable handle, for tests in GraphInstanceTest.
+     */
+    @Override public Graph<String> emptyInstance() {
+        return new Versioned<String>();
+    }
+
+    //--------------------------------TESTING PERSISTENTGRAPH CLASS BEGINS----------------------------------//
+
+    /*
+     * Testing strategy for PersistentGraph:
+     *
+     * withVertex(), withEdge(), withoutVertex():
+     *      - change the graph, change nothing (same version returned)
+     *      - older versions are unchanged afterwards
+     *      - self-loops; labels with equal hashCodes
+     *      - weight < 0
+     *      - many random changes agree with ConcreteAdjacencyGraph
+     * edgeCount():
+     *      - after adding, changing, removing edges and vertices
+     * copyOf():
+     *      - graph is a PersistentGraph, another implementation
+     * add(), set(), remove():
+     *      - unsupported
+     * toString():
+     *      - vertices.size() = 0, > 0
+     */
+
+    //covers case older versions unchanged, same version returned when nothing changes
+    @Test
+    public void testVersionsAreIndependent() {
+        PersistentGraph<String> empty = PersistentGraph.empty();
+        PersistentGraph<String> one = empty.withEdge("a", "b", 1);
+        PersistentGraph<String> two = one.withEdge("a", "b", 2).withEdge("b", "c", 3);
+        PersistentGraph<String> removed = two.withoutVertex("b");
+        assertTrue("empty version should stay empty", empty.vertices().isEmpty());
+        assertEquals("first version keeps its weight", Integer.valueOf(1), one.targets("a").get("b"));
+        assertFalse("first version has no c", one.vertices().contains("c"));
+        assertEquals("second version has both edges", 2, two.edgeCount());
+        assertEquals("removed version has no edges", 0, removed.edgeCount());
+        assertEquals("removed version has a and c", 2, removed.vertices().size());
+        assertTrue("removed version has no targets of a", removed.targets("a").isEmpty());
+        assertSame("same weight should not make a version", two, two.withEdge("b", "c", 3));
+        assertSame("existing vertex should not make a version", two, two.withVertex("a"));
+        assertSame("missing vertex should not make a version", two, two.withoutVertex("z"));
+        assertSame("missing edge should not make a version", two, two.withEdge("c", "a", 0));
+    }
+
+    //covers case self-loops, edgeCount after adding, changing, removing
+    @Test
+    public void testSelfLoopAndEdgeCount() {
+        PersistentGraph<String> graph = PersistentGraph.<String>empty()
+                .withEdge("a", "a", 4).withEdge("a", "b", 1).withEdge("b", "a", 2);
+        assertEquals("expected three edges", 3, graph.edgeCount());
+        assertEquals("self-loop is its own source", Integer.valueOf(4), graph.sources("a").get("a"));
+        assertEquals("changing a weight keeps the count", 3, graph.withEdge("a", "a", 5).edgeCount());
+        assertEquals("removing an edge", 2, graph.withEdge("a", "a", 0).edgeCount());
+        assertEquals("removing a vertex with a self-loop", 0, graph.withoutVertex("a").edgeCount());
+        assertEquals("removing the other vertex", 1, graph.withoutVertex("b").edgeCount());
+    }
+
+    //covers case weight < 0
+    @Test(expected=IllegalArgumentException.class)
+    public void testNegativeWeight() {
+        PersistentGraph.<String>empty().withEdge("a", "b", -1);
+    }
+
+    //covers case many random changes, labels with equal hashCodes, versions unchanged
+    @Test
+    public void testAgreesWithConcreteGraph() {
+        Random random = new Random(15);
+        // "Aa" and "BB" have the same hashCode, so labels built from them collide
+        List<String> labels = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            labels.add(Integer.toBinaryString(i).replace("0", "Aa").replace("1", "BB"));
+            labels.add("v" + i);
+        }
+        Graph<String> expected = new ConcreteAdjacencyGraph<>();
+        PersistentGraph<String> graph = PersistentGraph.empty();
+        PersistentGraph<String> halfway = null;
+        Map<String, Map<String, Integer>> halfwayEdges = null;
+        for (int step = 0; step < 4000; step++) {
+            String source = labels.get(random.nextInt(labels.size()));
+            String target = labels.get(random.nextInt(labels.size()));
+            if (random.nextInt(20) == 0) {
+                expected.remove(source);
+                graph = graph.withoutVertex(source);
+            } else {
+                int weight = random.nextInt(3);
+                expected.set(source, target, weight);
+                graph = graph.withEdge(source, target, weight);
+            }
+            if (step == 2000) {
+                halfway = graph;
+                halfwayEdges = edges(graph);
+            }
+        }
+        assertEquals("vertices should agree", expected.vertices(), graph.vertices());
+        int edges = 0;
+        for (String vertex : expected.vertices()) {
+            assertEquals("targets should agree", expected.targets(vertex), graph.targets(vertex));
+            assertEquals("sources should agree", expected.sources(vertex), graph.sources(vertex));
+            edges += expected.targets(vertex).size();
+        }
+        assertEquals("edge count should agree", edges, graph.edgeCount());
+        assertEquals("an old version should be unchanged", halfwayEdges, edges(halfway));
+    }
+
+    /**
+     * @return a copy of the targets of every vertex of graph
+     */
+    private static Map<String, Map<String, Integer>> edges(Graph<String> graph) {
+        Map<String, Map<String, Integer>> edges = new HashMap<>();
+        for (String vertex : graph.vertices()) {
+            edges.put(vertex, new HashMap<>(graph.targets(vertex)));
+        }
+        return edges;
+    }
+
+    //covers case copyOf another implementation, of a PersistentGraph
+    @Test
+    public void testCopyOf() {
+        Graph<String> original = new ConcreteAdjacencyGraph<>();
+        original.set("a", "b", 2);
+        original.add("c");
+        PersistentGraph<String> copy = PersistentGraph.copyOf(original);
+        assertEquals("expected the same vertices", original.vertices(), copy.vertices());
+        assertEquals("expected the same edge", Integer.valueOf(2), copy.targets("a").get("b"));
+        original.set("a", "b", 0);
+        assertEquals("copy should not change with the original", 1, copy.edgeCount());
+        assertSame("a PersistentGraph is its own copy", copy, PersistentGraph.copyOf(copy));
+    }
+
+    //covers case add(), set(), remove() unsupported
+    @Test
+    public void testMutatorsUnsupported() {
+        PersistentGraph<String> graph = PersistentGraph.<String>empty().withVertex("a");
+        for (Runnable mutator : Arrays.<Runnable>asList(
+                () -> graph.add("b"), () -> graph.set("a", "b", 1), () -> graph.remove("a"))) {
+            try {
+                mutator.run();
+                fail("expected UnsupportedOperationException");
+            } catch (UnsupportedOperationException uoe) {
+                // expected
+            }
+        }
+        assertEquals("graph should be unchanged", 1, graph.vertices().size());
+    }
+
+    //covers case vertices.size() = 0
+    @Test
+    public void testToStringEmpty() {
+        assertEquals("toString was not as expected", "Graph with vertices:[]",
+                PersistentGraph.<String>empty().toString());
+    }
+
+    //covers case vertices.size() > 0
+    @Test
+    public void testToStringNonEmpty() {
+        String actual = PersistentGraph.<String>empty().withEdge("hi", "there", 1).toString();
+        assertTrue("toString should include every vertex", actual.contains("hi") && actual.contains("there"));
+    }
+}
@@ -0,0 +1,160 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests for PersistentMap.
+ */
+public class PersistentMapTest {
+
+    /*
+     * Testing strategy for PersistentMap:
+     *
+     * plus(), minus():
+     *      - map is empty, small, large (several trie levels)
+     *      - key is new, present with an equal value, present with another value
+     *      - keys with equal hashCodes (collisions), with hashes sharing a prefix
+     *      - keys in every slot of a node
+     *      - removal down to the empty map
+     *      - older versions are unchanged afterwards
+     * get(), containsKey(), size(), entrySet() iteration, equals():
+     *      - agree with a HashMap after every change
+     * Map mutators:
+     *      - unsupported
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    //covers case map is empty
+    @Test
+    public void testEmpty() {
+        PersistentMap<String, Integer> map = PersistentMap.empty();
+        assertEquals("expected no keys", 0, map.size());
+        assertNull("expected no value", map.get("a"));
+        assertSame("removing a missing key should not make a new map", map, map.minus("a"));
+        assertFalse("expected no entries", map.entrySet().iterator().hasNext());
+    }
+
+    //covers case key is new, present with an equal value, another value; old versions unchanged
+    @Test
+    public void testPlusAndMinus() {
+        PersistentMap<String, Integer> empty = PersistentMap.empty();
+        PersistentMap<String, Integer> one = empty.plus("a", 1);
+        PersistentMap<String, Integer> changed = one.plus("a", 2);
+        assertSame("an equal value should not make a new map", one, one.plus("a", 1));
+        assertEquals("expected the old value", Integer.valueOf(1), one.get("a"));
+        assertEquals("expected the new value", Integer.valueOf(2), changed.get("a"));
+        assertEquals("expected one key", 1, changed.size());
+        assertEquals("expected the empty map", 0, changed.minus("a").size());
+        assertEquals("the old version should be unchanged", 0, empty.size());
+    }
+
+    //covers case keys with equal hashCodes, removal down to the empty map
+    @Test
+    public void testCollisions() {
+        // "Aa" and "BB" have the same hashCode, so all of these collide
+        String[] keys = {"AaAa", "AaBB", "BBAa", "BBBB"};
+        PersistentMap<String, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < keys.length; i++) {
+            map = map.plus(keys[i], i);
+        }
+        assertEquals("expected every key", keys.length, map.size());
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals("expected the value of a colliding key", Integer.valueOf(i), map.get(keys[i]));
+        }
+        PersistentMap<String, Integer> fewer = map.minus("AaBB").plus("BBBB", 9);
+        assertFalse("expected the key to be removed", fewer.containsKey("AaBB"));
+        assertEquals("expected the new value", Integer.valueOf(9), fewer.get("BBBB"));
+        for (String key : keys) {
+            fewer = fewer.minus(key);
+        }
+        assertEquals("expected the empty map", 0, fewer.size());
+        assertEquals("the old version should be unchanged", keys.length, map.size());
+    }
+
+    /**
+     * A key whose hashCode is chosen by the test.
+     */
+    private static final class Key {
+        private final int id;
+        private final int hash;
+
+        Key(int id, int hash) {
+            this.id = id;
+            this.hash = hash;
+        }
+
+        @Override public boolean equals(Object that) {
+            return that instanceof Key && ((Key) that).id == id;
+        }
+
+        @Override public int hashCode() {
+            return hash;
+        }
+    }
+
+    //covers case large map, hashes sharing a prefix, collisions; agrees with HashMap throughout
+    @Test
+    public void testAgreesWithHashMap() {
+        Random random = new Random(15);
+        Map<Key, Integer> expected = new HashMap<>();
+        PersistentMap<Key, Integer> map = PersistentMap.empty();
+        for (int step = 0; step < 20000; step++) {
+            int id = random.nextInt(3000);
+            // few distinct low bits, so many keys share trie paths or collide
+            Key key = new Key(id, (id % 700) * 0x01000001);
+            if (random.nextInt(3) == 0) {
+                expected.remove(key);
+                map = map.minus(key);
+            } else {
+                int value = random.nextInt(5);
+                expected.put(key, value);
+                map = map.plus(key, value);
+            }
+            assertEquals("size should agree", expected.size(), map.size());
+            assertEquals("value should agree", expected.get(key), map.get(key));
+        }
+        assertEquals("maps should be equal", expected, map);
+        int iterated = 0;
+        for (Map.Entry<Key, Integer> entry : map.entrySet()) {
+            assertEquals("iterated entry should agree", expected.get(entry.getKey()), entry.getValue());
+            iterated++;
+        }
+        assertEquals("iteration should see every key once", expected.size(), iterated);
+    }
+
+    //covers case keys in every slot of a node, including the last one
+    @Test
+    public void testEverySlot() {
+        PersistentMap<Integer, Integer> map = PersistentMap.empty();
+        for (int key = 0; key < 4096; key++) {
+            map = map.plus(key, key);
+        }
+        for (int key = 0; key < 4096; key++) {
+            assertEquals("expected every key", Integer.valueOf(key), map.get(key));
+        }
+        for (int key = 0; key < 4096; key += 2) {
+            map = map.minus(key);
+        }
+        assertEquals("expected the odd keys", 2048, map.size());
+        assertTrue("expected the last slot", map.containsKey(31) && !map.containsKey(30));
+    }
+
+    //covers case Map mutators
+    @Test(expected=UnsupportedOperationException.class)
+    public void testPutUnsupported() {
+        PersistentMap.<String, Integer>empty().plus("a", 1).put("b", 2);
+    }
+}
@@ -0,0 +1,86 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for RepCheck.
+ */
+public class RepCheckTest {
+
+    /*
+     * Testing strategy for RepCheck:
+     *
+     * parse(property, assertionsEnabled):
+     *      - property null, "full", "sampled", "off", unknown
+     *      - assertionsEnabled true, false
+     * due(mode):
+     *      - mode is full, sampled, off
+     * mode():
+     *      - graph.repcheck not set, with assertions enabled
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    //covers case where property is null, named modes, assertionsEnabled true
+    @Test
+    public void testParseWithAssertions(){
+        assertEquals("expected full checks by default", RepCheck.Mode.FULL, RepCheck.parse(null, true));
+        assertEquals(RepCheck.Mode.FULL, RepCheck.parse("full", true));
+        assertEquals(RepCheck.Mode.SAMPLED, RepCheck.parse("sampled", true));
+        assertEquals(RepCheck.Mode.OFF, RepCheck.parse("off", true));
+    }
+
+    //covers case where property is null, named modes, assertionsEnabled false
+    @Test
+    public void testParseWithoutAssertions(){
+        for (String property : new String[] {null, "full", "sampled", "off"}){
+            assertEquals("expected no checks without assertions for " + property,
+                    RepCheck.Mode.OFF, RepCheck.parse(property, false));
+        }
+    }
+
+    //covers case where property is unknown
+    @Test(expected=IllegalArgumentException.class)
+    public void testParseUnknown(){
+        RepCheck.parse("sometimes", true);
+    }
+
+    //covers case where mode is full, off
+    @Test
+    public void testDueFullAndOff(){
+        for (int i = 0; i < RepCheck.SAMPLE_PERIOD; i++){
+            assertTrue("full mode should check every call", RepCheck.due(RepCheck.Mode.FULL));
+            assertFalse("off mode should never check", RepCheck.due(RepCheck.Mode.OFF));
+        }
+    }
+
+    //covers case where mode is sampled
+    @Test
+    public void testDueSampled(){
+        final int calls = 100 * RepCheck.SAMPLE_PERIOD;
+        int due = 0;
+        for (int i = 0; i < calls; i++){
+            if (RepCheck.due(RepCheck.Mode.SAMPLED)){
+                due++;
+            }
+        }
+        // expected 100; the chance of falling outside these bounds is negligible
+        assertTrue("sampled mode checked " + due + " of " + calls + " calls", due > 30 && due < 250);
+    }
+
+    //covers case where graph.repcheck is not set and assertions are enabled
+    @Test
+    public void testTestsCheckFully(){
+        if (System.getProperty("graph.repcheck") == null){
+            assertEquals("tests should check every rep invariant", RepCheck.Mode.FULL, RepCheck.mode());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+/**
+ * Tests for VertexDictionary.
+ */
+public class VertexDictionaryTest {
+
+    /*
+     * Testing strategy for VertexDictionary:
+     *
+     * intern(), find():
+     *      - label is new, already interned
+     *      - label given as whole String, as slice of a larger CharSequence
+     *      - empty label
+     *      - many labels (table has to grow)
+     * label(id):
+     *      - valid id, invalid id
+     * freeze():
+     *      - intern a new label, an interned label; copy of a frozen dictionary
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    //covers case where label is new, already interned, given as a whole String
+    @Test
+    public void testInternAndFind(){
+        VertexDictionary dictionary = new VertexDictionary();
+        assertEquals("expected missing label", -1, dictionary.find("hello"));
+        assertEquals("expected first id to be 0", 0, dictionary.intern("hello"));
+        assertEquals("expected second id to be 1", 1, dictionary.intern("world"));
+        assertEquals("expected same id for same label", 0, dictionary.intern("hello"));
+        assertEquals("expected to find label", 1, dictionary.find("world"));
+        assertEquals("expected two labels", 2, dictionary.size());
+        assertEquals("label incorrect", "world", dictionary.label(1));
+    }
+
+    //covers case where label is a slice of a larger CharSequence, empty label
+    @Test
+    public void testSlices(){
+        VertexDictionary dictionary = new VertexDictionary();
+        StringBuilder text = new StringBuilder("say hello twice");
+        int id = dictionary.intern(text, 4, 9);
+        assertEquals("slice should match whole label", id, dictionary.find("hello"));
+        assertEquals("empty slice is a label too", 1, dictionary.intern(text, 3, 3));
+        assertEquals("empty label incorrect", "", dictionary.label(1));
+    }
+
+    //covers case where many labels are interned
+    @Test
+    public void testManyLabels(){
+        VertexDictionary dictionary = new VertexDictionary();
+        for (int i = 0; i < 10000; i++){
+            assertEquals("ids should be dense", i, dictionary.intern("w" + i));
+        }
+        for (int i = 0; i < 10000; i++){
+            assertEquals("lost a label while growing", i, dictionary.find("w" + i));
+        }
+    }
+
+    //covers case where id is invalid
+    @Test(expected=IndexOutOfBoundsException.class)
+    public void testLabelInvalid(){
+        new VertexDictionary().label(0);
+    }
+
+    //covers case where a frozen dictionary interns a new label, an interned
+    //           label, and is copied
+    @Test
+    public void testFreeze(){
+        VertexDictionary dictionary = new VertexDictionary();
+        dictionary.intern("hello");
+        dictionary.freeze();
+        assertTrue("expected frozen", dictionary.isFrozen());
+        assertEquals("expected interned label to keep its id", 0, dictionary.intern("hello"));
+        try {
+            dictionary.intern("world");
+            fail("expected UnsupportedOperationException");
+        } catch (UnsupportedOperationException uoe){
+            // expected
+        }
+        assertEquals("expected no new label", 1, dictionary.size());
+        VertexDictionary copy = new VertexDictionary(dictionary);
+        assertFalse("expected copy not frozen", copy.isFrozen());
+        assertEquals("expected copy to intern new labels", 1, copy.intern("world"));
+    }
+}
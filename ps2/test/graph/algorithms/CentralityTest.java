@@ -0,0 +1,141 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import graph.CsrGraph;
+
+/**
+ * Tests for Centrality.
+ */
+public class CentralityTest {
+
+    /*
+     * Testing strategy for Centrality:
+     *
+     * weightedInDegree(), weightedOutDegree():
+     *      - vertex with no edges, several edges, a self-loop
+     *      - pool null, pool given
+     * coreNumbers():
+     *      - isolated vertex, edges both ways, self-loops, clique
+     *      - random graph large enough to be split, compared with peeling
+     * top():
+     *      - count 0, less than, more than the number of vertices
+     *      - tied scores
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled(){
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    //covers case of no edges, several edges and a self-loop, with and without a pool
+    @Test
+    public void testDegrees(){
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        builder.increment(0, 1, 2);
+        builder.increment(0, 2, 3);
+        builder.increment(2, 2, 4);
+        builder.addVertex(3);
+        CsrGraph graph = builder.build(false);
+        for (ForkJoinPool pool : new ForkJoinPool[] {null, ForkJoinPool.commonPool()}){
+            assertArrayEquals("in-degrees incorrect", new long[] {0, 2, 7, 0},
+                    Centrality.weightedInDegree(graph, pool));
+            assertArrayEquals("out-degrees incorrect", new long[] {5, 0, 4, 0},
+                    Centrality.weightedOutDegree(graph, pool));
+        }
+    }
+
+    //covers case of an isolated vertex, edges both ways, self-loops and a clique
+    @Test
+    public void testCoreNumbersSmall(){
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        // clique 0,1,2,3 with edges in both directions between 0 and 1
+        for (int a = 0; a < 4; a++){
+            for (int b = a + 1; b < 4; b++){
+                builder.increment(a, b, 1);
+            }
+        }
+        builder.increment(1, 0, 1);
+        builder.increment(3, 3, 1);
+        // tail 3 -> 4 -> 5 and isolated 6
+        builder.increment(3, 4, 1);
+        builder.increment(4, 5, 1);
+        builder.addVertex(6);
+        assertArrayEquals("core numbers incorrect", new int[] {3, 3, 3, 3, 1, 1, 0},
+                Centrality.coreNumbers(builder.build(false), null));
+    }
+
+    //covers case of a random graph split across the pool
+    @Test
+    public void testCoreNumbersAgainstPeeling(){
+        Random random = new Random(6031);
+        int n = 3000;
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        builder.addVertex(n - 1);
+        for (int i = 0; i < 30000; i++){
+            // skew toward small ids so that cores differ
+            int a = (int) (n * Math.pow(random.nextDouble(), 2));
+            int b = random.nextInt(n);
+            builder.increment(a, b, 1);
+        }
+        CsrGraph graph = builder.build(false);
+        assertArrayEquals("parallel core numbers should match peeling", peel(graph),
+                Centrality.coreNumbers(graph, ForkJoinPool.commonPool()));
+    }
+
+    /**
+     * @return core numbers of graph by repeatedly removing a vertex of minimum degree
+     */
+    private static int[] peel(CsrGraph graph){
+        int n = graph.vertexCount();
+        boolean[][] adjacent = new boolean[n][n];
+        int[] degree = new int[n];
+        for (int s = 0; s < n; s++){
+            for (int e = graph.outStart(s); e < graph.outEnd(s); e++){
+                int t = graph.target(e);
+                if (s != t && !adjacent[s][t]){
+                    adjacent[s][t] = adjacent[t][s] = true;
+                    degree[s]++;
+                    degree[t]++;
+                }
+            }
+        }
+        int[] core = new int[n];
+        boolean[] removed = new boolean[n];
+        int k = 0;
+        for (int step = 0; step < n; step++){
+            int min = -1;
+            for (int v = 0; v < n; v++){
+                if (!removed[v] && (min < 0 || degree[v] < degree[min])){
+                    min = v;
+                }
+            }
+            k = Math.max(k, degree[min]);
+            core[min] = k;
+            removed[min] = true;
+            for (int v = 0; v < n; v++){
+                if (adjacent[min][v] && !removed[v]){
+                    degree[v]--;
+                }
+            }
+        }
+        return core;
+    }
+
+    //covers case where count is 0, less than and more than the vertices, with ties
+    @Test
+    public void testTop(){
+        double[] scores = {1, 5, 3, 5, 0};
+        assertArrayEquals("expected nothing", new int[0], Centrality.top(scores, 0));
+        assertArrayEquals("ties go to smaller ids", new int[] {1, 3, 2}, Centrality.top(scores, 3));
+        assertArrayEquals("expected every vertex", new int[] {1, 3, 2, 0, 4}, Centrality.top(scores, 10));
+    }
+}
@@ -0,0 +1,101 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import graph.ConcreteAdjacencyGraph;
+import graph.ConcreteEdgesGraph;
+import graph.ConcreteVerticesGraph;
+import graph.CsrGraph;
+import graph.Graph;
+
+/**
+ * Tests for IndexedGraph.
+ */
+public class IndexedGraphTest {
+
+    /*
+     * Testing strategy for IndexedGraph:
+     *
+     * of():
+     *      - graph is empty, has isolated vertices, has self-loops
+     *      - graph implements DirectAdjacency (each of the three implementations),
+     *        graph does not
+     * id(), label():
+     *      - label is a vertex, is not a vertex
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled(){
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    /**
+     * @return a graph with edges a->b (2), b->c (3), c->a (4), c->c (5) and isolated d
+     */
+    private static Graph<String> fill(Graph<String> graph){
+        graph.set("a", "b", 2);
+        graph.set("b", "c", 3);
+        graph.set("c", "a", 4);
+        graph.set("c", "c", 5);
+        graph.add("d");
+        return graph;
+    }
+
+    /**
+     * A Graph that only has the operations of the Graph interface.
+     */
+    private static Graph<String> withoutDirectAdjacency(Graph<String> graph){
+        return new Graph<String>(){
+            @Override public boolean add(String vertex){ return graph.add(vertex); }
+            @Override public int set(String source, String target, int weight){ return graph.set(source, target, weight); }
+            @Override public boolean remove(String vertex){ return graph.remove(vertex); }
+            @Override public Set<String> vertices(){ return graph.vertices(); }
+            @Override public Map<String, Integer> sources(String target){ return graph.sources(target); }
+            @Override public Map<String, Integer> targets(String source){ return graph.targets(source); }
+        };
+    }
+
+    //covers case where graph is empty
+    @Test
+    public void testEmpty(){
+        IndexedGraph<String> indexed = IndexedGraph.of(new ConcreteAdjacencyGraph<String>());
+        assertEquals("expected no vertices", 0, indexed.vertexCount());
+        assertEquals("expected no edges", 0, indexed.csr().edgeCount());
+        assertEquals("expected missing label", -1, indexed.id("a"));
+    }
+
+    //covers case where graph has isolated vertices and self-loops, with every
+    //implementation, with and without DirectAdjacency
+    @Test
+    public void testSameEdgesForEveryImplementation(){
+        List<Graph<String>> graphs = Arrays.asList(
+                fill(new ConcreteAdjacencyGraph<String>()),
+                fill(new ConcreteEdgesGraph<String>()),
+                fill(new ConcreteVerticesGraph<String>()),
+                withoutDirectAdjacency(fill(new ConcreteAdjacencyGraph<String>())));
+        for (Graph<String> graph : graphs){
+            IndexedGraph<String> indexed = IndexedGraph.of(graph);
+            CsrGraph csr = indexed.csr();
+            assertEquals("expected four vertices", 4, indexed.vertexCount());
+            assertEquals("expected four edges", 4, csr.edgeCount());
+            for (String label : Arrays.asList("a", "b", "c", "d")){
+                assertEquals("label and id should be inverses", label, indexed.label(indexed.id(label)));
+                for (String target : Arrays.asList("a", "b", "c", "d")){
+                    int weight = graph.targets(label).getOrDefault(target, 0);
+                    assertEquals("weight of " + label + "->" + target, weight,
+                            csr.weight(indexed.id(label), indexed.id(target)));
+                }
+            }
+        }
+    }
+}
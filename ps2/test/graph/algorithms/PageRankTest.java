@@ -0,0 +1,111 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import graph.ConcreteAdjacencyGraph;
+import graph.CsrGraph;
+import graph.Graph;
+
+/**
+ * Tests for PageRank.
+ */
+public class PageRankTest {
+
+    /*
+     * Testing strategy for PageRank:
+     *
+     * rank():
+     *      - empty graph, symmetric cycle, dangling vertices
+     *      - edge weights equal, unequal
+     *      - damping 0, in (0, 1); parameters out of range
+ *      - on the calling thread, on a pool
+     */
+
+    private static final double EPSILON = 1e-9;
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled(){
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    //covers case of an empty graph
+    @Test
+    public void testEmpty(){
+        assertEquals("expected no ranks", 0, PageRank.rank(new ConcreteAdjacencyGraph<String>()).size());
+    }
+
+    //covers case of a symmetric cycle with equal weights
+    @Test
+    public void testCycleIsUniform(){
+        Graph<String> graph = new ConcreteAdjacencyGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 1);
+        graph.set("c", "a", 1);
+        for (double rank : PageRank.rank(graph).values()){
+            assertEquals("expected uniform ranks", 1.0 / 3, rank, EPSILON);
+        }
+    }
+
+    //covers case of unequal weights and a dangling vertex, against the
+    //stationary distribution worked out by hand
+    @Test
+    public void testWeighted(){
+        // a -> b (3), a -> c (1); b and c dangle; damping 1: everything from a
+        // and the dangling mass spreads, giving ranks (4, 7, 5) / 16
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        builder.increment(0, 1, 3);
+        builder.increment(0, 2, 1);
+        double[] ranks = PageRank.rank(builder.build(false), 1, 1000, 1e-15);
+        assertEquals("rank of a", 4.0 / 16, ranks[0], EPSILON);
+        assertEquals("rank of b", 7.0 / 16, ranks[1], EPSILON);
+        assertEquals("rank of c", 5.0 / 16, ranks[2], EPSILON);
+    }
+
+    //covers case where damping is 0, and ranks sum to 1 with default damping
+    @Test
+    public void testDamping(){
+        Graph<String> graph = new ConcreteAdjacencyGraph<>();
+        graph.set("a", "b", 5);
+        graph.set("b", "b", 1);
+        graph.add("c");
+        Map<String, Double> ranks = PageRank.rank(graph, 0, 10, 0);
+        assertEquals("damping 0 is uniform", 1.0 / 3, ranks.get("b"), EPSILON);
+        double total = 0;
+        for (double rank : PageRank.rank(graph).values()){
+            total += rank;
+        }
+        assertEquals("ranks should sum to 1", 1, total, EPSILON);
+        assertTrue("b should collect most rank", PageRank.rank(graph).get("b") > 0.5);
+    }
+
+    //covers case where a parameter is out of range
+    @Test(expected=IllegalArgumentException.class)
+    public void testBadDamping(){
+        PageRank.rank(new ConcreteAdjacencyGraph<String>(), 1.5, 10, 0);
+    }
+
+    //covers case of a pool, against the calling thread
+    @Test
+    public void testParallelMatchesSequential(){
+        Random random = new Random(6005);
+        int n = 20000;
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        builder.addVertex(n - 1);
+        for (int i = 0; i < 100000; i++){
+            builder.increment(random.nextInt(n), random.nextInt(n / 10), 1 + random.nextInt(5));
+        }
+        CsrGraph graph = builder.build(false);
+        double[] sequential = PageRank.rank(graph, 0.85, 50, 0);
+        double[] parallel = PageRank.rank(graph, 0.85, 50, 0, ForkJoinPool.commonPool());
+        assertArrayEquals("parallel ranks should match", sequential, parallel, 1e-12);
+    }
+}
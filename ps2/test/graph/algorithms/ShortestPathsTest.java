@@ -0,0 +1,115 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import org.junit.Test;
+
+import graph.ConcreteAdjacencyGraph;
+import graph.CsrGraph;
+import graph.Graph;
+
+/**
+ * Tests for ShortestPaths.
+ */
+public class ShortestPathsTest {
+
+    /*
+     * Testing strategy for ShortestPaths:
+     *
+     * from():
+     *      - source is a vertex, is not a vertex
+     *      - shortest path is the direct edge, goes through other vertices
+     *      - some vertices unreachable
+     * distance(), pathTo():
+     *      - target is source, reachable, unreachable, not a vertex
+     * distances(CsrGraph):
+     *      - random graph, compared with Bellman-Ford relaxation
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled(){
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    //covers case where the shortest path goes through other vertices, target
+    //is source, reachable, unreachable, not a vertex
+    @Test
+    public void testPaths(){
+        Graph<String> graph = new ConcreteAdjacencyGraph<>();
+        graph.set("a", "d", 10);
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 2);
+        graph.set("c", "d", 3);
+        graph.set("d", "e", 1);
+        graph.set("e", "a", 1);
+        graph.add("f");
+        ShortestPaths<String> paths = ShortestPaths.from(graph, "a");
+        assertEquals("source incorrect", "a", paths.source());
+        assertEquals("expected 0 to source", 0, paths.distance("a"));
+        assertEquals("expected the path around", 6, paths.distance("d"));
+        assertEquals("path incorrect", Arrays.asList("a", "b", "c", "d", "e"), paths.pathTo("e"));
+        assertEquals("path to source is just source", Arrays.asList("a"), paths.pathTo("a"));
+        assertEquals("expected unreachable", -1, paths.distance("f"));
+        assertEquals("expected no path", Collections.emptyList(), paths.pathTo("f"));
+        assertEquals("expected not a vertex", -1, paths.distance("z"));
+    }
+
+    //covers case where the shortest path is the direct edge
+    @Test
+    public void testDirectEdge(){
+        Graph<String> graph = new ConcreteAdjacencyGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("a", "c", 5);
+        graph.set("b", "c", 7);
+        assertEquals("path incorrect", Arrays.asList("a", "c"), ShortestPaths.from(graph, "a").pathTo("c"));
+    }
+
+    //covers case where source is not a vertex
+    @Test(expected=IllegalArgumentException.class)
+    public void testMissingSource(){
+        ShortestPaths.from(new ConcreteAdjacencyGraph<String>(), "a");
+    }
+
+    //covers case of a random graph
+    @Test
+    public void testRandomAgainstBellmanFord(){
+        Random random = new Random(6031);
+        int n = 200;
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        builder.addVertex(n - 1);
+        for (int i = 0; i < 1000; i++){
+            builder.increment(random.nextInt(n), random.nextInt(n), 1 + random.nextInt(20));
+        }
+        CsrGraph graph = builder.build(false);
+        int[] previous = new int[n];
+        long[] distances = ShortestPaths.distances(graph, 0, previous);
+
+        long[] expected = new long[n];
+        Arrays.fill(expected, Long.MAX_VALUE);
+        expected[0] = 0;
+        for (int round = 0; round < n; round++){
+            for (int source = 0; source < n; source++){
+                for (int edge = graph.outStart(source); edge < graph.outEnd(source) && expected[source] != Long.MAX_VALUE; edge++){
+                    expected[graph.target(edge)] = Math.min(expected[graph.target(edge)],
+                            expected[source] + graph.outWeight(edge));
+                }
+            }
+        }
+        for (int vertex = 0; vertex < n; vertex++){
+            long want = expected[vertex] == Long.MAX_VALUE ? -1 : expected[vertex];
+            assertEquals("distance to " + vertex, want, distances[vertex]);
+            if (distances[vertex] > 0){
+                int before = previous[vertex];
+                assertEquals("predecessor should be on a shortest path", distances[vertex],
+                        distances[before] + graph.weight(before, vertex));
+            }
+        }
+    }
+}
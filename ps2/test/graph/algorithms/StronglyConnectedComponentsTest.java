@@ -0,0 +1,82 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import graph.ConcreteAdjacencyGraph;
+import graph.CsrGraph;
+import graph.Graph;
+
+/**
+ * Tests for StronglyConnectedComponents.
+ */
+public class StronglyConnectedComponentsTest {
+
+    /*
+     * Testing strategy for StronglyConnectedComponents:
+     *
+     * of(), componentOf():
+     *      - empty graph
+     *      - single vertices, self-loops, cycles, components linked by edges
+     *      - long cycle (deeper than the call stack would allow recursively)
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled(){
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    //covers case of an empty graph
+    @Test
+    public void testEmpty(){
+        assertEquals("expected no components", 0,
+                StronglyConnectedComponents.of(new ConcreteAdjacencyGraph<String>()).size());
+    }
+
+    //covers case of single vertices, self-loops, cycles and linked components
+    @Test
+    public void testComponents(){
+        Graph<String> graph = new ConcreteAdjacencyGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 1);
+        graph.set("c", "a", 1);
+        graph.set("c", "d", 1);
+        graph.set("d", "e", 1);
+        graph.set("e", "d", 1);
+        graph.set("f", "f", 1);
+        graph.add("g");
+        List<Set<String>> components = StronglyConnectedComponents.of(graph);
+        assertEquals("expected four components", 4, components.size());
+        Set<String> abc = new HashSet<>(Arrays.asList("a", "b", "c"));
+        Set<String> de = new HashSet<>(Arrays.asList("d", "e"));
+        assertTrue("missing cycle", components.contains(abc));
+        assertTrue("missing cycle", components.contains(de));
+        assertTrue("missing self-loop", components.contains(new HashSet<>(Arrays.asList("f"))));
+        assertTrue("missing single vertex", components.contains(new HashSet<>(Arrays.asList("g"))));
+        assertTrue("d,e is reachable from a,b,c so must come first",
+                components.indexOf(de) < components.indexOf(abc));
+    }
+
+    //covers case of a long cycle
+    @Test
+    public void testLongCycle(){
+        int n = 200000;
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        for (int i = 0; i < n; i++){
+            builder.increment(i, (i + 1) % n, 1);
+        }
+        int[] componentOf = StronglyConnectedComponents.componentOf(builder.build(false));
+        for (int i = 0; i < n; i++){
+            assertEquals("expected a single component", 0, componentOf[i]);
+        }
+    }
+}
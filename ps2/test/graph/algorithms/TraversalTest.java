@@ -0,0 +1,93 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package graph.algorithms;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import graph.ConcreteAdjacencyGraph;
+import graph.CsrGraph;
+import graph.Graph;
+
+/**
+ * Tests for Traversal.
+ */
+public class TraversalTest {
+
+    /*
+     * Testing strategy for Traversal:
+     *
+     * breadthFirst(), depthFirst():
+     *      - start has no edges, has a self-loop
+     *      - graph has cycles, unreachable vertices
+     *      - long path (deeper than the call stack would allow recursively)
+     *      - start is not a vertex
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled(){
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    /**
+     * @return 0->1, 0->2, 1->3, 2->3, 3->0, 3->3, and unreachable 4->0
+     */
+    private static CsrGraph diamond(){
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        builder.increment(0, 1, 1);
+        builder.increment(0, 2, 1);
+        builder.increment(1, 3, 1);
+        builder.increment(2, 3, 1);
+        builder.increment(3, 0, 1);
+        builder.increment(3, 3, 1);
+        builder.increment(4, 0, 1);
+        return builder.build(false);
+    }
+
+    //covers case where graph has cycles, a self-loop and unreachable vertices
+    @Test
+    public void testOrders(){
+        assertArrayEquals("breadth-first order incorrect", new int[] {0, 1, 2, 3},
+                Traversal.breadthFirst(diamond(), 0));
+        assertArrayEquals("depth-first order incorrect", new int[] {0, 1, 3, 2},
+                Traversal.depthFirst(diamond(), 0));
+    }
+
+    //covers case where start has no edges, with labels
+    @Test
+    public void testLabels(){
+        Graph<String> graph = new ConcreteAdjacencyGraph<>();
+        graph.set("a", "b", 1);
+        graph.set("b", "c", 1);
+        graph.add("d");
+        assertEquals("expected only start", Arrays.asList("d"), Traversal.depthFirst(graph, "d"));
+        assertEquals("expected every vertex reachable from a",
+                new HashSet<>(Arrays.asList("a", "b", "c")),
+                new HashSet<>(Traversal.breadthFirst(graph, "a")));
+        assertEquals("path order incorrect", Arrays.asList("a", "b", "c"), Traversal.depthFirst(graph, "a"));
+    }
+
+    //covers case of a long path
+    @Test
+    public void testLongPath(){
+        int n = 200000;
+        CsrGraph.Builder builder = new CsrGraph.Builder();
+        for (int i = 0; i + 1 < n; i++){
+            builder.increment(i, i + 1, 1);
+        }
+        int[] order = Traversal.depthFirst(builder.build(false), 0);
+        assertEquals("expected every vertex", n, order.length);
+        assertEquals("expected the end of the path last", n - 1, order[n - 1]);
+    }
+
+    //covers case where start is not a vertex
+    @Test(expected=IllegalArgumentException.class)
+    public void testMissingStart(){
+        Traversal.breadthFirst(new ConcreteAdjacencyGraph<String>(), "a");
+    }
+}
@@ -0,0 +1,128 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+/**
+ * Tests for GraphPoetService.
+ */
+public class GraphPoetServiceTest {
+
+    /*
+     * Testing strategy for GraphPoetService:
+     *
+     * GraphPoetService(File), GraphPoetService(String):
+     *      - corpus is empty, nonempty
+     * append(text), flush():
+     *      - no appends
+     *      - one append
+     *      - several appends, folded in one or more batches
+     *      - append continues the last word of the corpus
+     *      - append after close()
+     * close():
+     *      - calling thread interrupted, not interrupted
+     * poem(input):
+     *      - called while appends are being folded, from several threads
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    //covers case where corpus is nonempty, no appends
+    @Test
+    public void testNoAppends() throws IOException, InterruptedException {
+        try (GraphPoetService service = new GraphPoetService(new File("test/poet/firstTest"))) {
+            service.flush();
+            assertEquals("poem was not as expected", "hello hello hello", service.poem("hello hello"));
+        }
+    }
+
+    //covers case where corpus is empty, one append
+    @Test
+    public void testOneAppend() throws InterruptedException {
+        try (GraphPoetService service = new GraphPoetService("")) {
+            assertEquals("poem was not as expected", "Test the system.", service.poem("Test the system."));
+            service.append("This is a test of the Mugar Omni Theater sound system.");
+            service.flush();
+            assertEquals("poem was not as expected", "Test of the system.", service.poem("Test the system."));
+        }
+    }
+
+    //covers case where several appends, append continues the last word of the corpus
+    @Test
+    public void testAppendsMatchWholeCorpus() throws InterruptedException {
+        String[] pieces = {"To explore great new", "worlds\nTo seek out", "new life and", "new civilizations"};
+        String input = "Seek to explore new and exciting synergies! out life";
+        try (GraphPoetService service = new GraphPoetService(pieces[0])) {
+            StringBuilder corpus = new StringBuilder(pieces[0]);
+            for (int i = 1; i < pieces.length; i++) {
+                service.append(pieces[i]);
+                corpus.append(" ").append(pieces[i]);
+            }
+            service.flush();
+            GraphPoet whole = new GraphPoet(corpus.toString());
+            assertEquals("poem was not as expected", whole.poem(input), service.poem(input));
+            assertEquals("vertices were not as expected", whole.toString(), service.snapshot().toString());
+        }
+    }
+
+    //covers case where poem() is called from several threads while appends are folded
+    @Test
+    public void testConcurrentReaders() throws InterruptedException {
+        try (GraphPoetService service = new GraphPoetService("a b c")) {
+            AtomicBoolean failed = new AtomicBoolean(false);
+            List<Thread> readers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                Thread reader = new Thread(() -> {
+                    for (int j = 0; j < 2000; j++) {
+                        String poem = service.poem("a c");
+                        if (!poem.equals("a c") && !poem.equals("a b c")) {
+                            failed.set(true);
+                        }
+                    }
+                });
+                readers.add(reader);
+                reader.start();
+            }
+            for (int i = 0; i < 200; i++) {
+                service.append("a b c");
+            }
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            service.flush();
+            assertFalse("a reader saw an inconsistent snapshot", failed.get());
+            assertEquals("poem was not as expected", "a b c", service.poem("a c"));
+        }
+    }
+
+    //covers case where append after close()
+    @Test(expected=IllegalStateException.class)
+    public void testAppendAfterClose() {
+        GraphPoetService service = new GraphPoetService("a b c");
+        service.close();
+        service.append("d");
+    }
+
+    //covers case where close() is called by an interrupted thread
+    @Test
+    public void testCloseWhileInterrupted() {
+        GraphPoetService service = new GraphPoetService("a b c");
+        Thread.currentThread().interrupt();
+        service.close();
+        assertTrue("expected the interrupt status to be kept", Thread.interrupted());
+        assertEquals("poem was not as expected", "a b c", service.poem("a c"));
+    }
+}
@@ -7,11 +7,21 @@ import static org.junit.Assert.*;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 import org.junit.Test;
 
+import graph.Graph;
+import graph.GraphFile;
+
 
 /**
  * Tests for GraphPoet.
@@ -25,12 +35,23 @@ public class GraphPoetTest {
      *      - corpus is empty
      *      - corpus contains text all on one line
      *      - corpus contains multiple lines
+     *      - corpus contains non-ASCII words
+     *      - corpus read from file agrees with same corpus given as a string,
+     *        also when the default locale lower-cases differently (Turkish)
      * 
      * GraphPoet(String corpus):
      *      - empty string (corpus.length() = 0)
      *      - number of words = 1
      *      - number of words > 1
      * 
+     * GraphPoet(Graph<String> affinities):
+     *      - affinities is empty
+     *      - affinities has edges
+     *      - affinities has a vertex that is not a lower-case word
+     *      - affinities is a graph file saved by save()
+     *      - a poet loaded from a graph file saves over that file
+     *      - affinities built by ParallelCorpusBuilder, with tied bridge words
+     * 
      * String poem(String input):
      *    input:
      *      - empty string (input.length() = 0)
@@ -42,6 +63,25 @@ public class GraphPoetTest {
      *      - has caps
      *      - has repeated words
      *      - has punctuation
+     *      - only whitespace
+     *      
+     * poems(inputs, Appendable out):
+     *      - inputs is an Iterable, a Stream
+     *      - no inputs, one batch, several batches; some inputs empty
+     *      - out is a Writer, a StringBuilder
+     *      - pool parallelism = 1, > 1, > number of inputs
+     *      - poems agree with poem(), in input order
+     *      
+     * indexed(int topK, boolean eager):
+     *      - topK = 1, topK > number of targets of any word
+     *      - topK <= 0
+     *      - eager = true, false
+     *      - indexed poems agree with unindexed poems
+     *      
+     * rankedVocabulary(WordRanking ranking, int count):
+     *      - each ranking
+     *      - count = 0, count > number of words; count < 0
+     *      - tied scores
      *      
      * toString():
      *      - graph has no vertices
@@ -96,6 +136,89 @@ public class GraphPoetTest {
         assertEquals("produced poem when corpus was read from multi-line poem was not as expected", expected, actual);        
     }
  
+    //covers case where corpus contains non-ASCII words
+    @Test
+    public void testPoemFileNonAscii() throws IOException {
+        File testFile = new File("test/poet/unicodeTest");
+        GraphPoet testPoet = new GraphPoet(testFile);
+        String input = "VA? VA! Br\u00fbl\u00e9e Fra\u00eeche";
+        String expected = "VA? \u00e7a VA! cr\u00e8me Br\u00fbl\u00e9e cr\u00e8me Fra\u00eeche";
+        String actual = testPoet.poem(input);
+        assertEquals("produced poem when corpus had non-ASCII words was not as expected", expected, actual);
+    }
+    
+    //covers case where corpus read from file agrees with same corpus given as a string
+    @Test
+    public void testFileAndStringCorporaAgree() throws IOException {
+        GraphPoet filePoet = new GraphPoet(new File("test/poet/firstTest"));
+        GraphPoet stringPoet = new GraphPoet("Hello hellO hello hELLo HELLO\nNot a very interesting poem here.\nMove along!");
+        assertEquals("expected the same vertices from file and string", stringPoet.toString(), filePoet.toString());
+        String input = "hello hello interesting here. along!";
+        assertEquals("expected the same poem from file and string", stringPoet.poem(input), filePoet.poem(input));
+    }
+    
+    //covers case where corpus read from file agrees with same corpus given as a string
+    //           when the default locale lower-cases differently (Turkish)
+    @Test
+    public void testFileAndStringCorporaAgreeInTurkishLocale() throws IOException {
+        Locale defaultLocale = Locale.getDefault();
+        File file = File.createTempFile("turkish", ".txt");
+        file.deleteOnExit();
+        String corpus = "TITLE in ISTANBUL \u00c7IT\u0130ES";
+        Files.write(file.toPath(), corpus.getBytes(StandardCharsets.UTF_8));
+        try {
+            Locale.setDefault(new Locale("tr", "TR"));
+            GraphPoet filePoet = new GraphPoet(file);
+            GraphPoet stringPoet = new GraphPoet(corpus);
+            GraphPoet graphPoet = new GraphPoet(ParallelCorpusBuilder.build(corpus, ForkJoinPool.commonPool()));
+            String input = "Title Istanbul";
+            assertEquals("expected a bridge word from the file", "Title in Istanbul", filePoet.poem(input));
+            assertEquals("expected a bridge word from the string", "Title in Istanbul", stringPoet.poem(input));
+            assertEquals("expected a bridge word from the graph", "Title in Istanbul", graphPoet.poem(input));
+            assertEquals("expected the same vertices from file and string", stringPoet.toString(), filePoet.toString());
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+    
+    //covers case where affinities has edges
+    @Test
+    public void testPoemFromGraph() {
+        Graph<String> affinities = Graph.empty();
+        affinities.set("test", "of", 1);
+        affinities.set("of", "the", 1);
+        affinities.set("the", "system.", 1);
+        GraphPoet testPoet = new GraphPoet(affinities);
+        assertEquals("produced poem from graph was not as expected", "Test of the system.", testPoet.poem("Test the system."));
+    }
+    
+    //covers case where affinities built by ParallelCorpusBuilder, with tied bridge words
+    @Test
+    public void testPoemFromParallelGraphBreaksTiesByCorpusOrder() {
+        String corpus = "from zulu to from yankee to from xray to from whiskey to from victor to "
+                + "from uniform to from tango to from sierra to";
+        GraphPoet stringPoet = new GraphPoet(corpus);
+        GraphPoet graphPoet = new GraphPoet(ParallelCorpusBuilder.build(corpus, ForkJoinPool.commonPool()));
+        assertEquals("expected the bridge word seen first", "From zulu to", stringPoet.poem("From to"));
+        assertEquals("expected the same poem as from the corpus", stringPoet.poem("From to"), graphPoet.poem("From to"));
+        assertEquals("expected the same vertices as from the corpus", stringPoet.toString(), graphPoet.toString());
+    }
+    
+    //covers case where affinities is empty
+    @Test
+    public void testPoemFromEmptyGraph() {
+        GraphPoet testPoet = new GraphPoet(Graph.<String>empty());
+        assertEquals("toString was not as expected", "GraphPoet with vertices:", testPoet.toString());
+    }
+    
+    //covers case where affinities has a vertex that is not a lower-case word
+    @Test(expected=IllegalArgumentException.class)
+    public void testPoemFromGraphNotWords() {
+        Graph<String> affinities = Graph.empty();
+        affinities.add("two words");
+        new GraphPoet(affinities);
+    }
+    
     //covers case where GraphPoet made from string of one word
     //                  input is empty
     @Test
@@ -195,6 +318,26 @@ public class GraphPoetTest {
         assertEquals("produced poem was not as expected", expected, actual);      
     }
     
+    //covers case where topK = 1, topK > number of targets, eager = true, false
+    //            indexed poems agree with unindexed poems
+    @Test
+    public void testIndexedPoemsAgree() throws IOException {
+        GraphPoet testPoet = new GraphPoet(new File("src/poet/mugar-omni-theater.txt"));
+        String input = "This is a test of the theater sound system. "
+                + "the the Mugar a system. of test sound is Omni this a";
+        String expected = testPoet.poem(input);
+        for (int topK : new int[] {1, 2, 1000}) {
+            assertEquals("lazily indexed poem was not as expected", expected, testPoet.indexed(topK, false).poem(input));
+            assertEquals("eagerly indexed poem was not as expected", expected, testPoet.indexed(topK, true).poem(input));
+        }
+    }
+    
+    //covers case where topK <= 0
+    @Test(expected=IllegalArgumentException.class)
+    public void testIndexedNonpositiveTopK() {
+        new GraphPoet("a b c").indexed(0, true);
+    }
+    
     //NOTE: For rep exposure safety, I chose NOT to expose 'graph'.
     
     //covers case where graph is empty (no vertices, vertices.size() = 0)
@@ -229,5 +372,140 @@ public class GraphPoetTest {
         }
     }
     
+    //covers case of each ranking, with ties, count > number of words
+    @Test
+    public void testRankedVocabulary(){
+        // edges: a->b, b->c, c->a, a->c; c has in-degree 2, a has out-degree 2
+        GraphPoet testPoet = new GraphPoet("a b c a c");
+        assertEquals("in-degree ranking incorrect", Arrays.asList("c", "a", "b"),
+                testPoet.rankedVocabulary(WordRanking.IN_DEGREE, 10));
+        assertEquals("out-degree ranking incorrect, ties go to first appearance", Arrays.asList("a", "b"),
+                testPoet.rankedVocabulary(WordRanking.OUT_DEGREE, 2));
+        assertEquals("c collects the most rank", "c",
+                testPoet.rankedVocabulary(WordRanking.PAGE_RANK, 1).get(0));
+        assertEquals("every word is in the 2-core", Arrays.asList("a", "b", "c"),
+                testPoet.rankedVocabulary(WordRanking.CORE, 3));
+    }
+    
+    //covers case where count = 0
+    @Test
+    public void testRankedVocabularyEmpty(){
+        assertEquals("expected no words", Arrays.asList(),
+                new GraphPoet("a b c").rankedVocabulary(WordRanking.PAGE_RANK, 0));
+    }
+    
+    //covers case where count < 0
+    @Test(expected=IllegalArgumentException.class)
+    public void testRankedVocabularyNegative(){
+        new GraphPoet("a b c").rankedVocabulary(WordRanking.IN_DEGREE, -1);
+    }
+    
+    //covers case where affinities is a graph file saved by save()
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        GraphPoet original = new GraphPoet(new File("src/poet/mugar-omni-theater.txt"));
+        File file = File.createTempFile("poet", ".graph");
+        file.deleteOnExit();
+        original.save(file);
+        GraphPoet loaded = new GraphPoet(GraphFile.load(file));
+        String input = "Test the system. This is a test of the theater sound system.";
+        assertEquals("loaded poet should write the same poem", original.poem(input), loaded.poem(input));
+        assertEquals("loaded poet should have the same words", original.toString(), loaded.toString());
+    }
+    
+    //covers case where a poet loaded from a graph file saves over that file
+    @Test
+    public void testSaveOverLoadedFile() throws IOException {
+        File file = File.createTempFile("poet", ".graph");
+        file.deleteOnExit();
+        new GraphPoet("This is a test of the Mugar Omni Theater sound system.").save(file);
+        GraphPoet loaded = new GraphPoet(GraphFile.load(file));
+        loaded.save(file);
+        String input = "Test the system.";
+        assertEquals("loaded poet should still write poems", "Test of the system.", loaded.poem(input));
+        assertEquals("reloaded poet should write the same poem", "Test of the system.",
+                new GraphPoet(GraphFile.load(file)).poem(input));
+    }
+    
    
+    //covers case of n-gram mode with order 2, which writes the same poems
+    @Test
+    public void testNgramOrderTwo() throws IOException {
+        File corpus = new File("src/poet/mugar-omni-theater.txt");
+        GraphPoet plain = new GraphPoet(corpus);
+        GraphPoet ngram = new GraphPoet(corpus, 2, 1);
+        String input = "Test the system. This is a test of the theater sound system.";
+        assertEquals("order 2 should write the same poem", plain.poem(input), ngram.poem(input));
+    }
+    
+    //covers case of n-gram mode with order 3, where the word before decides the bridge
+    @Test
+    public void testNgramLongerContext(){
+        String corpus = "y a d c y a d c x a b c x a b c x a b c";
+        assertEquals("bigrams alone prefer b", "y a b c", new GraphPoet(corpus).poem("y a c"));
+        GraphPoet testPoet = new GraphPoet(corpus, 3, 1);
+        assertEquals("y a is followed by d", "y a d c", testPoet.poem("y a c"));
+        assertEquals("x a is followed by b", "x a b c", testPoet.poem("x a c"));
+        assertEquals("an unknown word resets the context", "Q a b c", testPoet.poem("Q a c"));
+    }
+    
+    //covers case of n-gram mode with order out of range
+    @Test(expected=IllegalArgumentException.class)
+    public void testNgramBadOrder(){
+        new GraphPoet("a b c", 6, 1);
+    }
+    
+    //covers case of n-gram mode with minCount < 1
+    @Test(expected=IllegalArgumentException.class)
+    public void testNgramBadMinCount(){
+        new GraphPoet("a b c", 3, 0);
+    }
+    
+    //covers case of poems() with many inputs, some empty or only whitespace, to a Writer
+    @Test
+    public void testPoemsIterableToWriter() throws IOException {
+        GraphPoet testPoet = new GraphPoet(new File("src/poet/mugar-omni-theater.txt"));
+        List<String> inputs = new ArrayList<>();
+        StringBuilder expected = new StringBuilder();
+        String[] samples = {"Test the system.", "", "  \t ", "This is a test of the theater sound system.",
+                "Mugar OMNI theater", "unknown words only"};
+        for (int i = 0; i < 10000; i++){
+            String input = samples[i % samples.length] + " " + i;
+            inputs.add(input);
+            expected.append(testPoet.poem(input)).append('\n');
+        }
+        StringWriter out = new StringWriter();
+        testPoet.poems(inputs, out);
+        assertEquals("poems should be written in input order", expected.toString(), out.toString());
+    }
+    
+    //covers case of poems() from a Stream, in n-gram mode, to a StringBuilder, several pool sizes
+    @Test
+    public void testPoemsStream() throws IOException {
+        GraphPoet testPoet = new GraphPoet("y a d c y a d c x a b c x a b c x a b c", 3, 1);
+        StringBuilder out = new StringBuilder();
+        testPoet.poems(Stream.of("y a c", "", "x a c"), out);
+        assertEquals("poems should be written in input order", "y a d c\n\nx a b c\n", out.toString());
+        for (int parallelism : new int[] {1, 3, 8}){
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            StringBuilder pooled = new StringBuilder();
+            try {
+                testPoet.poems(Arrays.asList("x a c", "y a c", "Q a c").iterator(), pooled, pool);
+            } finally {
+                pool.shutdown();
+            }
+            assertEquals("poems should not depend on the pool", "x a b c\ny a d c\nQ a b c\n", pooled.toString());
+        }
+    }
+    
+    //covers case of poems() with no inputs, and poem() of whitespace only
+    @Test
+    public void testPoemsEmpty() throws IOException {
+        StringBuilder out = new StringBuilder();
+        GraphPoet testPoet = new GraphPoet("a b c");
+        testPoet.poems(new ArrayList<String>(), out);
+        assertEquals("expected no output", "", out.toString());
+        assertEquals("expected an empty poem", "", testPoet.poem(" \n "));
+    }
+    
 }
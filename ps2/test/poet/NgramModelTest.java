@@ -0,0 +1,189 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import graph.CsrGraph;
+
+/**
+ * Tests for NgramModel.
+ */
+public class NgramModelTest {
+
+    /*
+     * Testing strategy for NgramModel and NgramModel.Builder:
+     *      order: MIN_ORDER, MAX_ORDER, out of range
+     *      count(): n-gram seen once, many times, never, longer than order,
+     *               ending at the last word of the corpus
+     *      build(minCount): minCount = 1, > 1 (long n-grams dropped, bigrams kept), < 1
+     *      maxNodes: larger than the trie, much smaller (pruning happens), <= 0
+     *      bridge(): longest context decides, context unseen (backs off to the
+     *                graph), no candidate at all
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    /**
+     * Builds a model of words, which are used as their own ids.
+     */
+    private static NgramModel model(int order, int maxNodes, int minCount, int... words) {
+        NgramModel.Builder builder = new NgramModel.Builder(order, maxNodes);
+        for (int word : words) {
+            builder.addWord(word);
+        }
+        return builder.build(minCount);
+    }
+
+    /**
+     * Counts the occurrences of ngram in words directly.
+     */
+    private static int naiveCount(int[] words, int... ngram) {
+        int count = 0;
+        for (int start = 0; start + ngram.length <= words.length; start++) {
+            boolean matches = true;
+            for (int i = 0; i < ngram.length && matches; i++) {
+                matches = words[start + i] == ngram[i];
+            }
+            count += matches ? 1 : 0;
+        }
+        return count;
+    }
+
+    //covers case order = MIN_ORDER, n-grams seen once, many times, never, too long
+    @Test
+    public void testCountOrderTwo() {
+        int[] corpus = {0, 1, 0, 1, 2};
+        NgramModel model = model(2, 1 << 10, 1, corpus);
+        assertEquals("order", 2, model.order());
+        assertEquals("unigram", 2, model.count(new int[] {1}, 0, 1));
+        assertEquals("repeated bigram", 2, model.count(new int[] {0, 1}, 0, 2));
+        assertEquals("bigram at the end", 1, model.count(new int[] {1, 2}, 0, 2));
+        assertEquals("unseen bigram", 0, model.count(new int[] {2, 0}, 0, 2));
+        assertEquals("longer than the order", 0, model.count(new int[] {0, 1, 0}, 0, 3));
+    }
+
+    //covers case order = MAX_ORDER, n-grams ending at the last word, random corpus
+    @Test
+    public void testCountOrderFive() {
+        Random random = new Random(5);
+        int[] corpus = new int[2000];
+        for (int i = 0; i < corpus.length; i++) {
+            corpus[i] = random.nextInt(4);
+        }
+        NgramModel model = model(NgramModel.MAX_ORDER, 1 << 20, 1, corpus);
+        for (int start = corpus.length - 40; start < corpus.length; start++) {
+            for (int end = start + 1; end <= Math.min(corpus.length, start + 5); end++) {
+                int[] ngram = Arrays.copyOfRange(corpus, start, end);
+                assertEquals("count of an n-gram", naiveCount(corpus, ngram),
+                        model.count(ngram, 0, ngram.length));
+            }
+        }
+    }
+
+    //covers case minCount > 1: rare trigrams dropped, bigrams kept exactly
+    @Test
+    public void testBuildMinCount() {
+        int[] corpus = {0, 1, 2, 0, 1, 2, 0, 1, 3};
+        NgramModel model = model(3, 1 << 10, 2, corpus);
+        assertEquals("frequent trigram kept", 2, model.count(new int[] {0, 1, 2}, 0, 3));
+        assertEquals("rare trigram dropped", 0, model.count(new int[] {0, 1, 3}, 0, 3));
+        assertEquals("rare bigram kept", 1, model.count(new int[] {1, 3}, 0, 2));
+    }
+
+    //covers case maxNodes much smaller than the trie: pruning keeps bigrams exact
+    @Test
+    public void testPruningKeepsBigrams() {
+        Random random = new Random(13);
+        int[] corpus = new int[5000];
+        for (int i = 0; i < corpus.length; i++) {
+            corpus[i] = random.nextInt(30);
+        }
+        NgramModel.Builder builder = new NgramModel.Builder(4, 256);
+        for (int word : corpus) {
+            builder.addWord(word);
+        }
+        int nodes = builder.nodeCount();
+        NgramModel model = builder.build(1);
+        assertTrue("expected long n-grams to be pruned, nodes: " + nodes,
+                nodes < naiveTrieSize(corpus, 4));
+        for (int first = 0; first < 30; first++) {
+            for (int second = 0; second < 30; second++) {
+                assertEquals("bigram count", naiveCount(corpus, first, second),
+                        model.count(new int[] {first, second}, 0, 2));
+            }
+        }
+    }
+
+    /**
+     * @return number of distinct n-grams of up to order words in corpus, plus one
+     */
+    private static int naiveTrieSize(int[] corpus, int order) {
+        Set<List<Integer>> ngrams = new HashSet<>();
+        for (int start = 0; start < corpus.length; start++) {
+            List<Integer> ngram = new ArrayList<>();
+            for (int end = start; end < Math.min(corpus.length, start + order); end++) {
+                ngram.add(corpus[end]);
+                ngrams.add(new ArrayList<>(ngram));
+            }
+        }
+        return ngrams.size() + 1;
+    }
+
+    //covers case longest context decides, unseen context backs off, no candidate
+    @Test
+    public void testBridge() {
+        // y a d c y a d c x a b c x a b c x a b c
+        int y = 0, a = 1, d = 2, c = 3, x = 4, b = 5;
+        int[] corpus = {y, a, d, c, y, a, d, c, x, a, b, c, x, a, b, c, x, a, b, c};
+        CsrGraph.Builder graphBuilder = new CsrGraph.Builder();
+        for (int i = 0; i + 1 < corpus.length; i++) {
+            graphBuilder.increment(corpus[i], corpus[i + 1], 1);
+        }
+        CsrGraph graph = graphBuilder.build(false);
+        NgramModel model = model(3, 1 << 10, 1, corpus);
+        assertEquals("y a favours d", d, model.bridge(graph, new int[] {y, a}, 2, c));
+        assertEquals("x a favours b", b, model.bridge(graph, new int[] {x, a}, 2, c));
+        assertEquals("unseen context backs off to the graph", b,
+                model.bridge(graph, new int[] {c, a}, 2, c));
+        assertEquals("one-word context uses the graph", b, model.bridge(graph, new int[] {a}, 1, c));
+        assertEquals("no two-edge path", -1, model.bridge(graph, new int[] {y, a}, 2, y));
+    }
+
+    //covers case order out of range
+    @Test(expected=IllegalArgumentException.class)
+    public void testOrderTooLarge() {
+        new NgramModel.Builder(NgramModel.MAX_ORDER + 1);
+    }
+
+    //covers case order out of range
+    @Test(expected=IllegalArgumentException.class)
+    public void testOrderTooSmall() {
+        new NgramModel.Builder(NgramModel.MIN_ORDER - 1);
+    }
+
+    //covers case maxNodes <= 0
+    @Test(expected=IllegalArgumentException.class)
+    public void testMaxNodesZero() {
+        new NgramModel.Builder(3, 0);
+    }
+
+    //covers case minCount < 1
+    @Test(expected=IllegalArgumentException.class)
+    public void testMinCountZero() {
+        new NgramModel.Builder(3).build(0);
+    }
+}
@@ -0,0 +1,145 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package poet;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import graph.Graph;
+
+/**
+ * Tests for ParallelCorpusBuilder.
+ */
+public class ParallelCorpusBuilderTest {
+
+    /*
+     * Testing strategy for ParallelCorpusBuilder.build(corpus, pool, shardChars):
+     *      corpus:
+     *          - empty, only whitespace
+     *          - one word
+     *          - many words, with repeated adjacencies
+     *          - has caps, mixed whitespace (spaces, tabs, newlines)
+     *      shardChars:
+     *          - larger than the corpus (one shard)
+     *          - much smaller than the corpus (many shards, pairs cross shards)
+     *          - smaller than a single word
+     *      output is compared against a sequential pass over the same corpus
+     *      vertices() lists words in the order they first appear, across shards
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    /**
+     * Builds the affinity graph of corpus with one sequential pass.
+     */
+    private static Graph<String> sequentialGraph(String corpus) {
+        Graph<String> graph = Graph.empty();
+        String previous = null;
+        for (String word : corpus.toLowerCase(Locale.ROOT).split("\\s")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            graph.add(word);
+            if (previous != null) {
+                graph.set(previous, word, graph.targets(previous).getOrDefault(word, 0) + 1);
+            }
+            previous = word;
+        }
+        return graph;
+    }
+
+    /**
+     * Asserts that two graphs have the same vertices and weighted edges.
+     */
+    private static void assertSameGraph(Graph<String> expected, Graph<String> actual) {
+        assertEquals("vertices differ", expected.vertices(), actual.vertices());
+        for (String vertex : expected.vertices()) {
+            assertEquals("targets of " + vertex + " differ", expected.targets(vertex), actual.targets(vertex));
+        }
+    }
+
+    //covers case where corpus is empty, only whitespace
+    @Test
+    public void testEmptyCorpus() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertTrue("expected no vertices", ParallelCorpusBuilder.build("", pool).vertices().isEmpty());
+            assertTrue("expected no vertices", ParallelCorpusBuilder.build(" \n\t  \n", pool, 2).vertices().isEmpty());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    //covers case where corpus is one word, shardChars smaller than a word
+    @Test
+    public void testOneWord() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Graph<String> graph = ParallelCorpusBuilder.build("  Hello  ", pool, 1);
+            assertSameGraph(sequentialGraph("  Hello  "), graph);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    //covers case where corpus has many words, caps, mixed whitespace, one shard
+    @Test
+    public void testOneShard() {
+        String corpus = "To explore great new explore strange new worlds\nTo seek out new life and new civilizations";
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertSameGraph(sequentialGraph(corpus), ParallelCorpusBuilder.build(corpus, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    //covers case where corpus has many words, many shards, smaller than a word
+    @Test
+    public void testManyShardsMatchSequential() {
+        Random random = new Random(6031);
+        String[] vocabulary = {"the", "Mugar", "omni", "THEATER", "sound", "system.", "a", "test", "of"};
+        String[] whitespace = {" ", "  ", "\n", "\t", " \r\n"};
+        StringBuilder corpus = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            corpus.append(vocabulary[random.nextInt(vocabulary.length)]);
+            corpus.append(whitespace[random.nextInt(whitespace.length)]);
+        }
+        Graph<String> expected = sequentialGraph(corpus.toString());
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int shardChars : new int[] {1, 7, 64, 1000}) {
+                assertSameGraph(expected, ParallelCorpusBuilder.build(corpus.toString(), pool, shardChars));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    //covers case where vertices() lists words in the order they first appear, across shards
+    @Test
+    public void testVerticesInCorpusOrder() {
+        String corpus = "zeta Alpha mu zeta OMEGA beta alpha pi mu kappa delta zeta";
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int shardChars : new int[] {1, 5, 1000}) {
+                assertEquals("expected words in the order they first appear",
+                        Arrays.asList("zeta", "alpha", "mu", "omega", "beta", "pi", "kappa", "delta"),
+                        new ArrayList<>(ParallelCorpusBuilder.build(corpus, pool, shardChars).vertices()));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
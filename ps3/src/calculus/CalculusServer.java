@@ -0,0 +1,504 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package calculus;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Multi-user server for the expression system.
+ *
+ * <p>Clients connect over TCP, and speak the line-based protocol of the console
+ * interface: each line a client sends is an input, an expression or an !d/d or
+ * !eval command, as described by Session. The server answers every input with
+ * exactly one line, its output, in the order the inputs were sent. An empty line,
+ * or the end of the client's input, ends the connection once every output has
+ * been sent.
+ *
+ * <p>Each connection has its own session, with its own current expression.
+ * Clients may pipeline: send inputs without waiting for their outputs. Inputs
+ * are handled by a fixed pool of worker threads, shared by all connections, in
+ * the order they were sent, except that consecutive !eval commands of one
+ * connection, which do not change its current expression, may be handled at
+ * once. Each connection has at most PIPELINE_DEPTH inputs waiting for their
+ * outputs, of at most MAX_PENDING_CHARACTERS characters together, not counting
+ * inputs already handled whose outputs are waiting to be sent; the server stops
+ * reading from a connection while it has that many. Every session parses
+ * through ParseCache.shared().
+ *
+ * <p>A line longer than MAX_LINE_LENGTH characters is not read into memory: the
+ * server answers it with the line LINE_TOO_LONG_MESSAGE, and it does not change
+ * the current expression. Session bounds the size of the values !eval computes,
+ * so that no input holds a worker thread for long.
+ *
+ * <p>A connection made while maxSessions connections are open is sent the line
+ * BUSY_MESSAGE, and closed. Besides the workers, the server uses at most two
+ * threads for each open connection, one reading and one writing.
+ */
+public class CalculusServer {
+
+    /** Default server port. */
+    private static final int DEFAULT_PORT = 4445;
+    /** Most inputs of one connection waiting for their outputs. */
+    static final int PIPELINE_DEPTH = 64;
+    /** Line sent to a connection refused because the server is full. */
+    static final String BUSY_MESSAGE = "server busy, try again later";
+    /** Most characters of an input line. */
+    static final int MAX_LINE_LENGTH = 1 << 16;
+    /** Most characters of the inputs of one connection waiting to be handled. */
+    static final int MAX_PENDING_CHARACTERS = 4 * MAX_LINE_LENGTH;
+    /** Line sent in answer to an input longer than MAX_LINE_LENGTH. */
+    static final String LINE_TOO_LONG_MESSAGE = "input longer than " + MAX_LINE_LENGTH + " characters";
+    /** Marks the end of the input of a connection, among its future outputs. */
+    private static final CompletableFuture<String> END_OF_INPUT = new CompletableFuture<>();
+
+    /** Socket for receiving client connections. */
+    private final ServerSocket serverSocket;
+    /** Threads that handle inputs, shared by all connections. */
+    private final ExecutorService workers;
+    /** Threads that read from and write to connections, two per open connection. */
+    private final ExecutorService connections;
+    /** Most connections open at once. */
+    private final int maxSessions;
+    /** Sockets of the open connections. */
+    private final Set<Socket> sessions = new HashSet<>();
+    /** Lock guarding sessions. */
+    private final Object lock = new Object();
+
+    /*
+     * Abstraction function:
+     *      AF(serverSocket, workers, connections, maxSessions, sessions) = a server
+     *          accepting connections on serverSocket, with the connections of sessions
+     *          open, at most maxSessions at once, whose inputs are handled by workers
+     *          and whose sockets are read and written by connections
+     * Rep invariant:
+     *      - sessions.size() <= maxSessions
+     * Safety from rep exposure:
+     *      - all fields are private, and none is returned by a method
+     * Thread safety argument:
+     *      - sessions is only accessed while holding lock
+     *      - serverSocket is only used by the thread running serve(), except to
+     *        close it, which is safe from any thread
+     *      - each connection is confined to its reader and writer threads: the
+     *        reader only reads from the socket and the writer only writes to it,
+     *        and they communicate through a thread-safe BlockingQueue; the
+     *        workers release the pending characters of a connection through a
+     *        thread-safe Semaphore
+     *      - a session is immutable, and is passed between inputs through
+     *        CompletableFutures, which safely publish it
+     *      - Commands and ParseCache.shared() are thread-safe
+     */
+
+    /**
+     * Make a server that listens for connections on a port.
+     * @param port port number, requires 0 <= port <= 65535; 0 for any free port
+     * @param workers number of threads that handle inputs, requires workers > 0
+     * @param maxSessions most connections open at once, requires maxSessions > 0
+     * @throws IOException if an error occurs opening the server socket
+     */
+    public CalculusServer(int port, int workers, int maxSessions) throws IOException {
+        this.serverSocket = new ServerSocket(port);
+        this.workers = Executors.newFixedThreadPool(workers, daemonThreads("calculus-worker-"));
+        this.connections = connectionThreads((int) Math.min(2L * maxSessions, Integer.MAX_VALUE));
+        this.maxSessions = maxSessions;
+        checkRep();
+    }
+
+    /**
+     * @param prefix prefix of thread names
+     * @return factory of daemon threads named prefix followed by a number
+     */
+    private static ThreadFactory daemonThreads(String prefix){
+        final AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * @param threads most threads, requires threads > 0
+     * @return executor that runs each task on one of at most threads daemon threads,
+     *         which are stopped after a minute without work; a task waits while
+     *         every thread has one
+     */
+    private static ExecutorService connectionThreads(int threads){
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(), daemonThreads("calculus-connection-"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Check that the rep invariant holds.
+     */
+    private void checkRep(){
+        synchronized (lock){
+            assert sessions.size() <= maxSessions;
+        }
+    }
+
+    /**
+     * @return the port on which this server listens
+     */
+    public int getPort(){
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Run the server, listening for and handling client connections.
+     * Never returns, unless an exception is thrown.
+     *
+     * @throws IOException if an error occurs waiting for a connection, including
+     *                     because the server was closed (IOExceptions from individual
+     *                     clients do *not* terminate serve())
+     */
+    public void serve() throws IOException {
+        while (true) {
+            // block until a client connects
+            final Socket socket = serverSocket.accept();
+            final boolean accepted;
+            synchronized (lock){
+                accepted = sessions.size() < maxSessions && sessions.add(socket);
+            }
+            if (!accepted){
+                refuse(socket);
+                continue;
+            }
+            connections.execute(() -> {
+                try {
+                    try {
+                        handleConnection(socket);
+                    } finally {
+                        socket.close();
+                        synchronized (lock){
+                            sessions.remove(socket);
+                        }
+                    }
+                } catch (IOException ioe) {
+                    if (!serverSocket.isClosed()) {
+                        ioe.printStackTrace(); // but do not stop serving
+                    }
+                }
+            });
+            checkRep();
+        }
+    }
+
+    /**
+     * Stop listening for connections, close every open connection, and stop
+     * handling inputs. serve() then throws an IOException.
+     * @throws IOException if an error occurs closing the server socket
+     */
+    public void close() throws IOException {
+        serverSocket.close();
+        synchronized (lock){
+            for (Socket socket : sessions){
+                closeQuietly(socket);
+            }
+        }
+        workers.shutdownNow();
+        connections.shutdownNow();
+    }
+
+    /**
+     * Close a socket, ignoring errors.
+     * @param socket socket to close
+     */
+    private static void closeQuietly(Socket socket){
+        try {
+            socket.close();
+        } catch (IOException ioe) {
+            // nothing more to do with it
+        }
+    }
+
+    /**
+     * Tell a client that the server is full, and close its connection.
+     * @param socket socket where the client is connected
+     */
+    private static void refuse(Socket socket){
+        try (Socket refused = socket;
+                PrintWriter out = new PrintWriter(new OutputStreamWriter(refused.getOutputStream(), StandardCharsets.UTF_8))) {
+            out.println(BUSY_MESSAGE);
+        } catch (IOException ioe) {
+            ioe.printStackTrace(); // but do not stop serving
+        }
+    }
+
+    /**
+     * Handle a single client connection. Returns when the client ends its input
+     * and every output has been sent, or when the connection fails.
+     * The calling thread reads inputs and starts handling each on the workers; a
+     * writer thread sends their outputs, in order.
+     * @param socket socket where the client is connected
+     * @throws IOException if the connection encounters an error or terminates unexpectedly
+     */
+    private void handleConnection(Socket socket) throws IOException {
+        final LineReader in = new LineReader(new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8)));
+        final PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8)));
+        // future outputs in input order, then END_OF_INPUT
+        final BlockingQueue<CompletableFuture<String>> outputs = new ArrayBlockingQueue<>(PIPELINE_DEPTH);
+        // one permit for each character of an input that may still be waiting to be handled
+        final Semaphore pending = new Semaphore(MAX_PENDING_CHARACTERS);
+        final CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> writeOutputs(outputs, out), connections);
+        writer.whenComplete((v, e) -> {
+            if (e != null) {
+                closeQuietly(socket); // so that the reader stops waiting for input
+            }
+        });
+        try {
+            // the session after every input read so far that may change the current expression
+            CompletableFuture<Session> session = CompletableFuture.completedFuture(new Session());
+            for (String line = in.readLine(); line != null && !line.isEmpty(); line = in.readLine()) {
+                if (line.length() > MAX_LINE_LENGTH) {
+                    if (!enqueue(outputs, CompletableFuture.completedFuture(LINE_TOO_LONG_MESSAGE), writer)) {
+                        return; // the writer failed
+                    }
+                    continue;
+                }
+                final String input = line;
+                pending.acquire(input.length());
+                final CompletableFuture<Session> before = session;
+                final CompletableFuture<Session> after = before.thenApplyAsync(s -> s.handle(input), workers);
+                if (!Session.isEvaluation(input)) {
+                    // an unexpected error, such as running out of stack, leaves the session unchanged
+                    session = after.exceptionally(e -> before.join());
+                }
+                final CompletableFuture<String> output = after.handle((s, e) -> e == null ? s.output() : Session.error(cause(e)));
+                output.whenComplete((o, e) -> pending.release(input.length()));
+                if (!enqueue(outputs, output, writer)) {
+                    return; // the writer failed
+                }
+            }
+            if (enqueue(outputs, END_OF_INPUT, writer)) {
+                writer.get();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException ee) {
+            // the writer failed, and the connection is closed below
+        } finally {
+            out.close();
+            in.close();
+        }
+    }
+
+    /**
+     * Reads lines of a client's input, without keeping more than MAX_LINE_LENGTH + 1
+     * characters of any line in memory.
+     */
+    private static final class LineReader {
+
+        private final Reader in;
+        private boolean afterCarriageReturn = false;
+
+        /*
+         * Abstraction function:
+         *      AF(in, afterCarriageReturn) = the lines of in, where a line feed
+         *          that comes first is skipped if afterCarriageReturn, since it
+         *          ends the line that was ended by a carriage return
+         * Rep invariant:
+         *      - true
+         * Safety from rep exposure:
+         *      - all fields are private, and none is returned by a method
+         * Thread safety argument:
+         *      - a LineReader is confined to the reader thread of its connection
+         */
+
+        /**
+         * Make a reader of lines.
+         * @param in stream to read lines from
+         */
+        LineReader(Reader in) {
+            this.in = in;
+        }
+
+        /**
+         * Read one line, as BufferedReader.readLine() does, except that only the
+         * first MAX_LINE_LENGTH + 1 characters of a longer line are kept.
+         * @return the next line, without its line terminator, "\n", "\r" or "\r\n",
+         *         and cut to MAX_LINE_LENGTH + 1 characters; null at the end of the input
+         * @throws IOException if an error occurs reading the input
+         */
+        String readLine() throws IOException {
+            int c = in.read();
+            if (afterCarriageReturn && c == '\n') {
+                c = in.read();
+            }
+            afterCarriageReturn = false;
+            if (c < 0) {
+                return null;
+            }
+            final StringBuilder line = new StringBuilder();
+            for ( ; c >= 0 && c != '\n' && c != '\r'; c = in.read()) {
+                if (line.length() <= MAX_LINE_LENGTH) {
+                    line.append((char) c);
+                }
+            }
+            afterCarriageReturn = c == '\r';
+            return line.toString();
+        }
+
+        /**
+         * Close the input.
+         * @throws IOException if an error occurs closing it
+         */
+        void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Add a future output to the outputs of a connection, waiting while there are
+     * PIPELINE_DEPTH of them.
+     * @param outputs future outputs of the connection
+     * @param output future output to add
+     * @param writer the writer of outputs
+     * @return true if output was added, false if writer is done, so will never take it
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private static boolean enqueue(BlockingQueue<CompletableFuture<String>> outputs,
+            CompletableFuture<String> output, CompletableFuture<Void> writer) throws InterruptedException {
+        while (!outputs.offer(output, 100, TimeUnit.MILLISECONDS)) {
+            if (writer.isDone()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Send outputs to a client, in order, until the end of its input.
+     * @param outputs future outputs, in input order, then END_OF_INPUT
+     * @param out stream to the client, flushed before waiting for an output
+     *            that is not ready, and whenever every output taken has been sent
+     * @throws CompletionException if interrupted, or if the client can no longer be written to
+     */
+    private static void writeOutputs(BlockingQueue<CompletableFuture<String>> outputs, PrintWriter out){
+        try {
+            for (CompletableFuture<String> output = outputs.take(); output != END_OF_INPUT; output = outputs.take()) {
+                if (!output.isDone()) {
+                    out.flush(); // send what is ready before waiting
+                }
+                out.println(output.get());
+                if (outputs.isEmpty()) {
+                    out.flush();
+                }
+                if (out.checkError()) {
+                    throw new CompletionException(new IOException("unable to write to client"));
+                }
+            }
+            out.flush();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(ie);
+        } catch (ExecutionException ee) {
+            // outputs never complete exceptionally
+            throw new AssertionError("output failed", ee);
+        }
+    }
+
+    /**
+     * @param error an exception that completed a CompletableFuture
+     * @return the exception that caused error, if it only wraps one
+     */
+    private static Throwable cause(Throwable error){
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * Start a server using the given arguments.
+     *
+     * <br> Usage:
+     * <pre>
+     *      calculus.CalculusServer [--port PORT] [--workers WORKERS] [--sessions SESSIONS]
+     * </pre>
+     *
+     * <p>  PORT is an optional integer in the range 0 to 65535 inclusive, specifying the port the server
+     *      should be listening on for incoming connections; by default 4445.
+     *
+     * <p>  WORKERS is an optional positive integer, specifying the number of threads that handle inputs;
+     *      by default the number of available processors.
+     *
+     * <p>  SESSIONS is an optional positive integer, specifying the most connections open at once;
+     *      by default 1000.
+     *
+     * @param args arguments as described
+     */
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        int workers = Runtime.getRuntime().availableProcessors();
+        int maxSessions = 1000;
+
+        final Queue<String> arguments = new LinkedList<>(Arrays.asList(args));
+        try {
+            while ( ! arguments.isEmpty()) {
+                final String flag = arguments.remove();
+                try {
+                    if (flag.equals("--port")) {
+                        port = Integer.parseInt(arguments.remove());
+                        if (port < 0 || port > 65535) {
+                            throw new IllegalArgumentException("port out of range: " + port);
+                        }
+                    } else if (flag.equals("--workers")) {
+                        workers = Integer.parseInt(arguments.remove());
+                        if (workers <= 0) {
+                            throw new IllegalArgumentException("workers must be positive: " + workers);
+                        }
+                    } else if (flag.equals("--sessions")) {
+                        maxSessions = Integer.parseInt(arguments.remove());
+                        if (maxSessions <= 0) {
+                            throw new IllegalArgumentException("sessions must be positive: " + maxSessions);
+                        }
+                    } else {
+                        throw new IllegalArgumentException("unknown option: \"" + flag + "\"");
+                    }
+                } catch (NoSuchElementException nsee) {
+                    throw new IllegalArgumentException("missing argument for " + flag);
+                } catch (NumberFormatException nfe) {
+                    throw new IllegalArgumentException("unable to parse number for " + flag);
+                }
+            }
+        } catch (IllegalArgumentException iae) {
+            System.err.println(iae.getMessage());
+            System.err.println("usage: CalculusServer [--port PORT] [--workers WORKERS] [--sessions SESSIONS]");
+            return;
+        }
+
+        try {
+            new CalculusServer(port, workers, maxSessions).serve();
+        } catch (IOException ioe) {
+            throw new RuntimeException(ioe);
+        }
+    }
+}
@@ -9,6 +9,8 @@ import java.util.Map;
 
 /**
  * String-based commands provided by the expression system.
+ * Expressions are parsed through ParseCache.shared(), so each distinct
+ * expression string is only parsed once while it stays in that cache.
  * 
  * <p>PS3 instructions: this is a required class.
  * You MUST NOT change its name or package or the names or type signatures of existing methods.
@@ -23,10 +25,10 @@ public class Commands {
      * @param variable the variable to differentiate by, a single case-sensitive letter [A-Za-z].
      * @return expression's derivative with respect to variable. 
      *         returned expression string is formatted so that all operation pairs (ex: (a+b) ), numbers, and variables
-     *         are parenthesized. Does not simplify any operations.
-     *         For example: 232423*G differentiated with respect to 'a' returns ((G)*(0))+((232423)*(0))
-     *                      (G*6)*(G*G) differentiated with respect to 'G' returns (((G)*(G))*(((6)*(1))+((G)*(0))))+(((G)*(6))*(((G)*(1))+((G)*(1))))
-     *                      Z^31 differentiated with respect to 'a' returns ((31)*((Z)^30))*(0)
+     *         are parenthesized. The derivative is simplified, as by Expression.simplify().
+     *         For example: 232423*G differentiated with respect to 'a' returns 0
+     *                      (G*6)*(G*G) differentiated with respect to 'G' returns (18)*((G)^2)
+     *                      Z^31 differentiated with respect to 'a' returns 0
      * @throws IllegalArgumentException if the expression or variable is invalid (not a letter, or length != 1)
      */
     public static String differentiate(String expression, String variable) throws IllegalArgumentException {
@@ -39,8 +41,8 @@ public class Commands {
         if (variable.length() > 1 || !isLetter) {
             throw new IllegalArgumentException("variable invalid");
         }
-        Expression parsed = Expression.parse(expression);
-        Expression derivative = parsed.differentiate(variableChar);
+        Expression parsed = ParseCache.shared().parse(expression);
+        Expression derivative = parsed.differentiate(variableChar).simplify();
         return derivative.toString();    
     }
     
@@ -54,22 +56,22 @@ public class Commands {
      *         the expression and the environment with its value, environment.get(v).  If there are no
      *         variables left in this expression after substitution, it is evaluated to a single number.
      *         returned expression string is formatted so that all operation pairs (ex: (a+b) ), numbers, and variables
-     *         are parenthesized.
+     *         are parenthesized. An expression that still has variables is simplified, as by Expression.simplify().
      *         For example: if expression is ((((a * (2 + ((((q))))) + 17)))) * g and we have an environment so that
      *         a maps to 2, g maps to 1, q maps to 7, then we will return 35.
      *         if expression is ((((a * (2 + ((((q))))) + 17)))) * g and we have an environment so that just
-     *         a maps to 2, g maps to 1, then we will return ((((2 * (2 + ((((q))))) + 17)))) * 1
+     *         a maps to 2, g maps to 1, then we will return ((2)*((q)+(2)))+(17)
      * @throws IllegalArgumentException if the expression is invalid
      */
     public static String evaluate(String expression, Map<String,BigDecimal> environment) {
-        Expression parsedExpression = Expression.parse(expression); //throws IllegalArgumentException if the expression is invalid
+        Expression parsedExpression = ParseCache.shared().parse(expression); //throws IllegalArgumentException if the expression is invalid
         if (parsedExpression.canEvaluate(environment)){
             Expression numberifiedExpression = parsedExpression.numberify(environment);
             BigDecimal expressionValue = numberifiedExpression.evaluate();
             String expressionValueString = expressionValue.toPlainString();
             return expressionValueString;
         }
-        Expression partiallyNumberifiedExpression = parsedExpression.numberify(environment);
+        Expression partiallyNumberifiedExpression = parsedExpression.numberify(environment).simplify();
         return partiallyNumberifiedExpression.toString();
         
         
@@ -0,0 +1,792 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package calculus;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * An immutable evaluator for one expression, compiled to a flat program of
+ * double-precision arithmetic, for evaluating the same expression under many
+ * assignments of its variables.
+ *
+ * <p>Each variable of the expression has a slot: a position in the array of
+ * values passed to evaluate(). Slots are numbered from 0 in alphabetical order
+ * of the variables, case-sensitive (uppercase before lowercase).
+ *
+ * <p>The program is a sequence of register instructions over the DAG of the
+ * expression: every distinct subexpression is computed once per evaluation,
+ * however many times it appears in the expression. Arithmetic is done in
+ * double precision, so results may differ from Expression.evaluate() by
+ * rounding. Simplify an expression (see Expression.simplify()) before
+ * compiling it to fold its constants.
+ *
+ * <p>evaluateBatch() evaluates the expression over a whole table of
+ * assignments, given as one column of values per variable. It runs the
+ * program a block of rows at a time, each instruction as a tight loop over the
+ * block, optionally splitting the rows across the common fork-join pool. Its
+ * BigDecimal form computes with a given MathContext instead of in double
+ * precision.
+ *
+ * <p>evaluateAccurate() and evaluateBatchAccurate() compute in double precision,
+ * like evaluate(double...) and evaluateBatch(Map, boolean), but only give a
+ * value where it is known to be accurate to a given number of significant
+ * digits: where every value is nonnegative and the program is accurate to that
+ * many digits, and no intermediate value overflows or underflows; elsewhere
+ * they give NaN. They never allocate per subexpression or per row.
+ *
+ * <p>evaluate(Map, Backend, MathContext) is a BigDecimal convenience over them:
+ * it computes a value to a given number of significant digits, with a choice of
+ * Backend. EXACT computes the exact value in BigDecimal arithmetic, and rounds
+ * it once. DOUBLE computes by evaluateAccurate(), and falls back to EXACT where
+ * that gives NaN.
+ */
+public final class CompiledExpression {
+
+    /*
+     * Abstraction function:
+     *      AF(variables, constants, exactConstants, code, result, doubleDigits) = the expression computed by
+     *          the program below, as a function of the values of variables:
+     *          register i holds the value of variables[i] for i < V, and of
+     *          exactConstants[i-V] for V <= i < V+C, where V = variables.length and
+     *          C = constants.length; instruction k, at code[3k..3k+2], sets
+     *          register V+C+k to code[3k+1] op code[3k+2], where op is given
+     *          by code[3k]; the value of the expression is register result;
+     *          evaluated in double precision, its value is accurate to doubleDigits
+     *          significant digits unless an intermediate value overflows or underflows
+     * Rep invariant:
+     *      - variables is strictly increasing, and every constant is nonnegative
+     *      - constants[i] is exactConstants[i] in double precision
+     *      - code.length is a multiple of 3, and each instruction only reads
+     *        registers lower than the one it sets
+     *      - the power of each POWER instruction is nonnegative
+     *      - 0 <= result < V + C + code.length/3
+     *      - doubleDigits >= 0
+     * Safety from rep exposure:
+     *      - all fields are private and final, and the arrays are never returned
+     *        or shared; variables() returns an unmodifiable copy
+     * Thread safety argument:
+     *      - this type is immutable; evaluate() and evaluateBatch() only write to
+     *        register arrays that they allocate themselves, and parallel chunks
+     *        of evaluateBatch() write to disjoint ranges of its output array
+     */
+    private static final int ADD = 0;
+    private static final int MULTIPLY = 1;
+    private static final int POWER = 2; // second operand is the power, not a register
+
+    /** Most rows evaluated at once per block; fewer if the program has many registers. */
+    private static final int BLOCK = 1 << 10;
+    /** Most elements in the register blocks of one batch evaluation. */
+    private static final int BLOCK_ELEMENTS = 1 << 20;
+    /** Largest relative error of rounding a real number to a normal double. */
+    private static final double UNIT_ROUNDOFF = 0x1p-53;
+
+    /**
+     * A way of computing the value of a compiled expression.
+     */
+    public enum Backend {
+        /** BigDecimal arithmetic: the exact value, rounded once. */
+        EXACT,
+        /** double arithmetic, by evaluateAccurate(), if it is accurate enough; otherwise EXACT. */
+        DOUBLE
+    }
+
+    private final char[] variables;
+    private final double[] constants;
+    private final BigDecimal[] exactConstants;
+    private final int[] code;
+    private final int result;
+    private final int doubleDigits;
+
+    private CompiledExpression(char[] variables, BigDecimal[] exactConstants, int[] code, int result) {
+        this.variables = variables;
+        this.exactConstants = exactConstants;
+        this.constants = new double[exactConstants.length];
+        for (int i = 0; i < constants.length; i++){
+            constants[i] = exactConstants[i].doubleValue();
+        }
+        this.code = code;
+        this.result = result;
+        this.doubleDigits = doubleDigits(variables.length, exactConstants, code, result);
+        checkRep();
+    }
+
+    /**
+     * @param inputs number of variables of a program
+     * @param exactConstants its constants
+     * @param code its instructions
+     * @param result its result register
+     * @return number of significant digits d such that evaluating the program in double
+     *         precision and rounding to d digits has a relative error under 10^(1-d), for values of the variables that are each 0 or
+     *         a normal double, if no intermediate value overflows or underflows;
+     *         Integer.MAX_VALUE if it is exact
+     */
+    private static int doubleDigits(int inputs, BigDecimal[] exactConstants, int[] code, int result){
+        // Bound the relative error of each register by (1+UNIT_ROUNDOFF)^n - 1, and keep n.
+        // Every value is nonnegative, so nothing cancels: converting a variable or constant
+        // rounds once; a sum rounds once more than the worse of its operands; a product
+        // once more than both together; and x^p, by repeated squaring, at most p times
+        // once more than x.
+        final double[] roundings = new double[inputs + exactConstants.length + code.length / 3];
+        Arrays.fill(roundings, 0, inputs + exactConstants.length, 1);
+        for (BigDecimal constant : exactConstants){
+            final double value = constant.doubleValue();
+            if (value != 0 ? value < Double.MIN_NORMAL || value > Double.MAX_VALUE : constant.signum() != 0){
+                return 0;
+            }
+        }
+        int register = inputs + exactConstants.length;
+        for (int k = 0; k < code.length; k += 3, register++){
+            final double left = roundings[code[k+1]];
+            switch (code[k]){
+            case ADD:
+                roundings[register] = Math.max(left, roundings[code[k+2]]) + 1;
+                break;
+            case MULTIPLY:
+                roundings[register] = left + roundings[code[k+2]] + 1;
+                break;
+            default:
+                roundings[register] = (double) code[k+2] * (left + 1);
+                break;
+            }
+        }
+        if (roundings[result] == 0){
+            return Integer.MAX_VALUE;
+        }
+        // (1+u)^n - 1 <= 2nu while nu <= 1; if also 2nu <= 10^-d/2, rounding the value
+        // to d digits adds at most 10^(1-d)/2, for a relative error under 10^(1-d)
+        final double error = 2 * roundings[result] * UNIT_ROUNDOFF;
+        if (!(error <= 1)){
+            return 0;
+        }
+        return (int) Math.max(0, Math.floor(Math.log10(0.5 / error)));
+    }
+
+    /**
+     * Checks that the rep invariant holds.
+     */
+    private void checkRep(){
+        for (int i = 1; i < variables.length; i++){
+            assert variables[i-1] < variables[i];
+        }
+        assert constants.length == exactConstants.length;
+        for (BigDecimal constant : exactConstants){
+            assert constant.signum() >= 0;
+        }
+        assert code.length % 3 == 0;
+        final int firstInstruction = variables.length + constants.length;
+        for (int k = 0; k < code.length; k += 3){
+            final int register = firstInstruction + k / 3;
+            assert code[k+1] < register;
+            assert code[k] == POWER ? code[k+2] >= 0 : code[k+2] < register;
+        }
+        assert 0 <= result && result < firstInstruction + code.length / 3;
+        assert doubleDigits >= 0;
+    }
+
+    /**
+     * Compile an expression.
+     * @param expression expression to compile
+     * @return an evaluator of expression, with a slot for every variable in expression
+     */
+    public static CompiledExpression compile(Expression expression){
+        return new Compiler(ExpressionFactory.intern(expression)).compile();
+    }
+
+    /**
+     * @return the variables of the compiled expression, in slot order
+     */
+    public List<Character> variables(){
+        final List<Character> list = new ArrayList<>(variables.length);
+        for (char variable : variables){
+            list.add(variable);
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * @param variable a variable, a single case-sensitive letter [A-Za-z]
+     * @return the slot of variable, or -1 if it is not in the compiled expression
+     */
+    public int slot(char variable){
+        final int slot = Arrays.binarySearch(variables, variable);
+        return slot >= 0 ? slot : -1;
+    }
+
+    /**
+     * @return number of registers that evaluating the program uses
+     */
+    int registers(){
+        return variables.length + constants.length + code.length / 3;
+    }
+
+    /**
+     * Evaluate the compiled expression.
+     * @param values values of the variables, indexed by slot; must have at least
+     *               one element per variable; elements past the last slot are ignored
+     * @return value of the compiled expression when each variable has the value of its slot,
+     *         computed in double precision
+     * @throws IllegalArgumentException if values has fewer elements than there are variables
+     */
+    public double evaluate(double... values){
+        if (values.length < variables.length){
+            throw new IllegalArgumentException("expected values for " + variables.length + " variables, got " + values.length);
+        }
+        final double[] registers = new double[registers()];
+        System.arraycopy(values, 0, registers, 0, variables.length);
+        System.arraycopy(constants, 0, registers, variables.length, constants.length);
+        int register = variables.length + constants.length;
+        for (int k = 0; k < code.length; k += 3, register++){
+            final double left = registers[code[k+1]];
+            switch (code[k]){
+            case ADD:
+                registers[register] = left + registers[code[k+2]];
+                break;
+            case MULTIPLY:
+                registers[register] = left * registers[code[k+2]];
+                break;
+            default:
+                registers[register] = power(left, code[k+2]);
+                break;
+            }
+        }
+        return registers[result];
+    }
+
+    /**
+     * @return most significant digits to which evaluateAccurate() and
+     *         evaluateBatchAccurate() may give a value
+     */
+    public int doubleDigits(){
+        return doubleDigits;
+    }
+
+    /**
+     * Evaluate the compiled expression in double precision, to a given number of
+     * significant digits.
+     * @param digits number of significant digits, requires digits > 0
+     * @param values values of the variables, indexed by slot, as in evaluate(double...)
+     * @return value of the compiled expression when each variable has the value of
+     *         its slot, computed in double precision, with a relative error less than
+     *         10^(1-digits) once rounded to digits significant digits; NaN if that is
+     *         not known, because digits > doubleDigits(), a value is negative or is
+     *         neither 0 nor a normal double, or an intermediate value overflows or underflows
+     * @throws IllegalArgumentException if values has fewer elements than there are variables
+     */
+    public double evaluateAccurate(int digits, double... values){
+        if (values.length < variables.length){
+            throw new IllegalArgumentException("expected values for " + variables.length + " variables, got " + values.length);
+        }
+        return digits <= doubleDigits ? evaluateInRange(values) : Double.NaN;
+    }
+
+    /**
+     * Evaluate the compiled expression to a given precision.
+     * @param values maps each variable of the compiled expression to its value, a
+     *               nonnegative number; values of other variables are ignored
+     * @param backend how to compute the value: Backend.DOUBLE computes in double precision
+     *                if that is accurate to context's precision, and if no intermediate
+     *                value overflows or underflows; otherwise it computes as Backend.EXACT
+     * @param context precision and rounding of the result; MathContext.UNLIMITED for
+     *                the exact value, which is always computed by Backend.EXACT
+     * @return value of the compiled expression when each variable has its value in values.
+     *         By Backend.EXACT, the exact value rounded according to context; by
+     *         Backend.DOUBLE, a value rounded according to context whose relative
+     *         error is less than 10^(1-p), where p is the precision of context.
+     * @throws IllegalArgumentException if a variable has no value, or a value is negative
+     */
+    public BigDecimal evaluate(Map<Character, BigDecimal> values, Backend backend, MathContext context){
+        final BigDecimal[] inputs = new BigDecimal[variables.length];
+        final double[] doubles = new double[variables.length];
+        boolean representable = true;
+        for (int slot = 0; slot < variables.length; slot++){
+            inputs[slot] = values.get(variables[slot]);
+            if (inputs[slot] == null){
+                throw new IllegalArgumentException("no value for variable " + variables[slot]);
+            }
+            if (inputs[slot].signum() < 0){
+                throw new IllegalArgumentException("value of variable " + variables[slot] + " is negative: " + inputs[slot]);
+            }
+            doubles[slot] = inputs[slot].doubleValue();
+            // a value too small for a double becomes 0, which evaluateAccurate() would take as exact
+            representable &= doubles[slot] != 0 || inputs[slot].signum() == 0;
+        }
+        final int precision = context.getPrecision();
+        if (backend == Backend.DOUBLE && precision > 0 && representable){
+            final double value = evaluateAccurate(precision, doubles);
+            if (!Double.isNaN(value)){
+                return new BigDecimal(value).round(context);
+            }
+        }
+        return evaluateExact(inputs).round(context);
+    }
+
+    /**
+     * @param value a double
+     * @return true if value is 0 or a positive normal double
+     */
+    private static boolean inRange(double value){
+        return value == 0 || (value >= Double.MIN_NORMAL && value <= Double.MAX_VALUE);
+    }
+
+    /**
+     * Evaluate the compiled expression in double precision, checking that every
+     * value stays in the range of normal doubles.
+     * @param values value of each variable, by slot; elements past the last slot are ignored
+     * @return value of the compiled expression, computed in double precision, or NaN
+     *         if a value is not in range, or a nonzero intermediate value is too
+     *         large or too small to be a normal double
+     */
+    private double evaluateInRange(double[] values){
+        final double[] registers = new double[registers()];
+        for (int slot = 0; slot < variables.length; slot++){
+            if (!inRange(values[slot])){
+                return Double.NaN;
+            }
+            registers[slot] = values[slot];
+        }
+        System.arraycopy(constants, 0, registers, variables.length, constants.length);
+        int register = variables.length + constants.length;
+        for (int k = 0; k < code.length; k += 3, register++){
+            final double left = registers[code[k+1]];
+            final double value;
+            switch (code[k]){
+            case ADD:
+                value = left + registers[code[k+2]];
+                break;
+            case MULTIPLY: {
+                final double right = registers[code[k+2]];
+                value = left * right;
+                if (value < Double.MIN_NORMAL && left != 0 && right != 0){
+                    return Double.NaN; // underflow
+                }
+                break;
+            }
+            default:
+                value = power(left, code[k+2]);
+                if ((value < Double.MIN_NORMAL && left != 0) || Double.isNaN(left)){
+                    return Double.NaN; // underflow, or an overflow that a power 0 would hide
+                }
+                break;
+            }
+            registers[register] = value;
+        }
+        // an overflow leaves infinity or NaN, unless it is raised to the power 0
+        return registers[result] <= Double.MAX_VALUE ? registers[result] : Double.NaN;
+    }
+
+    /**
+     * Evaluate the compiled expression exactly.
+     * @param inputs value of each variable, by slot
+     * @return exact value of the compiled expression
+     */
+    private BigDecimal evaluateExact(BigDecimal[] inputs){
+        final BigDecimal[] registers = new BigDecimal[registers()];
+        System.arraycopy(inputs, 0, registers, 0, variables.length);
+        System.arraycopy(exactConstants, 0, registers, variables.length, exactConstants.length);
+        int register = variables.length + constants.length;
+        for (int k = 0; k < code.length; k += 3, register++){
+            final BigDecimal left = registers[code[k+1]];
+            switch (code[k]){
+            case ADD:
+                registers[register] = left.add(registers[code[k+2]]);
+                break;
+            case MULTIPLY:
+                registers[register] = left.multiply(registers[code[k+2]]);
+                break;
+            default:
+                registers[register] = left.pow(code[k+2]);
+                break;
+            }
+        }
+        return registers[result];
+    }
+
+    /**
+     * Evaluate the compiled expression for every row of a table.
+     * @param columns maps each variable to its column of values, where row i of
+     *                the table assigns columns.get(v)[i] to each variable v; must
+     *                have a column for every variable of the compiled expression;
+     *                all columns, including any of other variables, must have the
+     *                same length, the number of rows, but the values of other
+     *                variables are ignored. Not modified.
+     * @param parallel true to split the rows across the common fork-join pool
+     * @return array with one element per row: the value of the compiled expression
+     *         for that row, computed in double precision
+     * @throws IllegalArgumentException if a column is missing or the columns have different lengths
+     */
+    public double[] evaluateBatch(Map<Character, double[]> columns, boolean parallel){
+        final double[][] inputs = new double[variables.length][];
+        final int rows = inputs(columns, inputs, column -> column.length);
+        final double[] output = new double[rows];
+        forEachChunk(rows, parallel, (from, to) -> evaluateRows(inputs, output, from, to, false));
+        return output;
+    }
+
+    /**
+     * Evaluate the compiled expression for every row of a table, in double precision,
+     * to a given number of significant digits.
+     * @param columns maps each variable to its column of values, as in evaluateBatch(Map, boolean)
+     * @param digits number of significant digits, requires digits > 0
+     * @param parallel true to split the rows across the common fork-join pool
+     * @return array with one element per row: the value of the compiled expression for
+     *         that row, as evaluateAccurate(digits, ...) gives it for the values of that row
+     * @throws IllegalArgumentException if a column is missing or the columns have different lengths
+     */
+    public double[] evaluateBatchAccurate(Map<Character, double[]> columns, int digits, boolean parallel){
+        final double[][] inputs = new double[variables.length][];
+        final int rows = inputs(columns, inputs, column -> column.length);
+        final double[] output = new double[rows];
+        if (digits > doubleDigits){
+            Arrays.fill(output, Double.NaN);
+        } else {
+            forEachChunk(rows, parallel, (from, to) -> evaluateRows(inputs, output, from, to, true));
+        }
+        return output;
+    }
+
+    /**
+     * Evaluate the compiled expression for every row of a table, in BigDecimal arithmetic.
+     * @param columns maps each variable to its column of nonnegative values, as
+     *                in evaluateBatch(Map, boolean)
+     * @param context precision and rounding of each addition, multiplication and
+     *                power; MathContext.UNLIMITED for exact results
+     * @param parallel true to split the rows across the common fork-join pool
+     * @return array with one element per row: the value of the compiled expression
+     *         for that row, each operation rounded according to context
+     * @throws IllegalArgumentException if a column is missing or the columns have different lengths
+     */
+    public BigDecimal[] evaluateBatch(Map<Character, BigDecimal[]> columns, MathContext context, boolean parallel){
+        final BigDecimal[][] inputs = new BigDecimal[variables.length][];
+        final int rows = inputs(columns, inputs, column -> column.length);
+        final BigDecimal[] output = new BigDecimal[rows];
+        forEachChunk(rows, parallel, (from, to) -> evaluateRows(inputs, output, from, to, context));
+        return output;
+    }
+
+    /**
+     * Find the column of each variable.
+     * @param columns columns of a table, as in evaluateBatch()
+     * @param inputs set to the column of each variable, by slot
+     * @param length gives the length of a column
+     * @return number of rows of the table
+     * @throws IllegalArgumentException if a column is missing or the columns have different lengths
+     */
+    private <C> int inputs(Map<Character, C> columns, C[] inputs, ToIntFunction<C> length){
+        int rows = -1;
+        for (Map.Entry<Character, C> column : columns.entrySet()){
+            final int columnLength = length.applyAsInt(column.getValue());
+            if (rows >= 0 && columnLength != rows){
+                throw new IllegalArgumentException("column " + column.getKey() + " has " + columnLength + " rows, expected " + rows);
+            }
+            rows = columnLength;
+        }
+        for (int slot = 0; slot < variables.length; slot++){
+            inputs[slot] = columns.get(variables[slot]);
+            if (inputs[slot] == null){
+                throw new IllegalArgumentException("no column for variable " + variables[slot]);
+            }
+        }
+        return Math.max(rows, 0);
+    }
+
+    /**
+     * A task over a range of rows.
+     */
+    @FunctionalInterface
+    private interface RowRange {
+        /**
+         * @param from first row
+         * @param to row after the last row
+         */
+        void run(int from, int to);
+    }
+
+    /**
+     * Run task over all rows, in chunks.
+     * @param rows number of rows
+     * @param parallel true to run the chunks in parallel on the common fork-join pool
+     * @param task task to run on each chunk
+     */
+    private static void forEachChunk(int rows, boolean parallel, RowRange task){
+        final int chunks = parallel
+                ? (int) Math.min(4L * ForkJoinPool.getCommonPoolParallelism(), (rows + BLOCK - 1) / BLOCK)
+                : 1;
+        if (chunks <= 1){
+            task.run(0, rows);
+            return;
+        }
+        IntStream.range(0, chunks).parallel().forEach(chunk ->
+                task.run((int) ((long) rows * chunk / chunks), (int) ((long) rows * (chunk + 1) / chunks)));
+    }
+
+    /**
+     * @return rows per block, so that the register blocks of one evaluation
+     *         have at most about BLOCK_ELEMENTS elements
+     */
+    private int blockRows(){
+        return Math.max(16, Math.min(BLOCK, BLOCK_ELEMENTS / registers()));
+    }
+
+    /**
+     * Evaluate rows [from, to) in double precision, a block at a time.
+     * @param inputs column of each variable, by slot
+     * @param output set to the value of each row
+     * @param inRange true to set a row to NaN where evaluateInRange() would give NaN
+     *                for it; NaN then stands for any value out of range, and
+     *                propagates through every later instruction that depends on it
+     */
+    private void evaluateRows(double[][] inputs, double[] output, int from, int to, boolean inRange){
+        final int block = Math.min(blockRows(), to - from);
+        final double[][] registers = new double[registers()][block];
+        for (int i = 0; i < constants.length; i++){
+            Arrays.fill(registers[variables.length + i], constants[i]);
+        }
+        for (int start = from; start < to; start += block){
+            final int length = Math.min(block, to - start);
+            for (int slot = 0; slot < variables.length; slot++){
+                System.arraycopy(inputs[slot], start, registers[slot], 0, length);
+                if (inRange){
+                    final double[] values = registers[slot];
+                    for (int i = 0; i < length; i++){
+                        if (!inRange(values[i])){
+                            values[i] = Double.NaN;
+                        }
+                    }
+                }
+            }
+            int register = variables.length + constants.length;
+            for (int k = 0; k < code.length; k += 3, register++){
+                final double[] target = registers[register];
+                final double[] left = registers[code[k+1]];
+                switch (code[k]){
+                case ADD: {
+                    final double[] right = registers[code[k+2]];
+                    for (int i = 0; i < length; i++){
+                        target[i] = left[i] + right[i];
+                    }
+                    break;
+                }
+                case MULTIPLY: {
+                    final double[] right = registers[code[k+2]];
+                    for (int i = 0; i < length; i++){
+                        target[i] = left[i] * right[i];
+                    }
+                    if (inRange){
+                        for (int i = 0; i < length; i++){
+                            if (target[i] < Double.MIN_NORMAL && left[i] != 0 && right[i] != 0){
+                                target[i] = Double.NaN; // underflow
+                            }
+                        }
+                    }
+                    break;
+                }
+                default: {
+                    final int power = code[k+2];
+                    for (int i = 0; i < length; i++){
+                        target[i] = power(left[i], power);
+                    }
+                    if (inRange){
+                        for (int i = 0; i < length; i++){
+                            if ((target[i] < Double.MIN_NORMAL && left[i] != 0) || Double.isNaN(left[i])){
+                                target[i] = Double.NaN; // underflow, or NaN that a power 0 would hide
+                            }
+                        }
+                    }
+                    break;
+                }
+                }
+            }
+            System.arraycopy(registers[result], 0, output, start, length);
+            if (inRange){
+                for (int i = start; i < start + length; i++){
+                    if (!(output[i] <= Double.MAX_VALUE)){
+                        output[i] = Double.NaN; // overflow
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluate rows [from, to) in BigDecimal arithmetic, a block at a time.
+     * @param inputs column of each variable, by slot
+     * @param output set to the value of each row
+     * @param context precision and rounding of each operation
+     */
+    private void evaluateRows(BigDecimal[][] inputs, BigDecimal[] output, int from, int to, MathContext context){
+        final int block = Math.min(blockRows(), to - from);
+        final BigDecimal[][] registers = new BigDecimal[registers()][block];
+        for (int i = 0; i < exactConstants.length; i++){
+            Arrays.fill(registers[variables.length + i], exactConstants[i]);
+        }
+        for (int start = from; start < to; start += block){
+            final int length = Math.min(block, to - start);
+            for (int slot = 0; slot < variables.length; slot++){
+                System.arraycopy(inputs[slot], start, registers[slot], 0, length);
+            }
+            int register = variables.length + constants.length;
+            for (int k = 0; k < code.length; k += 3, register++){
+                final BigDecimal[] target = registers[register];
+                final BigDecimal[] left = registers[code[k+1]];
+                switch (code[k]){
+                case ADD: {
+                    final BigDecimal[] right = registers[code[k+2]];
+                    for (int i = 0; i < length; i++){
+                        target[i] = left[i].add(right[i], context);
+                    }
+                    break;
+                }
+                case MULTIPLY: {
+                    final BigDecimal[] right = registers[code[k+2]];
+                    for (int i = 0; i < length; i++){
+                        target[i] = left[i].multiply(right[i], context);
+                    }
+                    break;
+                }
+                default: {
+                    final int power = code[k+2];
+                    for (int i = 0; i < length; i++){
+                        target[i] = left[i].pow(power, context);
+                    }
+                    break;
+                }
+                }
+            }
+            System.arraycopy(registers[result], 0, output, start, length);
+        }
+    }
+
+    /**
+     * @param base base of the power
+     * @param power nonnegative power
+     * @return base^power, by repeated squaring
+     */
+    static double power(double base, int power){
+        double result = 1;
+        while (power > 0){
+            if ((power & 1) != 0){
+                result *= base;
+            }
+            base *= base;
+            power >>>= 1;
+        }
+        return result;
+    }
+
+    /**
+     * Returns a string with the size of the program and its variables.
+     * @return string describing this compiled expression
+     */
+    @Override
+    public String toString(){
+        return "CompiledExpression with " + code.length / 3 + " instructions over variables " + variables();
+    }
+
+    /**
+     * Assigns registers to the distinct subexpressions of one expression, and
+     * emits the instructions that compute them.
+     */
+    private static final class Compiler {
+
+        private final Expression root;
+        private final TreeSet<Character> variables = new TreeSet<>();
+        private final List<Expression> constants = new ArrayList<>();
+        private final List<Expression> operations = new ArrayList<>();
+        private final Map<Expression, Integer> registers = new HashMap<>();
+
+        /*
+         * Abstraction function:
+         *      AF(root, variables, constants, operations, registers) = a compilation
+         *          of root, whose distinct subexpressions are variables, constants
+         *          and operations (sums, products and exponents), in register order;
+         *          registers.get(e) is the register assigned to e
+         * Rep invariant:
+         *      - every subexpression of root is interned
+         *      - every operation comes after its operands in operations
+         */
+
+        /**
+         * @param root interned expression to compile
+         */
+        Compiler(Expression root) {
+            this.root = root;
+        }
+
+        /**
+         * Find the distinct subexpressions of expression, operands first.
+         * @param visited subexpressions already found, which are not visited again
+         */
+        private void collect(Expression expression, Set<Expression> visited){
+            if (!visited.add(expression)){
+                return;
+            }
+            if (expression instanceof Variable){
+                variables.add(((Variable) expression).value());
+                return;
+            } else if (expression instanceof Number){
+                constants.add(expression);
+                return;
+            } else if (expression instanceof Plus){
+                collect(((Plus) expression).left(), visited);
+                collect(((Plus) expression).right(), visited);
+            } else if (expression instanceof Times){
+                collect(((Times) expression).left(), visited);
+                collect(((Times) expression).right(), visited);
+            } else {
+                collect(((Exponent) expression).base(), visited);
+            }
+            operations.add(expression);
+        }
+
+        /**
+         * @return the compiled root
+         */
+        CompiledExpression compile(){
+            collect(root, new HashSet<>());
+
+            final char[] slots = new char[variables.size()];
+            for (char variable : variables){
+                registers.put(Expression.make(variable), registers.size());
+                slots[registers.size() - 1] = variable;
+            }
+            final BigDecimal[] constantValues = new BigDecimal[constants.size()];
+            for (int i = 0; i < constantValues.length; i++){
+                constantValues[i] = ((Number) constants.get(i)).value();
+                registers.put(constants.get(i), registers.size());
+            }
+            final int[] code = new int[3 * operations.size()];
+            for (int k = 0; k < operations.size(); k++){
+                final Expression operation = operations.get(k);
+                if (operation instanceof Plus){
+                    code[3*k] = ADD;
+                    code[3*k+1] = registers.get(((Plus) operation).left());
+                    code[3*k+2] = registers.get(((Plus) operation).right());
+                } else if (operation instanceof Times){
+                    code[3*k] = MULTIPLY;
+                    code[3*k+1] = registers.get(((Times) operation).left());
+                    code[3*k+2] = registers.get(((Times) operation).right());
+                } else {
+                    code[3*k] = POWER;
+                    code[3*k+1] = registers.get(((Exponent) operation).base());
+                    code[3*k+2] = ((Exponent) operation).power();
+                }
+                registers.put(operation, registers.size());
+            }
+            return new CompiledExpression(slots, constantValues, code, registers.get(root));
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package calculus;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.WeakHashMap;
+
+/**
+ * Memoizing symbolic differentiation, behind Expression.differentiate() and
+ * Expression.gradient().
+ *
+ * <p>Derivatives follow the rules documented by each variant's differentiate(),
+ * and are built from interned expressions (see ExpressionFactory). Within one
+ * call, every distinct subexpression is differentiated once per variable,
+ * however many times it occurs. Across calls, the derivative of each interned
+ * subexpression is remembered, keyed by the subexpression and variable, for
+ * as long as both the subexpression and its derivative are in use elsewhere:
+ * the table only weakly refers to either, so it never keeps expressions alive.
+ * A higher-order derivative therefore reuses the derivatives that lower orders
+ * computed for their shared subexpressions.
+ */
+final class Differentiator {
+
+    /*
+     * Abstraction function:
+     *      AF(TABLE) = the remembered derivatives: the derivative of interned
+     *                  expression e with respect to v is TABLE.get(e).get(v).get(),
+     *                  unless either has been garbage collected
+     * Rep invariant:
+     *      - every key of TABLE is interned, and every remembered derivative is
+     *        interned and follows the differentiation rules of its key
+     * Safety from rep exposure:
+     *      - TABLE is private; only immutable Expressions are returned
+     * Thread safety argument:
+     *      - TABLE and the maps in it are only accessed while holding the lock on
+     *        TABLE. Derivatives are computed outside the lock, so two threads may
+     *        compute the same derivative, and store the same interned expression.
+     */
+    private static final Map<Expression, Map<Character, WeakReference<Expression>>> TABLE = new WeakHashMap<>();
+
+    private Differentiator() {
+        // not meant to be instantiated
+    }
+
+    /**
+     * @param expression any expression
+     * @param variable variable to differentiate by
+     * @return derivative of expression with respect to variable, as
+     *         expression.differentiate(variable) specifies
+     */
+    static Expression differentiate(Expression expression, char variable){
+        final char[] variables = { variable };
+        return new Pass(variables).partials(ExpressionFactory.intern(expression))[0];
+    }
+
+    /**
+     * @param expression any expression
+     * @param variables variables to differentiate by
+     * @return unmodifiable map from each of variables, in alphabetical order, to
+     *         expression.differentiate() by that variable
+     */
+    static Map<Character, Expression> gradient(Expression expression, Set<Character> variables){
+        final char[] sorted = new char[variables.size()];
+        int i = 0;
+        for (char variable : new TreeSet<>(variables)){
+            sorted[i++] = variable;
+        }
+        final Expression[] partials = new Pass(sorted).partials(ExpressionFactory.intern(expression));
+        final Map<Character, Expression> gradient = new TreeMap<>();
+        for (i = 0; i < sorted.length; i++){
+            gradient.put(sorted[i], partials[i]);
+        }
+        return Collections.unmodifiableMap(gradient);
+    }
+
+    /**
+     * @return number of expressions whose derivatives are remembered
+     */
+    static int size(){
+        synchronized (TABLE){
+            return TABLE.size();
+        }
+    }
+
+    /**
+     * One differentiation of an expression by a fixed list of variables.
+     */
+    private static final class Pass {
+
+        private final char[] variables;
+        private final Map<Expression, Expression[]> partials = new HashMap<>();
+
+        /*
+         * Abstraction function:
+         *      AF(variables, partials) = a pass in which partials.get(e)[i] is the
+         *          derivative of e with respect to variables[i]
+         * Rep invariant:
+         *      - every key of partials is interned, and every array has one
+         *        interned derivative per variable
+         */
+
+        /**
+         * @param variables variables to differentiate by
+         */
+        Pass(char[] variables) {
+            this.variables = variables;
+        }
+
+        /**
+         * @param expression an interned expression
+         * @return the derivative of expression with respect to each variable, in order
+         */
+        Expression[] partials(Expression expression){
+            Expression[] result = partials.get(expression);
+            if (result == null){
+                result = remembered(expression);
+                if (result == null){
+                    result = compute(expression);
+                    remember(expression, result);
+                }
+                partials.put(expression, result);
+            }
+            return result;
+        }
+
+        /**
+         * @param expression an interned expression
+         * @return the remembered derivatives of expression with respect to each
+         *         variable, or null if any of them is not remembered
+         */
+        private Expression[] remembered(Expression expression){
+            if (expression instanceof Number || expression instanceof Variable){
+                return null; // cheaper to compute than to remember
+            }
+            final Expression[] result = new Expression[variables.length];
+            synchronized (TABLE){
+                final Map<Character, WeakReference<Expression>> derivatives = TABLE.get(expression);
+                if (derivatives == null){
+                    return null;
+                }
+                for (int i = 0; i < variables.length; i++){
+                    final WeakReference<Expression> derivative = derivatives.get(variables[i]);
+                    result[i] = derivative == null ? null : derivative.get();
+                    if (result[i] == null){
+                        return null;
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Remember the derivatives of an expression.
+         * @param expression an interned expression
+         * @param result its derivative with respect to each variable
+         */
+        private void remember(Expression expression, Expression[] result){
+            if (expression instanceof Number || expression instanceof Variable){
+                return;
+            }
+            synchronized (TABLE){
+                final Map<Character, WeakReference<Expression>> derivatives =
+                        TABLE.computeIfAbsent(expression, e -> new HashMap<>(4));
+                for (int i = 0; i < variables.length; i++){
+                    derivatives.put(variables[i], new WeakReference<>(result[i]));
+                }
+            }
+        }
+
+        /**
+         * @param expression an interned expression
+         * @return the derivative of expression with respect to each variable, by
+         *         the differentiation rule of its variant
+         */
+        private Expression[] compute(Expression expression){
+            final Expression[] result = new Expression[variables.length];
+            if (expression instanceof Number){
+                // d(n)/dx = 0
+                for (int i = 0; i < variables.length; i++){
+                    result[i] = Expression.make("0");
+                }
+            } else if (expression instanceof Variable){
+                // d(x)/dx = 1, d(y)/dx = 0
+                final char c = ((Variable) expression).value();
+                for (int i = 0; i < variables.length; i++){
+                    result[i] = Expression.make(c == variables[i] ? "1" : "0");
+                }
+            } else if (expression instanceof Plus){
+                // d(u+v)/dx = du/dx + dv/dx
+                final Plus plus = (Plus) expression;
+                final Expression[] left = partials(plus.left());
+                final Expression[] right = partials(plus.right());
+                for (int i = 0; i < variables.length; i++){
+                    result[i] = Expression.add(left[i], right[i]);
+                }
+            } else if (expression instanceof Times){
+                // d(u*v)/dx = v*du/dx + u*dv/dx
+                final Times times = (Times) expression;
+                final Expression[] left = partials(times.left());
+                final Expression[] right = partials(times.right());
+                for (int i = 0; i < variables.length; i++){
+                    result[i] = Expression.add(Expression.times(times.right(), left[i]),
+                            Expression.times(times.left(), right[i]));
+                }
+            } else {
+                // d(u^n)/dx = n*u^(n-1)*du/dx, and d(u^0)/dx = 0
+                final Exponent exponent = (Exponent) expression;
+                final int power = exponent.power();
+                if (power == 0){
+                    for (int i = 0; i < variables.length; i++){
+                        result[i] = Expression.make("0");
+                    }
+                    return result;
+                }
+                final Expression base = exponent.base();
+                final Expression lowerProduct = Expression.times(Expression.make(Integer.toString(power)),
+                        Expression.power(base, power - 1));
+                final Expression[] baseDerivatives = partials(base);
+                for (int i = 0; i < variables.length; i++){
+                    result[i] = Expression.times(lowerProduct, baseDerivatives[i]);
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -15,6 +15,9 @@ class Exponent implements Expression {
      *                        base^power
      * Rep invariant:
      *      - power must be an Integer representing an nonnegative integer.
+     *      - hash is the hash code of base and power, as computed by hash()
+     *      - if interned, this is the only interned Exponent of its structure,
+     *        and base is interned (see ExpressionFactory)
      *      
      * Safety from rep exposure:
      *      - all fields are immutable and final
@@ -23,6 +26,8 @@ class Exponent implements Expression {
      */
     private final Expression base;
     private final Integer power;
+    private final int hash;
+    private final boolean interned;
 
     /** Make a Exponent which is left raised to the right-th power. 
      *  power must be an Integer representing an nonnegative integer 
@@ -30,11 +35,43 @@ class Exponent implements Expression {
      *  @param power the power of this exponent; must be nonnegative
      */
     public Exponent(Expression base, Integer power) {
+        this(base, power, false);
+    }
+
+    /** Make a Exponent which is left raised to the right-th power.
+     *  @param base the base expression of our exponent
+     *  @param power the power of this exponent; must be nonnegative
+     *  @param interned true only for the node that ExpressionFactory interns
+     */
+    Exponent(Expression base, Integer power, boolean interned) {
         this.base = base;
         this.power = power;
+        this.hash = 31 * (31 * Exponent.class.hashCode() + base.hashCode()) + power.hashCode();
+        this.interned = interned;
         checkRep();
     }
 
+    /**
+     * @return the base expression of this exponent
+     */
+    Expression base(){
+        return base;
+    }
+
+    /**
+     * @return the nonnegative power of this exponent
+     */
+    Integer power(){
+        return power;
+    }
+
+    /**
+     * @return true if this is the node of its structure interned by ExpressionFactory
+     */
+    boolean isInterned(){
+        return interned;
+    }
+
     /** 
      * Check that the rep invariant holds.
      */
@@ -50,18 +87,7 @@ class Exponent implements Expression {
      */
     @Override 
     public Expression differentiate(char variable) {
-        if (power.intValue() == 0){
-            //actually a constant with value 1
-            return new Number("0");
-        }
-        
-        Expression originalPower = Expression.make(power.toString()); //creates an expression representing the power of this exponent originally
-        Integer lowerPower = new Integer(power.intValue()-1);
-        Expression loweredExponent = Expression.power(base, lowerPower); //creates an expression representing the power of this exponent originally
-        Expression baseDerivative = base.differentiate(variable);
-        Expression lowerProduct = Expression.times(originalPower, loweredExponent);
-        Expression derivative = Expression.times(lowerProduct, baseDerivative);
-        return derivative;
+        return Differentiator.differentiate(this, variable);
     }
 
     @Override
@@ -73,7 +99,7 @@ class Exponent implements Expression {
 
     @Override    
     public Expression numberify(Map<String,BigDecimal> environment) {
-        return new Exponent(base.numberify(environment), this.power);
+        return Expression.power(base.numberify(environment), this.power);
     }
 
     @Override
@@ -97,12 +123,15 @@ class Exponent implements Expression {
      * @param thatObject an object to compare to
      * @return true if this and thatObjects' base Expression
      * are .equals(), and their power Integer are .equals(),
-     * false otherwise
+     * false otherwise.
+     * Two interned Exponent objects are only equivalent if they are the same object.
      */
     @Override
     public boolean equals(Object thatObject){
+        if (this == thatObject) return true;
         if (!(thatObject instanceof Exponent)) return false;
         Exponent thatExponent = (Exponent) thatObject;
+        if ((interned && thatExponent.interned) || hash != thatExponent.hash) return false;
         boolean baseEquals = base.equals(thatExponent.base);
         boolean powerEquals = (this.power.equals(thatExponent.power));
         return baseEquals && powerEquals;
@@ -110,7 +139,7 @@ class Exponent implements Expression {
 
     @Override
     public int hashCode(){
-        return base.hashCode() + power.hashCode();
+        return hash;
     }
 
 }
@@ -5,7 +5,7 @@ package calculus;
 
 import java.math.BigDecimal;
 import java.util.Map;
-import lib6005.parser.*;
+import java.util.Set;
 
 /**
  * An immutable data type representing a mathematical expression, as defined
@@ -22,6 +22,13 @@ public interface Expression {
     //             + Times(left:Expression, right:Expression)
     //             + Exponent(base:Expression, power:Integer)
     
+    /*
+     * The creators below are backed by ExpressionFactory, which hash-conses
+     * their results: structurally equal expressions made by them are the same
+     * object, so equal subexpressions share memory and equals() is a pointer
+     * comparison.
+     */
+    
     /**
      * Creates a new Expression representing a nonnegative number.
      * @param number the string version of the number to represent;
@@ -33,7 +40,7 @@ public interface Expression {
      * value is given by number
      */
     public static Expression make(String number){
-        return new Number(number);
+        return ExpressionFactory.number(number);
     }
     
     /**
@@ -44,7 +51,7 @@ public interface Expression {
      * derived by c
      */
     public static Expression make(char c){
-        return new Variable(c);
+        return ExpressionFactory.variable(c);
     }
     
     /**
@@ -54,7 +61,7 @@ public interface Expression {
      * @return an Expression representing the summation of left and right
      */
     public static Expression add(Expression left, Expression right){
-        return new Plus(left, right);
+        return ExpressionFactory.plus(left, right);
     }
     
     /**
@@ -64,7 +71,7 @@ public interface Expression {
      * @return an Expression representing the product of left and right
      */
     public static Expression times(Expression left, Expression right){
-        return new Times(left, right);
+        return ExpressionFactory.times(left, right);
     }
     
     /**
@@ -76,7 +83,7 @@ public interface Expression {
      * @return Expression representing a base expression raised to an nonnegative integer power
      */
     public static Expression power(Expression base, Integer power){
-        return new Exponent(base, power);
+        return ExpressionFactory.exponent(base, power);
     }
     
     /**
@@ -86,6 +93,18 @@ public interface Expression {
      */
     public Expression differentiate(char variable);
     
+    /**
+     * Differentiates an expression by several variables at once. Subexpressions
+     * shared between the partial derivatives are differentiated only once.
+     * @param expression expression to differentiate
+     * @param variables variables to take the partial derivatives with respect to
+     * @return unmodifiable map from each of variables, in alphabetical order, to
+     *         expression.differentiate() with respect to that variable
+     */
+    public static Map<Character, Expression> gradient(Expression expression, Set<Character> variables){
+        return Differentiator.gradient(expression, variables);
+    }
+    
     /**
      * Evaluates the expression.
      * @return BigDecimal representing the numerical value of the expression.
@@ -113,6 +132,26 @@ public interface Expression {
      */
     public boolean canEvaluate(Map<String,BigDecimal> environment);
     
+    /**
+     * Simplifies the expression: folds constants, removes identities (0+e, 1*e,
+     * 0*e, e^1, e^0), flattens sums and products, and collects like terms and
+     * like factors. Products are not distributed over sums.
+     * @return an expression whose value is equal to this expression's value for
+     *         every assignment of its variables
+     */
+    public default Expression simplify(){
+        return Simplifier.simplify(this);
+    }
+    
+    /**
+     * Compiles the expression to a program that evaluates it in double precision,
+     * for evaluating it under many assignments of its variables.
+     * @return an evaluator of this expression, with a slot for each of its variables
+     */
+    public default CompiledExpression compile(){
+        return CompiledExpression.compile(this);
+    }
+    
     /**
      * Parse an expression.
      * @param input expression to parse, as defined in the PS3 handout.
@@ -0,0 +1,204 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package calculus;
+
+import java.lang.ref.WeakReference;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Hash-consing factory behind Expression.make(), add(), times() and power().
+ *
+ * <p>Every expression made here is interned: there is at most one interned
+ * node of each structure, so structurally equal expressions share memory, and
+ * two interned nodes are equal if and only if they are the same object.
+ * Children are interned before their parents, so a derivative that repeats a
+ * subexpression holds one shared node instead of a copy of it.
+ *
+ * <p>Interned nodes are only weakly held by the table, so expressions that are
+ * no longer used anywhere else are garbage collected as usual.
+ *
+ * <p>The table is split into STRIPES stripes by hash code, each with its own
+ * lock, so that threads interning different nodes, such as the workers of
+ * CalculusServer, rarely wait for each other.
+ */
+final class ExpressionFactory {
+
+    /*
+     * Abstraction function:
+     *      AF(TABLES) = the set of interned expressions, each reachable as
+     *                   table(e).get(e).get() from any expression e structurally equal to it
+     * Rep invariant:
+     *      - TABLES has STRIPES tables, and every key of TABLES.get(i) has a
+     *        hash code h with stripe(h) == i
+     *      - every key of a table is interned, and its value refers to the key itself
+     *      - no two keys of the tables are structurally equal
+     * Safety from rep exposure:
+     *      - TABLES is private; only immutable Expressions are returned
+     * Thread safety argument:
+     *      - TABLES is never modified after class initialization
+     *      - each table is only accessed while holding its own lock; interned
+     *        nodes are immutable and published through that lock
+     */
+
+    /** Number of separately locked tables; a power of 2. */
+    private static final int STRIPES = 64;
+
+    private static final List<Map<Expression, WeakReference<Expression>>> TABLES = new ArrayList<>(STRIPES);
+    static {
+        for (int i = 0; i < STRIPES; i++){
+            TABLES.add(new WeakHashMap<>());
+        }
+    }
+
+    private ExpressionFactory() {
+        // not meant to be instantiated
+    }
+
+    /**
+     * @param expression any expression
+     * @return the table that holds the interned node equal to expression, if there is one
+     */
+    private static Map<Expression, WeakReference<Expression>> table(Expression expression){
+        final int hash = expression.hashCode();
+        return TABLES.get((hash ^ (hash >>> 16)) & (STRIPES - 1));
+    }
+
+    /**
+     * @param table table(candidate), whose lock the caller holds
+     * @param candidate a node that is not interned, whose children are interned
+     * @return the interned node equal to candidate, if there is one; otherwise null
+     */
+    private static Expression find(Map<Expression, WeakReference<Expression>> table, Expression candidate){
+        final WeakReference<Expression> reference = table.get(candidate);
+        return reference == null ? null : reference.get();
+    }
+
+    /**
+     * @param table table(node), whose lock the caller holds
+     * @param node a new interned node, not equal to any other interned node
+     * @return node, which is now in table
+     */
+    private static Expression add(Map<Expression, WeakReference<Expression>> table, Expression node){
+        table.put(node, new WeakReference<>(node));
+        return node;
+    }
+
+    /**
+     * @param number nonnegative decimal number, as in Expression.make(String)
+     * @return the interned Number with that value
+     */
+    static Expression number(String number){
+        return number(new BigDecimal(number));
+    }
+
+    /**
+     * @param value nonnegative number
+     * @return the interned Number with that value
+     */
+    static Expression number(BigDecimal value){
+        final Number candidate = new Number(value, false);
+        final Map<Expression, WeakReference<Expression>> table = table(candidate);
+        synchronized (table){
+            final Expression found = find(table, candidate);
+            return found != null ? found : add(table, new Number(candidate.value(), true));
+        }
+    }
+
+    /**
+     * @param c letter, as in Expression.make(char)
+     * @return the interned Variable c
+     */
+    static Expression variable(char c){
+        final Variable candidate = new Variable(c);
+        final Map<Expression, WeakReference<Expression>> table = table(candidate);
+        synchronized (table){
+            final Expression found = find(table, candidate);
+            return found != null ? found : add(table, new Variable(c, true));
+        }
+    }
+
+    /**
+     * @param left left-side expression of the sum
+     * @param right right-side expression of the sum
+     * @return the interned Plus of the interned forms of left and right
+     */
+    static Expression plus(Expression left, Expression right){
+        final Plus candidate = new Plus(intern(left), intern(right));
+        final Map<Expression, WeakReference<Expression>> table = table(candidate);
+        synchronized (table){
+            final Expression found = find(table, candidate);
+            return found != null ? found : add(table, new Plus(candidate.left(), candidate.right(), true));
+        }
+    }
+
+    /**
+     * @param left left-side expression of the product
+     * @param right right-side expression of the product
+     * @return the interned Times of the interned forms of left and right
+     */
+    static Expression times(Expression left, Expression right){
+        final Times candidate = new Times(intern(left), intern(right));
+        final Map<Expression, WeakReference<Expression>> table = table(candidate);
+        synchronized (table){
+            final Expression found = find(table, candidate);
+            return found != null ? found : add(table, new Times(candidate.left(), candidate.right(), true));
+        }
+    }
+
+    /**
+     * @param base base expression
+     * @param power nonnegative power
+     * @return the interned Exponent of the interned form of base
+     */
+    static Expression exponent(Expression base, Integer power){
+        final Exponent candidate = new Exponent(intern(base), power);
+        final Map<Expression, WeakReference<Expression>> table = table(candidate);
+        synchronized (table){
+            final Expression found = find(table, candidate);
+            return found != null ? found : add(table, new Exponent(candidate.base(), power, true));
+        }
+    }
+
+    /**
+     * @param expression any expression
+     * @return the interned expression equal to expression; expression itself
+     *         if it is already interned
+     */
+    static Expression intern(Expression expression){
+        if (expression instanceof Number){
+            final Number number = (Number) expression;
+            return number.isInterned() ? number : number(number.value());
+        } else if (expression instanceof Variable){
+            final Variable variable = (Variable) expression;
+            return variable.isInterned() ? variable : variable(variable.value());
+        } else if (expression instanceof Plus){
+            final Plus plus = (Plus) expression;
+            return plus.isInterned() ? plus : plus(plus.left(), plus.right());
+        } else if (expression instanceof Times){
+            final Times times = (Times) expression;
+            return times.isInterned() ? times : times(times.left(), times.right());
+        } else if (expression instanceof Exponent){
+            final Exponent exponent = (Exponent) expression;
+            return exponent.isInterned() ? exponent : exponent(exponent.base(), exponent.power());
+        }
+        throw new AssertionError("unknown expression variant: " + expression.getClass());
+    }
+
+    /**
+     * @return number of interned expressions that have not been garbage collected
+     */
+    static int size(){
+        int size = 0;
+        for (Map<Expression, WeakReference<Expression>> table : TABLES){
+            synchronized (table){
+                size += table.size();
+            }
+        }
+        return size;
+    }
+}
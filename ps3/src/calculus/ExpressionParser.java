@@ -1,51 +1,65 @@
 package calculus;
 
-import java.io.File;
-import java.io.IOException;
-import java.util.List;
-import lib6005.parser.ParseTree;
-import lib6005.parser.Parser;
-import lib6005.parser.UnableToParseException;
-//import lib6005.parser.Visualizer; (commented out since unnused, but left in case I want to debug.:))
-
+/**
+ * Parser for expressions, as defined in the PS3 handout.
+ *
+ * <p>The grammar, where whitespace [ \t\r\n]+ may appear between any two tokens:
+ * <pre>
+ *     root ::= sum;
+ *     sum ::= product ('+' product)*;
+ *     product ::= exponent ('*' exponent)*;
+ *     exponent ::= primary ('^' [0-9]+)*;
+ *     primary ::= number | variable | '(' sum ')';
+ *     number ::= [0-9]+ ('.')? [0-9]* | ('.') [0-9]+;
+ *     variable ::= [a-zA-Z];
+ * </pre>
+ * Sums and products associate to the left. The parser reads the input once,
+ * one token ahead, and builds the expression directly with the Expression
+ * creators; sums and products are parsed by precedence climbing.
+ * Each level of parentheses is parsed by a recursive call, so they may be
+ * nested at most MAX_NESTING deep; deeper input is a parse error rather than
+ * a StackOverflowError.
+ */
 public class ExpressionParser {
 
-    /**
-     * Main method. Parses and evaluates an expression.
-     * 
-     * @param args command line arguments, not used
-     * @throws UnableToParseException if example expression can't be parsed
-     */
-    public static void main(final String[] args) throws UnableToParseException {
-    }
-    
-    private static final File GRAMMAR_FILE = new File("src/calculus/Expression.g");
-
-    // the nonterminals of the our grammar
-    private enum ExpressionGrammar {
-        ROOT, SUM, PRIMARY, NUMBER, WHITESPACE,
-        PRODUCT, VARIABLE, EXPONENT
+    // the tokens of the grammar
+    private enum Token {
+        NUMBER, VARIABLE, PLUS, TIMES, POWER, OPEN, CLOSE, END
     };
 
-    private static Parser<ExpressionGrammar> PARSER = makeParser(GRAMMAR_FILE);
-    
+    private static final int SUM_PRECEDENCE = 1;
+    private static final int PRODUCT_PRECEDENCE = 2;
+
+    /** Deepest nesting of parentheses that parse() accepts. */
+    static final int MAX_NESTING = 1000;
+
+    private final String input;
+    private int position = 0;
+    private Token token;
+    private int tokenStart;
+    private int nesting = 0;
+
+    /*
+     * Abstraction function:
+     *      AF(input, position, token, tokenStart, nesting) = a parse of input in progress,
+     *          whose next token is token, found at input[tokenStart..position), inside
+     *          nesting open parentheses
+     * Rep invariant:
+     *      - 0 <= tokenStart <= position <= input.length()
+     *      - 0 <= nesting <= MAX_NESTING
+     *      - token is END iff tokenStart == input.length()
+     * Safety from rep exposure:
+     *      - all fields are private, and a parser never leaves this class
+     */
+
     /**
-     * Compile the grammar into a parser.
-     * 
-     * @param grammar file containing the grammar
-     * @return parser for the grammar
-     * @throws RuntimeException if grammar file can't be read or has syntax errors
+     * Make a parser positioned at the first token of input.
+     * @param input string to parse
+     * @throws UnableToParseException if input does not start with a token
      */
-    private static Parser<ExpressionGrammar> makeParser(final File grammar) {
-        try {
-            return Parser.compile(grammar, ExpressionGrammar.ROOT);
-            // translate these checked exceptions into unchecked RuntimeExceptions,
-            // because these failures indicate internal bugs rather than client errors
-        } catch (IOException e) {
-            throw new RuntimeException("can't read the grammar file", e);
-        } catch (UnableToParseException e) {
-            throw new RuntimeException("the grammar has a syntax error", e);
-        }
+    private ExpressionParser(String input) throws UnableToParseException {
+        this.input = input;
+        advance();
     }
 
     /**
@@ -55,94 +69,209 @@ public class ExpressionParser {
      * @throws UnableToParseException if the string doesn't match the Expression grammar
      */
     public static Expression parse(final String string) throws UnableToParseException {
-        // parse the example into a parse tree
-        final ParseTree<ExpressionGrammar> parseTree = PARSER.parse(string);
+        final ExpressionParser parser = new ExpressionParser(string);
+        final Expression expression = parser.parseBinary(SUM_PRECEDENCE);
+        parser.expect(Token.END);
+        return expression;
+    }
 
-        // display the parse tree in a web browser, for debugging only
-        //Visualizer.showInBrowser(parseTree);
+    /**
+     * @param operator a token
+     * @return precedence of operator if it is a binary operator, otherwise 0
+     */
+    private static int precedence(Token operator){
+        switch (operator){
+        case PLUS:
+            return SUM_PRECEDENCE;
+        case TIMES:
+            return PRODUCT_PRECEDENCE;
+        default:
+            return 0;
+        }
+    }
 
-        // make an AST from the parse tree
-        final Expression expression = makeAbstractSyntaxTree(parseTree);        
+    /**
+     * Parse a sum or product whose operators all have at least the given precedence.
+     * @param minPrecedence lowest precedence of a binary operator to consume
+     * @return the expression, associated to the left
+     */
+    private Expression parseBinary(int minPrecedence) throws UnableToParseException {
+        Expression expression = parseExponent();
+        while (precedence(token) >= minPrecedence && precedence(token) > 0){
+            final Token operator = token;
+            advance();
+            final Expression right = parseBinary(precedence(operator) + 1);
+            expression = operator == Token.PLUS
+                    ? Expression.add(expression, right)
+                    : Expression.times(expression, right);
+        }
         return expression;
     }
-    
+
     /**
-     * Convert a parse tree into an abstract syntax tree.
-     * 
-     * @param parseTree constructed according to the grammar in Expression.g
-     * @return abstract syntax tree corresponding to parseTree
+     * exponent ::= primary ('^' [0-9]+)*;
      */
-    private static Expression makeAbstractSyntaxTree(final ParseTree<ExpressionGrammar> parseTree) {
-        switch (parseTree.name()) {
-    
-        case ROOT: // root ::= sum;
-            {
-                final ParseTree<ExpressionGrammar> child = parseTree.children().get(0);
-                return makeAbstractSyntaxTree(child);
-            }
-        
-        case SUM: //sum ::= product ('+' product)*;
-            {
-                final List<ParseTree<ExpressionGrammar>> children = parseTree.children();
-                Expression expression = makeAbstractSyntaxTree(children.get(0));
-                for (int i = 1; i < children.size(); ++i) {
-                    expression = Expression.add(expression, makeAbstractSyntaxTree(children.get(i)));
-                }
-                return expression;
-            }
-        
-        case PRIMARY: //primary ::= number | variable | '(' sum ')';
-            {
-                final ParseTree<ExpressionGrammar> child = parseTree.children().get(0);
-                // check which alternative (number or sum) was actually matched
-                switch (child.name()) {
-                case NUMBER:
-                    return makeAbstractSyntaxTree(child);
-                case VARIABLE:
-                    return makeAbstractSyntaxTree(child);
-                case SUM:
-                    return makeAbstractSyntaxTree(child); 
-                default:
-                    throw new AssertionError("should never get here");
-                }
-            }
+    private Expression parseExponent() throws UnableToParseException {
+        Expression expression = parsePrimary();
+        while (token == Token.POWER){
+            advance();
+            final String power = text();
+            expect(Token.NUMBER);
+            expression = Expression.power(expression, parsePower(power));
+        }
+        return expression;
+    }
 
-        case NUMBER: //number ::= [0-9]+ ('.')? [0-9]* | ('.') [0-9]+;
-            {
-                final String number = parseTree.text();
-                return Expression.make(number);
-            }
-            
-        case PRODUCT: //product ::= exponent ('*' exponent)*
-        {
-            final List<ParseTree<ExpressionGrammar>> children = parseTree.children();
-            Expression expression = makeAbstractSyntaxTree(children.get(0));
-            for (int i = 1; i < children.size(); ++i) {
-                expression = Expression.times(expression, makeAbstractSyntaxTree(children.get(i)));
+    /**
+     * @param power text of a number token
+     * @return power as an Integer
+     * @throws UnableToParseException if power is not a nonnegative int without a decimal point
+     */
+    private Integer parsePower(String power) throws UnableToParseException {
+        int value = 0;
+        for (int i = 0; i < power.length(); i++){
+            final char c = power.charAt(i);
+            if (c == '.' || value > (Integer.MAX_VALUE - (c - '0')) / 10){
+                throw new UnableToParseException("power must be a nonnegative int, was " + power);
             }
-            return expression;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * primary ::= number | variable | '(' sum ')';
+     */
+    private Expression parsePrimary() throws UnableToParseException {
+        final Token primary = token;
+        switch (primary){
+        case NUMBER: {
+            final String number = text();
+            advance();
+            return Expression.make(number);
         }
-        case VARIABLE: //variable ::= [a-zA-Z];
-        {
-            final String var = parseTree.text();
-            char varChar = var.charAt(0);
-            return Expression.make(varChar);
+        case VARIABLE: {
+            final char variable = input.charAt(tokenStart);
+            advance();
+            return Expression.make(variable);
         }
-        case EXPONENT: //exponent ::= primary ('^' number)*;
-        {
-            final List<ParseTree<ExpressionGrammar>> children = parseTree.children();
-            Expression expression = makeAbstractSyntaxTree(children.get(0));
-            for (int i = 1; i < children.size(); ++i) {
-                String child = children.get(i).text();
-                Integer power = Integer.parseInt(child);
-                expression = Expression.power(expression, power);
+        case OPEN: {
+            if (nesting == MAX_NESTING){
+                throw error("parentheses nested more than " + MAX_NESTING + " deep");
             }
+            nesting++;
+            advance();
+            final Expression expression = parseBinary(SUM_PRECEDENCE);
+            expect(Token.CLOSE);
+            nesting--;
             return expression;
         }
         default:
-            throw new AssertionError("should never get here!");
+            throw error("expected a number, variable or '('");
+        }
+    }
+
+    /**
+     * Consume the current token.
+     * @param expected the token that must be current
+     * @throws UnableToParseException if the current token is not expected
+     */
+    private void expect(Token expected) throws UnableToParseException {
+        if (token != expected){
+            throw error("expected " + expected);
+        }
+        if (token != Token.END){
+            advance();
         }
+    }
+
+    /**
+     * @return text of the current token
+     */
+    private String text(){
+        return input.substring(tokenStart, position);
+    }
+
+    /**
+     * @param message what was expected
+     * @return exception describing a parse error at the current token
+     */
+    private UnableToParseException error(String message){
+        return new UnableToParseException(message + " at position " + tokenStart + " of \"" + input + "\"");
+    }
 
+    /**
+     * @param c a character
+     * @return true iff c is a digit [0-9]
+     */
+    private static boolean isDigit(char c){
+        return '0' <= c && c <= '9';
+    }
+
+    /**
+     * Read the next token, skipping whitespace before it.
+     * @throws UnableToParseException if the next character cannot start a token
+     */
+    private void advance() throws UnableToParseException {
+        final int length = input.length();
+        while (position < length && isWhitespace(input.charAt(position))){
+            position++;
+        }
+        tokenStart = position;
+        if (position == length){
+            token = Token.END;
+            return;
+        }
+        final char c = input.charAt(position++);
+        switch (c){
+        case '+':
+            token = Token.PLUS;
+            return;
+        case '*':
+            token = Token.TIMES;
+            return;
+        case '^':
+            token = Token.POWER;
+            return;
+        case '(':
+            token = Token.OPEN;
+            return;
+        case ')':
+            token = Token.CLOSE;
+            return;
+        default:
+            break;
+        }
+        if (('a' <= c && c <= 'z') || ('A' <= c && c <= 'Z')){
+            token = Token.VARIABLE;
+        } else if (isDigit(c)){
+            // [0-9]+ ('.')? [0-9]*
+            while (position < length && isDigit(input.charAt(position))){
+                position++;
+            }
+            if (position < length && input.charAt(position) == '.'){
+                position++;
+                while (position < length && isDigit(input.charAt(position))){
+                    position++;
+                }
+            }
+            token = Token.NUMBER;
+        } else if (c == '.' && position < length && isDigit(input.charAt(position))){
+            // ('.') [0-9]+
+            while (position < length && isDigit(input.charAt(position))){
+                position++;
+            }
+            token = Token.NUMBER;
+        } else {
+            throw error("unexpected character '" + c + "'");
+        }
     }
 
+    /**
+     * @param c a character
+     * @return true iff c is whitespace in the grammar: space, tab, carriage return or newline
+     */
+    private static boolean isWhitespace(char c){
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
 }
@@ -6,16 +6,11 @@ package calculus;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.math.BigDecimal;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.NoSuchElementException;
-import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Console interface to the expression system.
+ * The commands it accepts are described by Session; CalculusServer accepts
+ * the same commands over the network.
  * 
  * <p>PS3 instructions: you are free to change this user interface class.
  */
@@ -30,78 +25,19 @@ public class Main {
      */
     public static void main(String[] args) throws IOException {
         final BufferedReader in = new BufferedReader(new InputStreamReader(System.in));
-        Optional<String> currentExpression = Optional.empty();
+        Session session = new Session();
         
         while (true) {
             System.out.print("> ");
             final String input = in.readLine();
             
-            if (input.isEmpty()) {
+            if (input == null || input.isEmpty()) {
                 return; // exits the program
             }
             
-            try {
-                final String output;
-                
-                if (input.startsWith(DIFFERENTIATE_PREFIX)) {
-                    final String variable = parseDifferentiate(input);
-                    output = Commands.differentiate(currentExpression.get(), variable);
-                    currentExpression = Optional.of(output);
-                } else if (input.startsWith(EVAL_PREFIX)) {
-                    final Map<String,BigDecimal> environment = parseEval(input);
-                    output = Commands.evaluate(currentExpression.get(), environment);
-                    // ... but don't change currentExpression
-                } else {
-                    final Expression expression = Expression.parse(input);
-                    output = expression.toString();
-                    currentExpression = Optional.of(output);
-                }
-                
-                System.out.println(output);
-            } catch (NoSuchElementException nse) {
-                // currentExpression was empty
-                System.out.println("must enter an expression before using this command");
-            } catch (RuntimeException re) {
-                System.out.println(re.getClass().getName() + ": " + re.getMessage());
-            }
-        }
-    }
- 
-    private static final String DIFFERENTIATE_PREFIX = "!d/d";
-    private static final String VARIABLE = "[A-Za-z]+";
-    private static final String DIFFERENTIATE = DIFFERENTIATE_PREFIX + "(" + VARIABLE + ") *";
-
-    private static String parseDifferentiate(final String input) {
-        final Matcher commandMatcher = Pattern.compile(DIFFERENTIATE).matcher(input);
-        if (!commandMatcher.matches()) {
-            throw new CommandSyntaxException("usage: !d/d must be followed by a variable name");
-        }
-
-        final String variable = commandMatcher.group(1);
-        return variable;
-    }
-    
-    private static final String EVAL_PREFIX = "!eval";
-    private static final String ASSIGNMENT = "(" + VARIABLE + ") *= *([^ ]+)";
-    private static final String EVAL = EVAL_PREFIX + "( +" + ASSIGNMENT + ")* *";    
-
-    private static Map<String,BigDecimal> parseEval(final String input) {
-        final Matcher commandMatcher = Pattern.compile(EVAL).matcher(input);
-        if (!commandMatcher.matches()) {
-            throw new CommandSyntaxException("usage: !eval var1=val1 var2=val2 ...");
+            session = session.handle(input);
+            System.out.println(session.output());
         }
-        
-        final Map<String,BigDecimal> environment = new HashMap<>();
-        final Matcher argumentMatcher = Pattern.compile(ASSIGNMENT).matcher(input);
-        while (argumentMatcher.find()) {
-            final String variable = argumentMatcher.group(1);
-            final BigDecimal value = new BigDecimal(argumentMatcher.group(2));
-            environment.put(variable, value);
-        }
-
-        // un-comment the following line to print the environment after each !eval command
-        //System.out.println(environment);
-        return environment;
     }
     
     public static class CommandSyntaxException extends RuntimeException {
@@ -14,7 +14,10 @@ class Number implements Expression {
      *              which consists of digits and an optional decimal point (ex: 7, 4.2)
      *              
      * Rep invariant:
-     *     - n is nonnegative
+     *     - n is nonnegative, without trailing zeroes
+     *     - hash is the hash code of n, as computed by hashCode()
+     *     - if interned, this is the only interned Number of its value
+     *       (see ExpressionFactory)
      * 
      * Safety from rep exposure:
      *     - all fields are immutable and final
@@ -23,6 +26,8 @@ class Number implements Expression {
     */
 
     private final BigDecimal number;
+    private final int hash;
+    private final boolean interned;
 
     /** Make a Number with using the String number, stripped of all trailing zeroes.
      * number must be nonempty string consisting of only digits and an optional decimal point,
@@ -32,9 +37,28 @@ class Number implements Expression {
      * @param number numerical value of this number
      */
     public Number(String number) {
-        this.number = new BigDecimal(number).stripTrailingZeros();
+        this(new BigDecimal(number), false);
+    }
+
+    /** Make a Number with the value number, stripped of all trailing zeroes.
+     * @param number nonnegative numerical value of this number
+     * @param interned true only for the node that ExpressionFactory interns
+     */
+    Number(BigDecimal number, boolean interned) {
+        this.number = number.stripTrailingZeros();
+        //hashing the double value so that numerically equivalent vals
+        //(such as 1.5 and 1.50000) will still map to same value.
+        this.hash = Double.hashCode(this.number.doubleValue());
+        this.interned = interned;
         checkRep();
     }
+
+    /**
+     * @return true if this is the node of its value interned by ExpressionFactory
+     */
+    boolean isInterned(){
+        return interned;
+    }
     
     /**
      * Check that the rep invariant holds.
@@ -75,7 +99,7 @@ class Number implements Expression {
      */
     @Override 
     public Expression differentiate(char variable) {
-        return new Number("0");
+        return Expression.make("0");
     }
 
     /**
@@ -92,22 +116,22 @@ class Number implements Expression {
      * Two Number objects are only equivalent if their number are equal.
      * @param thatObject an object to compare to
      * @return true if this and thatObjects' number are .equals()
-     * false otherwise
+     * false otherwise.
+     * Two interned Number objects are only equivalent if they are the same object.
      */    
     @Override
     public boolean equals(Object thatObject){
+        if (this == thatObject) return true;
         if (!(thatObject instanceof Number)) return false;
         Number thatNumber = (Number) thatObject;
+        if ((interned && thatNumber.interned) || hash != thatNumber.hash) return false;
         return (this.value().compareTo(thatNumber.value()) == 0);
     }
     
 
     @Override
     public int hashCode(){
-        //converting to Double so that numerically equivalent vals
-        //(such as 1.5 and 1.50000) will still map to same value.
-        Double doubleVersion = new Double(number.doubleValue());
-        return doubleVersion.hashCode();
+        return hash;
     }
 
 
@@ -0,0 +1,193 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package calculus;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, thread-safe cache of parsed expressions, keyed by input text.
+ *
+ * <p>Inputs that differ only in insignificant whitespace share one entry: see
+ * normalize(). When the cache is full, the least recently used entry is
+ * evicted. Only valid inputs are cached. A cache may also simplify each
+ * expression once, when it is parsed (see Expression.simplify()).
+ *
+ * <p>Commands parses through the cache returned by shared().
+ */
+public final class ParseCache {
+
+    /** Number of entries of the cache returned by shared(). */
+    static final int SHARED_SIZE = 1 << 10;
+    private static final ParseCache SHARED = new ParseCache(SHARED_SIZE, false);
+
+    private final int maxSize;
+    private final boolean simplify;
+    private final Map<String, Expression> entries;
+    private long hits = 0;
+    private long misses = 0;
+
+    /*
+     * Abstraction function:
+     *      AF(maxSize, simplify, entries, hits, misses) = a cache mapping each
+     *          normalized input text in entries to its parsed expression (simplified
+     *          if simplify), least recently used first, that has answered hits
+     *          lookups from the cache and misses lookups by parsing
+     * Rep invariant:
+     *      - maxSize > 0, entries.size() <= maxSize
+     *      - every key of entries is normalized, and is a valid expression
+     *      - hits >= 0, misses >= 0
+     * Safety from rep exposure:
+     *      - all fields are private; entries is never returned, and its keys and
+     *        values are immutable
+     * Thread safety argument:
+     *      - entries, hits and misses are only accessed while holding the lock
+     *        on this; parsing happens outside the lock, so that a slow parse does
+     *        not hold up other threads, and two threads that miss on the same
+     *        input at once both parse it and store equal expressions
+     */
+
+    /**
+     * Make an empty cache.
+     * @param maxSize positive number of entries at which the least recently
+     *                used entry is evicted to make room for a new one
+     * @param simplify true to cache each expression simplified, false to cache it as parsed
+     * @throws IllegalArgumentException if maxSize is not positive
+     */
+    public ParseCache(int maxSize, boolean simplify) {
+        if (maxSize <= 0){
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.simplify = simplify;
+        this.entries = new LinkedHashMap<String, Expression>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Expression> eldest){
+                return size() > ParseCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * @return the cache that Commands parses through, which holds SHARED_SIZE
+     *         entries and does not simplify
+     */
+    public static ParseCache shared(){
+        return SHARED;
+    }
+
+    /**
+     * Checks that the rep invariant holds.
+     */
+    private void checkRep(){
+        assert maxSize > 0 && entries.size() <= maxSize;
+        assert hits >= 0 && misses >= 0;
+    }
+
+    /**
+     * Parse an expression, or find it in the cache.
+     * @param input expression to parse, as defined in the PS3 handout
+     * @return expression AST for the input, simplified if this cache simplifies;
+     *         equal to Expression.parse(input) (or its simplification)
+     * @throws IllegalArgumentException if the expression is invalid
+     */
+    public Expression parse(String input){
+        final String key = normalize(input);
+        synchronized (this){
+            final Expression cached = entries.get(key);
+            if (cached != null){
+                hits++;
+                return cached;
+            }
+            misses++;
+        }
+        final Expression parsed = Expression.parse(key);
+        final Expression expression = simplify ? parsed.simplify() : parsed;
+        synchronized (this){
+            entries.put(key, expression);
+            checkRep();
+        }
+        return expression;
+    }
+
+    /**
+     * @return number of calls to parse() that found their input in the cache
+     */
+    public synchronized long hits(){
+        return hits;
+    }
+
+    /**
+     * @return number of calls to parse() that parsed their input, including
+     *         those that found it invalid
+     */
+    public synchronized long misses(){
+        return misses;
+    }
+
+    /**
+     * @return number of expressions in the cache
+     */
+    public synchronized int size(){
+        return entries.size();
+    }
+
+    /**
+     * Remove every expression from the cache, and reset the hit and miss counters.
+     */
+    public synchronized void clear(){
+        entries.clear();
+        hits = 0;
+        misses = 0;
+        checkRep();
+    }
+
+    /**
+     * Normalize the whitespace of an input. Whitespace between two tokens is
+     * insignificant, except between two characters that are each a digit or
+     * a decimal point, where it keeps them from being read as one number.
+     * @param input any string
+     * @return input without leading and trailing whitespace, and with each run of
+     *         whitespace removed if it is insignificant, or replaced by one space
+     *         otherwise; parses to the same expression as input, or is invalid if
+     *         input is invalid
+     */
+    static String normalize(String input){
+        final StringBuilder normalized = new StringBuilder(input.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < input.length(); i++){
+            final char c = input.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\n'){
+                pendingSpace = normalized.length() > 0;
+                continue;
+            }
+            if (pendingSpace && isNumberPart(c) && isNumberPart(normalized.charAt(normalized.length() - 1))){
+                normalized.append(' ');
+            }
+            pendingSpace = false;
+            normalized.append(c);
+        }
+        return input.contentEquals(normalized) ? input : normalized.toString();
+    }
+
+    /**
+     * @param c a character
+     * @return true iff c is a digit [0-9] or a decimal point
+     */
+    private static boolean isNumberPart(char c){
+        return ('0' <= c && c <= '9') || c == '.';
+    }
+
+    /**
+     * Returns a string with the size and counters of this cache.
+     * @return string describing this cache
+     */
+    @Override
+    public synchronized String toString(){
+        return "ParseCache with " + entries.size() + "/" + maxSize + " entries, "
+                + hits + " hits, " + misses + " misses";
+    }
+}
@@ -14,7 +14,9 @@ public class Plus implements Expression {
      *                        left + right
      *                        
      * Rep invariant:
-     *      - true
+     *      - hash is the hash code of left and right, as computed by hash()
+     *      - if interned, this is the only interned Plus of its structure, and
+     *        left and right are interned (see ExpressionFactory)
      *      
      * Safety from rep exposure:
      *      - all fields are immutable and final
@@ -23,14 +25,56 @@ public class Plus implements Expression {
      */
     
     private final Expression left, right;
+    private final int hash;
+    private final boolean interned;
 
     /** Make a Plus which is the sum of left and right. 
      * @param left left-side expression of sum
      * @param right right-side expression of sum
      * */
     public Plus(Expression left, Expression right) {
+        this(left, right, false);
+    }
+
+    /** Make a Plus which is the sum of left and right.
+     * @param left left-side expression of sum
+     * @param right right-side expression of sum
+     * @param interned true only for the node that ExpressionFactory interns
+     */
+    Plus(Expression left, Expression right, boolean interned) {
         this.left = left;
         this.right = right;
+        this.hash = hash(left, right);
+        this.interned = interned;
+    }
+
+    /**
+     * @return hash code of a sum of left and right, which depends on the order
+     *         of its arguments, like equals()
+     */
+    private static int hash(Expression left, Expression right){
+        return 31 * (31 * Plus.class.hashCode() + left.hashCode()) + right.hashCode();
+    }
+
+    /**
+     * @return left-side expression of this sum
+     */
+    Expression left(){
+        return left;
+    }
+
+    /**
+     * @return right-side expression of this sum
+     */
+    Expression right(){
+        return right;
+    }
+
+    /**
+     * @return true if this is the node of its structure interned by ExpressionFactory
+     */
+    boolean isInterned(){
+        return interned;
     }
     
     /**
@@ -41,9 +85,7 @@ public class Plus implements Expression {
      */
     @Override 
     public Expression differentiate(char variable) {
-        Expression leftDerivative = left.differentiate(variable);
-        Expression rightDerivative = right.differentiate(variable);
-        return Expression.add(leftDerivative, rightDerivative);
+        return Differentiator.differentiate(this, variable);
     }
     
     @Override
@@ -58,7 +100,7 @@ public class Plus implements Expression {
     public Expression numberify(Map<String,BigDecimal> environment) {
         Expression leftNumberified = left.numberify(environment);
         Expression rightNumberified = right.numberify(environment);
-        return new Plus(leftNumberified, rightNumberified);
+        return Expression.add(leftNumberified, rightNumberified);
     }
     
     @Override
@@ -84,12 +126,15 @@ public class Plus implements Expression {
      * are .equals(), and their right Expressions are .equals(),
      * false otherwise
      * Note: this means that if two Plus objects have flipped left/right
-     * arguments, they will NOT be considered equivalent
+     * arguments, they will NOT be considered equivalent.
+     * Two interned Plus objects are only equivalent if they are the same object.
      */
     @Override
     public boolean equals(Object thatObject){
+        if (this == thatObject) return true;
         if (!(thatObject instanceof Plus)) return false;
         Plus thatPlus = (Plus) thatObject;
+        if ((interned && thatPlus.interned) || hash != thatPlus.hash) return false;
         boolean leftEquals = left.equals(thatPlus.left);
         boolean rightEquals = right.equals(thatPlus.right);
         return leftEquals && rightEquals;
@@ -97,7 +142,7 @@ public class Plus implements Expression {
 
     @Override
     public int hashCode(){
-        return left.hashCode() + right.hashCode();
+        return hash;
     }
 
 
@@ -0,0 +1,232 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package calculus;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An immutable state of one user's conversation with the expression system,
+ * after some sequence of inputs: the current expression, if any, and the output
+ * of the last input.
+ *
+ * <p>Each input is one line, and is one of:
+ * <ul>
+ * <li>an expression, which becomes the current expression, and is output
+ *     as Expression.toString() formats it;
+ * <li>!d/d followed by a variable, which outputs the derivative of the current
+ *     expression (see Commands.differentiate()), and makes it the current expression;
+ * <li>!eval followed by zero or more assignments var=value, separated by spaces,
+ *     which outputs the current expression evaluated in that environment (see
+ *     Commands.evaluate()), and does not change the current expression.
+ * </ul>
+ * An invalid input, or a command without a current expression, outputs an error
+ * message and does not change the current expression. Every output is one line.
+ *
+ * <p>So that no input takes unbounded time or memory, !eval refuses, with an error,
+ * a value with more than MAX_EVALUATED_DIGITS digits, and an evaluation in which
+ * a subexpression whose variables all have values could have a value of more
+ * than MAX_EVALUATED_DIGITS digits, whether or not every variable has a value.
+ */
+final class Session {
+
+    private static final String DIFFERENTIATE_PREFIX = "!d/d";
+    private static final String VARIABLE = "[A-Za-z]+";
+    private static final String DIFFERENTIATE = DIFFERENTIATE_PREFIX + "(" + VARIABLE + ") *";
+    private static final String EVAL_PREFIX = "!eval";
+    private static final String ASSIGNMENT = "(" + VARIABLE + ") *= *([^ ]+)";
+    private static final String EVAL = EVAL_PREFIX + "( +" + ASSIGNMENT + ")* *";
+
+    private static final Pattern DIFFERENTIATE_PATTERN = Pattern.compile(DIFFERENTIATE);
+    private static final Pattern ASSIGNMENT_PATTERN = Pattern.compile(ASSIGNMENT);
+    private static final Pattern EVAL_PATTERN = Pattern.compile(EVAL);
+
+    /** Most digits of a value assigned or evaluated by !eval. */
+    static final int MAX_EVALUATED_DIGITS = 100_000;
+
+    private final Optional<String> currentExpression;
+    private final String output;
+
+    /*
+     * Abstraction function:
+     *      AF(currentExpression, output) = a conversation whose current expression is
+     *          currentExpression.get(), or that has none if currentExpression is empty,
+     *          and whose last input output the line output
+     * Rep invariant:
+     *      - output has no line terminators
+     * Safety from rep exposure:
+     *      - all fields are private, final and immutable
+     * Thread safety argument:
+     *      - this type is immutable
+     */
+
+    /**
+     * Make a new conversation, with no current expression and an empty output.
+     */
+    Session() {
+        this(Optional.empty(), "");
+    }
+
+    private Session(Optional<String> currentExpression, String output) {
+        this.currentExpression = currentExpression;
+        this.output = output;
+        checkRep();
+    }
+
+    /**
+     * Checks that the rep invariant holds.
+     */
+    private void checkRep(){
+        assert output.indexOf('\n') < 0 && output.indexOf('\r') < 0;
+    }
+
+    /**
+     * @return output of the last input of this conversation, one line without a line terminator
+     */
+    String output(){
+        return output;
+    }
+
+    /**
+     * @param input one line of input
+     * @return true if input is an !eval command, which never changes the current expression
+     */
+    static boolean isEvaluation(String input){
+        return input.startsWith(EVAL_PREFIX);
+    }
+
+    /**
+     * Handle one input.
+     * @param input one line of input, as described above, without a line terminator
+     * @return the conversation after input: its current expression as input
+     *         leaves it, and the output of input
+     */
+    Session handle(String input){
+        try {
+            if (input.startsWith(DIFFERENTIATE_PREFIX)) {
+                final String variable = parseDifferentiate(input);
+                final String output = Commands.differentiate(currentExpression.get(), variable);
+                return new Session(Optional.of(output), output);
+            } else if (isEvaluation(input)) {
+                final Map<String,BigDecimal> environment = parseEval(input);
+                checkEvaluationSize(currentExpression.get(), environment);
+                // ... but don't change currentExpression
+                return new Session(currentExpression, Commands.evaluate(currentExpression.get(), environment));
+            } else {
+                final String output = ParseCache.shared().parse(input).toString();
+                return new Session(Optional.of(output), output);
+            }
+        } catch (NoSuchElementException nse) {
+            // currentExpression was empty
+            return new Session(currentExpression, "must enter an expression before using this command");
+        } catch (RuntimeException re) {
+            return new Session(currentExpression, error(re));
+        }
+    }
+
+    /**
+     * @param error an error raised while handling an input
+     * @return one line describing error
+     */
+    static String error(Throwable error){
+        return (error.getClass().getName() + ": " + error.getMessage()).replaceAll("[\r\n]+", " ");
+    }
+
+    private static String parseDifferentiate(final String input) {
+        final Matcher commandMatcher = DIFFERENTIATE_PATTERN.matcher(input);
+        if (!commandMatcher.matches()) {
+            throw new Main.CommandSyntaxException("usage: !d/d must be followed by a variable name");
+        }
+
+        final String variable = commandMatcher.group(1);
+        return variable;
+    }
+
+    private static Map<String,BigDecimal> parseEval(final String input) {
+        final Matcher commandMatcher = EVAL_PATTERN.matcher(input);
+        if (!commandMatcher.matches()) {
+            throw new Main.CommandSyntaxException("usage: !eval var1=val1 var2=val2 ...");
+        }
+
+        final Map<String,BigDecimal> environment = new HashMap<>();
+        final Matcher argumentMatcher = ASSIGNMENT_PATTERN.matcher(input);
+        while (argumentMatcher.find()) {
+            final String variable = argumentMatcher.group(1);
+            final BigDecimal value = new BigDecimal(argumentMatcher.group(2));
+            if (plainDigits(value) > MAX_EVALUATED_DIGITS) {
+                throw new IllegalArgumentException("value of " + variable + " has more than "
+                        + MAX_EVALUATED_DIGITS + " digits");
+            }
+            environment.put(variable, value);
+        }
+        return environment;
+    }
+
+    /**
+     * Check that evaluating an expression will not take unbounded time or memory.
+     * @param expression the current expression
+     * @param environment values of variables, each of at most MAX_EVALUATED_DIGITS digits
+     * @throws ArithmeticException if a subexpression of expression whose every variable
+     *         has a value in environment could have a value of more than
+     *         MAX_EVALUATED_DIGITS digits
+     */
+    private static void checkEvaluationSize(String expression, Map<String,BigDecimal> environment) {
+        plainDigits(ParseCache.shared().parse(expression), environment, new IdentityHashMap<>());
+    }
+
+    /**
+     * @param expression any expression
+     * @param environment values of variables
+     * @param estimated memo of the estimates already made, mutated by this method
+     * @return if every variable of expression has a value in environment, an upper
+     *         bound on the number of characters of
+     *         expression.numberify(environment).evaluate().toPlainString(),
+     *         found without evaluating it; otherwise NaN
+     * @throws ArithmeticException if that bound, or the bound of a subexpression of
+     *         expression, is more than MAX_EVALUATED_DIGITS
+     */
+    private static double plainDigits(Expression expression, Map<String,BigDecimal> environment,
+            Map<Expression,Double> estimated) {
+        final Double known = estimated.get(expression);
+        if (known != null) {
+            return known;
+        }
+        final double digits;
+        if (expression instanceof Number) {
+            digits = plainDigits(((Number) expression).value());
+        } else if (expression instanceof Variable) {
+            final BigDecimal value = environment.get(Character.toString(((Variable) expression).value()));
+            digits = value == null ? Double.NaN : plainDigits(value);
+        } else if (expression instanceof Plus) {
+            final Plus plus = (Plus) expression;
+            digits = plainDigits(plus.left(), environment, estimated) + plainDigits(plus.right(), environment, estimated);
+        } else if (expression instanceof Times) {
+            final Times times = (Times) expression;
+            digits = plainDigits(times.left(), environment, estimated) + plainDigits(times.right(), environment, estimated);
+        } else {
+            final Exponent exponent = (Exponent) expression;
+            digits = (double) exponent.power() * plainDigits(exponent.base(), environment, estimated);
+        }
+        // NaN, for a subexpression with a variable that has no value, is never more
+        if (digits > MAX_EVALUATED_DIGITS) {
+            throw new ArithmeticException("value has more than " + MAX_EVALUATED_DIGITS + " digits");
+        }
+        estimated.put(expression, digits);
+        return digits;
+    }
+
+    /**
+     * @param value a number
+     * @return an upper bound on the number of digits of value written out by toPlainString()
+     */
+    private static double plainDigits(BigDecimal value) {
+        return value.signum() == 0 ? 1 : Simplifier.plainDigits(value, 1);
+    }
+}
@@ -0,0 +1,301 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package calculus;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Algebraic simplification of expressions, behind Expression.simplify().
+ *
+ * <p>A simplified expression is equal in value to the original, and is built
+ * as follows:
+ * <ul>
+ * <li>constant subexpressions are folded into a single number;
+ * <li>sums and products are flattened, so that nested sums (or products) are
+ *     treated as one sum (or product) of all their terms (or factors);
+ * <li>a product is a number coefficient, omitted if it is 1, times its other
+ *     factors, where equal factors are merged into one power (x*x is x^2), and
+ *     variables come first in alphabetical order; a product with coefficient
+ *     0 is 0, and a power of a product is the product of the powers;
+ * <li>a sum is its terms, in the order they first appear, followed by its
+ *     constant, omitted if it is 0; terms that differ only in their
+ *     coefficient are collected into one term (x + 2*x is 3*x);
+ * <li>e^0 is 1, e^1 is e, and a power of a power is one power.
+ * </ul>
+ * Products are not distributed over sums, and powers of sums are not expanded,
+ * so a simplified expression is never much larger than the original. For the
+ * same reason, a number, or a power of a number, is only folded if the
+ * coefficient it is folded into stays within MAX_FOLDED_DIGITS digits, and powers are only
+ * merged while the merged power fits in an int; otherwise they are left as
+ * they are.
+ */
+final class Simplifier {
+
+    /*
+     * Abstraction function:
+     *      AF(simplified) = one simplification pass, in which the expression e
+     *                       has already been simplified to simplified.get(e)
+     * Rep invariant:
+     *      - every key and value of simplified is interned, and every value is simplified
+     * Safety from rep exposure:
+     *      - simplified is private, and a Simplifier never leaves this class
+     */
+    private final Map<Expression, Expression> simplified = new HashMap<>();
+
+    /** Most digits a coefficient may have after a number, or a power of one, is folded into it. */
+    static final int MAX_FOLDED_DIGITS = 10_000;
+
+    /** Orders variables alphabetically, before all other factors. */
+    private static final Comparator<Expression> VARIABLES_FIRST = (left, right) -> {
+        if (left instanceof Variable){
+            return right instanceof Variable
+                    ? Character.compare(((Variable) left).value(), ((Variable) right).value())
+                    : -1;
+        }
+        return right instanceof Variable ? 1 : 0;
+    };
+
+    private Simplifier() {
+        // one per simplification pass
+    }
+
+    /**
+     * @param expression any expression
+     * @return the simplification of expression, as described above
+     */
+    static Expression simplify(Expression expression){
+        return new Simplifier().simplified(ExpressionFactory.intern(expression));
+    }
+
+    /**
+     * @param expression an interned expression
+     * @return the simplification of expression; every shared subexpression is
+     *         only simplified once
+     */
+    private Expression simplified(Expression expression){
+        Expression result = simplified.get(expression);
+        if (result == null){
+            result = simplifyNode(expression);
+            simplified.put(expression, result);
+        }
+        return result;
+    }
+
+    /**
+     * @param expression an interned expression
+     * @return the simplification of expression
+     */
+    private Expression simplifyNode(Expression expression){
+        if (expression instanceof Plus){
+            final Plus plus = (Plus) expression;
+            final Sum sum = new Sum();
+            sum.add(simplified(plus.left()));
+            sum.add(simplified(plus.right()));
+            return sum.build();
+        } else if (expression instanceof Times){
+            final Times times = (Times) expression;
+            final Product product = new Product();
+            product.multiply(simplified(times.left()), 1);
+            product.multiply(simplified(times.right()), 1);
+            return product.build();
+        } else if (expression instanceof Exponent){
+            final Exponent exponent = (Exponent) expression;
+            final Product product = new Product();
+            product.multiply(simplified(exponent.base()), exponent.power());
+            return product.build();
+        }
+        return expression; //numbers and variables are already simple
+    }
+
+    /**
+     * @param value nonnegative number
+     * @return the interned Number with that value
+     */
+    private static Expression number(BigDecimal value){
+        return ExpressionFactory.number(value);
+    }
+
+    /**
+     * @param value nonzero number
+     * @param power positive power
+     * @return an upper bound on the number of digits of value^power written
+     *         out by toPlainString(), computed without raising value to power
+     */
+    static double plainDigits(BigDecimal value, int power){
+        final BigInteger unscaled = value.unscaledValue().abs();
+        final double log10 = unscaled.bitLength() < Double.MAX_EXPONENT
+                ? Math.log10(unscaled.doubleValue())
+                : unscaled.bitLength() * Math.log10(2);
+        // the scale of value^power is power times the scale of value, and
+        // toPlainString() writes every digit of it, even leading or trailing zeros
+        return (double) power * (log10 + Math.abs(value.scale())) + 1;
+    }
+
+    /**
+     * A product being built up from simplified factors.
+     */
+    private static final class Product {
+
+        /*
+         * Abstraction function:
+         *      AF(coefficient, powers) = coefficient times the product of
+         *                                base^powers.get(base) over all bases
+         * Rep invariant:
+         *      - coefficient is nonnegative
+         *      - every base is simplified, and is not a Times; it is a Number only
+         *        if folding it into coefficient would exceed MAX_FOLDED_DIGITS,
+         *        and an Exponent only if its power could not be merged into an int
+         *      - every power is positive
+         */
+        private BigDecimal coefficient = BigDecimal.ONE;
+        private final Map<Expression, Integer> powers = new LinkedHashMap<>();
+
+        /**
+         * Multiply this product by factor^power.
+         * @param factor simplified expression
+         * @param power nonnegative power
+         */
+        void multiply(Expression factor, int power){
+            if (power == 0){
+                return;
+            }
+            if (factor instanceof Number){
+                final BigDecimal value = ((Number) factor).value();
+                if (coefficient.signum() == 0 || value.compareTo(BigDecimal.ONE) == 0){
+                    return; // folding it would not change coefficient
+                } else if (value.signum() == 0
+                        || plainDigits(value, power) + coefficient.precision() + Math.abs(coefficient.scale())
+                                <= MAX_FOLDED_DIGITS){
+                    coefficient = coefficient.multiply(value.pow(power));
+                } else {
+                    multiplyBase(factor, power);
+                }
+            } else if (factor instanceof Times){
+                final Times times = (Times) factor;
+                multiply(times.left(), power);
+                multiply(times.right(), power);
+            } else if (factor instanceof Exponent){
+                final Exponent exponent = (Exponent) factor;
+                final long merged = (long) exponent.power() * power;
+                if (merged <= Integer.MAX_VALUE){
+                    multiply(exponent.base(), (int) merged);
+                } else {
+                    multiplyBase(factor, power);
+                }
+            } else {
+                multiplyBase(factor, power);
+            }
+        }
+
+        /**
+         * Multiply this product by base^power, merging it with the power of
+         * base already in this product unless the merged power would overflow
+         * an int, in which case base^power is kept as a base of its own.
+         * @param base simplified expression that may be a base of this product
+         * @param power positive power
+         */
+        private void multiplyBase(Expression base, int power){
+            final Integer old = powers.get(base);
+            if (old == null){
+                powers.put(base, power);
+            } else if ((long) old + power <= Integer.MAX_VALUE){
+                powers.put(base, old + power);
+            } else {
+                multiplyBase(Expression.power(base, power), 1);
+            }
+        }
+
+        /**
+         * @return this product without its coefficient, as a simplified
+         *         expression; 1 if it has no other factors
+         */
+        Expression monomial(){
+            final List<Expression> bases = new ArrayList<>(powers.keySet());
+            bases.sort(VARIABLES_FIRST);
+            Expression monomial = null;
+            for (Expression base : bases){
+                final int power = powers.get(base);
+                final Expression factor = power == 1 ? base : Expression.power(base, power);
+                monomial = monomial == null ? factor : Expression.times(monomial, factor);
+            }
+            return monomial == null ? Expression.make("1") : monomial;
+        }
+
+        /**
+         * @return this product as a simplified expression
+         */
+        Expression build(){
+            if (coefficient.signum() == 0 || powers.isEmpty()){
+                return number(coefficient);
+            }
+            final Expression monomial = monomial();
+            return coefficient.compareTo(BigDecimal.ONE) == 0
+                    ? monomial
+                    : Expression.times(number(coefficient), monomial);
+        }
+    }
+
+    /**
+     * A sum being built up from simplified terms.
+     */
+    private static final class Sum {
+
+        /*
+         * Abstraction function:
+         *      AF(constant, coefficients) = constant plus the sum of
+         *                                   coefficients.get(m)*m over all monomials m
+         * Rep invariant:
+         *      - constant is nonnegative, and every coefficient is positive
+         *      - every monomial is simplified, and is neither a Number, a Plus,
+         *        nor a Times whose left is a Number
+         */
+        private BigDecimal constant = BigDecimal.ZERO;
+        private final Map<Expression, BigDecimal> coefficients = new LinkedHashMap<>();
+
+        /**
+         * Add a term to this sum.
+         * @param term simplified expression
+         */
+        void add(Expression term){
+            if (term instanceof Number){
+                constant = constant.add(((Number) term).value());
+            } else if (term instanceof Plus){
+                final Plus plus = (Plus) term;
+                add(plus.left());
+                add(plus.right());
+            } else if (term instanceof Times && ((Times) term).left() instanceof Number){
+                //a simplified product with a coefficient other than 1
+                final Times times = (Times) term;
+                coefficients.merge(times.right(), ((Number) times.left()).value(), BigDecimal::add);
+            } else {
+                coefficients.merge(term, BigDecimal.ONE, BigDecimal::add);
+            }
+        }
+
+        /**
+         * @return this sum as a simplified expression
+         */
+        Expression build(){
+            Expression sum = null;
+            for (Map.Entry<Expression, BigDecimal> entry : coefficients.entrySet()){
+                final BigDecimal coefficient = entry.getValue();
+                final Expression term = coefficient.compareTo(BigDecimal.ONE) == 0
+                        ? entry.getKey()
+                        : Expression.times(number(coefficient), entry.getKey());
+                sum = sum == null ? term : Expression.add(sum, term);
+            }
+            if (sum == null){
+                return number(constant);
+            }
+            return constant.signum() == 0 ? sum : Expression.add(sum, number(constant));
+        }
+    }
+}
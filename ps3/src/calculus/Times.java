@@ -13,7 +13,9 @@ class Times implements Expression {
      *      AF(left, right) = the expression representing the product of left and right; 
      *                        left * right
      * Rep invariant:
-     *      - true
+     *      - hash is the hash code of left and right, as computed by hash()
+     *      - if interned, this is the only interned Times of its structure, and
+     *        left and right are interned (see ExpressionFactory)
      *      
      * Safety from rep exposure:
      *      - all fields are immutable and final
@@ -21,14 +23,56 @@ class Times implements Expression {
      *        does not expose rep because Expression objects are immutable and final.
      */
     private final Expression left, right;
+    private final int hash;
+    private final boolean interned;
 
     /** Make a Times which is the product of left and right. 
      * @param left left-side expression of product
      * @param right right-side expression of product
      */
     public Times(Expression left, Expression right) {
+        this(left, right, false);
+    }
+
+    /** Make a Times which is the product of left and right.
+     * @param left left-side expression of product
+     * @param right right-side expression of product
+     * @param interned true only for the node that ExpressionFactory interns
+     */
+    Times(Expression left, Expression right, boolean interned) {
         this.left = left;
         this.right = right;
+        this.hash = hash(left, right);
+        this.interned = interned;
+    }
+
+    /**
+     * @return hash code of a product of left and right, which depends on the
+     *         order of its arguments, like equals()
+     */
+    private static int hash(Expression left, Expression right){
+        return 31 * (31 * Times.class.hashCode() + left.hashCode()) + right.hashCode();
+    }
+
+    /**
+     * @return left-side expression of this product
+     */
+    Expression left(){
+        return left;
+    }
+
+    /**
+     * @return right-side expression of this product
+     */
+    Expression right(){
+        return right;
+    }
+
+    /**
+     * @return true if this is the node of its structure interned by ExpressionFactory
+     */
+    boolean isInterned(){
+        return interned;
     }
 
     /**
@@ -39,11 +83,7 @@ class Times implements Expression {
      */
     @Override 
     public Expression differentiate(char variable) {
-        Expression leftDerivative = left.differentiate(variable);
-        Expression leftSide = Expression.times(right, leftDerivative);
-        Expression rightDerivative = right.differentiate(variable);
-        Expression rightSide = Expression.times(left, rightDerivative);
-        return Expression.add(leftSide, rightSide);
+        return Differentiator.differentiate(this, variable);
     }
 
     @Override
@@ -58,7 +98,7 @@ class Times implements Expression {
     public Expression numberify(Map<String,BigDecimal> environment) {
         Expression leftNumberified = left.numberify(environment);
         Expression rightNumberified = right.numberify(environment);
-        return new Times(leftNumberified, rightNumberified);
+        return Expression.times(leftNumberified, rightNumberified);
     }
 
     @Override
@@ -86,12 +126,15 @@ class Times implements Expression {
      * are .equals(), and their right Expressions are .equals(),
      * false otherwise
      * Note: this means that if two Times objects have flipped left/right
-     * arguments, they will NOT be considered equivalent
+     * arguments, they will NOT be considered equivalent.
+     * Two interned Times objects are only equivalent if they are the same object.
      */
     @Override
     public boolean equals(Object thatObject){
+        if (this == thatObject) return true;
         if (!(thatObject instanceof Times)) return false;
         Times thatTimes = (Times) thatObject;
+        if ((interned && thatTimes.interned) || hash != thatTimes.hash) return false;
         boolean leftEquals = left.equals(thatTimes.left);
         boolean rightEquals = right.equals(thatTimes.right);
         return leftEquals && rightEquals;
@@ -99,7 +142,7 @@ class Times implements Expression {
 
     @Override
     public int hashCode(){
-        return left.hashCode() + right.hashCode();
+        return hash;
     }
 
 
@@ -0,0 +1,19 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package calculus;
+
+/**
+ * Indicates that a string does not match the expression grammar of
+ * {@link ExpressionParser}.
+ */
+public class UnableToParseException extends Exception {
+    private static final long serialVersionUID = 1;
+
+    /**
+     * @param message description of the parse error and where it occurred
+     */
+    public UnableToParseException(String message) {
+        super(message);
+    }
+}
@@ -13,6 +13,8 @@ class Variable implements Expression {
      *     - c is an alphabetical (A-Z, a-z) letter only.
      *     - c is a single letter; this is taken care of by the nature of a char,
      *       so does not need to be checked
+     *     - if interned, this is the only interned Variable of its letter
+     *       (see ExpressionFactory)
      *     
      * Safety from rep exposure:
      *     - all fields are immutable and final
@@ -21,14 +23,31 @@ class Variable implements Expression {
      */
     
     private final char c;
+    private final boolean interned;
    
     /** Make a Variable represented by char c. 
      * c must either be an upper case or lower case alphabetical character
      */
     public Variable(char c) {
+        this(c, false);
+    }
+
+    /** Make a Variable represented by char c.
+     * @param c an upper case or lower case alphabetical character
+     * @param interned true only for the node that ExpressionFactory interns
+     */
+    Variable(char c, boolean interned) {
         this.c = c;
+        this.interned = interned;
         checkRep();
     }
+
+    /**
+     * @return true if this is the node of its letter interned by ExpressionFactory
+     */
+    boolean isInterned(){
+        return interned;
+    }
     
     /**
      * Checks that the rep invariant holds.
@@ -58,7 +77,7 @@ class Variable implements Expression {
         //otherwise, it cannot and we must return original variable
         if (canEvaluate(environment)){
             String bigDecimalValue = environment.get(cString).toString();
-            return new Number(bigDecimalValue);
+            return Expression.make(bigDecimalValue);
         }
         return this;
     }
@@ -87,9 +106,9 @@ class Variable implements Expression {
     @Override 
     public Expression differentiate(char variable) {
         if (this.c == variable){
-            return new Number("1");
+            return Expression.make("1");
         }
-        return new Number("0");
+        return Expression.make("0");
     }
 
     /**
@@ -107,7 +126,7 @@ class Variable implements Expression {
     
     @Override
     public int hashCode(){
-        return new Character(c).hashCode();
+        return Character.hashCode(c);
     }
 
 }
@@ -0,0 +1,340 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package calculus;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for CalculusServer.
+ */
+public class CalculusServerTest {
+
+    /*
+     * Testing strategy for CalculusServerTest:
+     * ==============================================================
+     * inputs of one connection:
+     *      - an expression, !d/d, !eval with all and some variables assigned
+     *      - a command before any expression, an invalid expression, an invalid command
+     *      - an empty line, the end of input
+     *      - a line of MAX_LINE_LENGTH, > MAX_LINE_LENGTH characters; ended by \n, \r\n
+     *      - !eval whose value has <= MAX_EVALUATED_DIGITS, > MAX_EVALUATED_DIGITS digits,
+     *        !eval assigning a value of > MAX_EVALUATED_DIGITS digits,
+     *        partial !eval whose bound subexpressions have <= MAX_EVALUATED_DIGITS,
+     *        > MAX_EVALUATED_DIGITS digits
+     * pipelining:
+     *      - inputs sent one at a time, waiting for each output
+     *      - more than PIPELINE_DEPTH inputs sent before reading any output
+     *      - inputs of more than MAX_PENDING_CHARACTERS characters together sent
+     *        before reading any output
+     *      - !eval commands between commands that change the current expression
+     * connections:
+     *      - 1, > 1 connections at once, each with its own current expression
+     *      - a connection made while maxSessions connections are open
+     * ==============================================================
+     */
+
+    private static final String LOCALHOST = "127.0.0.1";
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    /**
+     * Start a server on a free port.
+     * @param workers number of threads that handle inputs
+     * @param maxSessions most connections open at once
+     * @return the server, which serves on its own thread until closed
+     * @throws IOException if the server cannot be started
+     */
+    private static CalculusServer startServer(int workers, int maxSessions) throws IOException {
+        final CalculusServer server = new CalculusServer(0, workers, maxSessions);
+        final Thread serverThread = new Thread(() -> {
+            try {
+                server.serve();
+            } catch (IOException ioe) {
+                // the server was closed
+            }
+        });
+        serverThread.setDaemon(true);
+        serverThread.start();
+        return server;
+    }
+
+    /**
+     * Connect to a server.
+     * @param server server to connect to
+     * @return socket connected to server
+     * @throws IOException if the connection fails
+     */
+    private static Socket connect(CalculusServer server) throws IOException {
+        final Socket socket = new Socket(LOCALHOST, server.getPort());
+        socket.setSoTimeout(5000);
+        return socket;
+    }
+
+    //covers case where inputs are sent one at a time: an expression, !d/d,
+    //           !eval with all and some variables assigned, an empty line
+    @Test(timeout = 10000)
+    public void testOneConnection() throws IOException {
+        final CalculusServer server = startServer(2, 10);
+        try (Socket socket = connect(server)) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+
+            out.println("x * x * y");
+            assertEquals("((x)*(x))*(y)", in.readLine());
+            out.println("!d/dx");
+            assertEquals(Commands.differentiate("x * x * y", "x"), in.readLine());
+            out.println("!eval x=3 y=2");
+            assertEquals("12", in.readLine());
+            out.println("!eval x=3");
+            assertEquals("(6)*(y)", in.readLine());
+            out.println("!d/dy");
+            assertEquals("(2)*(x)", in.readLine());
+            out.println("");
+            assertNull("expected the connection to end", in.readLine());
+        } finally {
+            server.close();
+        }
+    }
+
+    //covers case where a command comes before any expression, an invalid
+    //           expression, an invalid command, the end of input
+    @Test(timeout = 10000)
+    public void testErrors() throws IOException {
+        final CalculusServer server = startServer(2, 10);
+        try (Socket socket = connect(server)) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+
+            out.println("!d/dx");
+            assertEquals("must enter an expression before using this command", in.readLine());
+            out.println("x + ");
+            assertTrue("expected a parse error", in.readLine().startsWith(IllegalArgumentException.class.getName()));
+            out.println("x + 1");
+            assertEquals("(x)+(1)", in.readLine());
+            out.println("!d/d7");
+            assertTrue("expected a usage error", in.readLine().contains("usage"));
+            out.println("!eval x=2");
+            assertEquals("the current expression should not have changed", "3", in.readLine());
+            socket.shutdownOutput();
+            assertNull("expected the connection to end", in.readLine());
+        } finally {
+            server.close();
+        }
+    }
+
+    //covers case where a line has MAX_LINE_LENGTH, > MAX_LINE_LENGTH characters,
+    //           lines are ended by \n, \r\n
+    @Test(timeout = 10000)
+    public void testLineTooLong() throws IOException {
+        final CalculusServer server = startServer(2, 10);
+        try (Socket socket = connect(server)) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+
+            out.print("y\r\n");
+            out.flush();
+            assertEquals("y", in.readLine());
+            final StringBuilder tooLong = new StringBuilder("x");
+            while (tooLong.length() <= CalculusServer.MAX_LINE_LENGTH){
+                tooLong.append("+x");
+            }
+            out.print(tooLong + "\r\n");
+            out.flush();
+            assertEquals(CalculusServer.LINE_TOO_LONG_MESSAGE, in.readLine());
+            out.println("!d/dy");
+            assertEquals("the current expression should not have changed", "1", in.readLine());
+            final StringBuilder longest = new StringBuilder("!eval");
+            while (longest.length() < CalculusServer.MAX_LINE_LENGTH){
+                longest.append(' ');
+            }
+            out.println(longest);
+            assertEquals("1", in.readLine());
+            socket.shutdownOutput();
+            assertNull("expected the connection to end", in.readLine());
+        } finally {
+            server.close();
+        }
+    }
+
+    //covers case where !eval has a value of <= MAX_EVALUATED_DIGITS, > MAX_EVALUATED_DIGITS digits,
+    //           !eval assigns a value of > MAX_EVALUATED_DIGITS digits
+    @Test(timeout = 10000)
+    public void testEvaluationTooLarge() throws IOException {
+        final CalculusServer server = startServer(1, 10);
+        try (Socket socket = connect(server)) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+
+            out.println("(x + 1)^2000000 + y");
+            assertEquals("(((x)+(1))^2000000)+(y)", in.readLine());
+            out.println("!eval x=2 y=1");
+            assertEquals("expected a size error", Session.error(new ArithmeticException(
+                    "value has more than " + Session.MAX_EVALUATED_DIGITS + " digits")), in.readLine());
+            out.println("!eval x=0 y=1e999999999");
+            assertEquals("expected a size error", Session.error(new IllegalArgumentException(
+                    "value of y has more than " + Session.MAX_EVALUATED_DIGITS + " digits")), in.readLine());
+            out.println("x^1000");
+            assertEquals("(x)^1000", in.readLine());
+            out.println("!eval x=2");
+            assertEquals(BigDecimal.valueOf(2).pow(1000).toPlainString(), in.readLine());
+            out.println("!eval x=1e99999");
+            assertEquals("expected a size error", Session.error(new ArithmeticException(
+                    "value has more than " + Session.MAX_EVALUATED_DIGITS + " digits")), in.readLine());
+        } finally {
+            server.close();
+        }
+    }
+
+    //covers case where a partial !eval has bound subexpressions of <= MAX_EVALUATED_DIGITS,
+    //           > MAX_EVALUATED_DIGITS digits
+    @Test(timeout = 10000)
+    public void testPartialEvaluationTooLarge() throws IOException {
+        final CalculusServer server = startServer(1, 10);
+        try (Socket socket = connect(server)) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+
+            out.println("x*x*x*x*x*y");
+            assertEquals("(((((x)*(x))*(x))*(x))*(x))*(y)", in.readLine());
+            final StringBuilder large = new StringBuilder("1");
+            while (large.length() < Session.MAX_EVALUATED_DIGITS / 2){
+                large.append('7');
+            }
+            out.println("!eval x=" + large);
+            assertEquals("expected a size error", Session.error(new ArithmeticException(
+                    "value has more than " + Session.MAX_EVALUATED_DIGITS + " digits")), in.readLine());
+            out.println("!eval x=2");
+            assertEquals("(32)*(y)", in.readLine());
+            out.println("x*y + x");
+            assertEquals("((x)*(y))+(x)", in.readLine());
+            out.println("!eval x=" + large);
+            assertEquals("a value too large to fold should stay a factor",
+                    "((y)*(" + large + "))+(" + large + ")", in.readLine());
+        } finally {
+            server.close();
+        }
+    }
+
+    //covers case where more than PIPELINE_DEPTH inputs are sent before reading any output,
+    //           !eval commands between commands that change the current expression
+    @Test(timeout = 10000)
+    public void testPipelining() throws IOException {
+        final CalculusServer server = startServer(4, 10);
+        try (Socket socket = connect(server)) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), false);
+
+            final int rounds = 2 * CalculusServer.PIPELINE_DEPTH;
+            for (int i = 0; i < rounds; i++){
+                out.println("x^3 + " + i);
+                out.println("!eval x=" + i);
+                out.println("!d/dx");
+                out.println("!eval x=2");
+            }
+            out.println("");
+            out.flush();
+            for (int i = 0; i < rounds; i++){
+                assertEquals("expression " + i + " not as expected", "((x)^3)+(" + i + ")", in.readLine());
+                assertEquals("value " + i + " not as expected", Integer.toString(i * i * i + i), in.readLine());
+                assertEquals("derivative " + i + " not as expected", "(3)*((x)^2)", in.readLine());
+                assertEquals("derivative value " + i + " not as expected", "12", in.readLine());
+            }
+            assertNull("expected the connection to end", in.readLine());
+        } finally {
+            server.close();
+        }
+    }
+
+    //covers case where inputs of more than MAX_PENDING_CHARACTERS characters together
+    //           are sent before reading any output
+    @Test(timeout = 10000)
+    public void testPipeliningLongLines() throws IOException {
+        final CalculusServer server = startServer(2, 10);
+        try (Socket socket = connect(server)) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+            PrintWriter out = new PrintWriter(socket.getOutputStream(), false);
+
+            final StringBuilder longest = new StringBuilder("!eval");
+            while (longest.length() < CalculusServer.MAX_LINE_LENGTH){
+                longest.append(' ');
+            }
+            final int lines = 2 * CalculusServer.MAX_PENDING_CHARACTERS / CalculusServer.MAX_LINE_LENGTH;
+            for (int i = 0; i < lines; i++){
+                out.println(longest);
+            }
+            out.println("");
+            out.flush();
+            for (int i = 0; i < lines; i++){
+                assertEquals("output " + i + " not as expected",
+                        "must enter an expression before using this command", in.readLine());
+            }
+            assertNull("expected the connection to end", in.readLine());
+        } finally {
+            server.close();
+        }
+    }
+
+    //covers case where > 1 connections are open at once, each with its own current expression
+    @Test(timeout = 10000)
+    public void testManyConnections() throws IOException {
+        final CalculusServer server = startServer(2, 50);
+        final List<Socket> sockets = new ArrayList<>();
+        try {
+            final int connections = 20;
+            for (int i = 0; i < connections; i++){
+                Socket socket = connect(server);
+                sockets.add(socket);
+                PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+                out.println("x * " + i);
+            }
+            for (int i = 0; i < connections; i++){
+                BufferedReader in = new BufferedReader(new InputStreamReader(sockets.get(i).getInputStream()));
+                PrintWriter out = new PrintWriter(sockets.get(i).getOutputStream(), true);
+                assertEquals("expression " + i + " not as expected", "(x)*(" + i + ")", in.readLine());
+                out.println("!eval x=2");
+                assertEquals("value " + i + " not as expected", Integer.toString(2 * i), in.readLine());
+            }
+        } finally {
+            for (Socket socket : sockets){
+                socket.close();
+            }
+            server.close();
+        }
+    }
+
+    //covers case where a connection is made while maxSessions connections are open
+    @Test(timeout = 10000)
+    public void testBusy() throws IOException {
+        final CalculusServer server = startServer(1, 1);
+        try (Socket first = connect(server)) {
+            BufferedReader firstIn = new BufferedReader(new InputStreamReader(first.getInputStream()));
+            PrintWriter firstOut = new PrintWriter(first.getOutputStream(), true);
+            firstOut.println("y");
+            assertEquals("y", firstIn.readLine());
+            try (Socket second = connect(server)) {
+                BufferedReader secondIn = new BufferedReader(new InputStreamReader(second.getInputStream()));
+                assertEquals(CalculusServer.BUSY_MESSAGE, secondIn.readLine());
+                assertNull("expected the connection to end", secondIn.readLine());
+            }
+            firstOut.println("!d/dy");
+            assertEquals("the first connection should still be served", "1", firstIn.readLine());
+        } finally {
+            server.close();
+        }
+    }
+}
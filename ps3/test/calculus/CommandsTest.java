@@ -76,6 +76,7 @@ public class CommandsTest {
      *              - length = 0
      *              - length > 1
      *              - not a letter
+     *      - output is simplified; repeated differentiation stays small
      *    
      */
 
@@ -163,7 +164,7 @@ public class CommandsTest {
     public void testDifferentiatePlusVariableNotLeftNotRight(){
         String input = "G+232423";
         String actual = Commands.differentiate(input, "V");
-        String expected = "(0)+(0)";                
+        String expected = "0";                
         assertTrue("Differentiation was not as expected", actual.equals(expected));
     }
 
@@ -173,7 +174,7 @@ public class CommandsTest {
     public void testDifferentiatePlusVariableLeftNotRight(){
         String input = "G+232423";
         String actual = Commands.differentiate(input, "G");
-        String expected = "(1)+(0)";                
+        String expected = "1";                
         assertTrue("Differentiation was not as expected", actual.equals(expected));
     }
 
@@ -183,7 +184,7 @@ public class CommandsTest {
     public void testDifferentiatePlusVariableNotLeftRight(){
         String input = "232423+G";
         String actual = Commands.differentiate(input, "G");
-        String expected = "(0)+(1)";                
+        String expected = "1";                
         assertTrue("Differentiation was not as expected", actual.equals(expected));
     }
 
@@ -193,7 +194,7 @@ public class CommandsTest {
     public void testDifferentiatePlusVariableLeftOnlyRightMany(){
         String input = "(G+6)+(G+G)";
         String actual = Commands.differentiate(input, "G");
-        String expected = "((1)+(0))+((1)+(1))";             
+        String expected = "3";             
         assertTrue("Differentiation was not as expected", actual.equals(expected));
     }
 
@@ -203,7 +204,7 @@ public class CommandsTest {
     public void testDifferentiatePlusVariableRightOnlyLeftMany(){
         String input = "(G+G)+(G+6)";
         String actual = Commands.differentiate(input, "G");
-        String expected = "((1)+(1))+((1)+(0))";                           
+        String expected = "3";                           
         assertTrue("Differentiation was not as expected", actual.equals(expected));
     }
 
@@ -213,7 +214,7 @@ public class CommandsTest {
     public void testDifferentiateTimesVariableNotLeftNotRight(){
         String input = "232423*G"; 
         String actual = Commands.differentiate(input, "a");
-        String expected = "((G)*(0))+((232423)*(0))"; 
+        String expected = "0"; 
         assertTrue("Differentiation was not as expected", actual.equals(expected));
     }
 
@@ -223,7 +224,7 @@ public class CommandsTest {
     public void testDifferentiateTimesVariableLeftNotRight(){
         String input = "G*232423.1111"; 
         String actual = Commands.differentiate(input, "G");
-        String expected = "((232423.1111)*(1))+((G)*(0))"; 
+        String expected = "232423.1111"; 
         assertTrue("Differentiation was not as expected", actual.equals(expected));  
     }
 
@@ -233,7 +234,7 @@ public class CommandsTest {
     public void testDifferentiateTimesVariableNotLeftRight(){
         String input = "232423.1111*G"; 
         String actual = Commands.differentiate(input, "G");
-        String expected = "((G)*(0))+((232423.1111)*(1))"; 
+        String expected = "232423.1111"; 
         assertTrue("Differentiation was not as expected", actual.equals(expected));
     }
 
@@ -243,7 +244,7 @@ public class CommandsTest {
     public void testDifferentiateTimesVariableLeftOnlyRightMany(){
         String input = "(G*6)*(G*G)"; 
         String actual = Commands.differentiate(input, "G");
-        String expected = "(((G)*(G))*(((6)*(1))+((G)*(0))))+(((G)*(6))*(((G)*(1))+((G)*(1))))"; 
+        String expected = "(18)*((G)^2)"; 
         assertTrue("Differentiation was not as expected", actual.equals(expected));
     }
 
@@ -253,7 +254,7 @@ public class CommandsTest {
     public void testDifferentiateTimesVariableRightOnlyLeftMany(){
         String input = "(G*G)*(G*6)"; 
         String actual = Commands.differentiate(input, "G");
-        String expected = "(((G)*(6))*(((G)*(1))+((G)*(1))))+(((G)*(G))*(((6)*(1))+((G)*(0))))";    
+        String expected = "(18)*((G)^2)";    
         assertTrue("Differentiation was not as expected", actual.equals(expected));
     }
 
@@ -262,12 +263,12 @@ public class CommandsTest {
     public void testDifferentiateExponentVariableNotBase(){
         String input = "Z^31"; 
         String actual = Commands.differentiate(input, "a");
-        String expected = "((31)*((Z)^30))*(0)";    
+        String expected = "0";    
         assertTrue("Differentiation was not as expected", actual.equals(expected));
 
         String inputTwo = "(Z*p)^31"; 
         String actualTwo = Commands.differentiate(inputTwo, "a");
-        String expectedTwo = "((31)*(((Z)*(p))^30))*(((p)*(0))+((Z)*(0)))";    
+        String expectedTwo = "0";    
         assertTrue("Differentiation was not as expected"+actualTwo, actualTwo.equals(expectedTwo));
     }
 
@@ -277,12 +278,12 @@ public class CommandsTest {
     public void testDifferentiateExponentVariableOnlyBase(){
         String input = "w^31"; 
         String actual = Commands.differentiate(input, "w");
-        String expected = "((31)*((w)^30))*(1)";    
+        String expected = "(31)*((w)^30)";    
         assertTrue("Differentiation was not as expected", actual.equals(expected));
 
         String inputTwo = "(Z*Z)^31"; 
         String actualTwo = Commands.differentiate(inputTwo, "Z");
-        String expectedTwo = "((31)*(((Z)*(Z))^30))*(((Z)*(1))+((Z)*(1)))";    
+        String expectedTwo = "(62)*((Z)^61)";    
         assertTrue("Differentiation was not as expected", actualTwo.equals(expectedTwo));
     }
 
@@ -291,12 +292,12 @@ public class CommandsTest {
     public void testDifferentiateExponentVariablesManyBase(){
         String input = "(Z*A)^31^2"; 
         String actual = Commands.differentiate(input, "w");
-        String expected = "((2)*((((Z)*(A))^31)^1))*(((31)*(((Z)*(A))^30))*(((A)*(0))+((Z)*(0))))";    
+        String expected = "0";    
         assertTrue("Differentiation was not as expected", actual.equals(expected));
 
         String inputTwo = "(Z*A)^31"; 
         String actualTwo = Commands.differentiate(inputTwo, "Z");
-        String expectedTwo = "((31)*(((Z)*(A))^30))*(((A)*(1))+((Z)*(0)))";    
+        String expectedTwo = "(31)*(((A)^31)*((Z)^30))";    
         assertTrue("Differentiation was not as expected", actualTwo.equals(expectedTwo));
     }
 
@@ -380,7 +381,7 @@ public class CommandsTest {
         environment.put("a", new BigDecimal("2"));
         environment.put("q", new BigDecimal("2"));
         String actual = Commands.evaluate(input, environment);
-        String expected = "((((2)+(2))+(2))+(1))+(g)";
+        String expected = "(g)+(7)";
         assertTrue("evaluated string not expected", actual.equals(expected));
     }
     
@@ -410,7 +411,7 @@ public class CommandsTest {
         environment.put("x", new BigDecimal("1"));
         environment.put("e", new BigDecimal("7"));
         String actual = Commands.evaluate(input, environment);
-        String expected = "((((a)+(2))+(q))+(1))+(g)";
+        String expected = "(((a)+(q))+(g))+(3)";
         assertTrue("evaluated string not expected", actual.equals(expected));
     }
     
@@ -424,7 +425,7 @@ public class CommandsTest {
         environment.put("a", new BigDecimal("2"));
         environment.put("q", new BigDecimal("6"));
         String actual = Commands.evaluate(input, environment);
-        String expected = "(((2)*(2))*(6))*((1)+(g))";
+        String expected = "(24)*((g)+(1))";
         assertTrue("evaluated string not expected"+actual, actual.equals(expected));
     }
     
@@ -454,7 +455,7 @@ public class CommandsTest {
         environment.put("x", new BigDecimal("1"));
         environment.put("e", new BigDecimal("7"));
         String actual = Commands.evaluate(input, environment);
-        String expected = "(((a)*((2)+(q)))*(1))*(g)";
+        String expected = "((a)*(g))*((q)+(2))";
         assertTrue("evaluated string not expected"+actual, actual.equals(expected));
     }
     
@@ -466,7 +467,7 @@ public class CommandsTest {
         String input = "a * (2 + q) * 1 * g"; 
         Map<String,BigDecimal> environment = new HashMap<>();
         String actual = Commands.evaluate(input, environment);
-        String expected = "(((a)*((2)+(q)))*(1))*(g)";
+        String expected = "((a)*(g))*((q)+(2))";
         assertTrue("evaluated string not expected", actual.equals(expected));
     }
     
@@ -480,7 +481,7 @@ public class CommandsTest {
         environment.put("a", new BigDecimal("2"));
         environment.put("q", new BigDecimal("6"));
         String actual = Commands.evaluate(input, environment);
-        String expected = "(((2)^2)*(6))+((g)^12)";
+        String expected = "((g)^12)+(24)";
         assertTrue("evaluated string not expected", actual.equals(expected));
     }
     
@@ -510,7 +511,7 @@ public class CommandsTest {
         environment.put("x", new BigDecimal("1"));
         environment.put("e", new BigDecimal("7"));
         String actual = Commands.evaluate(input, environment);
-        String expected = "(((a)*((q)^2))*(1))*((g)^8)";
+        String expected = "((a)*((g)^8))*((q)^2)";
         assertTrue("evaluated string not expected", actual.equals(expected));
     }
     
@@ -524,7 +525,7 @@ public class CommandsTest {
         environment.put("a", new BigDecimal("2"));
         environment.put("q", new BigDecimal("6"));
         String actual = Commands.evaluate(input, environment);
-        String expected = "(((2)+(2))*(6))*((1)+(g))";
+        String expected = "(24)*((g)+(1))";
         assertTrue("evaluated string not expected", actual.equals(expected));
     }
     
@@ -554,10 +555,24 @@ public class CommandsTest {
         environment.put("x", new BigDecimal("1"));
         environment.put("e", new BigDecimal("7"));
         String actual = Commands.evaluate(input, environment);
-        String expected = "((a)*((2)+(q)))*((1)+(g))";
+        String expected = "((a)*((q)+(2)))*((g)+(1))";
         assertTrue("evaluated string not expected", actual.equals(expected));
     }
     
+    //covers case output is simplified; repeated differentiation stays small
+    @Test
+    public void testDifferentiateRepeatedStaysSimplified(){
+        String derivative = "x^5 + 3*x*x*y + x*y";
+        derivative = Commands.differentiate(derivative, "x");
+        assertEquals("first derivative not as expected", "(((5)*((x)^4))+((6)*((x)*(y))))+(y)", derivative);
+        derivative = Commands.differentiate(derivative, "x");
+        assertEquals("second derivative not as expected", "((20)*((x)^3))+((6)*(y))", derivative);
+        for (int i = 0; i < 4; i++){
+            derivative = Commands.differentiate(derivative, "x");
+        }
+        assertEquals("sixth derivative not as expected", "0", derivative);
+    }
+
     //covers case expression is invalid
     @Test(expected=IllegalArgumentException.class)
     public void testEvaluateInvalidExpression(){
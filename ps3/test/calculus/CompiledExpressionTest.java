@@ -0,0 +1,400 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package calculus;
+
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+/**
+ * Tests for CompiledExpression.
+ */
+public class CompiledExpressionTest {
+
+    /*
+     * Testing strategy for CompiledExpressionTest:
+     * ==============================================================
+     * CompiledExpression.compile(Expression expression), Expression.compile():
+     *      - expression is a number, a variable, a sum, a product, an exponent
+     *      - expression has 0, 1, > 1 variables
+     *      - expression has shared subexpressions
+     *      - expression was made with the variants' constructors
+     * variables(), slot(char variable):
+     *      - variable is in the expression, is not in the expression
+     *      - upper case and lower case variables
+     * evaluate(double... values):
+     *      - values has exactly one element per variable, has more elements
+     *      - values has fewer elements than there are variables
+     *      - power is 0, 1, > 1
+     *      - result agrees with Expression.evaluate()
+     * evaluateBatch(Map<Character,double[]> columns, boolean parallel),
+     * evaluateBatch(Map<Character,BigDecimal[]> columns, MathContext context, boolean parallel):
+     *      - parallel is true, false
+     *      - 0, 1, many rows; more rows than fit in one block
+     *      - columns has exactly the variables, has extra columns, has an extra
+     *        column of a different length
+     *      - a column is missing, columns have different lengths
+     *      - context is MathContext.UNLIMITED, has limited precision
+     *      - result agrees with evaluate(double...) and Expression.evaluate() per row
+     * evaluate(Map<Character,BigDecimal> values, Backend backend, MathContext context):
+     *      - backend is EXACT, DOUBLE
+     *      - context is MathContext.UNLIMITED, has fewer digits than double precision
+     *        guarantees, has more
+     *      - an intermediate value overflows, underflows in double precision
+     *      - a value is too large, too small for a double
+     *      - a value is missing, negative
+     *      - result agrees with Expression.evaluate()
+     * evaluateAccurate(int digits, double... values),
+     * evaluateBatchAccurate(Map<Character,double[]> columns, int digits, boolean parallel):
+     *      - digits <= doubleDigits(), > doubleDigits()
+     *      - a value is 0, normal, negative, subnormal, infinite, NaN
+     *      - an intermediate value overflows, underflows, underflows and is raised to the power 0
+     *      - values has fewer elements than there are variables
+     *      - parallel is true, false; more rows than fit in one block
+     *      - result agrees with evaluate(double...) where it is in range,
+     *        batch result agrees with evaluateAccurate() per row
+     * ==============================================================
+     */
+
+    private static final double DELTA = 1e-9;
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    //covers case where expression is a number, has 0 variables
+    @Test
+    public void testCompileNumber(){
+        CompiledExpression compiled = Expression.make("6.031").compile();
+        assertEquals("expected no variables", Arrays.asList(), compiled.variables());
+        assertEquals("value not as expected", 6.031, compiled.evaluate(), DELTA);
+    }
+
+    //covers case where expression is a variable, has 1 variable,
+    //           variable is not in the expression
+    @Test
+    public void testCompileVariable(){
+        CompiledExpression compiled = Expression.make('x').compile();
+        assertEquals("expected one variable", Arrays.asList('x'), compiled.variables());
+        assertEquals("expected slot 0", 0, compiled.slot('x'));
+        assertEquals("expected no slot", -1, compiled.slot('y'));
+        assertEquals("value not as expected", 2.5, compiled.evaluate(2.5), DELTA);
+    }
+
+    //covers case where expression is a sum, product and exponent, has > 1 variables,
+    //           upper case and lower case variables
+    @Test
+    public void testCompileSlotsAlphabetical(){
+        CompiledExpression compiled = Expression.parse("y*x + X^2").compile();
+        assertEquals("variables not in slot order", Arrays.asList('X', 'x', 'y'), compiled.variables());
+        assertEquals("expected slot 0", 0, compiled.slot('X'));
+        assertEquals("expected slot 1", 1, compiled.slot('x'));
+        assertEquals("expected slot 2", 2, compiled.slot('y'));
+        assertEquals("value not as expected", 3*2 + 5*5, compiled.evaluate(5, 2, 3), DELTA);
+    }
+
+    //covers case where power is 0, 1, > 1
+    @Test
+    public void testCompilePowers(){
+        assertEquals("x^0 should be 1", 1, Expression.parse("x^0").compile().evaluate(7), DELTA);
+        assertEquals("x^1 should be x", 7, Expression.parse("x^1").compile().evaluate(7), DELTA);
+        assertEquals("x^13 not as expected", Math.pow(1.1, 13), Expression.parse("x^13").compile().evaluate(1.1), DELTA);
+        assertEquals("0^0 should be 1", 1, Expression.parse("0^0").compile().evaluate(), DELTA);
+    }
+
+    //covers case where expression has shared subexpressions, result agrees with Expression.evaluate()
+    @Test
+    public void testCompileSharedSubexpressions(){
+        Expression expression = Expression.parse("(x*y + 2) * (x + y)^2 * x + 3*y*x*y");
+        for (int i = 0; i < 6; i++){
+            expression = expression.differentiate('x');
+        }
+        CompiledExpression compiled = expression.compile();
+        assertTrue("shared subexpressions should be computed once: " + compiled,
+                compiled.registers() < expression.toString().length() / 10);
+
+        Map<String,BigDecimal> environment = new HashMap<>();
+        environment.put("x", new BigDecimal("1.25"));
+        environment.put("y", new BigDecimal("0.5"));
+        double expected = expression.numberify(environment).evaluate().doubleValue();
+        assertEquals("value not as expected", expected, compiled.evaluate(1.25, 0.5), Math.abs(expected) * DELTA);
+    }
+
+    //covers case where expression was made with the variants' constructors,
+    //           values has more elements than there are variables
+    @Test
+    public void testCompileConstructed(){
+        Expression expression = new Plus(new Times(new Variable('a'), new Number("4")), new Exponent(new Variable('a'), 2));
+        CompiledExpression compiled = expression.compile();
+        assertEquals("value not as expected", 3*4 + 3*3, compiled.evaluate(3, 100, 100), DELTA);
+    }
+
+    //covers case where parallel is false and true, many rows, more rows than fit in one block,
+    //           columns has extra columns, result agrees with evaluate(double...)
+    @Test
+    public void testEvaluateBatchDouble(){
+        CompiledExpression compiled = Expression.parse("3*x^4*y + 2*x*y*y + 7*x + y^3 + 5").compile();
+        int rows = 10_000;
+        double[] x = new double[rows];
+        double[] y = new double[rows];
+        for (int i = 0; i < rows; i++){
+            x[i] = i * 0.001;
+            y[i] = (rows - i) * 0.0007;
+        }
+        Map<Character,double[]> columns = new HashMap<>();
+        columns.put('x', x);
+        columns.put('y', y);
+        columns.put('z', new double[rows]);
+        for (boolean parallel : new boolean[] {false, true}){
+            double[] values = compiled.evaluateBatch(columns, parallel);
+            assertEquals("expected one value per row", rows, values.length);
+            for (int i = 0; i < rows; i++){
+                assertEquals("row " + i + " not as expected", compiled.evaluate(x[i], y[i]), values[i], 0);
+            }
+        }
+    }
+
+    //covers case where there are 0 and 1 rows, expression has no variables
+    @Test
+    public void testEvaluateBatchFewRows(){
+        CompiledExpression compiled = Expression.parse("x*x + 1").compile();
+        Map<Character,double[]> columns = new HashMap<>();
+        columns.put('x', new double[0]);
+        assertEquals("expected no rows", 0, compiled.evaluateBatch(columns, true).length);
+        columns.put('x', new double[] {3});
+        assertArrayEquals("one row not as expected", new double[] {10}, compiled.evaluateBatch(columns, false), 0);
+
+        Map<Character,double[]> other = new HashMap<>();
+        other.put('q', new double[] {1, 2});
+        assertArrayEquals("constant not as expected", new double[] {4, 4},
+                Expression.parse("2*2").compile().evaluateBatch(other, false), 0);
+    }
+
+    //covers case where context is MathContext.UNLIMITED and limited,
+    //           result agrees with Expression.evaluate()
+    @Test
+    public void testEvaluateBatchBigDecimal(){
+        Expression expression = Expression.parse("x^3 + 0.1*x*y + y");
+        CompiledExpression compiled = expression.compile();
+        int rows = 3000;
+        BigDecimal[] x = new BigDecimal[rows];
+        BigDecimal[] y = new BigDecimal[rows];
+        for (int i = 0; i < rows; i++){
+            x[i] = new BigDecimal(i).movePointLeft(2);
+            y[i] = new BigDecimal(rows - i).movePointLeft(1);
+        }
+        Map<Character,BigDecimal[]> columns = new HashMap<>();
+        columns.put('x', x);
+        columns.put('y', y);
+        for (boolean parallel : new boolean[] {false, true}){
+            BigDecimal[] exact = compiled.evaluateBatch(columns, MathContext.UNLIMITED, parallel);
+            BigDecimal[] rounded = compiled.evaluateBatch(columns, new MathContext(5), parallel);
+            for (int i = 0; i < rows; i += 97){
+                Map<String,BigDecimal> environment = new HashMap<>();
+                environment.put("x", x[i]);
+                environment.put("y", y[i]);
+                BigDecimal expected = expression.numberify(environment).evaluate();
+                assertEquals("exact row " + i + " not as expected", 0, expected.compareTo(exact[i]));
+                assertTrue("rounded row " + i + " should have 5 digits", rounded[i].precision() <= 5);
+                assertEquals("rounded row " + i + " not as expected", 0,
+                        expected.round(new MathContext(3)).compareTo(rounded[i].round(new MathContext(3))));
+            }
+        }
+    }
+
+    //covers case where a column is missing
+    @Test(expected=IllegalArgumentException.class)
+    public void testEvaluateBatchMissingColumn(){
+        Map<Character,double[]> columns = new HashMap<>();
+        columns.put('x', new double[] {1});
+        Expression.parse("x + y").compile().evaluateBatch(columns, false);
+    }
+
+    //covers case where columns have different lengths
+    @Test(expected=IllegalArgumentException.class)
+    public void testEvaluateBatchDifferentLengths(){
+        Map<Character,double[]> columns = new HashMap<>();
+        columns.put('x', new double[] {1});
+        columns.put('y', new double[] {1, 2});
+        Expression.parse("x + y").compile().evaluateBatch(columns, false);
+    }
+
+    //covers case where columns has an extra column of a different length
+    @Test(expected=IllegalArgumentException.class)
+    public void testEvaluateBatchExtraColumnDifferentLength(){
+        Map<Character,double[]> columns = new HashMap<>();
+        columns.put('x', new double[] {1});
+        columns.put('z', new double[] {1, 2});
+        Expression.parse("x * x").compile().evaluateBatch(columns, false);
+    }
+
+    //covers case where digits <= doubleDigits(), > doubleDigits(), a value is 0, normal,
+    //           negative, subnormal, infinite, NaN, result agrees with evaluate(double...)
+    @Test
+    public void testEvaluateAccurate(){
+        CompiledExpression compiled = Expression.parse("3*x^4*y + 2*x*y*y + 7*x + y^3 + 0.1").compile();
+        int digits = compiled.doubleDigits();
+        assertTrue("expected at least 10 digits in double precision: " + digits, digits >= 10);
+        assertEquals("normal values not as expected", compiled.evaluate(0.5, 2), compiled.evaluateAccurate(digits, 0.5, 2), 0);
+        assertEquals("zero value not as expected", compiled.evaluate(0, 2), compiled.evaluateAccurate(digits, 0, 2), 0);
+        assertTrue("too many digits should give NaN", Double.isNaN(compiled.evaluateAccurate(digits + 1, 0.5, 2)));
+        assertTrue("negative value should give NaN", Double.isNaN(compiled.evaluateAccurate(digits, -0.5, 2)));
+        assertTrue("subnormal value should give NaN", Double.isNaN(compiled.evaluateAccurate(digits, Double.MIN_VALUE, 2)));
+        assertTrue("infinite value should give NaN",
+                Double.isNaN(compiled.evaluateAccurate(digits, Double.POSITIVE_INFINITY, 2)));
+        assertTrue("NaN value should give NaN", Double.isNaN(compiled.evaluateAccurate(digits, Double.NaN, 2)));
+    }
+
+    //covers case where an intermediate value overflows, underflows, underflows and is raised to the power 0
+    @Test
+    public void testEvaluateAccurateRange(){
+        CompiledExpression compiled = Expression.parse("x^40 * y^40 + 1").compile();
+        assertEquals("in range not as expected", compiled.evaluate(2, 3), compiled.evaluateAccurate(5, 2, 3), 0);
+        assertTrue("overflow should give NaN", Double.isNaN(compiled.evaluateAccurate(5, 1e10, 2)));
+        assertTrue("underflow should give NaN", Double.isNaN(compiled.evaluateAccurate(5, 1e-10, 1e-10)));
+        CompiledExpression zeroPower = CompiledExpression.compile(new Exponent(new Times(new Variable('x'), new Variable('y')), 0));
+        assertTrue("power 0 of an underflow should give NaN", Double.isNaN(zeroPower.evaluateAccurate(5, 1e-200, 1e-200)));
+        assertEquals("power 0 in range not as expected", 1, zeroPower.evaluateAccurate(5, 2, 3), 0);
+    }
+
+    //covers case where values has fewer elements than there are variables
+    @Test(expected=IllegalArgumentException.class)
+    public void testEvaluateAccurateTooFewValues(){
+        Expression.parse("x + y").compile().evaluateAccurate(5, 1);
+    }
+
+    //covers case where parallel is true and false, more rows than fit in one block,
+    //           batch result agrees with evaluateAccurate() per row
+    @Test
+    public void testEvaluateBatchAccurate(){
+        CompiledExpression compiled = Expression.parse("x^40 * y^40 + (x*y)^0 + 0.5*x").compile();
+        double[] special = {0, -1, Double.MIN_VALUE, Double.POSITIVE_INFINITY, Double.NaN, 1e-10, 1e10};
+        int rows = 5000;
+        double[] x = new double[rows];
+        double[] y = new double[rows];
+        for (int i = 0; i < rows; i++){
+            x[i] = i % 3 == 0 ? special[i % special.length] : i * 0.001;
+            y[i] = i % 5 == 0 ? special[(i / 5) % special.length] : (rows - i) * 0.0007;
+        }
+        Map<Character,double[]> columns = new HashMap<>();
+        columns.put('x', x);
+        columns.put('y', y);
+        int digits = compiled.doubleDigits();
+        for (boolean parallel : new boolean[] {false, true}){
+            double[] values = compiled.evaluateBatchAccurate(columns, digits, parallel);
+            assertEquals("expected one value per row", rows, values.length);
+            for (int i = 0; i < rows; i++){
+                assertEquals("row " + i + " not as expected", compiled.evaluateAccurate(digits, x[i], y[i]), values[i], 0);
+            }
+            for (double value : compiled.evaluateBatchAccurate(columns, digits + 1, parallel)){
+                assertTrue("too many digits should give NaN", Double.isNaN(value));
+            }
+        }
+    }
+
+    /**
+     * @return the exact value of expression when x and y have the given values
+     */
+    private static BigDecimal exactValue(Expression expression, BigDecimal x, BigDecimal y){
+        Map<String,BigDecimal> environment = new HashMap<>();
+        environment.put("x", x);
+        environment.put("y", y);
+        return expression.numberify(environment).evaluate();
+    }
+
+    //covers case where backend is EXACT and DOUBLE, context has fewer digits than
+    //           double precision guarantees, result agrees with Expression.evaluate()
+    @Test
+    public void testEvaluateBackendsAgree(){
+        Expression expression = Expression.parse("3*x^4*y + 2*x*y*y + 7*x + y^3 + 0.1");
+        CompiledExpression compiled = expression.compile();
+        MathContext context = new MathContext(10);
+        assertTrue("expected at least 10 digits in double precision: " + compiled.doubleDigits(),
+                compiled.doubleDigits() >= 10);
+        for (int i = 0; i < 50; i++){
+            Map<Character,BigDecimal> values = new HashMap<>();
+            BigDecimal x = new BigDecimal(i).movePointLeft(1);
+            BigDecimal y = new BigDecimal(3 * i + 1).movePointLeft(2);
+            values.put('x', x);
+            values.put('y', y);
+            BigDecimal expected = exactValue(expression, x, y);
+            BigDecimal exact = compiled.evaluate(values, CompiledExpression.Backend.EXACT, context);
+            BigDecimal fast = compiled.evaluate(values, CompiledExpression.Backend.DOUBLE, context);
+            assertEquals("exact value not as expected", 0, expected.round(context).compareTo(exact));
+            assertTrue("fast value should have 10 digits", fast.precision() <= 10);
+            assertTrue("fast value not within 10 digits: " + fast + " vs " + expected,
+                    fast.subtract(expected).abs().compareTo(expected.movePointLeft(9)) < 0);
+        }
+    }
+
+    //covers case where context is MathContext.UNLIMITED, has more digits than double precision guarantees
+    @Test
+    public void testEvaluateDoubleFallsBackForPrecision(){
+        CompiledExpression compiled = Expression.parse("x + y").compile();
+        Map<Character,BigDecimal> values = new HashMap<>();
+        values.put('x', new BigDecimal("0.1"));
+        values.put('y', new BigDecimal("0.2"));
+        assertEquals("unlimited value should be exact", new BigDecimal("0.3"),
+                compiled.evaluate(values, CompiledExpression.Backend.DOUBLE, MathContext.UNLIMITED));
+        assertEquals("30-digit value should be exact", new BigDecimal("0.3"),
+                compiled.evaluate(values, CompiledExpression.Backend.DOUBLE, new MathContext(30)));
+        assertEquals("10-digit value not as expected", 0, new BigDecimal("0.3").compareTo(
+                compiled.evaluate(values, CompiledExpression.Backend.DOUBLE, new MathContext(10))));
+        assertTrue("x^1000000 should lose digits in double precision",
+                Expression.parse("x^1000000").compile().doubleDigits() < 12);
+        assertEquals("(x^2000000000)^2000000000 should not be accurate in double precision", 0,
+                Expression.parse("(x^2000000000)^2000000000").compile().doubleDigits());
+    }
+
+    //covers case where an intermediate value overflows and underflows in double precision
+    @Test
+    public void testEvaluateDoubleFallsBackForRange(){
+        CompiledExpression compiled = Expression.parse("x^40 * y^40 + 1").compile();
+        MathContext context = new MathContext(5);
+        Map<Character,BigDecimal> values = new HashMap<>();
+        values.put('x', new BigDecimal("1e10"));
+        values.put('y', new BigDecimal("2"));
+        assertEquals("overflowed value not as expected", 0, new BigDecimal("1.0995e412").compareTo(
+                compiled.evaluate(values, CompiledExpression.Backend.DOUBLE, context)));
+        values.put('x', new BigDecimal("1e-10"));
+        values.put('y', new BigDecimal("1e-10"));
+        assertEquals("underflowed product not as expected", 0, BigDecimal.ONE.compareTo(
+                compiled.evaluate(values, CompiledExpression.Backend.DOUBLE, context)));
+        values.put('y', new BigDecimal("1e-400"));
+        assertEquals("tiny value not as expected", 0, BigDecimal.ONE.compareTo(
+                compiled.evaluate(values, CompiledExpression.Backend.DOUBLE, context)));
+        values.put('y', new BigDecimal("1e400"));
+        assertEquals("huge value not as expected", 0, new BigDecimal("1e15600").compareTo(
+                compiled.evaluate(values, CompiledExpression.Backend.DOUBLE, context)));
+    }
+
+    //covers case where a value is missing
+    @Test(expected=IllegalArgumentException.class)
+    public void testEvaluateBackendMissingValue(){
+        Map<Character,BigDecimal> values = new HashMap<>();
+        values.put('x', BigDecimal.ONE);
+        Expression.parse("x + y").compile().evaluate(values, CompiledExpression.Backend.DOUBLE, MathContext.DECIMAL64);
+    }
+
+    //covers case where a value is negative
+    @Test(expected=IllegalArgumentException.class)
+    public void testEvaluateBackendNegativeValue(){
+        Map<Character,BigDecimal> values = new HashMap<>();
+        values.put('x', new BigDecimal("-1"));
+        Expression.parse("x * x").compile().evaluate(values, CompiledExpression.Backend.EXACT, MathContext.DECIMAL64);
+    }
+
+    //covers case where values has fewer elements than there are variables
+    @Test(expected=IllegalArgumentException.class)
+    public void testEvaluateTooFewValues(){
+        Expression.parse("x + y").compile().evaluate(1);
+    }
+}
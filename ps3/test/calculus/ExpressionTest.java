@@ -6,13 +6,17 @@ package calculus;
 import static org.junit.Assert.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.junit.Test;
 
-import lib6005.parser.Parser;
-
 /**
  * Tests for the Expression abstract data type.
  */
@@ -72,6 +76,7 @@ public class ExpressionTest {
      *              - exponents before multiplication, addition
      *              - multiplication before addition
      *         - Reading exercises 
+     *         - long inputs (thousands of terms, deep parentheses)
      * 
      *    --> is an invalid input:
      *         - is an empty string
@@ -95,9 +100,11 @@ public class ExpressionTest {
      *              - power is not a number, but not an integer
      *              - power is not a number
      *              - power is a negative number
+     *              - power does not fit in an int
      *         - has parentheses:
      *              - unbalanced parentheses (left only, right only, invalid)
      *              - empty parentheses ((()))
+     *              - nested deeper than ExpressionParser.MAX_NESTING
      *         - spacing
      *              - no argument between two numbers
      *              - no argument between number and variable
@@ -387,6 +394,36 @@ public class ExpressionTest {
      *          - is in the expression 1 time
      *          - is in the expression > 1 times
      *          
+     * ============================================================== 
+     * Hash-consing (Expression.make(), add(), times(), power()):
+     *      - structurally equal expressions made twice:
+     *          - number (including numerically equal, like 1.5 and 1.50), variable
+     *          - sum, product, exponent
+     *      - structurally different expressions (flipped arguments, different power)
+     *      - expression made with a variant's constructor vs. the same one made
+     *        by the creators: equal, same hashCode, and creators give the interned one
+     *      - the same expressions made by > 1 threads at once
+     *      - derivatives: repeated subexpressions are shared, high-order
+     *        derivatives of a product
+     * ============================================================== 
+     * Expression.simplify():
+     *      - constants: number only, constant sum, constant product, constant exponent
+     *      - identities: 0+e, e+0, 1*e, e*1, 0*e, e^0, e^1, (e^p)^q
+     *      - like terms: same monomial with different coefficients,
+     *        same variables in different order
+     *      - like factors: x*x, x*x^2, (2*x)^2
+     *      - nested sums and products are flattened
+     *      - sums of unlike terms and products with sum factors are left alone
+     *      - value is unchanged by simplification
+     *      - limits: merged power would overflow an int, folded constant
+     *        would exceed MAX_FOLDED_DIGITS, by a power or by a product of numbers
+     * ============================================================== 
+     * Memoized differentiation (Expression.differentiate(), Expression.gradient()):
+     *      - the same derivative taken twice is the same object
+     *      - variables: empty set, one variable, > 1 variables, a variable not in the expression
+     *      - gradient agrees with differentiate() by each variable, and is unmodifiable
+     *      - high-order derivatives and gradients of a large expression
+     *          
      */
 
 
@@ -395,11 +432,6 @@ public class ExpressionTest {
         assert false; // make sure assertions are enabled with VM argument: -ea
     }
 
-    @Test
-    public void testParserLibVersion() {
-        assertEquals("2.0.1", Parser.VERSION); // check the version of ParserLib
-    }     
-
 
     //--------------------------------TESTING FOR Expression.parse() BEGINS----------------------------------//
 
@@ -1235,6 +1267,62 @@ public class ExpressionTest {
     public void testParseInvalidReadingExample4(){
         Expression expression = Expression.parse("3^x");
     }
+
+    //covers case where power does not fit in an int
+    @Test(expected=IllegalArgumentException.class)
+    public void testParseInvalidPowerOverflow(){
+        Expression expression = Expression.parse("x^2147483648");
+    }
+
+    //covers case for long inputs with thousands of terms and deep parentheses
+    @Test
+    public void testParseLongInput(){
+        StringBuilder sum = new StringBuilder("x");
+        Expression expected = Expression.make('x');
+        for (int i = 1; i < 5000; i++){
+            sum.append(" + ").append(i).append("*x^2");
+            expected = Expression.add(expected, Expression.times(Expression.make(Integer.toString(i)), Expression.power(Expression.make('x'), 2)));
+        }
+        assertSame("long sum should be parsed left-associated", expected, Expression.parse(sum.toString()));
+
+        StringBuilder nested = new StringBuilder();
+        for (int i = 0; i < 500; i++){
+            nested.append('(');
+        }
+        nested.append("y");
+        for (int i = 0; i < 500; i++){
+            nested.append(')');
+        }
+        assertEquals("deep parentheses should be parsed", Expression.make('y'), Expression.parse(nested.toString()));
+    }
+
+    /**
+     * @return variable y inside depth pairs of parentheses
+     */
+    private static String nestedParentheses(int depth){
+        StringBuilder nested = new StringBuilder();
+        for (int i = 0; i < depth; i++){
+            nested.append('(');
+        }
+        nested.append("y");
+        for (int i = 0; i < depth; i++){
+            nested.append(')');
+        }
+        return nested.toString();
+    }
+
+    //covers case where parentheses are nested exactly ExpressionParser.MAX_NESTING deep
+    @Test
+    public void testParseMaxNesting(){
+        assertEquals("parentheses at the nesting limit should be parsed", Expression.make('y'),
+                Expression.parse(nestedParentheses(ExpressionParser.MAX_NESTING)));
+    }
+
+    //covers case where parentheses are nested deeper than ExpressionParser.MAX_NESTING
+    @Test(expected=IllegalArgumentException.class)
+    public void testParseInvalidTooDeep(){
+        Expression.parse(nestedParentheses(100000));
+    }
     //--------------------------------TESTING FOR Expression.parse() ENDS----------------------------------//
     //--------------------------------TESTING FOR NUMBER BEGINS----------------------------------//
     //covers case where n == 0
@@ -3691,6 +3779,300 @@ public class ExpressionTest {
 
     //--------------------------------TESTING FOR EXPONENT ENDS----------------------------------//
 
+    //--------------------------------TESTING FOR HASH-CONSING STARTS----------------------------------//
+
+    //covers case where structurally equal numbers and variables are made twice
+    @Test
+    public void testHashConsNumberAndVariable(){
+        assertSame("equal numbers should be the same object", Expression.make("6.031"), Expression.make("6.031"));
+        assertSame("numerically equal numbers should be the same object", Expression.make("1.5"), Expression.make("1.50"));
+        assertSame("equal variables should be the same object", Expression.make('x'), Expression.make('x'));
+        assertNotSame("different variables should not be the same object", Expression.make('x'), Expression.make('X'));
+    }
+
+    //covers case where structurally equal sums, products and exponents are made twice
+    @Test
+    public void testHashConsCompound(){
+        Expression sum = Expression.add(Expression.make('x'), Expression.make("2"));
+        Expression sumDuplicate = Expression.add(Expression.make('x'), Expression.make("2"));
+        assertSame("equal sums should be the same object", sum, sumDuplicate);
+
+        Expression product = Expression.times(sum, Expression.make('y'));
+        Expression productDuplicate = Expression.times(sumDuplicate, Expression.make('y'));
+        assertSame("equal products should be the same object", product, productDuplicate);
+
+        Expression exponent = Expression.power(product, 3);
+        Expression exponentDuplicate = Expression.power(productDuplicate, 3);
+        assertSame("equal exponents should be the same object", exponent, exponentDuplicate);
+    }
+
+    //covers case where structurally different expressions are made
+    @Test
+    public void testHashConsDifferent(){
+        Expression x = Expression.make('x');
+        Expression two = Expression.make("2");
+        assertNotSame("flipped sums should not be the same object", Expression.add(x, two), Expression.add(two, x));
+        assertFalse("flipped sums should not be equal", Expression.add(x, two).equals(Expression.add(two, x)));
+        assertFalse("flipped products should not be equal", Expression.times(x, two).equals(Expression.times(two, x)));
+        assertFalse("exponents with different powers should not be equal", Expression.power(x, 2).equals(Expression.power(x, 3)));
+        assertFalse("a sum and a product should not be equal", Expression.add(x, two).equals(Expression.times(x, two)));
+    }
+
+    //covers case where an expression is made with a variant's constructor
+    @Test
+    public void testHashConsConstructedEqualsInterned(){
+        Expression constructed = new Exponent(new Plus(new Variable('x'), new Number("2.0")), 2);
+        Expression interned = Expression.power(Expression.add(Expression.make('x'), Expression.make("2")), 2);
+        assertEquals("constructed and interned expressions should be equal", constructed, interned);
+        assertEquals("constructed and interned expressions should be equal", interned, constructed);
+        assertEquals("equal expressions should have same hashCode", interned.hashCode(), constructed.hashCode());
+        assertSame("creators should return the interned expression", interned,
+                Expression.power(new Plus(new Variable('x'), new Number("2")), 2));
+    }
+
+    //covers case where the same expressions are made by > 1 threads at once
+    @Test(timeout = 10000)
+    public void testHashConsConcurrent() throws InterruptedException {
+        final int threads = 4;
+        final int expressions = 2000;
+        final Expression[][] made = new Expression[threads][expressions];
+        final List<Thread> makers = new ArrayList<>();
+        for (int t = 0; t < threads; t++){
+            final Expression[] mine = made[t];
+            makers.add(new Thread(() -> {
+                for (int i = 0; i < expressions; i++){
+                    mine[i] = Expression.add(Expression.times(Expression.make('x'), Expression.make(Integer.toString(i))),
+                            Expression.power(Expression.make('y'), i));
+                }
+            }));
+        }
+        for (Thread maker : makers){
+            maker.start();
+        }
+        for (Thread maker : makers){
+            maker.join();
+        }
+        for (int i = 0; i < expressions; i++){
+            for (int t = 1; t < threads; t++){
+                assertSame("expression " + i + " should be the same object in every thread", made[0][i], made[t][i]);
+            }
+        }
+    }
+
+    //covers case where a derivative repeats a subexpression
+    @Test
+    public void testHashConsDerivativeShares(){
+        Expression x = Expression.make('x');
+        Expression derivative = Expression.times(x, x).differentiate('x');
+        assertTrue("derivative should be a sum", derivative instanceof Plus);
+        Plus sum = (Plus) derivative;
+        assertSame("both terms of d(x*x) should be the same object", sum.left(), sum.right());
+        assertSame("derivative should be interned", derivative, Expression.add(sum.left(), sum.right()));
+    }
+
+    //covers case where high-order derivatives of a product are taken
+    @Test(timeout = 10000)
+    public void testHashConsHighOrderDerivative(){
+        Expression expression = Expression.times(Expression.times(Expression.make('x'), Expression.make('y')),
+                Expression.power(Expression.add(Expression.make('x'), Expression.make("1")), 3));
+        Expression derivative = expression;
+        for (int i = 0; i < 10; i++){
+            derivative = derivative.differentiate('x');
+        }
+        Expression again = expression;
+        for (int i = 0; i < 10; i++){
+            again = again.differentiate('x');
+        }
+        assertSame("equal derivatives should be the same object", derivative, again);
+    }
+
+    //--------------------------------TESTING FOR HASH-CONSING ENDS----------------------------------//
+
+    //--------------------------------TESTING FOR SIMPLIFY STARTS----------------------------------//
+
+    //covers case where expression is a number only, constant sum, product and exponent
+    @Test
+    public void testSimplifyConstants(){
+        assertEquals("number should not change", Expression.make("6.031"), Expression.make("6.031").simplify());
+        assertEquals("constant sum should be folded", Expression.make("5.5"),
+                Expression.parse("2 + 3.5").simplify());
+        assertEquals("constant product should be folded", Expression.make("7"),
+                Expression.parse("3.5 * 2").simplify());
+        assertEquals("constant exponent should be folded", Expression.make("1024"),
+                Expression.parse("(1+1)^10").simplify());
+    }
+
+    //covers case where expression has identities 0+e, e+0, 1*e, e*1, 0*e, e^0, e^1, (e^p)^q
+    @Test
+    public void testSimplifyIdentities(){
+        Expression x = Expression.make('x');
+        assertEquals("0+e should be e", x, Expression.parse("0 + x").simplify());
+        assertEquals("e+0 should be e", x, Expression.parse("x + 0").simplify());
+        assertEquals("1*e should be e", x, Expression.parse("1 * x").simplify());
+        assertEquals("e*1 should be e", x, Expression.parse("x * 1").simplify());
+        assertEquals("0*e should be 0", Expression.make("0"), Expression.parse("0 * (x + y)").simplify());
+        assertEquals("e^0 should be 1", Expression.make("1"), Expression.parse("(x + y)^0").simplify());
+        assertEquals("e^1 should be e", x, Expression.parse("x^1").simplify());
+        assertEquals("(e^p)^q should be e^(p*q)", Expression.power(x, 6), Expression.parse("(x^2)^3").simplify());
+    }
+
+    //covers case where expression has like terms and like factors
+    @Test
+    public void testSimplifyLikeTerms(){
+        assertEquals("like terms should be collected", "(3)*(x)", Expression.parse("x + 2*x").simplify().toString());
+        assertEquals("like terms in different order should be collected", "(2)*((x)*(y))",
+                Expression.parse("x*y + y*x").simplify().toString());
+        assertEquals("like factors should be merged", "(x)^3", Expression.parse("x * x^2").simplify().toString());
+        assertEquals("power of product should be distributed", "(4)*((x)^2)",
+                Expression.parse("(2*x)^2").simplify().toString());
+    }
+
+    //covers case where nested sums and products are flattened,
+    //           sums of unlike terms and products with sum factors are left alone
+    @Test
+    public void testSimplifyFlattens(){
+        assertEquals("nested sums should be flattened", "(((x)+(y))+(z))+(3)",
+                Expression.parse("(x + 1) + ((y + 2) + z)").simplify().toString());
+        assertEquals("nested products should be flattened", "(6)*(((x)*(y))*(z))",
+                Expression.parse("(x * 2) * ((y * 3) * z)").simplify().toString());
+        assertEquals("products should not be distributed", "(x)*((y)+(1))",
+                Expression.parse("x * (y + 1)").simplify().toString());
+    }
+
+    //covers case where value is unchanged by simplification
+    @Test
+    public void testSimplifyValue(){
+        Map<String,BigDecimal> environment = new HashMap<>();
+        environment.put("x", new BigDecimal("1.5"));
+        environment.put("y", new BigDecimal("4"));
+        Expression expression = Expression.parse("(x*y + 2) * (x + y)^2 * x + 3*y*x*y + 0*x");
+        Expression derivative = expression.differentiate('x');
+        BigDecimal expected = derivative.numberify(environment).evaluate();
+        BigDecimal actual = derivative.simplify().numberify(environment).evaluate();
+        assertEquals("simplified value not as expected", 0, expected.compareTo(actual));
+        assertTrue("simplified derivative should be shorter",
+                derivative.simplify().toString().length() < derivative.toString().length());
+    }
+
+    //covers case where a merged power would overflow an int
+    @Test
+    public void testSimplifyPowerOverflow(){
+        assertEquals("power of a power should stay nested", "((x)^65536)^65536",
+                Expression.parse("(x^65536)^65536").simplify().toString());
+        assertEquals("like factors should stay apart", "((x)^2000000000)*((x)^2000000000)",
+                Expression.parse("x^2000000000 * x^2000000000").simplify().toString());
+        assertEquals("derivative by another variable should be 0", "0",
+                Commands.differentiate("(x^65536)^65536", "y"));
+    }
+
+    //covers case where a folded constant would exceed MAX_FOLDED_DIGITS by a power
+    @Test(timeout = 10000)
+    public void testSimplifyFoldingLimit(){
+        assertEquals("large power of a number should not be folded", "(x)*((3)^2000000)",
+                Expression.parse("3^2000000 * x").simplify().toString());
+        assertEquals("derivative should keep the power unfolded", "(3)^2000000",
+                Commands.differentiate("3^2000000*x", "x"));
+        assertEquals("small power of a number should be folded", "(1024)*(x)",
+                Expression.parse("2^10 * x").simplify().toString());
+        assertEquals("powers of 0 and 1 should be folded", "(x)+(1)",
+                Expression.parse("0^2000000 + x + 1^2000000").simplify().toString());
+    }
+
+    //covers case where a folded constant would exceed MAX_FOLDED_DIGITS by a product of numbers
+    @Test(timeout = 10000)
+    public void testSimplifyProductFoldingLimit(){
+        final StringBuilder digits = new StringBuilder();
+        while (digits.length() < Simplifier.MAX_FOLDED_DIGITS * 3 / 4){
+            digits.append('9');
+        }
+        final String large = digits.toString();
+        assertEquals("second large number should not be folded", "(" + large + ")*((x)*(" + large + "))",
+                Expression.parse(large + " * " + large + " * x").simplify().toString());
+        assertEquals("equal unfolded numbers should be merged", "(" + large + ")*((x)*((" + large + ")^2))",
+                Expression.parse(large + " * x * " + large + " * " + large).simplify().toString());
+        final StringBuilder product = new StringBuilder("y");
+        for (int i = 0; i < 100; i++){
+            product.append(" * ").append(large);
+        }
+        final Expression simplified = Expression.parse(product.toString()).simplify();
+        assertTrue("product should stay within the folding limit",
+                simplified.toString().length() < 3 * Simplifier.MAX_FOLDED_DIGITS);
+    }
+
+    //--------------------------------TESTING FOR SIMPLIFY ENDS----------------------------------//
+
+    //--------------------------------TESTING FOR GRADIENT STARTS----------------------------------//
+
+    //covers case where the same derivative is taken twice
+    @Test
+    public void testDifferentiateMemoized(){
+        Expression expression = Expression.parse("(x*y + 2) * (x + y)^2 * x");
+        Expression derivative = expression.differentiate('y');
+        assertSame("repeated derivative should be the same object", derivative, expression.differentiate('y'));
+        assertSame("derivative of an equal expression should be the same object", derivative,
+                Expression.parse("(x*y + 2) * (x + y)^2 * x").differentiate('y'));
+    }
+
+    //covers case where there are > 1 variables, a variable not in the expression,
+    //           gradient agrees with differentiate()
+    @Test
+    public void testGradientAgreesWithDifferentiate(){
+        Expression expression = Expression.parse("3*x^4*y + 2*x*y*y + 7*x + y^3 + 5");
+        Map<Character, Expression> gradient = Expression.gradient(expression, new HashSet<>(Arrays.asList('y', 'x', 'z')));
+        assertEquals("variables not in alphabetical order", Arrays.asList('x', 'y', 'z'), new ArrayList<>(gradient.keySet()));
+        for (char variable : gradient.keySet()){
+            assertSame("partial derivative by " + variable + " not as expected",
+                    expression.differentiate(variable), gradient.get(variable));
+        }
+        assertEquals("partial derivative by z not as expected", "0", gradient.get('z').simplify().toString());
+    }
+
+    //covers case where variables is empty or has one variable, gradient is unmodifiable
+    @Test
+    public void testGradientEmptyAndSingle(){
+        Expression expression = Expression.parse("x*x");
+        assertTrue("expected no partial derivatives", Expression.gradient(expression, Collections.emptySet()).isEmpty());
+        Map<Character, Expression> gradient = Expression.gradient(expression, Collections.singleton('x'));
+        assertEquals("expected one partial derivative", 1, gradient.size());
+        assertEquals("partial derivative not as expected", "((x)*(1))+((x)*(1))", gradient.get('x').toString());
+        try {
+            gradient.put('y', expression);
+            fail("gradient should be unmodifiable");
+        } catch (UnsupportedOperationException e){
+            // expected
+        }
+    }
+
+    //covers case where high-order derivatives and gradients of a large expression are taken
+    @Test(timeout = 10000)
+    public void testGradientLarge(){
+        StringBuilder polynomial = new StringBuilder("1");
+        String variables = "abcdefghij";
+        for (int i = 0; i < variables.length(); i++){
+            for (int j = i; j < variables.length(); j++){
+                polynomial.append(" + ").append(i + j).append('*').append(variables.charAt(i))
+                        .append('*').append(variables.charAt(j)).append("^").append(j - i + 1);
+            }
+        }
+        Expression expression = Expression.parse(polynomial.toString());
+        Set<Character> all = new HashSet<>();
+        for (char variable : variables.toCharArray()){
+            all.add(variable);
+        }
+        Map<Character, Expression> gradient = Expression.gradient(expression, all);
+        for (Expression partial : gradient.values()){
+            Map<Character, Expression> second = Expression.gradient(partial, all);
+            assertEquals("expected one second partial per variable", variables.length(), second.size());
+        }
+        Expression derivative = expression;
+        for (int i = 0; i < 10; i++){
+            derivative = derivative.differentiate('j');
+        }
+        assertEquals("10th derivative not as expected", "(" + 9 * 3628800 + ")*(a)", derivative.simplify().toString());
+    }
+
+    //--------------------------------TESTING FOR GRADIENT ENDS----------------------------------//
+
 
 
 
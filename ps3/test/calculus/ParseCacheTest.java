@@ -0,0 +1,176 @@
+/* Copyright (c) 2015-2017 MIT 6.005/6.031 course staff, all rights reserved.
+ * Redistribution of original or derived work requires permission of course staff.
+ */
+package calculus;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Tests for ParseCache.
+ */
+public class ParseCacheTest {
+
+    /*
+     * Testing strategy for ParseCacheTest:
+     * ==============================================================
+     * ParseCache(int maxSize, boolean simplify):
+     *      - maxSize is 1, > 1, not positive
+     *      - simplify is true, false
+     * parse(String input), hits(), misses(), size(), clear():
+     *      - input is in the cache, is not in the cache
+     *      - input differs from a cached input only in whitespace
+     *      - input is invalid
+     *      - cache is full: least recently used entry is evicted
+     *      - called from several threads at once
+     * normalize(String input):
+     *      - no whitespace, leading and trailing whitespace, runs of whitespace
+     *      - whitespace between two digits or decimal points, between other tokens
+     * shared():
+     *      - Commands parses through it
+     * ==============================================================
+     */
+
+    @Test(expected=AssertionError.class)
+    public void testAssertionsEnabled() {
+        assert false; // make sure assertions are enabled with VM argument: -ea
+    }
+
+    //covers case where maxSize is not positive
+    @Test(expected=IllegalArgumentException.class)
+    public void testParseCacheInvalidSize(){
+        new ParseCache(0, false);
+    }
+
+    //covers case where input is not in the cache, is in the cache, simplify is false
+    @Test
+    public void testParseHitAndMiss(){
+        ParseCache cache = new ParseCache(4, false);
+        Expression first = cache.parse("x * 1 + 2");
+        assertEquals("first parse should miss", 1, cache.misses());
+        assertEquals("first parse should not hit", 0, cache.hits());
+        assertEquals("parsed expression not as expected", Expression.parse("x * 1 + 2"), first);
+
+        Expression second = cache.parse("x * 1 + 2");
+        assertSame("second parse should return the cached expression", first, second);
+        assertEquals("second parse should hit", 1, cache.hits());
+        assertEquals("second parse should not miss", 1, cache.misses());
+        assertEquals("expected one entry", 1, cache.size());
+    }
+
+    //covers case where input differs from a cached input only in whitespace
+    @Test
+    public void testParseWhitespace(){
+        ParseCache cache = new ParseCache(4, false);
+        Expression first = cache.parse("x*1+2");
+        Expression second = cache.parse("  x * 1\t+\n2 ");
+        assertSame("inputs differing in whitespace should share an entry", first, second);
+        assertEquals("expected one hit", 1, cache.hits());
+    }
+
+    //covers case where simplify is true
+    @Test
+    public void testParseSimplify(){
+        ParseCache cache = new ParseCache(4, true);
+        assertEquals("cached expression should be simplified", Expression.parse("x + 2"), cache.parse("x * 1 + 2"));
+    }
+
+    //covers case where input is invalid
+    @Test
+    public void testParseInvalid(){
+        ParseCache cache = new ParseCache(4, false);
+        for (int i = 0; i < 2; i++){
+            try {
+                cache.parse("2 3");
+                fail("expected IllegalArgumentException");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        assertEquals("invalid inputs should not be cached", 0, cache.size());
+        assertEquals("invalid inputs should count as misses", 2, cache.misses());
+    }
+
+    //covers case where cache is full, maxSize is 1 and > 1
+    @Test
+    public void testParseEvictsLeastRecentlyUsed(){
+        ParseCache cache = new ParseCache(2, false);
+        cache.parse("a");
+        cache.parse("b");
+        cache.parse("a"); // b is now least recently used
+        cache.parse("c");
+        assertEquals("expected two entries", 2, cache.size());
+        cache.parse("a");
+        assertEquals("a should still be cached", 2, cache.hits());
+        cache.parse("b");
+        assertEquals("b should have been evicted", 4, cache.misses());
+
+        ParseCache single = new ParseCache(1, false);
+        single.parse("a");
+        single.parse("b");
+        single.parse("a");
+        assertEquals("expected only misses", 3, single.misses());
+        assertEquals("expected one entry", 1, single.size());
+    }
+
+    //covers case clear()
+    @Test
+    public void testClear(){
+        ParseCache cache = new ParseCache(2, false);
+        cache.parse("a");
+        cache.parse("a");
+        cache.clear();
+        assertEquals("expected no entries", 0, cache.size());
+        assertEquals("expected no hits", 0, cache.hits());
+        assertEquals("expected no misses", 0, cache.misses());
+    }
+
+    //covers case where called from several threads at once
+    @Test
+    public void testParseConcurrent() throws InterruptedException {
+        final ParseCache cache = new ParseCache(8, false);
+        final int threads = 4;
+        final int calls = 2000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++){
+            Thread worker = new Thread(() -> {
+                for (int i = 0; i < calls; i++){
+                    Expression expression = cache.parse("x^" + (i % 12) + " + y");
+                    assertEquals(Expression.parse("x^" + (i % 12) + " + y"), expression);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers){
+            worker.join();
+        }
+        assertEquals("every call should be counted", threads * calls, cache.hits() + cache.misses());
+        assertTrue("size should stay bounded", cache.size() <= 8);
+    }
+
+    //covers case no whitespace, leading and trailing whitespace, runs of whitespace,
+    //           whitespace between two digits or decimal points, between other tokens
+    @Test
+    public void testNormalize(){
+        String plain = "(x+2)*y";
+        assertSame("input without whitespace should be returned as is", plain, ParseCache.normalize(plain));
+        assertEquals("whitespace between tokens should be removed", "(x+2)*y", ParseCache.normalize(" ( x +\t2 ) *\r\n y "));
+        assertEquals("whitespace inside a number should be kept", "2 3", ParseCache.normalize("2 \t 3"));
+        assertEquals("whitespace next to a decimal point should be kept", "2 . 3", ParseCache.normalize("2  .  3"));
+        assertEquals("whitespace between variables should be removed", "xy", ParseCache.normalize("x y"));
+    }
+
+    //covers case Commands parses through shared()
+    @Test
+    public void testShared(){
+        long hits = ParseCache.shared().hits();
+        Commands.differentiate("q*q + 6031", "q");
+        Commands.differentiate("q * q + 6031", "q");
+        assertTrue("second command should hit the shared cache", ParseCache.shared().hits() > hits);
+    }
+}